@@ -13,9 +13,12 @@
 
 package org.eclipse.jetty.annotations;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -73,6 +76,7 @@ public class AnnotationConfiguration extends AbstractConfiguration
     public static final String CONTAINER_INITIALIZER_STARTER = "org.eclipse.jetty.containerInitializerStarter";
     public static final String MULTI_THREADED = "org.eclipse.jetty.annotations.multiThreaded";
     public static final String MAX_SCAN_WAIT = "org.eclipse.jetty.annotations.maxWait";
+    public static final String SCAN_CACHE = "org.eclipse.jetty.annotations.scanCache";
 
     public static final int DEFAULT_MAX_SCAN_WAIT = 60; /* time in sec */
     public static final boolean DEFAULT_MULTI_THREADED = true;
@@ -145,6 +149,8 @@ public class AnnotationConfiguration extends AbstractConfiguration
         protected final Set<? extends Handler> _handlers;
         protected final Resource _resource;
         protected TimeStatistic _stat;
+        protected AnnotationScanCache _scanCache;
+        protected boolean _cached;
 
         public ParserTask(AnnotationParser parser, Set<? extends Handler> handlers, Resource resource)
         {
@@ -158,13 +164,34 @@ public class AnnotationConfiguration extends AbstractConfiguration
             _stat = stat;
         }
 
+        /**
+         * @param scanCache the cache to use to parse the resource, or null to always parse it
+         */
+        public void setScanCache(AnnotationScanCache scanCache)
+        {
+            _scanCache = scanCache;
+        }
+
+        /**
+         * @return whether the scan results were replayed from the {@link AnnotationScanCache}
+         */
+        public boolean isCached()
+        {
+            return _cached;
+        }
+
         @Override
         public Void call() throws Exception
         {
             if (_stat != null)
                 _stat.start();
             if (_parser != null)
-                _parser.parse(_handlers, _resource);
+            {
+                if (_scanCache != null && _scanCache.isCacheable(_resource))
+                    _cached = _scanCache.parse(_parser, _handlers, _resource);
+                else
+                    _parser.parse(_handlers, _resource);
+            }
             if (_stat != null)
                 _stat.end();
             return null;
@@ -327,6 +354,30 @@ public class AnnotationConfiguration extends AbstractConfiguration
         _discoverableAnnotationHandlers.add(handler);
     }
 
+    /**
+     * Get the cache of the annotation scanning results, if configured.
+     *
+     * @param context the context of the scan cache setting
+     * @param javaPlatform the java platform to scan for
+     * @return the cache configured as a directory on the context, or server, or via a System property, or null if no cache is configured.
+     * @see #SCAN_CACHE
+     */
+    protected AnnotationScanCache getScanCache(WebAppContext context, int javaPlatform)
+    {
+        //try context attribute, then server attribute, then system property to get the cache directory
+        Object o = context.getAttribute(SCAN_CACHE);
+        if (o == null)
+            o = context.getServer().getAttribute(SCAN_CACHE);
+        if (o == null)
+            o = System.getProperty(SCAN_CACHE);
+        if (o == null || StringUtil.isBlank(o.toString()))
+            return null;
+        if (o instanceof AnnotationScanCache)
+            return (AnnotationScanCache)o;
+        Path directory = o instanceof Path ? (Path)o : o instanceof File ? ((File)o).toPath() : Paths.get(o.toString());
+        return new AnnotationScanCache(directory, javaPlatform);
+    }
+
     @Override
     public void configure(WebAppContext context) throws Exception
     {
@@ -440,6 +491,17 @@ public class AnnotationConfiguration extends AbstractConfiguration
         //scan non-excluded, non medatadata-complete jars in web-inf lib
         parseWebInfLib(context, parser);
 
+        AnnotationScanCache scanCache = getScanCache(context, javaPlatform);
+        if (scanCache != null)
+        {
+            for (ParserTask task : _parserTasks)
+            {
+                task.setScanCache(scanCache);
+                if (task.getStatistic() == null)
+                    task.setStatistic(new TimeStatistic());
+            }
+        }
+
         long start = System.nanoTime();
 
         //execute scan, either effectively synchronously (1 thread only), or asynchronously (limited by number of processors available) 
@@ -479,10 +541,15 @@ public class AnnotationConfiguration extends AbstractConfiguration
         if (LOG.isDebugEnabled())
         {
             LOG.debug("Annotation scanning elapsed time={}ms", elapsedMs);
+            int cached = 0;
             for (ParserTask p : _parserTasks)
             {
-                LOG.debug("Scanned {} in {}ms", p.getResource(), TimeUnit.MILLISECONDS.convert(p.getStatistic().getElapsed(), TimeUnit.NANOSECONDS));
+                if (p.isCached())
+                    ++cached;
+                LOG.debug("Scanned {} in {}ms{}", p.getResource(), TimeUnit.MILLISECONDS.convert(p.getStatistic().getElapsed(), TimeUnit.NANOSECONDS), p.isCached() ? " (cached)" : "");
             }
+            if (scanCache != null)
+                LOG.debug("Replayed {}/{} scans from {}", cached, _parserTasks.size(), scanCache);
 
             LOG.debug("Scanned {} container path jars, {} WEB-INF/lib jars, {} WEB-INF/classes dirs in {}ms for context {}",
                 (_containerPathStats == null ? -1 : _containerPathStats.getTotal()),
@@ -0,0 +1,537 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.annotations;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jetty.annotations.AnnotationParser.ClassInfo;
+import org.eclipse.jetty.annotations.AnnotationParser.FieldInfo;
+import org.eclipse.jetty.annotations.AnnotationParser.Handler;
+import org.eclipse.jetty.annotations.AnnotationParser.MethodInfo;
+import org.eclipse.jetty.util.JavaVersion;
+import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>An on-disk cache of the results of {@link AnnotationParser parsing} jars for annotations.</p>
+ * <p>When a jar is parsed, all the events generated by the parser (classes with their
+ * hierarchy, the methods and fields, and their annotations) are recorded in
+ * a cache file whose name is derived from the SHA-256 digest of the jar content,
+ * the target java platform and the cache format.
+ * When the same jar content is parsed again, possibly by a different webapp or
+ * by a different server sharing the cache directory, the events are replayed from
+ * the cache file to the handlers, without reading the classes with ASM.</p>
+ * <p>Cache entries are naturally invalidated per jar: a jar whose content changes has a
+ * different digest, so it is parsed again and a new cache file is written; stale cache
+ * files are never read and can be deleted at any time.
+ * Cache files are written to a temporary file and atomically moved in place, so
+ * the cache directory can be shared between concurrent servers.</p>
+ * <p>Only jar files are cached; directories such as {@code WEB-INF/classes} are always parsed.</p>
+ *
+ * @see AnnotationConfiguration#SCAN_CACHE
+ */
+public class AnnotationScanCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AnnotationScanCache.class);
+    private static final int MAGIC = 0x4A415343;
+    private static final int FORMAT = 2;
+    private static final byte END = 0;
+    private static final byte CLASS = 1;
+    private static final byte CLASS_ANNOTATION = 2;
+    private static final byte METHOD = 3;
+    private static final byte METHOD_ANNOTATION = 4;
+    private static final byte FIELD = 5;
+    private static final byte FIELD_ANNOTATION = 6;
+    private static final byte METHOD_INFO = 7;
+    private static final byte FIELD_INFO = 8;
+
+    private final Path directory;
+    private final int javaPlatform;
+
+    /**
+     * @param directory the directory where the cache files are stored
+     * @param javaPlatform the target java platform of the parsing, or 0 for the current runtime
+     */
+    public AnnotationScanCache(Path directory, int javaPlatform)
+    {
+        this.directory = directory;
+        this.javaPlatform = javaPlatform == 0 ? JavaVersion.VERSION.getPlatform() : javaPlatform;
+    }
+
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * @param resource the resource to parse
+     * @return whether the parse results of the given resource can be cached
+     */
+    public boolean isCacheable(Resource resource)
+    {
+        try
+        {
+            return resource != null && resource.toString().endsWith(".jar") && resource.getFile() != null && !resource.isDirectory();
+        }
+        catch (IOException x)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * <p>Parses the given jar, either replaying the events from the cache if
+     * the jar has already been parsed, or parsing it with the given parser
+     * and storing the events in the cache.</p>
+     *
+     * @param parser the parser to use in case of cache miss
+     * @param handlers the handlers to notify
+     * @param jar the jar to parse
+     * @return whether the events were replayed from the cache
+     * @throws Exception if the parsing fails
+     */
+    public boolean parse(AnnotationParser parser, Set<? extends Handler> handlers, Resource jar) throws Exception
+    {
+        File file = jar.getFile();
+        Path cacheFile = directory.resolve(key(file.toPath()) + ".scan");
+        if (replay(parser, handlers, jar, cacheFile))
+            return true;
+
+        Recorder recorder = new Recorder();
+        Set<Handler> recordingHandlers = new HashSet<>(handlers);
+        recordingHandlers.add(recorder);
+        parser.parse(recordingHandlers, jar);
+        store(recorder, cacheFile);
+        return false;
+    }
+
+    private String key(Path jar) throws IOException
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream input = new DigestInputStream(Files.newInputStream(jar), digest))
+            {
+                byte[] buffer = new byte[8192];
+                while (true)
+                {
+                    if (input.read(buffer) < 0)
+                        break;
+                }
+            }
+            return TypeUtil.toHexString(digest.digest()) + "-" + javaPlatform + "-" + FORMAT;
+        }
+        catch (NoSuchAlgorithmException x)
+        {
+            throw new IOException(x);
+        }
+    }
+
+    private boolean replay(AnnotationParser parser, Set<? extends Handler> handlers, Resource jar, Path cacheFile)
+    {
+        byte[] bytes;
+        try
+        {
+            bytes = Files.readAllBytes(cacheFile);
+        }
+        catch (NoSuchFileException x)
+        {
+            return false;
+        }
+        catch (IOException x)
+        {
+            LOG.warn("Unable to read annotation scan cache file {}", cacheFile, x);
+            return false;
+        }
+
+        // Decode the whole cache file before notifying the handlers,
+        // so that an invalid cache file is just a cache miss.
+        List<Event> events = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes)))
+        {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT)
+                return false;
+
+            String jarURI = "jar:" + jar.getURI() + "!/";
+            ClassInfo classInfo = null;
+            MethodInfo methodInfo = null;
+            FieldInfo fieldInfo = null;
+            boolean end = false;
+            while (!end)
+            {
+                byte type = input.readByte();
+                switch (type)
+                {
+                    case END:
+                        if (input.read() >= 0)
+                            throw new IOException("Trailing bytes");
+                        end = true;
+                        break;
+                    case CLASS:
+                    {
+                        ClassInfo info = new ClassInfo(jar, input.readUTF(), input.readInt(), input.readInt(), readString(input), readString(input), readStrings(input));
+                        Resource location = Resource.newResource(jarURI + TypeUtil.toClassReference(info.getClassName()));
+                        events.add((p, hs) ->
+                        {
+                            p.addParsedClass(info.getClassName(), location);
+                            hs.forEach(h -> h.handle(info));
+                        });
+                        classInfo = info;
+                        methodInfo = null;
+                        fieldInfo = null;
+                        break;
+                    }
+                    case CLASS_ANNOTATION:
+                    {
+                        ClassInfo info = requireInfo(classInfo, type);
+                        String annotation = input.readUTF();
+                        events.add((p, hs) -> hs.forEach(h -> h.handle(info, annotation)));
+                        break;
+                    }
+                    case METHOD:
+                        methodInfo = new MethodInfo(requireInfo(classInfo, type), input.readUTF(), input.readInt(), input.readUTF(), readString(input), readStrings(input));
+                        break;
+                    case METHOD_INFO:
+                    {
+                        MethodInfo info = requireInfo(methodInfo, type);
+                        events.add((p, hs) -> hs.forEach(h -> h.handle(info)));
+                        break;
+                    }
+                    case METHOD_ANNOTATION:
+                    {
+                        MethodInfo info = requireInfo(methodInfo, type);
+                        String annotation = input.readUTF();
+                        events.add((p, hs) -> hs.forEach(h -> h.handle(info, annotation)));
+                        break;
+                    }
+                    case FIELD:
+                        fieldInfo = new FieldInfo(requireInfo(classInfo, type), input.readUTF(), input.readInt(), input.readUTF(), readString(input), readValue(input));
+                        break;
+                    case FIELD_INFO:
+                    {
+                        FieldInfo info = requireInfo(fieldInfo, type);
+                        events.add((p, hs) -> hs.forEach(h -> h.handle(info)));
+                        break;
+                    }
+                    case FIELD_ANNOTATION:
+                    {
+                        FieldInfo info = requireInfo(fieldInfo, type);
+                        String annotation = input.readUTF();
+                        events.add((p, hs) -> hs.forEach(h -> h.handle(info, annotation)));
+                        break;
+                    }
+                    default:
+                        throw new IOException("Invalid cache record " + type);
+                }
+            }
+        }
+        catch (IOException | RuntimeException x)
+        {
+            LOG.warn("Invalid annotation scan cache file {} for {}", cacheFile, jar, x);
+            return false;
+        }
+
+        for (Event event : events)
+        {
+            event.replay(parser, handlers);
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("Replayed {} from {}", jar, cacheFile);
+        return true;
+    }
+
+    private static <T> T requireInfo(T info, byte type) throws IOException
+    {
+        if (info == null)
+            throw new IOException("Unexpected cache record " + type);
+        return info;
+    }
+
+    private void store(Recorder recorder, Path cacheFile)
+    {
+        Path tmp = null;
+        try
+        {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+            try (OutputStream output = Files.newOutputStream(tmp))
+            {
+                recorder.writeTo(output);
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Stored {}", cacheFile);
+        }
+        catch (IOException x)
+        {
+            LOG.warn("Unable to store annotation scan cache file {}", cacheFile, x);
+            try
+            {
+                if (tmp != null)
+                    Files.deleteIfExists(tmp);
+            }
+            catch (IOException ignored)
+            {
+                // Ignored.
+            }
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException
+    {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException
+    {
+        output.writeBoolean(string != null);
+        if (string != null)
+            output.writeUTF(string);
+    }
+
+    private static String[] readStrings(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0)
+            return null;
+        String[] strings = new String[length];
+        for (int i = 0; i < length; ++i)
+        {
+            strings[i] = input.readUTF();
+        }
+        return strings;
+    }
+
+    private static void writeStrings(DataOutputStream output, String[] strings) throws IOException
+    {
+        output.writeInt(strings == null ? -1 : strings.length);
+        if (strings != null)
+        {
+            for (String string : strings)
+            {
+                output.writeUTF(string);
+            }
+        }
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException
+    {
+        switch (input.readByte())
+        {
+            case 'I':
+                return input.readInt();
+            case 'J':
+                return input.readLong();
+            case 'F':
+                return input.readFloat();
+            case 'D':
+                return input.readDouble();
+            case 'S':
+                return input.readUTF();
+            default:
+                return null;
+        }
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException
+    {
+        if (value instanceof Integer)
+        {
+            output.writeByte('I');
+            output.writeInt((Integer)value);
+        }
+        else if (value instanceof Long)
+        {
+            output.writeByte('J');
+            output.writeLong((Long)value);
+        }
+        else if (value instanceof Float)
+        {
+            output.writeByte('F');
+            output.writeFloat((Float)value);
+        }
+        else if (value instanceof Double)
+        {
+            output.writeByte('D');
+            output.writeDouble((Double)value);
+        }
+        else if (value instanceof String)
+        {
+            output.writeByte('S');
+            output.writeUTF((String)value);
+        }
+        else
+        {
+            output.writeByte(0);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[%s]", getClass().getSimpleName(), hashCode(), directory);
+    }
+
+    /**
+     * <p>A {@link Handler} that records the parser events, in the order they are generated.</p>
+     */
+    private static class Recorder implements Handler
+    {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream output = new DataOutputStream(bytes);
+        private IOException failure;
+        private MethodInfo methodInfo;
+        private FieldInfo fieldInfo;
+
+        @Override
+        public void handle(ClassInfo classInfo)
+        {
+            record(CLASS, () ->
+            {
+                output.writeUTF(classInfo.getClassName());
+                output.writeInt(classInfo.getVersion());
+                output.writeInt(classInfo.getAccess());
+                writeString(output, classInfo.getSignature());
+                writeString(output, classInfo.getSuperName());
+                writeStrings(output, classInfo.getInterfaces());
+            });
+        }
+
+        @Override
+        public void handle(MethodInfo info)
+        {
+            define(info);
+            record(METHOD_INFO, null);
+        }
+
+        @Override
+        public void handle(FieldInfo info)
+        {
+            define(info);
+            record(FIELD_INFO, null);
+        }
+
+        @Override
+        public void handle(ClassInfo info, String annotationName)
+        {
+            record(CLASS_ANNOTATION, () -> output.writeUTF(annotationName));
+        }
+
+        @Override
+        public void handle(MethodInfo info, String annotationName)
+        {
+            define(info);
+            record(METHOD_ANNOTATION, () -> output.writeUTF(annotationName));
+        }
+
+        @Override
+        public void handle(FieldInfo info, String annotationName)
+        {
+            define(info);
+            record(FIELD_ANNOTATION, () -> output.writeUTF(annotationName));
+        }
+
+        private void define(MethodInfo info)
+        {
+            if (methodInfo == info)
+                return;
+            methodInfo = info;
+            record(METHOD, () ->
+            {
+                output.writeUTF(info.getMethodName());
+                output.writeInt(info.getAccess());
+                output.writeUTF(info.getDesc());
+                writeString(output, info.getSignature());
+                writeStrings(output, info.getExceptions());
+            });
+        }
+
+        private void define(FieldInfo info)
+        {
+            if (fieldInfo == info)
+                return;
+            fieldInfo = info;
+            record(FIELD, () ->
+            {
+                output.writeUTF(info.getFieldName());
+                output.writeInt(info.getAccess());
+                output.writeUTF(info.getFieldType());
+                writeString(output, info.getSignature());
+                writeValue(output, info.getValue());
+            });
+        }
+
+        private void record(byte type, Record record)
+        {
+            if (failure != null)
+                return;
+            try
+            {
+                output.writeByte(type);
+                if (record != null)
+                    record.write();
+            }
+            catch (IOException x)
+            {
+                failure = x;
+            }
+        }
+
+        private void writeTo(OutputStream stream) throws IOException
+        {
+            if (failure != null)
+                throw failure;
+            output.writeByte(END);
+            output.flush();
+            DataOutputStream header = new DataOutputStream(new BufferedOutputStream(stream));
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT);
+            bytes.writeTo(header);
+            header.flush();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Record
+    {
+        void write() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Event
+    {
+        void replay(AnnotationParser parser, Set<? extends Handler> handlers);
+    }
+}
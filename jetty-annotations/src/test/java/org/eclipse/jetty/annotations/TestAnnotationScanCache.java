@@ -0,0 +1,168 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.annotations;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jetty.annotations.AnnotationParser.ClassInfo;
+import org.eclipse.jetty.annotations.AnnotationParser.FieldInfo;
+import org.eclipse.jetty.annotations.AnnotationParser.Handler;
+import org.eclipse.jetty.annotations.AnnotationParser.MethodInfo;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.resource.Resource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WorkDirExtension.class)
+public class TestAnnotationScanCache
+{
+    public WorkDir workDir;
+
+    public static class RecordingHandler extends AnnotationParser.AbstractHandler
+    {
+        public final List<String> events = new ArrayList<>();
+
+        @Override
+        public void handle(ClassInfo info)
+        {
+            events.add("class " + info.getClassName() + " " + info.getSuperName() + " " + info.getAccess() + " " + info.getContainingResource());
+        }
+
+        @Override
+        public void handle(ClassInfo info, String annotation)
+        {
+            events.add("class @" + annotation + " " + info.getClassName());
+        }
+
+        @Override
+        public void handle(MethodInfo info, String annotation)
+        {
+            events.add("method @" + annotation + " " + info.getClassInfo().getClassName() + "." + info.getMethodName() + info.getDesc() + " " + info.getAccess());
+        }
+
+        @Override
+        public void handle(FieldInfo info, String annotation)
+        {
+            events.add("field @" + annotation + " " + info.getClassInfo().getClassName() + "." + info.getFieldName() + " " + info.getFieldType() + " " + info.getValue());
+        }
+    }
+
+    @Test
+    public void testParseThenReplay() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path cacheDir = dir.resolve("cache");
+        Resource jar = Resource.newResource(createJar(dir.resolve("test.jar"), ClassA.class, ClassB.class, InterfaceD.class));
+        AnnotationScanCache cache = new AnnotationScanCache(cacheDir, 0);
+        assertTrue(cache.isCacheable(jar));
+
+        RecordingHandler parsed = new RecordingHandler();
+        AnnotationParser parser1 = new AnnotationParser();
+        assertFalse(cache.parse(parser1, Collections.singleton(parsed), jar));
+        assertEquals(1, listCacheFiles(cacheDir).size());
+
+        RecordingHandler replayed = new RecordingHandler();
+        AnnotationParser parser2 = new AnnotationParser();
+        assertTrue(cache.parse(parser2, Collections.singleton(replayed), jar));
+
+        assertThat(parsed.events, hasItem("class @" + Sample.class.getName() + " " + ClassA.class.getName()));
+        assertEquals(parsed.events, replayed.events);
+        assertEquals(parser1._parsedClassNames.get(ClassA.class.getName()).toString(), parser2._parsedClassNames.get(ClassA.class.getName()).toString());
+    }
+
+    @Test
+    public void testChangedJarIsParsedAgain() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path cacheDir = dir.resolve("cache");
+        Path jarFile = dir.resolve("test.jar");
+        AnnotationScanCache cache = new AnnotationScanCache(cacheDir, 0);
+        Set<Handler> handlers = Collections.singleton(new RecordingHandler());
+
+        assertFalse(cache.parse(new AnnotationParser(), handlers, Resource.newResource(createJar(jarFile, ClassA.class))));
+        assertTrue(cache.parse(new AnnotationParser(), handlers, Resource.newResource(jarFile)));
+
+        RecordingHandler handler = new RecordingHandler();
+        assertFalse(cache.parse(new AnnotationParser(), Collections.singleton(handler), Resource.newResource(createJar(jarFile, ClassA.class, ClassB.class))));
+        assertThat(handler.events, hasItem("class @" + Sample.class.getName() + " " + ClassB.class.getName()));
+        assertEquals(2, listCacheFiles(cacheDir).size());
+    }
+
+    @Test
+    public void testCorruptedCacheFileIsMiss() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path cacheDir = dir.resolve("cache");
+        Resource jar = Resource.newResource(createJar(dir.resolve("test.jar"), ClassA.class));
+        AnnotationScanCache cache = new AnnotationScanCache(cacheDir, 0);
+
+        RecordingHandler parsed = new RecordingHandler();
+        assertFalse(cache.parse(new AnnotationParser(), Collections.singleton(parsed), jar));
+
+        Path cacheFile = listCacheFiles(cacheDir).get(0);
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        Files.write(cacheFile, Arrays.copyOf(bytes, bytes.length / 2));
+
+        RecordingHandler reparsed = new RecordingHandler();
+        assertFalse(cache.parse(new AnnotationParser(), Collections.singleton(reparsed), jar));
+        assertEquals(parsed.events, reparsed.events);
+        assertTrue(cache.parse(new AnnotationParser(), Collections.singleton(new RecordingHandler()), jar));
+    }
+
+    private static List<Path> listCacheFiles(Path cacheDir) throws Exception
+    {
+        try (Stream<Path> files = Files.list(cacheDir))
+        {
+            return files.filter(p -> p.toString().endsWith(".scan")).collect(Collectors.toList());
+        }
+    }
+
+    private Path createJar(Path jar, Class<?>... classes) throws Exception
+    {
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar)))
+        {
+            for (Class<?> clazz : classes)
+            {
+                String classRef = TypeUtil.toClassReference(clazz);
+                output.putNextEntry(new JarEntry(classRef));
+                try (InputStream input = getClass().getResourceAsStream('/' + classRef))
+                {
+                    IO.copy(input, output);
+                }
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -113,6 +113,7 @@ public class AsyncRequestContent implements Request.Content, Request.Content.Sub
     public void fail(Throwable failure)
     {
         List<Callback> toFail = List.of();
+        boolean produce = false;
         try (AutoLock l = lock.lock())
         {
             if (this.failure == null)
@@ -124,9 +125,17 @@ public class AsyncRequestContent implements Request.Content, Request.Content.Sub
                     .collect(Collectors.toList());
                 chunks.clear();
                 flush.signal();
+                // A consumer that is waiting for content must be notified of the failure.
+                if (demand > 0 && stalled)
+                {
+                    stalled = false;
+                    produce = true;
+                }
             }
         }
         toFail.forEach(c -> c.failed(failure));
+        if (produce)
+            produce();
     }
 
     public boolean offer(ByteBuffer buffer)
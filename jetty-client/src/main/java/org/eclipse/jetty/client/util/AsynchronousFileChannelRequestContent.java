@@ -0,0 +1,228 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.IO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link Request.Content} for files that reads the file via {@link AsynchronousFileChannel}.</p>
+ * <p>Differently from {@link PathRequestContent}, the file is never read by the
+ * thread that demands content: a read is issued and, when it completes, the
+ * buffer is produced as content; the next read is issued only when the previous
+ * buffer has been consumed, so that at most one buffer per request is in use.</p>
+ * <p>If a {@link ByteBufferPool} is provided via {@link #setByteBufferPool(ByteBufferPool)},
+ * the buffers will be acquired from and released to that pool, typically
+ * the {@link org.eclipse.jetty.client.HttpClient#getByteBufferPool() client's pool}.</p>
+ */
+public class AsynchronousFileChannelRequestContent implements Request.Content
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AsynchronousFileChannelRequestContent.class);
+
+    private final String contentType;
+    private final Path filePath;
+    private final long fileSize;
+    private final int bufferSize;
+    private ByteBufferPool bufferPool;
+    private boolean useDirectByteBuffers = true;
+    private volatile Reader reader;
+
+    public AsynchronousFileChannelRequestContent(Path filePath) throws IOException
+    {
+        this(filePath, 4096);
+    }
+
+    public AsynchronousFileChannelRequestContent(Path filePath, int bufferSize) throws IOException
+    {
+        this("application/octet-stream", filePath, bufferSize);
+    }
+
+    public AsynchronousFileChannelRequestContent(String contentType, Path filePath) throws IOException
+    {
+        this(contentType, filePath, 4096);
+    }
+
+    public AsynchronousFileChannelRequestContent(String contentType, Path filePath, int bufferSize) throws IOException
+    {
+        if (!Files.isRegularFile(filePath))
+            throw new NoSuchFileException(filePath.toString());
+        if (!Files.isReadable(filePath))
+            throw new AccessDeniedException(filePath.toString());
+        this.contentType = contentType;
+        this.filePath = filePath;
+        this.fileSize = Files.size(filePath);
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return contentType;
+    }
+
+    @Override
+    public long getLength()
+    {
+        return fileSize;
+    }
+
+    @Override
+    public boolean isReproducible()
+    {
+        return true;
+    }
+
+    public ByteBufferPool getByteBufferPool()
+    {
+        return bufferPool;
+    }
+
+    public void setByteBufferPool(ByteBufferPool byteBufferPool)
+    {
+        this.bufferPool = byteBufferPool;
+    }
+
+    public boolean isUseDirectByteBuffers()
+    {
+        return useDirectByteBuffers;
+    }
+
+    public void setUseDirectByteBuffers(boolean useDirectByteBuffers)
+    {
+        this.useDirectByteBuffers = useDirectByteBuffers;
+    }
+
+    @Override
+    public Subscription subscribe(Consumer consumer, boolean emitInitialContent)
+    {
+        Reader reader = new Reader();
+        this.reader = reader;
+        Subscription subscription = reader.content.subscribe(consumer, emitInitialContent);
+        reader.read();
+        return subscription;
+    }
+
+    @Override
+    public void fail(Throwable failure)
+    {
+        Reader reader = this.reader;
+        if (reader != null)
+            reader.fail(failure);
+    }
+
+    private class Reader implements CompletionHandler<Integer, ByteBuffer>
+    {
+        private final AsyncRequestContent content = new AsyncRequestContent(contentType);
+        private AsynchronousFileChannel channel;
+        private long position;
+
+        private void read()
+        {
+            if (position == fileSize)
+            {
+                IO.close(channel);
+                content.close();
+                return;
+            }
+
+            ByteBuffer buffer = null;
+            try
+            {
+                if (channel == null)
+                {
+                    channel = AsynchronousFileChannel.open(filePath, StandardOpenOption.READ);
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Opened file {}", filePath);
+                }
+                buffer = bufferPool == null
+                    ? BufferUtil.allocate(bufferSize, isUseDirectByteBuffers())
+                    : bufferPool.acquire(bufferSize, isUseDirectByteBuffers());
+                BufferUtil.clearToFill(buffer);
+                channel.read(buffer, position, buffer, this);
+            }
+            catch (Throwable x)
+            {
+                if (buffer != null)
+                    release(buffer);
+                fail(x);
+            }
+        }
+
+        @Override
+        public void completed(Integer read, ByteBuffer buffer)
+        {
+            BufferUtil.flipToFlush(buffer, 0);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Read {} bytes at position {} from {}", read, position, filePath);
+            if (read < 0)
+            {
+                release(buffer);
+                fail(new EOFException("EOF reached for " + filePath));
+                return;
+            }
+
+            position += read;
+            boolean last = position == fileSize;
+            content.offer(buffer, Callback.from(() ->
+            {
+                release(buffer);
+                read();
+            }, x ->
+            {
+                release(buffer);
+                IO.close(channel);
+            }));
+            if (last)
+            {
+                IO.close(channel);
+                content.close();
+            }
+        }
+
+        @Override
+        public void failed(Throwable failure, ByteBuffer buffer)
+        {
+            release(buffer);
+            fail(failure);
+        }
+
+        private void release(ByteBuffer buffer)
+        {
+            if (bufferPool != null)
+                bufferPool.release(buffer);
+        }
+
+        private void fail(Throwable failure)
+        {
+            content.fail(failure);
+            IO.close(channel);
+        }
+    }
+}
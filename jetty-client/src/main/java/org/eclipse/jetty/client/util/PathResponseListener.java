@@ -0,0 +1,129 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.IO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link Response.Listener} that writes the response content to a file
+ * via {@link AsynchronousFileChannel}, and that is completed with the
+ * {@link Response} when the response is complete.</p>
+ * <p>Differently from {@link InputStreamResponseListener}, no thread is
+ * blocked to copy the response content: each content buffer is written
+ * asynchronously, and more content is demanded only when the write completes,
+ * so that the download is subject to the back-pressure of the disk.</p>
+ * <p>Typical usage is:</p>
+ * <pre>
+ * PathResponseListener listener = new PathResponseListener(path);
+ * httpClient.newRequest(host, port).send(listener);
+ * Response response = listener.get(5, TimeUnit.SECONDS);
+ * </pre>
+ */
+public class PathResponseListener extends CompletableFuture<Response> implements Response.Listener
+{
+    private static final Logger LOG = LoggerFactory.getLogger(PathResponseListener.class);
+    private static final OpenOption[] DEFAULT_OPTIONS = {StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING};
+
+    private final Path path;
+    private final OpenOption[] options;
+    private AsynchronousFileChannel channel;
+    private long position;
+
+    /**
+     * @param path the file to write the response content to
+     * @param options the options to open the file with, by default
+     * {@link StandardOpenOption#CREATE}, {@link StandardOpenOption#WRITE} and {@link StandardOpenOption#TRUNCATE_EXISTING}
+     */
+    public PathResponseListener(Path path, OpenOption... options)
+    {
+        this.path = path;
+        this.options = options.length == 0 ? DEFAULT_OPTIONS : options;
+    }
+
+    public Path getPath()
+    {
+        return path;
+    }
+
+    @Override
+    public void onHeaders(Response response)
+    {
+        try
+        {
+            channel = AsynchronousFileChannel.open(path, options);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Opened file {} for {}", path, response);
+        }
+        catch (IOException x)
+        {
+            response.abort(x);
+        }
+    }
+
+    @Override
+    public void onContent(Response response, LongConsumer demand, ByteBuffer content, Callback callback)
+    {
+        channel.write(content, position, content, new CompletionHandler<>()
+        {
+            @Override
+            public void completed(Integer written, ByteBuffer buffer)
+            {
+                position += written;
+                if (buffer.hasRemaining())
+                {
+                    channel.write(buffer, position, buffer, this);
+                }
+                else
+                {
+                    callback.succeeded();
+                    demand.accept(1);
+                }
+            }
+
+            @Override
+            public void failed(Throwable failure, ByteBuffer buffer)
+            {
+                callback.failed(failure);
+                response.abort(failure);
+            }
+        });
+    }
+
+    @Override
+    public void onComplete(Result result)
+    {
+        IO.close(channel);
+        if (LOG.isDebugEnabled())
+            LOG.debug("Written {} bytes to {} for {}", position, path, result);
+        if (result.isSucceeded())
+            complete(result.getResponse());
+        else
+            completeExceptionally(result.getFailure());
+    }
+}
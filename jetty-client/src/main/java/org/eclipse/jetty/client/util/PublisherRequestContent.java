@@ -0,0 +1,118 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.util;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.util.Callback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link Request.Content} that produces the buffers published by a {@link Flow.Publisher}.</p>
+ * <p>The publisher is subscribed to when the request content is subscribed to.
+ * One buffer at a time is requested from the publisher: the next buffer is
+ * requested only when the previous one has been written, so that the publisher
+ * is subject to the back-pressure of the network without blocking any thread.</p>
+ * <p>Published buffers must not be modified by the publisher until they are written,
+ * that is until the next buffer is requested.</p>
+ */
+public class PublisherRequestContent extends AsyncRequestContent
+{
+    private static final Logger LOG = LoggerFactory.getLogger(PublisherRequestContent.class);
+
+    private final Flow.Publisher<ByteBuffer> publisher;
+    private final long length;
+    private volatile Flow.Subscription subscription;
+
+    public PublisherRequestContent(Flow.Publisher<ByteBuffer> publisher)
+    {
+        this("application/octet-stream", publisher);
+    }
+
+    public PublisherRequestContent(String contentType, Flow.Publisher<ByteBuffer> publisher)
+    {
+        this(contentType, -1, publisher);
+    }
+
+    /**
+     * @param contentType the content type
+     * @param length the content length, or -1 if the length is unknown
+     * @param publisher the publisher of the content buffers
+     */
+    public PublisherRequestContent(String contentType, long length, Flow.Publisher<ByteBuffer> publisher)
+    {
+        super(contentType);
+        this.publisher = Objects.requireNonNull(publisher);
+        this.length = length;
+    }
+
+    @Override
+    public long getLength()
+    {
+        return length;
+    }
+
+    @Override
+    public Subscription subscribe(Consumer consumer, boolean emitInitialContent)
+    {
+        Subscription result = super.subscribe(consumer, emitInitialContent);
+        publisher.subscribe(new Subscriber());
+        return result;
+    }
+
+    @Override
+    public void fail(Throwable failure)
+    {
+        super.fail(failure);
+        Flow.Subscription subscription = this.subscription;
+        if (subscription != null)
+            subscription.cancel();
+    }
+
+    private class Subscriber implements Flow.Subscriber<ByteBuffer>
+    {
+        @Override
+        public void onSubscribe(Flow.Subscription flowSubscription)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Subscribed to {} for {}", publisher, PublisherRequestContent.this);
+            subscription = flowSubscription;
+            flowSubscription.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer buffer)
+        {
+            offer(buffer, Callback.from(() -> subscription.request(1), x -> subscription.cancel()));
+        }
+
+        @Override
+        public void onError(Throwable failure)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Publisher {} failed for {}", publisher, PublisherRequestContent.this, failure);
+            PublisherRequestContent.super.fail(failure);
+        }
+
+        @Override
+        public void onComplete()
+        {
+            close();
+        }
+    }
+}
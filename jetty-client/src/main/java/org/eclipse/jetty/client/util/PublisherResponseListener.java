@@ -0,0 +1,221 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.function.LongConsumer;
+
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link Response.Listener} that is also a {@link Flow.Publisher} of the response content.</p>
+ * <p>The response content is demanded from the network only when the
+ * {@link Flow.Subscriber} {@link Flow.Subscription#request(long) requests} it,
+ * so that the response download is subject to the back-pressure of the
+ * subscriber without blocking any thread.</p>
+ * <p>The buffers passed to {@link Flow.Subscriber#onNext(Object)} are only valid
+ * during that call; subscribers that need to retain the bytes must copy them.</p>
+ * <p>The subscriber is notified with {@link Flow.Subscriber#onComplete()} when the
+ * response is successfully completed, and with {@link Flow.Subscriber#onError(Throwable)}
+ * when the response fails. {@link Flow.Subscription#cancel() Cancelling} the
+ * subscription aborts the response.</p>
+ * <p>Only one subscriber is supported.</p>
+ */
+public class PublisherResponseListener implements Response.Listener, Flow.Publisher<ByteBuffer>
+{
+    private static final Logger LOG = LoggerFactory.getLogger(PublisherResponseListener.class);
+
+    private final AutoLock lock = new AutoLock();
+    private Flow.Subscriber<? super ByteBuffer> subscriber;
+    private Response response;
+    private LongConsumer demand;
+    private long requested;
+    private boolean stalled;
+    private Result result;
+    private boolean terminated;
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber)
+    {
+        boolean subscribed;
+        try (AutoLock ignored = lock.lock())
+        {
+            subscribed = this.subscriber == null;
+            if (subscribed)
+                this.subscriber = subscriber;
+        }
+        if (subscribed)
+        {
+            subscriber.onSubscribe(new Subscription());
+            // The response may have already completed.
+            terminate();
+        }
+        else
+        {
+            subscriber.onSubscribe(new Flow.Subscription()
+            {
+                @Override
+                public void request(long n)
+                {
+                }
+
+                @Override
+                public void cancel()
+                {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Multiple subscribers not supported"));
+        }
+    }
+
+    @Override
+    public void onBegin(Response response)
+    {
+        try (AutoLock ignored = lock.lock())
+        {
+            this.response = response;
+        }
+    }
+
+    @Override
+    public void onBeforeContent(Response response, LongConsumer demand)
+    {
+        boolean proceed;
+        try (AutoLock ignored = lock.lock())
+        {
+            this.demand = demand;
+            proceed = requested > 0;
+            stalled = !proceed;
+        }
+        if (proceed)
+            demand.accept(1);
+    }
+
+    @Override
+    public void onContent(Response response, LongConsumer demand, ByteBuffer content, Callback callback)
+    {
+        Flow.Subscriber<? super ByteBuffer> subscriber;
+        try (AutoLock ignored = lock.lock())
+        {
+            subscriber = this.subscriber;
+            --requested;
+        }
+        try
+        {
+            subscriber.onNext(content);
+            callback.succeeded();
+        }
+        catch (Throwable x)
+        {
+            callback.failed(x);
+            response.abort(x);
+            return;
+        }
+
+        boolean proceed;
+        try (AutoLock ignored = lock.lock())
+        {
+            proceed = requested > 0;
+            stalled = !proceed;
+        }
+        if (proceed)
+            demand.accept(1);
+    }
+
+    @Override
+    public void onComplete(Result result)
+    {
+        try (AutoLock ignored = lock.lock())
+        {
+            this.result = result;
+        }
+        terminate();
+    }
+
+    private void terminate()
+    {
+        Flow.Subscriber<? super ByteBuffer> subscriber;
+        Result result;
+        try (AutoLock ignored = lock.lock())
+        {
+            subscriber = this.subscriber;
+            result = this.result;
+            if (subscriber == null || result == null || terminated)
+                return;
+            terminated = true;
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("Terminating {} with {}", subscriber, result);
+        if (result.isSucceeded())
+            subscriber.onComplete();
+        else
+            subscriber.onError(result.getFailure());
+    }
+
+    private class Subscription implements Flow.Subscription
+    {
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0)
+            {
+                cancel(new IllegalArgumentException("Invalid demand " + n));
+                return;
+            }
+
+            LongConsumer demand = null;
+            try (AutoLock ignored = lock.lock())
+            {
+                boolean wasZero = requested == 0;
+                requested += n;
+                // Overflow, treat as unbounded.
+                if (requested < 0)
+                    requested = Long.MAX_VALUE;
+                if (wasZero && stalled)
+                {
+                    stalled = false;
+                    demand = PublisherResponseListener.this.demand;
+                }
+            }
+            if (demand != null)
+                demand.accept(1);
+        }
+
+        @Override
+        public void cancel()
+        {
+            cancel(new CancellationException());
+        }
+
+        private void cancel(Throwable failure)
+        {
+            Response response;
+            try (AutoLock ignored = lock.lock())
+            {
+                response = PublisherResponseListener.this.response;
+            }
+            if (LOG.isDebugEnabled())
+                LOG.debug("Cancelling {}", response, failure);
+            if (response != null)
+                response.abort(failure);
+        }
+    }
+}
@@ -16,9 +16,14 @@ package org.eclipse.jetty.client;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -35,12 +40,22 @@ import org.eclipse.jetty.client.http.HttpChannelOverHTTP;
 import org.eclipse.jetty.client.http.HttpClientTransportOverHTTP;
 import org.eclipse.jetty.client.http.HttpConnectionOverHTTP;
 import org.eclipse.jetty.client.http.HttpReceiverOverHTTP;
+import org.eclipse.jetty.client.util.AsynchronousFileChannelRequestContent;
+import org.eclipse.jetty.client.util.PathResponseListener;
+import org.eclipse.jetty.client.util.PublisherRequestContent;
+import org.eclipse.jetty.client.util.PublisherResponseListener;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.IO;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -396,4 +411,121 @@ public class HttpClientAsyncContentTest extends AbstractHttpClientServerTest
 
         assertTrue(resultLatch.await(555, TimeUnit.SECONDS));
     }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testAsynchronousFileChannelUploadPathResponseListenerDownload(Scenario scenario) throws Exception
+    {
+        start(scenario, new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                IO.copy(request.getInputStream(), response.getOutputStream());
+            }
+        });
+
+        Path testPath = MavenTestingUtils.getTargetTestingPath();
+        Files.createDirectories(testPath);
+        Path upload = testPath.resolve("upload.bin");
+        Path download = testPath.resolve("download.bin");
+        byte[] bytes = new byte[512 * 1024];
+        new Random().nextBytes(bytes);
+        Files.write(upload, bytes);
+        try
+        {
+            AsynchronousFileChannelRequestContent content = new AsynchronousFileChannelRequestContent(upload);
+            content.setByteBufferPool(client.getByteBufferPool());
+            PathResponseListener listener = new PathResponseListener(download);
+            client.newRequest("localhost", connector.getLocalPort())
+                .scheme(scenario.getScheme())
+                .method(HttpMethod.POST)
+                .body(content)
+                .send(listener);
+
+            Response response = listener.get(5, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+            assertArrayEquals(bytes, Files.readAllBytes(download));
+        }
+        finally
+        {
+            Files.deleteIfExists(upload);
+            Files.deleteIfExists(download);
+        }
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testPublisherResponseListenerIsDemandDriven(Scenario scenario) throws Exception
+    {
+        byte[] bytes = new byte[128 * 1024];
+        new Random().nextBytes(bytes);
+        start(scenario, new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                ServletOutputStream output = response.getOutputStream();
+                for (int i = 0; i < bytes.length; i += 1024)
+                {
+                    output.write(bytes, i, 1024);
+                    output.flush();
+                }
+            }
+        });
+
+        SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>();
+        PublisherRequestContent content = new PublisherRequestContent(publisher);
+        PublisherResponseListener listener = new PublisherResponseListener();
+        client.newRequest("localhost", connector.getLocalPort())
+            .scheme(scenario.getScheme())
+            .method(HttpMethod.POST)
+            .body(content)
+            .send(listener);
+        publisher.submit(ByteBuffer.wrap(new byte[]{'x'}));
+        publisher.close();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AtomicReference<Flow.Subscription> subscriptionRef = new AtomicReference<>();
+        AtomicInteger onNexts = new AtomicInteger();
+        CountDownLatch nextLatch = new CountDownLatch(1);
+        CountDownLatch completeLatch = new CountDownLatch(1);
+        listener.subscribe(new Flow.Subscriber<>()
+        {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription)
+            {
+                subscriptionRef.set(subscription);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer buffer)
+            {
+                onNexts.incrementAndGet();
+                output.write(BufferUtil.toArray(buffer), 0, buffer.remaining());
+                nextLatch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable failure)
+            {
+            }
+
+            @Override
+            public void onComplete()
+            {
+                completeLatch.countDown();
+            }
+        });
+
+        assertTrue(nextLatch.await(5, TimeUnit.SECONDS));
+        // Wait to make sure that no more content is delivered without demand.
+        Thread.sleep(500);
+        assertEquals(1, onNexts.get());
+
+        subscriptionRef.get().request(Long.MAX_VALUE);
+        assertTrue(completeLatch.await(5, TimeUnit.SECONDS));
+        assertArrayEquals(bytes, output.toByteArray());
+    }
 }
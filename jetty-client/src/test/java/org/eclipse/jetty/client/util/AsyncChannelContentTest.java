@@ -0,0 +1,177 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncChannelContentTest
+{
+    private static byte[] consume(Request.Content content) throws Exception
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Request.Content.Subscription> subscriptionRef = new AtomicReference<>();
+        Request.Content.Subscription subscription = content.subscribe((buffer, last, callback) ->
+        {
+            output.write(BufferUtil.toArray(buffer), 0, buffer.remaining());
+            callback.succeeded();
+            if (last)
+                latch.countDown();
+            else
+                subscriptionRef.get().demand();
+        }, true);
+        subscriptionRef.set(subscription);
+        subscription.demand();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return output.toByteArray();
+    }
+
+    @Test
+    public void testAsynchronousFileChannelRequestContent() throws Exception
+    {
+        Path testPath = MavenTestingUtils.getTargetTestingPath();
+        Files.createDirectories(testPath);
+        Path file = testPath.resolve("async-channel-content.bin");
+        byte[] bytes = new byte[100 * 1024 + 17];
+        new Random().nextBytes(bytes);
+        Files.write(file, bytes);
+        try
+        {
+            AsynchronousFileChannelRequestContent content = new AsynchronousFileChannelRequestContent(file, 1024);
+            ArrayByteBufferPool bufferPool = new ArrayByteBufferPool();
+            content.setByteBufferPool(bufferPool);
+            assertEquals(bytes.length, content.getLength());
+
+            assertArrayEquals(bytes, consume(content));
+            // The content is reproducible.
+            assertArrayEquals(bytes, consume(content));
+            // At most one buffer at a time is in use.
+            assertEquals(1, bufferPool.getDirectByteBufferCount());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testAsynchronousFileChannelRequestContentNotifiesReadFailure() throws Exception
+    {
+        Path testPath = MavenTestingUtils.getTargetTestingPath();
+        Files.createDirectories(testPath);
+        Path file = testPath.resolve("async-channel-failure.bin");
+        Files.write(file, new byte[4096]);
+        AsynchronousFileChannelRequestContent content = new AsynchronousFileChannelRequestContent(file, 1024);
+        // Make the reads fail after the content has been created.
+        Files.delete(file);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Request.Content.Subscription> subscriptionRef = new AtomicReference<>();
+        Request.Content.Subscription subscription = content.subscribe(new Request.Content.Consumer()
+        {
+            @Override
+            public void onContent(ByteBuffer buffer, boolean last, Callback callback)
+            {
+                callback.succeeded();
+                subscriptionRef.get().demand();
+            }
+
+            @Override
+            public void onFailure(Throwable failure)
+            {
+                if (failure instanceof IOException)
+                    latch.countDown();
+            }
+        }, false);
+        subscriptionRef.set(subscription);
+        subscription.demand();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPublisherRequestContent() throws Exception
+    {
+        SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>();
+        PublisherRequestContent content = new PublisherRequestContent(publisher);
+
+        AtomicReference<Callback> callbackRef = new AtomicReference<>();
+        AtomicReference<Request.Content.Subscription> subscriptionRef = new AtomicReference<>();
+        AtomicInteger contents = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        Request.Content.Subscription subscription = content.subscribe((buffer, last, callback) ->
+        {
+            if (buffer.hasRemaining())
+                contents.incrementAndGet();
+            if (last)
+            {
+                callback.succeeded();
+                latch.countDown();
+            }
+            else
+            {
+                callbackRef.set(callback);
+                subscriptionRef.get().demand();
+            }
+        }, true);
+        subscriptionRef.set(subscription);
+        subscription.demand();
+
+        publisher.submit(ByteBuffer.wrap(new byte[]{1}));
+        publisher.submit(ByteBuffer.wrap(new byte[]{2}));
+        // The second buffer is not requested until the first is consumed.
+        for (int i = 0; i < 50 && contents.get() == 0; ++i)
+        {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        assertEquals(1, contents.get());
+        TimeUnit.MILLISECONDS.sleep(500);
+        assertEquals(1, contents.get());
+
+        Callback callback = callbackRef.getAndSet(null);
+        assertNotNull(callback);
+        callback.succeeded();
+        for (int i = 0; i < 50 && contents.get() == 1; ++i)
+        {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        assertEquals(2, contents.get());
+        callbackRef.getAndSet(null).succeeded();
+
+        publisher.close();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -79,6 +79,7 @@ public class RequestContentBehaviorTest
                     close();
                 }
             },
+            new AsynchronousFileChannelRequestContent(emptyFile),
             new ByteBufferRequestContent(),
             new BytesRequestContent(),
             new FormRequestContent(new Fields()),
@@ -26,5 +26,8 @@ etc/jetty-deploy.xml
 # Monitored directory scan period (seconds)
 # jetty.deploy.scanInterval=1
 
+# Whether to detect changes from file system events rather than periodic scans
+# jetty.deploy.useWatchService=false
+
 # Whether to extract *.war files
 # jetty.deploy.extractWars=true
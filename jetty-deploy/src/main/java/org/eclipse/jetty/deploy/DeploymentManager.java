@@ -18,12 +18,21 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jetty.deploy.bindings.StandardDeployer;
 import org.eclipse.jetty.deploy.bindings.StandardStarter;
@@ -60,11 +69,21 @@ import org.slf4j.LoggerFactory;
  * </ol>
  * <p>
  * <img alt="deployment manager graph" src="doc-files/DeploymentManager.png">
+ * <p>
+ * If the {@link #setParallelism(int) parallelism} is greater than 1, the apps
+ * provided while the DeploymentManager is starting are moved to the
+ * {@link #getDefaultLifeCycleGoal() default goal} concurrently, by that many threads,
+ * once all the {@link AppProvider}s are started. An app that
+ * {@link #addAppDependency(String, String) depends} on other apps is only moved
+ * once these apps have reached their goal, and is not moved if any of them failed.
+ * Circular dependencies fail the start before any app is moved. The contexts are
+ * mapped once all the apps have been processed.
  */
 @ManagedObject("Deployment Manager")
 public class DeploymentManager extends ContainerLifeCycle
 {
     private static final Logger LOG = LoggerFactory.getLogger(DeploymentManager.class);
+    private static final AtomicInteger DEPLOYER_IDS = new AtomicInteger();
 
     /**
      * Represents a single tracked app within the deployment manager.
@@ -93,6 +112,12 @@ public class DeploymentManager extends ContainerLifeCycle
          */
         private Map<Node, Long> stateTimestamps = new HashMap<Node, Long>();
 
+        /**
+         * Tracking the time taken to run the bindings of the various AppStates (in milliseconds),
+         * replaced by an updated immutable copy as it may be read while the app is being moved
+         */
+        private volatile Map<Node, Long> stateDurations = Collections.emptyMap();
+
         public App getApp()
         {
             return app;
@@ -108,6 +133,14 @@ public class DeploymentManager extends ContainerLifeCycle
             return stateTimestamps;
         }
 
+        /**
+         * @return the time in milliseconds taken to run the bindings of each node, in the order the nodes were reached
+         */
+        public Map<Node, Long> getStateDurations()
+        {
+            return stateDurations;
+        }
+
         public int getVersion()
         {
             return version;
@@ -118,6 +151,13 @@ public class DeploymentManager extends ContainerLifeCycle
             this.lifecyleNode = node;
             this.stateTimestamps.put(node, System.currentTimeMillis());
         }
+
+        synchronized void setStateDuration(Node node, long duration)
+        {
+            Map<Node, Long> durations = new LinkedHashMap<>(stateDurations);
+            durations.put(node, duration);
+            this.stateDurations = Collections.unmodifiableMap(durations);
+        }
     }
 
     private final AutoLock _lock = new AutoLock();
@@ -129,6 +169,9 @@ public class DeploymentManager extends ContainerLifeCycle
     private ContextHandlerCollection _contexts;
     private boolean _useStandardBindings = true;
     private String _defaultLifeCycleGoal = AppLifeCycle.STARTED;
+    private int _parallelism = 1;
+    private final Map<String, Set<String>> _dependencies = new ConcurrentHashMap<>();
+    private List<AppEntry> _deferred;
 
     /**
      * Receive an app for processing.
@@ -145,6 +188,16 @@ public class DeploymentManager extends ContainerLifeCycle
         entry.setLifeCycleNode(_lifecycle.getNodeByName("undeployed"));
         _apps.add(entry);
 
+        try (AutoLock l = _lock.lock())
+        {
+            // Apps provided during a parallel startup are moved to their goal later.
+            if (_deferred != null)
+            {
+                _deferred.add(entry);
+                return;
+            }
+        }
+
         if (isRunning() && _defaultLifeCycleGoal != null)
         {
             // Immediately attempt to go to default lifecycle state
@@ -240,12 +293,39 @@ public class DeploymentManager extends ContainerLifeCycle
             addLifeCycleBinding(new StandardUndeployer());
         }
 
-        // Start all of the AppProviders
-        for (AppProvider provider : _providers)
+        boolean parallel = _parallelism > 1 && _defaultLifeCycleGoal != null;
+        if (parallel)
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                _deferred = new ArrayList<>();
+            }
+        }
+
+        List<AppEntry> deferred = null;
+        try
+        {
+            // Start all of the AppProviders
+            for (AppProvider provider : _providers)
+            {
+                startAppProvider(provider);
+            }
+        }
+        finally
         {
-            startAppProvider(provider);
+            if (parallel)
+            {
+                try (AutoLock l = _lock.lock())
+                {
+                    deferred = _deferred;
+                    _deferred = null;
+                }
+            }
         }
 
+        if (deferred != null && !deferred.isEmpty())
+            requestAppGoal(deferred, _defaultLifeCycleGoal);
+
         try (AutoLock l = _lock.lock())
         {
             if (_onStartupErrors != null)
@@ -255,6 +335,144 @@ public class DeploymentManager extends ContainerLifeCycle
         super.doStart();
     }
 
+    /**
+     * Move the given apps to the given node concurrently, honouring the
+     * dependencies between apps, then map the contexts once.
+     * An app is not moved if one of its dependencies failed.
+     *
+     * @param entries the apps to move
+     * @param nodeName the name of the node to attain
+     * @throws IllegalStateException if there is a circular dependency between the apps
+     */
+    private void requestAppGoal(List<AppEntry> entries, String nodeName)
+    {
+        // Order the apps after their dependencies before moving any of them,
+        // so that a circular dependency fails before anything is deployed.
+        Map<AppEntry, List<AppEntry>> ordered = new LinkedHashMap<>();
+        for (AppEntry entry : entries)
+        {
+            orderByDependencies(entry, entries, ordered, new HashSet<>());
+        }
+
+        long begin = System.nanoTime();
+        int threads = Math.min(_parallelism, entries.size());
+        String name = "DeploymentManager-" + DEPLOYER_IDS.getAndIncrement();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable ->
+        {
+            Thread thread = new Thread(runnable, name + "-" + threadIds.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try
+        {
+            Map<AppEntry, CompletableFuture<Void>> goals = new HashMap<>();
+            for (Map.Entry<AppEntry, List<AppEntry>> entry : ordered.entrySet())
+            {
+                CompletableFuture<?>[] dependencies = entry.getValue().stream().map(goals::get).toArray(CompletableFuture<?>[]::new);
+                goals.put(entry.getKey(), requestAppGoal(entry.getKey(), nodeName, dependencies, executor));
+            }
+            // The failures have already been added to the startup errors.
+            CompletableFuture.allOf(goals.values().toArray(new CompletableFuture<?>[0])).exceptionally(x -> null).join();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // The context paths may have been changed while starting.
+        getContexts().mapContexts();
+
+        if (LOG.isInfoEnabled())
+            LOG.info("Deployed {} apps with {} threads in {}ms", entries.size(), threads, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        if (LOG.isDebugEnabled())
+        {
+            for (AppEntry entry : entries)
+            {
+                LOG.debug("Deployment timeline {}", toTimeline(entry));
+            }
+        }
+    }
+
+    private void orderByDependencies(AppEntry entry, List<AppEntry> entries, Map<AppEntry, List<AppEntry>> ordered, Set<AppEntry> visiting)
+    {
+        if (ordered.containsKey(entry))
+            return;
+        if (!visiting.add(entry))
+            throw new IllegalStateException("Circular dependency of app " + entry.app.getOriginId());
+        List<AppEntry> dependencies = new ArrayList<>();
+        for (AppEntry other : entries)
+        {
+            if (other != entry && isDependency(entry.app, other.app))
+            {
+                orderByDependencies(other, entries, ordered, visiting);
+                dependencies.add(other);
+            }
+        }
+        visiting.remove(entry);
+        ordered.put(entry, dependencies);
+    }
+
+    private CompletableFuture<Void> requestAppGoal(AppEntry entry, String nodeName, CompletableFuture<?>[] dependencies, ExecutorService executor)
+    {
+        return CompletableFuture.allOf(dependencies).handleAsync((r, failure) ->
+        {
+            if (failure != null)
+            {
+                IllegalStateException x = new IllegalStateException("Dependency failed for app " + entry.app.getOriginId());
+                LOG.warn("Unable to reach node goal: {}", nodeName, x);
+                addOnStartupError(x);
+                throw x;
+            }
+            requestAppGoal(entry, nodeName);
+            if (AppLifeCycle.FAILED.equals(entry.lifecyleNode.getName()))
+                throw new IllegalStateException("Failed app " + entry.app.getOriginId());
+            return null;
+        }, executor);
+    }
+
+    private boolean isDependency(App app, App dependency)
+    {
+        for (Map.Entry<String, Set<String>> entry : _dependencies.entrySet())
+        {
+            if (isNamed(app, entry.getKey()))
+            {
+                for (String name : entry.getValue())
+                {
+                    if (isNamed(dependency, name))
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNamed(App app, String name)
+    {
+        String originId = app.getOriginId();
+        if (originId == null)
+            return false;
+        if (originId.equals(name))
+            return true;
+        String fileName = originId.substring(Math.max(originId.lastIndexOf('/'), originId.lastIndexOf('\\')) + 1);
+        if (fileName.equals(name))
+            return true;
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 && fileName.substring(0, dot).equals(name);
+    }
+
+    private static String toTimeline(AppEntry entry)
+    {
+        StringBuilder timeline = new StringBuilder(String.valueOf(entry.app.getOriginId()));
+        long total = 0;
+        for (Map.Entry<Node, Long> state : entry.getStateDurations().entrySet())
+        {
+            timeline.append(' ').append(state.getKey().getName()).append('=').append(state.getValue()).append("ms");
+            total += state.getValue();
+        }
+        return timeline.append(" total=").append(total).append("ms").toString();
+    }
+
     @Override
     protected void doStop() throws Exception
     {
@@ -513,7 +731,9 @@ public class DeploymentManager extends ContainerLifeCycle
                 {
                     Node node = it.next();
                     LOG.debug("Executing Node {}", node);
+                    long begin = System.nanoTime();
                     _lifecycle.runBindings(node, appentry.app, this);
+                    appentry.setStateDuration(node, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
                     appentry.setLifeCycleNode(node);
                 }
             }
@@ -597,6 +817,55 @@ public class DeploymentManager extends ContainerLifeCycle
         this._defaultLifeCycleGoal = defaultLifeCycleState;
     }
 
+    @ManagedAttribute("The maximum number of apps moved to their goal concurrently at startup")
+    public int getParallelism()
+    {
+        return _parallelism;
+    }
+
+    /**
+     * @param parallelism the maximum number of apps moved to their goal concurrently
+     * when the DeploymentManager starts, or 1 to move them one after the other
+     */
+    public void setParallelism(int parallelism)
+    {
+        if (isRunning())
+            throw new IllegalStateException();
+        _parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * <p>Declare that an app must only be moved to its goal once another app has reached
+     * its goal, when the apps are moved concurrently at startup.</p>
+     * <p>Apps are named by their origin id, or by the file name of their origin id,
+     * with or without extension (for example {@code foo.war} or {@code foo}).</p>
+     *
+     * @param app the name of the dependent app
+     * @param dependency the name of the app that {@code app} depends on
+     * @see #setParallelism(int)
+     */
+    public void addAppDependency(@Name("app") String app, @Name("dependency") String dependency)
+    {
+        _dependencies.computeIfAbsent(app, k -> ConcurrentHashMap.newKeySet()).add(dependency);
+    }
+
+    @ManagedAttribute("The dependencies between apps moved concurrently at startup")
+    public Map<String, Set<String>> getAppDependencies()
+    {
+        return Collections.unmodifiableMap(_dependencies);
+    }
+
+    @ManagedAttribute("The time taken by each app to reach each lifecycle node")
+    public List<String> getDeploymentTimeline()
+    {
+        List<String> timeline = new ArrayList<>();
+        for (AppEntry entry : _apps)
+        {
+            timeline.add(toTimeline(entry));
+        }
+        return timeline;
+    }
+
     private void startAppProvider(AppProvider provider)
     {
         try
@@ -46,6 +46,7 @@ public abstract class ScanningAppProvider extends ContainerLifeCycle implements
     private FilenameFilter _filenameFilter;
     private final List<Resource> _monitored = new CopyOnWriteArrayList<>();
     private int _scanInterval = 10;
+    private boolean _useWatchService;
     private Scanner _scanner;
 
     private final Scanner.DiscreteListener _scannerListener = new Scanner.DiscreteListener()
@@ -130,6 +131,7 @@ public abstract class ScanningAppProvider extends ContainerLifeCycle implements
         _scanner = new Scanner();
         _scanner.setScanDirs(files);
         _scanner.setScanInterval(_scanInterval);
+        _scanner.setUseWatchService(_useWatchService);
         _scanner.setFilenameFilter(_filenameFilter);
         _scanner.setReportDirs(true);
         _scanner.setScanDepth(1); //consider direct dir children of monitored dir
@@ -226,6 +228,21 @@ public abstract class ScanningAppProvider extends ContainerLifeCycle implements
         return _scanInterval;
     }
 
+    @ManagedAttribute("whether changes are detected from file system events rather than periodic scans")
+    public boolean isUseWatchService()
+    {
+        return _useWatchService;
+    }
+
+    /**
+     * @param useWatchService true to detect changes from file system events rather than periodic scans
+     * @see Scanner#setUseWatchService(boolean)
+     */
+    public void setUseWatchService(boolean useWatchService)
+    {
+        _useWatchService = useWatchService;
+    }
+
     @Override
     public void setDeploymentManager(DeploymentManager deploymentManager)
     {
@@ -13,18 +13,26 @@
 
 package org.eclipse.jetty.deploy;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
+import org.eclipse.jetty.deploy.graph.Node;
 import org.eclipse.jetty.deploy.test.XmlConfiguredJetty;
+import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
 import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(WorkDirExtension.class)
 public class DeploymentManagerTest
@@ -60,6 +68,114 @@ public class DeploymentManagerTest
         assertEquals("mock-foo-webapp-1.war", actual.getOriginId(), "Should have gotten app (by id)");
     }
 
+    @Test
+    public void testParallelDeployment() throws Exception
+    {
+        DeploymentManager depman = new DeploymentManager();
+        depman.setContexts(new ContextHandlerCollection());
+        depman.setParallelism(4);
+        depman.addAppDependency("beta", "alpha");
+        depman.addAppDependency("gamma", "beta");
+
+        List<String> deployed = Collections.synchronizedList(new ArrayList<>());
+        depman.addLifeCycleBinding(new AppLifeCycle.Binding()
+        {
+            @Override
+            public String[] getBindingTargets()
+            {
+                return new String[]{"deployed"};
+            }
+
+            @Override
+            public void processBinding(Node node, App app)
+            {
+                deployed.add(app.getOriginId());
+            }
+        });
+
+        List<String> names = List.of("gamma", "delta", "beta", "alpha", "epsilon");
+        depman.addAppProvider(new StartupAppProvider(names));
+
+        depman.start();
+        try
+        {
+            assertEquals(names.size(), depman.getApps("started").size(), "Started App Count");
+            assertEquals(names.size(), deployed.size(), "Deployed App Count");
+            assertTrue(deployed.indexOf("alpha") < deployed.indexOf("beta"), "alpha deployed before beta: " + deployed);
+            assertTrue(deployed.indexOf("beta") < deployed.indexOf("gamma"), "beta deployed before gamma: " + deployed);
+            assertEquals(names.size(), depman.getDeploymentTimeline().size(), "Timeline entries");
+        }
+        finally
+        {
+            depman.stop();
+        }
+    }
+
+    @Test
+    public void testParallelDeploymentSkipsDependentsOfFailedApp() throws Exception
+    {
+        DeploymentManager depman = new DeploymentManager();
+        depman.setContexts(new ContextHandlerCollection());
+        depman.setParallelism(4);
+        depman.addAppDependency("beta", "alpha");
+        depman.addAppDependency("gamma", "beta");
+
+        List<String> deployed = Collections.synchronizedList(new ArrayList<>());
+        depman.addLifeCycleBinding(new AppLifeCycle.Binding()
+        {
+            @Override
+            public String[] getBindingTargets()
+            {
+                return new String[]{"deploying", "deployed"};
+            }
+
+            @Override
+            public void processBinding(Node node, App app)
+            {
+                if ("alpha".equals(app.getOriginId()))
+                    throw new IllegalStateException("Test failure of alpha");
+                if ("deployed".equals(node.getName()))
+                    deployed.add(app.getOriginId());
+            }
+        });
+
+        depman.addAppProvider(new StartupAppProvider(List.of("gamma", "delta", "beta", "alpha")));
+
+        try
+        {
+            assertThrows(Exception.class, depman::start);
+            assertEquals(List.of("delta"), deployed);
+            assertEquals(1, depman.getApps("failed").size(), "Failed App Count");
+            assertEquals(2, depman.getApps("undeployed").size(), "Skipped App Count");
+        }
+        finally
+        {
+            depman.stop();
+        }
+    }
+
+    @Test
+    public void testParallelDeploymentCircularDependency() throws Exception
+    {
+        DeploymentManager depman = new DeploymentManager();
+        depman.setContexts(new ContextHandlerCollection());
+        depman.setParallelism(4);
+        depman.addAppDependency("alpha", "beta");
+        depman.addAppDependency("beta", "alpha");
+        depman.addAppProvider(new StartupAppProvider(List.of("alpha", "beta", "gamma")));
+
+        try
+        {
+            assertThrows(IllegalStateException.class, depman::start);
+            // Nothing is deployed, not even the apps outside the cycle.
+            assertEquals(3, depman.getApps("undeployed").size(), "Undeployed App Count");
+        }
+        finally
+        {
+            depman.stop();
+        }
+    }
+
     @Test
     public void testBinding()
     {
@@ -108,4 +224,39 @@ public class DeploymentManagerTest
             }
         }
     }
+
+    private static class StartupAppProvider extends AbstractLifeCycle implements AppProvider
+    {
+        private final List<String> names;
+        private DeploymentManager deploymentManager;
+
+        private StartupAppProvider(List<String> names)
+        {
+            this.names = names;
+        }
+
+        @Override
+        public void setDeploymentManager(DeploymentManager deploymentManager)
+        {
+            this.deploymentManager = deploymentManager;
+        }
+
+        @Override
+        protected void doStart()
+        {
+            // Apps found while starting are deployed together by the DeploymentManager.
+            for (String name : names)
+            {
+                deploymentManager.addApp(new App(deploymentManager, this, name));
+            }
+        }
+
+        @Override
+        public ContextHandler createContextHandler(App app)
+        {
+            ContextHandler context = new ContextHandler();
+            context.setContextPath("/" + app.getOriginId());
+            return context;
+        }
+    }
 }
@@ -22,6 +22,7 @@ import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.component.AbstractLifeCycle;
 import org.eclipse.jetty.util.component.Dumpable;
 import org.eclipse.jetty.util.statistic.CounterStatistic;
+import org.eclipse.jetty.util.statistic.HistogramStatistic;
 import org.eclipse.jetty.util.statistic.RateCounter;
 import org.eclipse.jetty.util.statistic.SampleStatistic;
 
@@ -31,6 +32,11 @@ import org.eclipse.jetty.util.statistic.SampleStatistic;
  * (for the server) or to HttpClient (for the client) will trigger the
  * tracking of the connection statistics for all connections managed
  * by the server Connector or by HttpClient.</p>
+ * <p>In addition to totals and rates, the distributions of the connection
+ * durations, of the bytes and messages per connection, and of the time
+ * connections were idle before being closed are recorded in
+ * {@link HistogramStatistic}s, and can be read all at once without JMX
+ * via {@link #snapshot()}, for example to size idle timeouts from data.</p>
  */
 @ManagedObject("Tracks statistics on connections")
 public class ConnectionStatistics extends AbstractLifeCycle implements Connection.Listener, Dumpable
@@ -46,6 +52,12 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
     private final RateCounter _bytesOutRate = new RateCounter();
     private final RateCounter _messagesInRate = new RateCounter();
     private final RateCounter _messagesOutRate = new RateCounter();
+    private final HistogramStatistic _connectionsDurationHistogram = new HistogramStatistic();
+    private final HistogramStatistic _bytesInHistogram = new HistogramStatistic();
+    private final HistogramStatistic _bytesOutHistogram = new HistogramStatistic();
+    private final HistogramStatistic _messagesInHistogram = new HistogramStatistic();
+    private final HistogramStatistic _messagesOutHistogram = new HistogramStatistic();
+    private final HistogramStatistic _idleHistogram = new HistogramStatistic();
 
     @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
     public void reset()
@@ -60,6 +72,12 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
         _bytesOutRate.reset();
         _messagesInRate.reset();
         _messagesOutRate.reset();
+        _connectionsDurationHistogram.reset();
+        _bytesInHistogram.reset();
+        _bytesOutHistogram.reset();
+        _messagesInHistogram.reset();
+        _messagesOutHistogram.reset();
+        _idleHistogram.reset();
     }
 
     @Override
@@ -84,7 +102,13 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
             return;
 
         _connections.decrement();
-        _connectionsDuration.record(System.currentTimeMillis() - connection.getCreatedTimeStamp());
+        long duration = System.currentTimeMillis() - connection.getCreatedTimeStamp();
+        _connectionsDuration.record(duration);
+        _connectionsDurationHistogram.record(duration);
+
+        EndPoint endPoint = connection.getEndPoint();
+        if (endPoint instanceof IdleTimeout)
+            _idleHistogram.record(((IdleTimeout)endPoint).getIdleFor());
 
         long bytesIn = connection.getBytesIn();
         if (bytesIn > 0)
@@ -113,6 +137,16 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
             _messagesOut.add(messagesOut);
             _messagesOutRate.add(messagesOut);
         }
+
+        // Connections that do not count bytes or messages report -1.
+        if (bytesIn >= 0)
+            _bytesInHistogram.record(bytesIn);
+        if (bytesOut >= 0)
+            _bytesOutHistogram.record(bytesOut);
+        if (messagesIn >= 0)
+            _messagesInHistogram.record(messagesIn);
+        if (messagesOut >= 0)
+            _messagesOutHistogram.record(messagesOut);
     }
 
     @ManagedAttribute("Total number of bytes received by tracked connections")
@@ -161,6 +195,30 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
         return _connectionsDuration.getStdDev();
     }
 
+    @ManagedAttribute("The 50th percentile of the duration of a connection in ms")
+    public long getConnectionDuration50thPercentile()
+    {
+        return _connectionsDurationHistogram.getPercentile(50);
+    }
+
+    @ManagedAttribute("The 99th percentile of the duration of a connection in ms")
+    public long getConnectionDuration99thPercentile()
+    {
+        return _connectionsDurationHistogram.getPercentile(99);
+    }
+
+    @ManagedAttribute("The 50th percentile of the time a connection was idle before being closed in ms")
+    public long getConnectionIdle50thPercentile()
+    {
+        return _idleHistogram.getPercentile(50);
+    }
+
+    @ManagedAttribute("The 99th percentile of the time a connection was idle before being closed in ms")
+    public long getConnectionIdle99thPercentile()
+    {
+        return _idleHistogram.getPercentile(99);
+    }
+
     @ManagedAttribute("The total number of connections opened")
     public long getConnectionsTotal()
     {
@@ -207,6 +265,14 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
         return rate;
     }
 
+    /**
+     * @return an immutable copy of the current statistics, including the histograms
+     */
+    public Snapshot snapshot()
+    {
+        return new Snapshot(this);
+    }
+
     @Override
     public String dump()
     {
@@ -220,7 +286,11 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
             String.format("connections=%s", _connections),
             String.format("durations=%s", _connectionsDuration),
             String.format("bytes in/out=%s/%s", getReceivedBytes(), getSentBytes()),
-            String.format("messages in/out=%s/%s", getReceivedMessages(), getSentMessages()));
+            String.format("messages in/out=%s/%s", getReceivedMessages(), getSentMessages()),
+            String.format("duration histogram=%s", _connectionsDurationHistogram),
+            String.format("idle histogram=%s", _idleHistogram),
+            String.format("bytes in/out histograms=%s/%s", _bytesInHistogram, _bytesOutHistogram),
+            String.format("messages in/out histograms=%s/%s", _messagesInHistogram, _messagesOutHistogram));
     }
 
     @Override
@@ -228,4 +298,123 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
     {
         return String.format("%s@%x", getClass().getSimpleName(), hashCode());
     }
+
+    /**
+     * <p>An immutable copy of the statistics of a {@link ConnectionStatistics}.</p>
+     * <p>The histograms only account for closed connections.</p>
+     */
+    public static class Snapshot
+    {
+        private final long _connections;
+        private final long _connectionsTotal;
+        private final long _connectionsMax;
+        private final HistogramStatistic.Snapshot _connectionDurations;
+        private final HistogramStatistic.Snapshot _idleTimes;
+        private final HistogramStatistic.Snapshot _receivedBytes;
+        private final HistogramStatistic.Snapshot _sentBytes;
+        private final HistogramStatistic.Snapshot _receivedMessages;
+        private final HistogramStatistic.Snapshot _sentMessages;
+
+        private Snapshot(ConnectionStatistics statistics)
+        {
+            _connections = statistics._connections.getCurrent();
+            _connectionsTotal = statistics._connections.getTotal();
+            _connectionsMax = statistics._connections.getMax();
+            _connectionDurations = statistics._connectionsDurationHistogram.snapshot();
+            _idleTimes = statistics._idleHistogram.snapshot();
+            _receivedBytes = statistics._bytesInHistogram.snapshot();
+            _sentBytes = statistics._bytesOutHistogram.snapshot();
+            _receivedMessages = statistics._messagesInHistogram.snapshot();
+            _sentMessages = statistics._messagesOutHistogram.snapshot();
+        }
+
+        /**
+         * @return the number of open connections
+         */
+        public long getConnections()
+        {
+            return _connections;
+        }
+
+        /**
+         * @return the total number of connections opened
+         */
+        public long getConnectionsTotal()
+        {
+            return _connectionsTotal;
+        }
+
+        /**
+         * @return the max number of open connections
+         */
+        public long getConnectionsMax()
+        {
+            return _connectionsMax;
+        }
+
+        /**
+         * @return the distribution of the duration of the connections, in milliseconds
+         */
+        public HistogramStatistic.Snapshot getConnectionDurations()
+        {
+            return _connectionDurations;
+        }
+
+        /**
+         * @return the distribution of the time the connections were idle before being closed, in milliseconds
+         */
+        public HistogramStatistic.Snapshot getIdleTimes()
+        {
+            return _idleTimes;
+        }
+
+        /**
+         * @return the distribution of the bytes received per connection
+         */
+        public HistogramStatistic.Snapshot getReceivedBytes()
+        {
+            return _receivedBytes;
+        }
+
+        /**
+         * @return the distribution of the bytes sent per connection
+         */
+        public HistogramStatistic.Snapshot getSentBytes()
+        {
+            return _sentBytes;
+        }
+
+        /**
+         * @return the distribution of the messages received per connection
+         */
+        public HistogramStatistic.Snapshot getReceivedMessages()
+        {
+            return _receivedMessages;
+        }
+
+        /**
+         * @return the distribution of the messages sent per connection
+         */
+        public HistogramStatistic.Snapshot getSentMessages()
+        {
+            return _sentMessages;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{connections=%d,total=%d,max=%d,durations=%s,idle=%s,bytes=%s/%s,messages=%s/%s}",
+                getClass().getSimpleName(),
+                hashCode(),
+                getConnections(),
+                getConnectionsTotal(),
+                getConnectionsMax(),
+                getConnectionDurations(),
+                getIdleTimes(),
+                getReceivedBytes(),
+                getSentBytes(),
+                getReceivedMessages(),
+                getSentMessages());
+        }
+    }
 }
@@ -812,7 +812,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
                     channel = _selectorManager.doAccept(_channel);
                     if (channel == null)
                         break;
-                    _selectorManager.accepted(channel);
+                    _selectorManager.accepted(channel, _id);
                 }
             }
             catch (Throwable x)
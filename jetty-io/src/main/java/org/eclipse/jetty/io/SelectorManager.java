@@ -194,6 +194,22 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
         selector.submit(selector.new Accept(channel, attachment));
     }
 
+    /**
+     * <p>Registers a channel to perform non-blocking read/write operations
+     * on the selector with the given id, rather than on the next selector
+     * chosen in round-robin order.</p>
+     *
+     * @param channel the channel to register
+     * @param attachment the attachment object
+     * @param selectorId the id of the selector to register the channel with
+     * @see #accept(SelectableChannel, Object)
+     */
+    public void accept(SelectableChannel channel, Object attachment, int selectorId)
+    {
+        ManagedSelector selector = getSelector(selectorId);
+        selector.submit(selector.new Accept(channel, attachment));
+    }
+
     /**
      * <p>Registers a server channel for accept operations.
      * When a {@link SocketChannel} is accepted from the given {@link ServerSocketChannel}
@@ -205,12 +221,40 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
      */
     public Closeable acceptor(SelectableChannel server)
     {
-        ManagedSelector selector = chooseSelector();
+        return acceptor(server, chooseSelector());
+    }
+
+    /**
+     * <p>Registers a server channel for accept operations on the selector with the given id.</p>
+     * <p>This is typically used when several server channels are bound to the same
+     * address (for example with {@code SO_REUSEPORT}), so that each server channel
+     * is served by its own selector.</p>
+     *
+     * @param server the server channel to register
+     * @param selectorId the id of the selector to register the server channel with
+     * @return A Closable that allows the acceptor to be cancelled
+     * @see #accepted(SelectableChannel, int)
+     */
+    public Closeable acceptor(SelectableChannel server, int selectorId)
+    {
+        return acceptor(server, getSelector(selectorId));
+    }
+
+    private Closeable acceptor(SelectableChannel server, ManagedSelector selector)
+    {
         ManagedSelector.Acceptor acceptor = selector.new Acceptor(server);
         selector.submit(acceptor);
         return acceptor;
     }
 
+    private ManagedSelector getSelector(int selectorId)
+    {
+        ManagedSelector selector = _selectors[Math.floorMod(selectorId, _selectors.length)];
+        if (selector == null)
+            throw new IllegalStateException("Not started " + this);
+        return selector;
+    }
+
     /**
      * Callback method when a channel is accepted from the {@link ServerSocketChannel}
      * passed to {@link #acceptor(SelectableChannel)}.
@@ -225,6 +269,23 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * <p>Callback method when a channel is accepted from a {@link ServerSocketChannel}
+     * registered with an acceptor, invoked from the thread of the selector with the given id.</p>
+     * <p>The default implementation calls {@link #accepted(SelectableChannel)}, so that
+     * accepted channels are distributed over the selectors in round-robin order.
+     * Subclasses may override to register the channel with the accepting selector
+     * via {@link #accept(SelectableChannel, Object, int)}.</p>
+     *
+     * @param channel the accepted channel
+     * @param selectorId the id of the selector that accepted the channel
+     * @throws IOException if unable to accept channel
+     */
+    protected void accepted(SelectableChannel channel, int selectorId) throws IOException
+    {
+        accepted(channel);
+    }
+
     @Override
     protected void doStart() throws Exception
     {
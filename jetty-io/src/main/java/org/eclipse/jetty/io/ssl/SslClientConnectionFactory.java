@@ -42,6 +42,7 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
     private boolean _directBuffersForEncryption = true;
     private boolean _directBuffersForDecryption = true;
     private boolean _requireCloseMessage;
+    private boolean _adaptiveBuffers;
 
     public SslClientConnectionFactory(SslContextFactory sslContextFactory, ByteBufferPool byteBufferPool, Executor executor, ClientConnectionFactory connectionFactory)
     {
@@ -94,6 +95,24 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
         _requireCloseMessage = requireCloseMessage;
     }
 
+    /**
+     * @return whether the TLS input buffers are sized after the observed TLS records
+     * @see SslConnection#isAdaptiveBuffers()
+     */
+    public boolean isAdaptiveBuffers()
+    {
+        return _adaptiveBuffers;
+    }
+
+    /**
+     * @param adaptiveBuffers whether the TLS input buffers are sized after the observed TLS records
+     * @see SslConnection#setAdaptiveBuffers(boolean)
+     */
+    public void setAdaptiveBuffers(boolean adaptiveBuffers)
+    {
+        _adaptiveBuffers = adaptiveBuffers;
+    }
+
     @Override
     public org.eclipse.jetty.io.Connection newConnection(EndPoint endPoint, Map<String, Object> context) throws IOException
     {
@@ -127,6 +146,7 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
             sslConnection.setRenegotiationAllowed(sslContextFactory.isRenegotiationAllowed());
             sslConnection.setRenegotiationLimit(sslContextFactory.getRenegotiationLimit());
             sslConnection.setRequireCloseMessage(isRequireCloseMessage());
+            sslConnection.setAdaptiveBuffers(isAdaptiveBuffers());
             ContainerLifeCycle client = (ContainerLifeCycle)context.get(ClientConnectionFactory.CLIENT_CONTEXT_KEY);
             if (client != null)
                 client.getBeans(SslHandshakeListener.class).forEach(sslConnection::addHandshakeListener);
@@ -19,6 +19,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.ToIntFunction;
 import javax.net.ssl.SSLEngine;
@@ -72,11 +73,23 @@ import org.slf4j.LoggerFactory;
  * MOST IMPORTANTLY, the encrypted callbacks from the active methods (#onFillable() and WriteFlusher#completeWrite()) do no filling or flushing
  * themselves.  Instead they simple make the callbacks to the decrypted callbacks, so that the passive encrypted fill/flush will
  * be called again and make another best effort attempt to progress the connection.
+ * <p>
+ * The {@link SSLEngine} delegated tasks, that perform the CPU intensive operations of the TLS handshake, are by default
+ * run by the thread calling fill/flush. If a {@link #setHandshakeExecutor(Executor) handshake executor} is configured,
+ * the delegated tasks are instead run by that executor and the fill/flush return with zero bytes filled/flushed until
+ * the tasks are completed, at which point the decrypted callbacks are called again.
+ * <p>
+ * By default the buffers used for encrypted input and decrypted input are sized to hold the largest possible TLS record.
+ * If {@link #setAdaptiveBuffers(boolean) adaptive buffers} are enabled, once the TLS handshake is complete the size of
+ * the TLS records received on this connection is tracked and buffers just big enough for the observed records are
+ * borrowed from the {@link ByteBufferPool}, and TLS records are decrypted directly into the buffer passed to
+ * {@link DecryptedEndPoint#fill(ByteBuffer)} whenever it has enough space for the next TLS record.
  */
 public class SslConnection extends AbstractConnection implements Connection.UpgradeTo
 {
     private static final Logger LOG = LoggerFactory.getLogger(SslConnection.class);
     private static final String TLS_1_3 = "TLSv1.3";
+    private static final int TLS_RECORD_HEADER_LENGTH = 5;
 
     private enum HandshakeState
     {
@@ -90,14 +103,16 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     {
         IDLE, // Not Filling any data
         INTERESTED, // We have a pending read interest
-        WAIT_FOR_FLUSH // Waiting for a flush to happen
+        WAIT_FOR_FLUSH, // Waiting for a flush to happen
+        WAIT_FOR_TASK // Waiting for the delegated tasks to complete
     }
 
     private enum FlushState
     {
         IDLE, // Not flushing any data
         WRITING, // We have a pending write of encrypted data
-        WAIT_FOR_FILL // Waiting for a fill to happen
+        WAIT_FOR_FILL, // Waiting for a fill to happen
+        WAIT_FOR_TASK // Waiting for the delegated tasks to complete
     }
 
     private final AutoLock _lock = new AutoLock();
@@ -114,6 +129,14 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     private int _renegotiationLimit = -1;
     private boolean _closedOutbound;
     private boolean _requireCloseMessage;
+    private Executor _handshakeExecutor;
+    private boolean _delegatedTasksPending;
+    private long _handshakeStart;
+    private boolean _renegotiating;
+    private boolean _adaptiveBuffers;
+    private int _recordSize;
+    private long _decryptedBytesCopied;
+    private long _decryptedBytesInPlace;
     private FlushState _flushState = FlushState.IDLE;
     private FillState _fillState = FillState.IDLE;
     private AtomicReference<HandshakeState> _handshake = new AtomicReference<>(HandshakeState.INITIAL);
@@ -150,6 +173,15 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
         }
     };
 
+    private final Runnable _runDelegatedTasks = new RunnableTask("runDelegatedTasks")
+    {
+        @Override
+        public void run()
+        {
+            _decryptedEndPoint.runDelegatedTasks();
+        }
+    };
+
     private final Callback _sslReadCallback = new Callback()
     {
         @Override
@@ -271,6 +303,74 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
         _requireCloseMessage = requireCloseMessage;
     }
 
+    /**
+     * @return the executor that runs the {@link SSLEngine} delegated tasks, or null if they are run by the thread calling fill/flush
+     */
+    public Executor getHandshakeExecutor()
+    {
+        return _handshakeExecutor;
+    }
+
+    /**
+     * <p>Sets the executor that runs the {@link SSLEngine} delegated tasks of TLS handshakes.</p>
+     * <p>Delegated tasks perform the CPU intensive operations of the TLS handshake; running them in a
+     * dedicated, bounded executor prevents bursts of TLS handshakes from competing with the processing
+     * of requests on already established connections.</p>
+     * <p>If the executor rejects a delegated task, then the TLS handshake fails.</p>
+     *
+     * @param handshakeExecutor the executor that runs the delegated tasks, or null to run them
+     * in the thread calling fill/flush
+     */
+    public void setHandshakeExecutor(Executor handshakeExecutor)
+    {
+        _handshakeExecutor = handshakeExecutor;
+    }
+
+    /**
+     * @return whether the encrypted and decrypted input buffers are sized after the observed TLS records
+     */
+    public boolean isAdaptiveBuffers()
+    {
+        return _adaptiveBuffers;
+    }
+
+    /**
+     * <p>Sets whether the encrypted and decrypted input buffers are sized after the size of
+     * the TLS records received on this connection, rather than after the maximum TLS record size.</p>
+     * <p>This reduces the memory used by, and the pressure on the {@link ByteBufferPool} of,
+     * connections that exchange small TLS records.</p>
+     *
+     * @param adaptiveBuffers whether the input buffers are sized after the observed TLS records
+     */
+    public void setAdaptiveBuffers(boolean adaptiveBuffers)
+    {
+        _adaptiveBuffers = adaptiveBuffers;
+    }
+
+    /**
+     * @return the number of decrypted bytes that have been copied from an intermediate buffer
+     * into the buffer passed to {@link DecryptedEndPoint#fill(ByteBuffer)}
+     */
+    public long getDecryptedBytesCopied()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _decryptedBytesCopied;
+        }
+    }
+
+    /**
+     * @return the number of bytes that have been decrypted directly into the buffer
+     * passed to {@link DecryptedEndPoint#fill(ByteBuffer)}, avoiding a copy
+     */
+    public long getDecryptedBytesInPlace()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _decryptedBytesInPlace;
+        }
+    }
+
     private boolean isHandshakeInitial()
     {
         return _handshake.get() == HandshakeState.INITIAL;
@@ -311,7 +411,74 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     private void acquireEncryptedInput()
     {
         if (_encryptedInput == null)
-            _encryptedInput = _bufferPool.acquire(getPacketBufferSize(), _encryptedDirectBuffers);
+        {
+            int size = getPacketBufferSize();
+            int recordSize = getAdaptiveRecordSize();
+            if (recordSize > 0)
+                size = Math.min(size, TLS_RECORD_HEADER_LENGTH + recordSize);
+            _encryptedInput = _bufferPool.acquire(size, _encryptedDirectBuffers);
+        }
+    }
+
+    /**
+     * @return the size of the payload of the TLS records observed on this connection,
+     * or -1 if adaptive buffers are disabled or no TLS record has been observed yet
+     */
+    private int getAdaptiveRecordSize()
+    {
+        if (!isAdaptiveBuffers() || !isHandshakeSucceeded() || _recordSize <= 0)
+            return -1;
+        return _recordSize;
+    }
+
+    /**
+     * @return the payload length of the next TLS record in the encrypted input buffer,
+     * or the size of the TLS records observed on this connection if the next TLS record header
+     * is not available, or -1 if unknown
+     */
+    private int getNextRecordSize()
+    {
+        int recordSize = getAdaptiveRecordSize();
+        if (recordSize > 0 && _encryptedInput != null && _encryptedInput.remaining() >= TLS_RECORD_HEADER_LENGTH)
+        {
+            int position = _encryptedInput.position();
+            return (_encryptedInput.get(position + 3) & 0xFF) << 8 | (_encryptedInput.get(position + 4) & 0xFF);
+        }
+        return recordSize;
+    }
+
+    private void recordSizeObserved(int bytesConsumed)
+    {
+        int payload = bytesConsumed - TLS_RECORD_HEADER_LENGTH;
+        if (payload <= 0)
+            return;
+        // Track a decaying max of the record sizes, so that
+        // a single large record does not size buffers forever.
+        int recordSize = _recordSize;
+        _recordSize = Math.max(payload, recordSize - (recordSize >> 4));
+    }
+
+    /**
+     * <p>Replaces a full encrypted input buffer, that was sized after the observed TLS records
+     * but is too small for the next TLS record, with a buffer big enough for any TLS record.</p>
+     *
+     * @return whether the encrypted input buffer has been replaced
+     */
+    private boolean growEncryptedInput()
+    {
+        if (!isAdaptiveBuffers() || _encryptedInput == null)
+            return false;
+        BufferUtil.compact(_encryptedInput);
+        int packetBufferSize = getPacketBufferSize();
+        if (BufferUtil.space(_encryptedInput) > 0 || _encryptedInput.capacity() >= packetBufferSize)
+            return false;
+        ByteBuffer encryptedInput = _bufferPool.acquire(packetBufferSize, _encryptedDirectBuffers);
+        BufferUtil.append(encryptedInput, _encryptedInput);
+        _bufferPool.release(_encryptedInput);
+        _encryptedInput = encryptedInput;
+        if (LOG.isDebugEnabled())
+            LOG.debug("grown encrypted input to {} {}", packetBufferSize, this);
+        return true;
     }
 
     private void acquireEncryptedOutput()
@@ -604,7 +771,14 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
 
                         // Do we already have some decrypted data?
                         if (BufferUtil.hasContent(_decryptedInput))
-                            return filled = BufferUtil.append(buffer, _decryptedInput);
+                        {
+                            filled = BufferUtil.append(buffer, _decryptedInput);
+                            _decryptedBytesCopied += filled;
+                            return filled;
+                        }
+
+                        // Whether a buffer sized after the observed records was too small.
+                        boolean adaptiveOverflow = false;
 
                         // loop filling and unwrapping until we have something
                         while (true)
@@ -619,8 +793,10 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                                     break;
 
                                 case NEED_TASK:
-                                    _sslEngine.getDelegatedTask().run();
-                                    continue;
+                                    if (delegateTasks())
+                                        continue;
+                                    // Wait for the delegated tasks to complete.
+                                    return filled = 0;
 
                                 case NEED_WRAP:
                                     if (_flushState == FlushState.IDLE && flush(BufferUtil.EMPTY_BUFFER))
@@ -644,12 +820,15 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                             // can we use the passed buffer if it is big enough
                             ByteBuffer appIn;
                             int appBufferSize = getApplicationBufferSize();
+                            int recordSize = adaptiveOverflow ? -1 : getNextRecordSize();
                             if (_decryptedInput == null)
                             {
                                 if (BufferUtil.space(buffer) > appBufferSize)
                                     appIn = buffer;
+                                else if (recordSize > 0 && BufferUtil.space(buffer) >= recordSize)
+                                    appIn = buffer;
                                 else
-                                    appIn = _decryptedInput = _bufferPool.acquire(appBufferSize, _decryptedDirectBuffers);
+                                    appIn = _decryptedInput = _bufferPool.acquire(recordSize > 0 ? Math.min(recordSize, appBufferSize) : appBufferSize, _decryptedDirectBuffers);
                             }
                             else
                             {
@@ -671,6 +850,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
 
                             if (_handshake.compareAndSet(HandshakeState.INITIAL, HandshakeState.HANDSHAKE))
                             {
+                                _handshakeStart = System.nanoTime();
                                 if (LOG.isDebugEnabled())
                                     LOG.debug("fill starting handshake {}", SslConnection.this);
                             }
@@ -714,6 +894,8 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                                 case BUFFER_UNDERFLOW:
                                     if (netFilled > 0)
                                         continue; // try filling some more
+                                    if (growEncryptedInput())
+                                        continue; // the next record did not fit
                                     _underflown = true;
                                     if (netFilled < 0 && _sslEngine.getUseClientMode())
                                     {
@@ -741,6 +923,14 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                                         releaseDecryptedInputBuffer();
                                         continue;
                                     }
+                                    // The buffer sized after the observed records was too small,
+                                    // retry with a buffer big enough for any record.
+                                    if (recordSize > 0 && !adaptiveOverflow && BufferUtil.isEmpty(_decryptedInput))
+                                    {
+                                        adaptiveOverflow = true;
+                                        releaseDecryptedInputBuffer();
+                                        continue;
+                                    }
                                     throw new IllegalStateException("Unexpected unwrap result " + unwrap);
 
                                 case OK:
@@ -755,9 +945,17 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                                     // another call to fill() or flush().
                                     if (unwrapResult.bytesProduced() > 0)
                                     {
+                                        if (isAdaptiveBuffers() && isHandshakeSucceeded())
+                                            recordSizeObserved(unwrapResult.bytesConsumed());
                                         if (appIn == buffer)
-                                            return filled = unwrapResult.bytesProduced();
-                                        return filled = BufferUtil.append(buffer, _decryptedInput);
+                                        {
+                                            filled = unwrapResult.bytesProduced();
+                                            _decryptedBytesInPlace += filled;
+                                            return filled;
+                                        }
+                                        filled = BufferUtil.append(buffer, _decryptedInput);
+                                        _decryptedBytesCopied += filled;
+                                        return filled;
                                     }
 
                                     break;
@@ -832,6 +1030,14 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                     switch (status)
                     {
                         case NEED_TASK:
+                            if (_delegatedTasksPending)
+                            {
+                                // Even with encrypted input, fill() cannot progress
+                                // until the delegated tasks complete, so wait for them.
+                                fillable = false;
+                                _fillState = FillState.WAIT_FOR_TASK;
+                                break;
+                            }
                             // Pretend we are fillable
                             fillable = true;
                             break;
@@ -886,6 +1092,84 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             }
         }
 
+        /**
+         * <p>Runs the delegated tasks, or submits them to the handshake executor.</p>
+         * <p>Must be called with the lock held.</p>
+         *
+         * @return true if the delegated tasks have been run, false if they are pending in the handshake executor
+         * @throws SSLHandshakeException if the handshake executor rejected the delegated tasks
+         */
+        private boolean delegateTasks() throws SSLHandshakeException
+        {
+            if (_delegatedTasksPending)
+                return false;
+
+            Executor executor = getHandshakeExecutor();
+            if (executor == null)
+            {
+                _sslEngine.getDelegatedTask().run();
+                return true;
+            }
+
+            _delegatedTasksPending = true;
+            try
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("delegating tasks to {} {}", executor, SslConnection.this);
+                executor.execute(_runDelegatedTasks);
+                return false;
+            }
+            catch (RejectedExecutionException x)
+            {
+                _delegatedTasksPending = false;
+                throw (SSLHandshakeException)new SSLHandshakeException("Delegated tasks rejected by " + executor).initCause(x);
+            }
+        }
+
+        private void runDelegatedTasks()
+        {
+            Throwable failure = null;
+            try
+            {
+                Runnable task;
+                while ((task = _sslEngine.getDelegatedTask()) != null)
+                {
+                    task.run();
+                }
+            }
+            catch (Throwable x)
+            {
+                failure = x;
+            }
+
+            boolean fillable;
+            boolean flushable;
+            try (AutoLock l = _lock.lock())
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("delegated tasks completed s={}/{} {}", _flushState, _fillState, SslConnection.this, failure);
+                _delegatedTasksPending = false;
+                fillable = _fillState == FillState.WAIT_FOR_TASK;
+                if (fillable)
+                    _fillState = FillState.IDLE;
+                flushable = _flushState == FlushState.WAIT_FOR_TASK;
+                if (flushable)
+                    _flushState = FlushState.IDLE;
+            }
+
+            if (failure != null)
+            {
+                close(handshakeFailed(handleException(failure, "task")));
+                return;
+            }
+
+            // Do not call the application from the handshake executor.
+            if (fillable)
+                getExecutor().execute(_runFillable);
+            if (flushable)
+                getExecutor().execute(() -> getWriteFlusher().completeWrite());
+        }
+
         private void handshakeSucceeded() throws SSLException
         {
             if (_handshake.compareAndSet(HandshakeState.HANDSHAKE, HandshakeState.SUCCEEDED))
@@ -900,6 +1184,11 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             {
                 if (_renegotiationLimit > 0)
                     _renegotiationLimit--;
+                if (_renegotiating)
+                {
+                    _renegotiating = false;
+                    notifyRenegotiationSucceeded(_sslEngine);
+                }
             }
         }
 
@@ -992,8 +1281,10 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                                     break;
 
                                 case NEED_TASK:
-                                    _sslEngine.getDelegatedTask().run();
-                                    continue;
+                                    if (delegateTasks())
+                                        continue;
+                                    // Wait for the delegated tasks to complete.
+                                    return result = false;
 
                                 case NEED_UNWRAP:
                                     // Workaround for Java 11 behavior.
@@ -1018,6 +1309,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
 
                             if (_handshake.compareAndSet(HandshakeState.INITIAL, HandshakeState.HANDSHAKE))
                             {
+                                _handshakeStart = System.nanoTime();
                                 if (LOG.isDebugEnabled())
                                     LOG.debug("flush starting handshake {}", SslConnection.this);
                             }
@@ -1159,6 +1451,17 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                         switch (status)
                         {
                             case NEED_TASK:
+                                if (_delegatedTasksPending && BufferUtil.isEmpty(_encryptedOutput))
+                                {
+                                    // Wait for the delegated tasks to complete.
+                                    _flushState = FlushState.WAIT_FOR_TASK;
+                                    break;
+                                }
+                                // write what we have or an empty buffer to reschedule a call to flush
+                                write = BufferUtil.hasContent(_encryptedOutput) ? _encryptedOutput : BufferUtil.EMPTY_BUFFER;
+                                _flushState = FlushState.WRITING;
+                                break;
+
                             case NEED_WRAP:
                             case NOT_HANDSHAKING:
                                 // write what we have or an empty buffer to reschedule a call to flush
@@ -1372,13 +1675,19 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             }
         }
 
+        private long getHandshakeDuration()
+        {
+            // A handshake may fail before it has started, for example if the connection is closed first.
+            return _handshakeStart == 0 ? -1 : System.nanoTime() - _handshakeStart;
+        }
+
         private void notifyHandshakeSucceeded(SSLEngine sslEngine) throws SSLException
         {
             SslHandshakeListener.Event event = null;
             for (SslHandshakeListener listener : handshakeListeners)
             {
                 if (event == null)
-                    event = new SslHandshakeListener.Event(sslEngine);
+                    event = new SslHandshakeListener.Event(sslEngine, getHandshakeDuration());
                 try
                 {
                     listener.handshakeSucceeded(event);
@@ -1394,13 +1703,31 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             }
         }
 
+        private void notifyRenegotiationSucceeded(SSLEngine sslEngine)
+        {
+            SslHandshakeListener.Event event = null;
+            for (SslHandshakeListener listener : handshakeListeners)
+            {
+                if (event == null)
+                    event = new SslHandshakeListener.Event(sslEngine, getHandshakeDuration());
+                try
+                {
+                    listener.renegotiationSucceeded(event);
+                }
+                catch (Throwable x)
+                {
+                    LOG.info("Exception while notifying listener {}", listener, x);
+                }
+            }
+        }
+
         private void notifyHandshakeFailed(SSLEngine sslEngine, Throwable failure)
         {
             SslHandshakeListener.Event event = null;
             for (SslHandshakeListener listener : handshakeListeners)
             {
                 if (event == null)
-                    event = new SslHandshakeListener.Event(sslEngine);
+                    event = new SslHandshakeListener.Event(sslEngine, getHandshakeDuration());
                 try
                 {
                     listener.handshakeFailed(event, failure);
@@ -1441,6 +1768,13 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                 return false;
             }
 
+            if (!_renegotiating)
+            {
+                _renegotiating = true;
+                _handshakeStart = System.nanoTime();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Renegotiation started {}", SslConnection.this);
+            }
             return true;
         }
 
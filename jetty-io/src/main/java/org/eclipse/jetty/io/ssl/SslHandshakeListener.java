@@ -36,6 +36,16 @@ public interface SslHandshakeListener extends EventListener
     {
     }
 
+    /**
+     * <p>Callback method invoked when a TLS renegotiation, that is a TLS handshake
+     * after the initial one on the same connection, succeeds.</p>
+     *
+     * @param event the event object carrying information about the TLS renegotiation event
+     */
+    default void renegotiationSucceeded(Event event)
+    {
+    }
+
     /**
      * <p>Callback method invoked when the TLS handshake fails.</p>
      *
@@ -51,9 +61,29 @@ public interface SslHandshakeListener extends EventListener
      */
     public static class Event extends EventObject
     {
+        private final long handshakeDuration;
+
         public Event(Object source)
+        {
+            this(source, -1);
+        }
+
+        /**
+         * @param source the SSLEngine associated to the TLS handshake event
+         * @param handshakeDuration the duration of the TLS handshake in nanoseconds, or -1 if unknown
+         */
+        public Event(Object source, long handshakeDuration)
         {
             super(source);
+            this.handshakeDuration = handshakeDuration;
+        }
+
+        /**
+         * @return the duration of the TLS handshake in nanoseconds, or -1 if unknown
+         */
+        public long getHandshakeDuration()
+        {
+            return handshakeDuration;
         }
 
         /**
@@ -0,0 +1,287 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io.ssl;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLSession;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.statistic.HistogramStatistic;
+import org.eclipse.jetty.util.statistic.RateCounter;
+
+/**
+ * <p>A {@link SslHandshakeListener} that tracks TLS handshake statistics.</p>
+ * <p>The statistics include the number of successful and failed TLS handshakes,
+ * the number of TLS handshakes that resumed a previous TLS session, the number of
+ * TLS renegotiations, and histograms of the TLS handshake durations, separately for
+ * full and resumed TLS handshakes and for TLS renegotiations.</p>
+ * <p>Adding an instance of this class as a bean to a server {@code SslConnectionFactory}
+ * tracks the TLS handshakes of the {@code SslContextFactory} of that connection factory;
+ * adding it as a bean to a server Connector or to HttpClient tracks all the TLS handshakes
+ * of the Connector or of HttpClient.</p>
+ * <p>A TLS handshake is considered resumed when its TLS session was created before
+ * the TLS handshake started, which covers both TLS 1.2 session id resumptions and
+ * TLS 1.3 session ticket resumptions, as a resumed TLS session retains the creation
+ * time of the TLS session it resumes, even under a new session id.
+ * When the duration of the TLS handshake is unknown, a TLS handshake is considered
+ * resumed only when its TLS session, identified by its session id, is the TLS session
+ * of a previous TLS handshake tracked by this instance.</p>
+ */
+@ManagedObject("Tracks statistics on TLS handshakes")
+public class SslHandshakeStatistics extends AbstractLifeCycle implements SslHandshakeListener, Dumpable
+{
+    private final LongAdder _handshakes = new LongAdder();
+    private final LongAdder _handshakesFailed = new LongAdder();
+    private final LongAdder _handshakesResumed = new LongAdder();
+    private final LongAdder _renegotiations = new LongAdder();
+    private final RateCounter _handshakesRate = new RateCounter();
+    private final HistogramStatistic _fullDurations = new HistogramStatistic();
+    private final HistogramStatistic _resumedDurations = new HistogramStatistic();
+    private final HistogramStatistic _renegotiationDurations = new HistogramStatistic();
+    private final Map<SSLSession, Boolean> _sessions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void reset()
+    {
+        _handshakes.reset();
+        _handshakesFailed.reset();
+        _handshakesResumed.reset();
+        _renegotiations.reset();
+        _handshakesRate.reset();
+        _fullDurations.reset();
+        _resumedDurations.reset();
+        _renegotiationDurations.reset();
+        _sessions.clear();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        reset();
+    }
+
+    @Override
+    public void handshakeSucceeded(Event event)
+    {
+        if (!isStarted())
+            return;
+
+        _handshakes.increment();
+        _handshakesRate.add(1);
+
+        long duration = event.getHandshakeDuration();
+        boolean resumed = isResumed(event.getSSLEngine().getSession(), duration);
+        if (resumed)
+            _handshakesResumed.increment();
+        if (duration >= 0)
+        {
+            long micros = TimeUnit.NANOSECONDS.toMicros(duration);
+            if (resumed)
+                _resumedDurations.record(micros);
+            else
+                _fullDurations.record(micros);
+        }
+    }
+
+    @Override
+    public void renegotiationSucceeded(Event event)
+    {
+        if (!isStarted())
+            return;
+
+        _renegotiations.increment();
+        long duration = event.getHandshakeDuration();
+        if (duration >= 0)
+            _renegotiationDurations.record(TimeUnit.NANOSECONDS.toMicros(duration));
+    }
+
+    @Override
+    public void handshakeFailed(Event event, Throwable failure)
+    {
+        if (!isStarted())
+            return;
+
+        _handshakesFailed.increment();
+    }
+
+    /**
+     * <p>Records the TLS session of a completed TLS handshake, which is resumed if the
+     * session was created before the TLS handshake started, or if it was already
+     * recorded for a previous TLS handshake.</p>
+     * <p>TLS sessions are compared by their session id, and are held weakly so that
+     * the TLS sessions evicted from the session caches are forgotten.</p>
+     *
+     * @param session the TLS session of the completed TLS handshake
+     * @param handshakeDuration the duration of the TLS handshake in nanoseconds, or -1 if unknown
+     * @return whether the TLS handshake resumed a previous TLS session
+     */
+    protected boolean isResumed(SSLSession session, long handshakeDuration)
+    {
+        boolean resumed = false;
+        if (handshakeDuration >= 0)
+        {
+            // Allow for the millisecond granularity of the clocks.
+            long handshakeBegin = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(handshakeDuration) - 2;
+            resumed = session.getCreationTime() < handshakeBegin;
+        }
+        byte[] id = session.getId();
+        // Without a session id, sessions cannot be told apart.
+        if (id != null && id.length > 0)
+            resumed |= _sessions.put(session, Boolean.TRUE) != null;
+        return resumed;
+    }
+
+    @ManagedAttribute("The total number of successful TLS handshakes")
+    public long getHandshakes()
+    {
+        return _handshakes.sum();
+    }
+
+    @ManagedAttribute("Total number of successful TLS handshakes per second since the last invocation of this method")
+    public long getHandshakesRate()
+    {
+        long rate = _handshakesRate.getRate();
+        _handshakesRate.reset();
+        return rate;
+    }
+
+    @ManagedAttribute("The total number of failed TLS handshakes")
+    public long getHandshakesFailed()
+    {
+        return _handshakesFailed.sum();
+    }
+
+    @ManagedAttribute("The total number of TLS handshakes that resumed a TLS session")
+    public long getHandshakesResumed()
+    {
+        return _handshakesResumed.sum();
+    }
+
+    @ManagedAttribute("The total number of successful TLS renegotiations")
+    public long getRenegotiations()
+    {
+        return _renegotiations.sum();
+    }
+
+    @ManagedAttribute("The ratio of successful TLS handshakes that resumed a TLS session")
+    public double getResumptionRatio()
+    {
+        long handshakes = getHandshakes();
+        return handshakes > 0 ? (double)getHandshakesResumed() / handshakes : 0.0D;
+    }
+
+    @ManagedAttribute("The mean duration of a full TLS handshake in microseconds")
+    public double getFullHandshakeDurationMean()
+    {
+        return _fullDurations.getMean();
+    }
+
+    @ManagedAttribute("The max duration of a full TLS handshake in microseconds")
+    public long getFullHandshakeDurationMax()
+    {
+        return _fullDurations.getMax();
+    }
+
+    @ManagedAttribute("The 99th percentile of the duration of a full TLS handshake in microseconds")
+    public long getFullHandshakeDuration99thPercentile()
+    {
+        return _fullDurations.getPercentile(99);
+    }
+
+    @ManagedAttribute("The mean duration of a resumed TLS handshake in microseconds")
+    public double getResumedHandshakeDurationMean()
+    {
+        return _resumedDurations.getMean();
+    }
+
+    @ManagedAttribute("The max duration of a resumed TLS handshake in microseconds")
+    public long getResumedHandshakeDurationMax()
+    {
+        return _resumedDurations.getMax();
+    }
+
+    @ManagedAttribute("The 99th percentile of the duration of a resumed TLS handshake in microseconds")
+    public long getResumedHandshakeDuration99thPercentile()
+    {
+        return _resumedDurations.getPercentile(99);
+    }
+
+    @ManagedAttribute("The mean duration of a TLS renegotiation in microseconds")
+    public double getRenegotiationDurationMean()
+    {
+        return _renegotiationDurations.getMean();
+    }
+
+    @ManagedAttribute("The max duration of a TLS renegotiation in microseconds")
+    public long getRenegotiationDurationMax()
+    {
+        return _renegotiationDurations.getMax();
+    }
+
+    /**
+     * @return a snapshot of the histogram of the durations, in microseconds, of full TLS handshakes
+     */
+    public HistogramStatistic.Snapshot getFullHandshakeDurations()
+    {
+        return _fullDurations.snapshot();
+    }
+
+    /**
+     * @return a snapshot of the histogram of the durations, in microseconds, of resumed TLS handshakes
+     */
+    public HistogramStatistic.Snapshot getResumedHandshakeDurations()
+    {
+        return _resumedDurations.snapshot();
+    }
+
+    /**
+     * @return a snapshot of the histogram of the durations, in microseconds, of TLS renegotiations
+     */
+    public HistogramStatistic.Snapshot getRenegotiationDurations()
+    {
+        return _renegotiationDurations.snapshot();
+    }
+
+    @Override
+    public String dump()
+    {
+        return Dumpable.dump(this);
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        Dumpable.dumpObjects(out, indent, this,
+            String.format("handshakes succeeded/failed/resumed=%d/%d/%d", getHandshakes(), getHandshakesFailed(), getHandshakesResumed()),
+            String.format("renegotiations=%d", getRenegotiations()),
+            String.format("full durations=%s", _fullDurations),
+            String.format("resumed durations=%s", _resumedDurations),
+            String.format("renegotiation durations=%s", _renegotiationDurations));
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x", getClass().getSimpleName(), hashCode());
+    }
+}
@@ -0,0 +1,146 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConnectionStatisticsTest
+{
+    private final ConnectionStatistics _statistics = new ConnectionStatistics();
+
+    @BeforeEach
+    public void init() throws Exception
+    {
+        _statistics.start();
+    }
+
+    @AfterEach
+    public void destroy() throws Exception
+    {
+        _statistics.stop();
+    }
+
+    @Test
+    public void testHistograms()
+    {
+        for (int i = 1; i <= 100; i++)
+        {
+            TestConnection connection = new TestConnection(new ByteArrayEndPoint(), i * 100, i);
+            _statistics.onOpened(connection);
+            _statistics.onClosed(connection);
+        }
+
+        ConnectionStatistics.Snapshot snapshot = _statistics.snapshot();
+        assertEquals(0, snapshot.getConnections());
+        assertEquals(100, snapshot.getConnectionsTotal());
+        assertEquals(100, snapshot.getConnectionDurations().getCount());
+        assertEquals(100, snapshot.getIdleTimes().getCount());
+
+        assertEquals(100, snapshot.getReceivedBytes().getCount());
+        assertEquals(10000, snapshot.getReceivedBytes().getMax());
+        assertEquals(505000, snapshot.getReceivedBytes().getTotal());
+        assertEquals(100, snapshot.getSentBytes().getCount());
+        // Percentiles have a bounded relative error.
+        long p50 = snapshot.getReceivedBytes().getPercentile(50);
+        assertThat(p50, greaterThanOrEqualTo(5000L));
+        assertThat(p50, lessThanOrEqualTo(5000L * 5 / 4));
+
+        assertEquals(100, snapshot.getReceivedMessages().getMax());
+        assertEquals(5050, snapshot.getSentMessages().getTotal());
+    }
+
+    @Test
+    public void testConnectionsWithoutCountersAreNotRecorded()
+    {
+        Connection connection = new AbstractConnection(new ByteArrayEndPoint(), Runnable::run)
+        {
+            @Override
+            public void onFillable()
+            {
+            }
+        };
+        _statistics.onOpened(connection);
+        _statistics.onClosed(connection);
+
+        ConnectionStatistics.Snapshot snapshot = _statistics.snapshot();
+        assertEquals(1, snapshot.getConnectionDurations().getCount());
+        assertEquals(0, snapshot.getReceivedBytes().getCount());
+        assertEquals(0, snapshot.getSentMessages().getCount());
+    }
+
+    @Test
+    public void testReset()
+    {
+        TestConnection connection = new TestConnection(new ByteArrayEndPoint(), 1024, 1);
+        _statistics.onOpened(connection);
+        _statistics.onClosed(connection);
+        assertEquals(1, _statistics.snapshot().getReceivedBytes().getCount());
+
+        _statistics.reset();
+
+        ConnectionStatistics.Snapshot snapshot = _statistics.snapshot();
+        assertEquals(0, snapshot.getConnectionsTotal());
+        assertEquals(0, snapshot.getConnectionDurations().getCount());
+        assertEquals(0, snapshot.getReceivedBytes().getCount());
+    }
+
+    private static class TestConnection extends AbstractConnection
+    {
+        private final long _bytes;
+        private final long _messages;
+
+        private TestConnection(EndPoint endPoint, long bytes, long messages)
+        {
+            super(endPoint, Runnable::run);
+            _bytes = bytes;
+            _messages = messages;
+        }
+
+        @Override
+        public void onFillable()
+        {
+        }
+
+        @Override
+        public long getBytesIn()
+        {
+            return _bytes;
+        }
+
+        @Override
+        public long getBytesOut()
+        {
+            return _bytes;
+        }
+
+        @Override
+        public long getMessagesIn()
+        {
+            return _messages;
+        }
+
+        @Override
+        public long getMessagesOut()
+        {
+            return _messages;
+        }
+    }
+}
@@ -25,7 +25,10 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -34,6 +37,7 @@ import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLSocket;
 
 import org.eclipse.jetty.io.ssl.SslConnection;
+import org.eclipse.jetty.io.ssl.SslHandshakeStatistics;
 import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.FutureCallback;
@@ -48,7 +52,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -65,6 +71,10 @@ public class SslConnectionTest
     protected volatile EndPoint _lastEndp;
     private volatile boolean _testFill = true;
     private volatile boolean _onXWriteThenShutdown = false;
+    private volatile Executor _handshakeExecutor;
+    private volatile boolean _adaptiveBuffers;
+    private volatile SslConnection _lastSslConnection;
+    private final SslHandshakeStatistics _handshakeStatistics = new SslHandshakeStatistics();
 
     private volatile FutureCallback _writeCallback;
     protected ServerSocketChannel _connector;
@@ -89,6 +99,10 @@ public class SslConnectionTest
             SslConnection sslConnection = new SslConnection(__byteBufferPool, getExecutor(), endpoint, engine);
             sslConnection.setRenegotiationAllowed(_sslCtxFactory.isRenegotiationAllowed());
             sslConnection.setRenegotiationLimit(_sslCtxFactory.getRenegotiationLimit());
+            sslConnection.setHandshakeExecutor(_handshakeExecutor);
+            sslConnection.setAdaptiveBuffers(_adaptiveBuffers);
+            _lastSslConnection = sslConnection;
+            sslConnection.addHandshakeListener(_handshakeStatistics);
             Connection appConnection = new TestConnection(sslConnection.getDecryptedEndPoint());
             sslConnection.getDecryptedEndPoint().setConnection(appConnection);
             return sslConnection;
@@ -157,6 +171,7 @@ public class SslConnectionTest
         _threadPool.start();
         _scheduler.start();
         _manager.start();
+        _handshakeStatistics.start();
     }
 
     private void startSSL() throws Exception
@@ -173,6 +188,7 @@ public class SslConnectionTest
 
     private void stopManager() throws Exception
     {
+        _handshakeStatistics.stop();
         if (_lastEndp != null && _lastEndp.isOpen())
             _lastEndp.close();
         _manager.stop();
@@ -326,6 +342,167 @@ public class SslConnectionTest
         }
     }
 
+    @Test
+    public void testHandshakeExecutor() throws Exception
+    {
+        AtomicInteger delegated = new AtomicInteger();
+        _handshakeExecutor = task ->
+        {
+            delegated.incrementAndGet();
+            new Thread(task).start();
+        };
+        startSSL();
+        try (SSLSocket client = newClient())
+        {
+            client.setSoTimeout(TIMEOUT);
+            try (SocketChannel server = _connector.accept())
+            {
+                server.configureBlocking(false);
+                _manager.accept(server);
+
+                client.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+                byte[] buffer = new byte[1024];
+                int len = client.getInputStream().read(buffer);
+                assertEquals(5, len);
+                assertEquals("Hello", new String(buffer, 0, len, StandardCharsets.UTF_8));
+
+                client.getOutputStream().write("World".getBytes(StandardCharsets.UTF_8));
+                len = client.getInputStream().read(buffer);
+                assertEquals(5, len);
+                assertEquals("World", new String(buffer, 0, len, StandardCharsets.UTF_8));
+            }
+        }
+        assertThat(delegated.get(), greaterThan(0));
+        assertEquals(1, _handshakeStatistics.getHandshakes());
+        assertEquals(0, _handshakeStatistics.getHandshakesFailed());
+        assertEquals(1, _handshakeStatistics.getFullHandshakeDurations().getCount());
+    }
+
+    @Test
+    public void testHandshakeExecutorRenegotiate() throws Exception
+    {
+        _handshakeExecutor = _threadPool;
+        testRenegotiate();
+    }
+
+    @Test
+    public void testRenegotiationStatistics() throws Exception
+    {
+        // TLS 1.3 does not renegotiate.
+        _sslCtxFactory.setIncludeProtocols("TLSv1.2");
+        testRenegotiate();
+        assertEquals(1, _handshakeStatistics.getHandshakes());
+        assertEquals(1, _handshakeStatistics.getRenegotiations());
+        assertEquals(1, _handshakeStatistics.getRenegotiationDurations().getCount());
+    }
+
+    @Test
+    public void testResumedHandshakeStatistics() throws Exception
+    {
+        // The TLS 1.2 session is resumed under the same session id.
+        testResumedHandshakeStatistics("TLSv1.2");
+    }
+
+    @Test
+    public void testResumedTLS13HandshakeStatistics() throws Exception
+    {
+        // The TLS 1.3 session is resumed from a session ticket, under a new session id.
+        testResumedHandshakeStatistics("TLSv1.3");
+    }
+
+    private void testResumedHandshakeStatistics(String protocol) throws Exception
+    {
+        _sslCtxFactory.setIncludeProtocols(protocol);
+        startSSL();
+        for (int i = 0; i < 2; ++i)
+        {
+            try (SSLSocket client = newClient())
+            {
+                client.setSoTimeout(TIMEOUT);
+                try (SocketChannel server = _connector.accept())
+                {
+                    server.configureBlocking(false);
+                    _manager.accept(server);
+
+                    client.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+                    byte[] buffer = new byte[1024];
+                    int len = client.getInputStream().read(buffer);
+                    assertEquals(5, len);
+                }
+            }
+        }
+        assertEquals(2, _handshakeStatistics.getHandshakes());
+        assertEquals(1, _handshakeStatistics.getHandshakesResumed());
+        assertEquals(1, _handshakeStatistics.getFullHandshakeDurations().getCount());
+        assertEquals(1, _handshakeStatistics.getResumedHandshakeDurations().getCount());
+    }
+
+    @Test
+    public void testHandshakeExecutorRejects() throws Exception
+    {
+        _handshakeExecutor = task ->
+        {
+            throw new RejectedExecutionException();
+        };
+        startSSL();
+        try (SSLSocket client = newClient())
+        {
+            client.setSoTimeout(TIMEOUT);
+            try (SocketChannel server = _connector.accept())
+            {
+                server.configureBlocking(false);
+                _manager.accept(server);
+
+                assertThrows(IOException.class, () ->
+                {
+                    client.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+                    client.getInputStream().read();
+                });
+            }
+        }
+        assertEquals(0, _handshakeStatistics.getHandshakes());
+        assertEquals(1, _handshakeStatistics.getHandshakesFailed());
+    }
+
+    @Test
+    public void testAdaptiveBuffers() throws Exception
+    {
+        _adaptiveBuffers = true;
+        startSSL();
+        try (SSLSocket client = newClient())
+        {
+            client.setSoTimeout(TIMEOUT);
+            try (SocketChannel server = _connector.accept())
+            {
+                server.configureBlocking(false);
+                _manager.accept(server);
+
+                // Small records, then records larger than the observed ones, then small records again.
+                for (int size : new int[]{5, 100, 20000, 3000, 5})
+                {
+                    byte[] content = new byte[size];
+                    Arrays.fill(content, (byte)('a' + size % 26));
+                    client.getOutputStream().write(content);
+                    client.getOutputStream().flush();
+
+                    byte[] echoed = new byte[size];
+                    int read = 0;
+                    while (read < size)
+                    {
+                        int len = client.getInputStream().read(echoed, read, size - read);
+                        assertThat(len, greaterThan(0));
+                        read += len;
+                    }
+                    assertArrayEquals(content, echoed);
+                }
+            }
+        }
+
+        // The application buffer is smaller than the maximum TLS record, so without
+        // adaptive buffers every decrypted byte would be copied from an intermediate buffer.
+        assertThat(_lastSslConnection.getDecryptedBytesInPlace(), greaterThan(0L));
+    }
+
     @Test
     public void testRenegotiateNotAllowed() throws Exception
     {
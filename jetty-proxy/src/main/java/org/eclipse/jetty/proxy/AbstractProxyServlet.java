@@ -16,11 +16,14 @@ package org.eclipse.jetty.proxy;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
@@ -36,18 +39,22 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.jetty.client.ContinueProtocolHandler;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpDestination;
 import org.eclipse.jetty.client.ProtocolHandlers;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Response;
 import org.eclipse.jetty.client.dynamic.HttpClientTransportDynamic;
+import org.eclipse.jetty.client.http.HttpClientConnectionFactory;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpHeaderValue;
 import org.eclipse.jetty.http.HttpScheme;
 import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.io.ClientConnectionFactory;
 import org.eclipse.jetty.io.ClientConnector;
 import org.eclipse.jetty.util.HttpCookieStore;
+import org.eclipse.jetty.util.Loader;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
@@ -103,6 +110,8 @@ public abstract class AbstractProxyServlet extends HttpServlet
     private String _viaHost;
     private HttpClient _client;
     private long _timeout;
+    private int _prewarmConnections;
+    private UpstreamPoolStatistics _upstreamPoolStatistics;
 
     @Override
     public void init() throws ServletException
@@ -123,9 +132,20 @@ public abstract class AbstractProxyServlet extends HttpServlet
         {
             _client = createHttpClient();
 
+            // Exposed via JMX as a bean of the HttpClient.
+            _upstreamPoolStatistics = new UpstreamPoolStatistics(_client);
+            _client.addBean(_upstreamPoolStatistics);
+
             // Put the HttpClient in the context to leverage ContextHandler.MANAGED_ATTRIBUTES
             getServletContext().setAttribute(config.getServletName() + ".HttpClient", _client);
 
+            String prewarmConnections = config.getInitParameter("prewarmConnections");
+            if (prewarmConnections != null)
+                _prewarmConnections = Integer.parseInt(prewarmConnections);
+            String prewarmTargets = config.getInitParameter("prewarmTargets");
+            if (prewarmTargets != null)
+                parseList(prewarmTargets).forEach(this::prewarm);
+
             String whiteList = config.getInitParameter("whiteList");
             if (whiteList != null)
                 getWhiteListHosts().addAll(parseList(whiteList));
@@ -154,6 +174,48 @@ public abstract class AbstractProxyServlet extends HttpServlet
         }
     }
 
+    /**
+     * @return the connection pool usage of the upstream destinations
+     */
+    public UpstreamPoolStatistics getUpstreamPoolStatistics()
+    {
+        return _upstreamPoolStatistics;
+    }
+
+    /**
+     * @return the number of connections opened in advance to each prewarmed upstream
+     * @see #prewarm(String)
+     */
+    public int getPrewarmConnections()
+    {
+        return _prewarmConnections;
+    }
+
+    /**
+     * <p>Opens {@link #getPrewarmConnections()} connections in advance to the upstream
+     * of the given target, so that the first proxied requests do not pay the
+     * connection (and TLS handshake) latency.</p>
+     * <p>Failures to open the connections are only logged, as the connections
+     * will be opened again when requests are proxied to the upstream.</p>
+     *
+     * @param target the URI of the upstream to prewarm
+     * @return a future completed when the connections have been opened
+     */
+    protected CompletableFuture<Void> prewarm(String target)
+    {
+        if (_prewarmConnections <= 0)
+            return CompletableFuture.completedFuture(null);
+        HttpDestination destination = (HttpDestination)getHttpClient().resolveDestination(getHttpClient().newRequest(target));
+        return destination.getConnectionPool().preCreateConnections(_prewarmConnections)
+            .whenComplete((r, x) ->
+            {
+                if (x != null)
+                    _log.info("Failed to prewarm connections to {}", target, x);
+                else if (_log.isDebugEnabled())
+                    _log.debug("Prewarmed {} connections to {}", _prewarmConnections, destination);
+            });
+    }
+
     public String getHostHeader()
     {
         return _hostHeader;
@@ -259,6 +321,23 @@ public abstract class AbstractProxyServlet extends HttpServlet
      * <td>cores / 2</td>
      * <td>The number of NIO selectors used by {@link HttpClient}</td>
      * </tr>
+     * <tr>
+     * <td>protocols</td>
+     * <td>http/1.1</td>
+     * <td>The comma separated list, in order of preference, of the protocols spoken to the upstream
+     * servers, see {@link #newClientConnectionFactoryInfos(ClientConnector)}</td>
+     * </tr>
+     * <tr>
+     * <td>prewarmConnections</td>
+     * <td>0</td>
+     * <td>The number of connections opened in advance to each upstream, see {@link #prewarm(String)}</td>
+     * </tr>
+     * <tr>
+     * <td>prewarmTargets</td>
+     * <td></td>
+     * <td>The comma separated list of upstream URIs to prewarm; the {@code proxyTo} upstreams of
+     * transparent and balancer proxies are always prewarmed</td>
+     * </tr>
      * </tbody>
      * </table>
      *
@@ -361,7 +440,75 @@ public abstract class AbstractProxyServlet extends HttpServlet
 
     protected HttpClient newHttpClient(ClientConnector clientConnector)
     {
-        return new HttpClient(new HttpClientTransportDynamic(clientConnector));
+        return new HttpClient(new HttpClientTransportDynamic(clientConnector, newClientConnectionFactoryInfos(clientConnector)));
+    }
+
+    /**
+     * <p>Creates the protocols spoken to the upstream servers, from the {@code protocols} init parameter.</p>
+     * <p>The supported values are {@code http/1.1} and {@code h2} (or {@code h2c}), listed in order of preference.
+     * Clear-text upstreams are contacted with the first protocol; for example with {@code h2,http/1.1}
+     * the proxy speaks HTTP/2 with prior knowledge to clear-text upstreams, and negotiates the protocol
+     * via ALPN with TLS upstreams.
+     * A single HTTP/2 connection multiplexes many proxied requests, which greatly reduces
+     * the number of upstream connections.</p>
+     * <p>HTTP/2 requires the {@code jetty-http2-http-client-transport} artifact in the classpath.</p>
+     *
+     * @param clientConnector the ClientConnector used by the protocols
+     * @return the protocols spoken to the upstream servers, in order of preference
+     */
+    protected ClientConnectionFactory.Info[] newClientConnectionFactoryInfos(ClientConnector clientConnector)
+    {
+        String value = getServletConfig().getInitParameter("protocols");
+        if (value == null)
+            return new ClientConnectionFactory.Info[]{HttpClientConnectionFactory.HTTP11};
+
+        List<ClientConnectionFactory.Info> infos = new ArrayList<>();
+        ClientConnectionFactory.Info http2 = null;
+        for (String protocol : StringUtil.csvSplit(value))
+        {
+            switch (protocol.toLowerCase(Locale.ENGLISH))
+            {
+                case "http/1.1":
+                    if (!infos.contains(HttpClientConnectionFactory.HTTP11))
+                        infos.add(HttpClientConnectionFactory.HTTP11);
+                    break;
+                case "h2":
+                case "h2c":
+                    if (http2 == null)
+                    {
+                        http2 = newHTTP2ClientConnectionFactoryInfo(clientConnector);
+                        infos.add(http2);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported upstream protocol " + protocol);
+            }
+        }
+        return infos.toArray(new ClientConnectionFactory.Info[0]);
+    }
+
+    /**
+     * <p>Creates the HTTP/2 protocol spoken to the upstream servers.</p>
+     * <p>The HTTP/2 client classes are loaded by name, as this module does not
+     * depend on the HTTP/2 modules; they must be in the classpath if HTTP/2 is
+     * listed in the {@code protocols} init parameter.</p>
+     *
+     * @param clientConnector the ClientConnector used by the HTTP/2 client
+     * @return the HTTP/2 protocol
+     */
+    protected ClientConnectionFactory.Info newHTTP2ClientConnectionFactoryInfo(ClientConnector clientConnector)
+    {
+        try
+        {
+            Class<?> clientClass = Loader.loadClass(AbstractProxyServlet.class, "org.eclipse.jetty.http2.client.HTTP2Client");
+            Object http2Client = clientClass.getConstructor(ClientConnector.class).newInstance(clientConnector);
+            Class<?> infoClass = Loader.loadClass(AbstractProxyServlet.class, "org.eclipse.jetty.http2.client.http.ClientConnectionFactoryOverHTTP2$HTTP2");
+            return (ClientConnectionFactory.Info)infoClass.getConstructor(clientClass).newInstance(http2Client);
+        }
+        catch (ReflectiveOperationException x)
+        {
+            throw new IllegalStateException("HTTP/2 upstreams require jetty-http2-http-client-transport in the classpath", x);
+        }
     }
 
     protected ClientConnector newClientConnector()
@@ -810,6 +957,8 @@ public abstract class AbstractProxyServlet extends HttpServlet
 
             if (proxyServlet._log.isDebugEnabled())
                 proxyServlet._log.debug(config.getServletName() + " @ " + _prefix + " to " + _proxyTo);
+
+            proxyServlet.prewarm(_proxyTo);
         }
 
         protected String rewriteTarget(HttpServletRequest request)
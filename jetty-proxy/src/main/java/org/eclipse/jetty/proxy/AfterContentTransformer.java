@@ -50,6 +50,9 @@ import org.slf4j.LoggerFactory;
  * {@link Files#createTempFile(Path, String, String, FileAttribute[]) temporary file}
  * with a name starting with the {@link #getOutputFilePrefix()} output prefix}
  * and default suffix.</p>
+ * <p>Transformations that can be performed chunk by chunk should rather be
+ * implemented as a {@link AsyncMiddleManServlet.ChainedContentTransformer}
+ * of streaming stages, which does not buffer the whole content.</p>
  */
 public abstract class AfterContentTransformer implements AsyncMiddleManServlet.ContentTransformer, Destroyable
 {
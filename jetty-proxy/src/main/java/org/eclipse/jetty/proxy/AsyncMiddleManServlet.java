@@ -13,18 +13,17 @@
 
 package org.eclipse.jetty.proxy;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import javax.servlet.AsyncContext;
 import javax.servlet.ReadListener;
 import javax.servlet.ServletConfig;
@@ -35,7 +34,6 @@ import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.eclipse.jetty.client.ContentDecoder;
 import org.eclipse.jetty.client.GZIPContentDecoder;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
@@ -44,7 +42,6 @@ import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.AsyncRequestContent;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.io.ByteBufferPool;
-import org.eclipse.jetty.io.RuntimeIOException;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.CountingCallback;
@@ -740,6 +737,29 @@ public class AsyncMiddleManServlet extends AbstractProxyServlet
         public void transform(ByteBuffer input, boolean finished, List<ByteBuffer> output) throws IOException;
     }
 
+    /**
+     * <p>A {@link ContentTransformer} that produces output buffers that it must release,
+     * for example because they are acquired from a {@link ByteBufferPool}.</p>
+     * <p>By default, the output buffers of a call to {@code transform(...)} are released
+     * at the following call to {@code transform(...)}, when they have been written to the
+     * other peer. When this transformer is called more than once for each write, for example
+     * as a stage of a {@link ChainedContentTransformer}, its output buffers must be retained
+     * with {@link #retainOutput()} and released explicitly with {@link #release()}.</p>
+     */
+    public interface PooledContentTransformer extends ContentTransformer
+    {
+        /**
+         * <p>Retains the output buffers until {@link #release()} is called,
+         * rather than until the following call to {@code transform(...)}.</p>
+         */
+        public void retainOutput();
+
+        /**
+         * <p>Releases the output buffers produced so far.</p>
+         */
+        public void release();
+    }
+
     private static class IdentityContentTransformer implements ContentTransformer
     {
         @Override
@@ -749,15 +769,20 @@ public class AsyncMiddleManServlet extends AbstractProxyServlet
         }
     }
 
-    public static class GZIPContentTransformer implements ContentTransformer
+    /**
+     * <p>A {@link ContentTransformer} that decompresses gzip content,
+     * applies the given transformer to the decompressed content and
+     * compresses the result back into gzip content.</p>
+     * <p>The content is processed chunk by chunk: decompressed and compressed
+     * bytes are held in pooled buffers that are only retained until the
+     * following call to {@link #transform(ByteBuffer, boolean, List)}, so that
+     * the memory used does not depend on the size of the content.</p>
+     *
+     * @see ChainedContentTransformer
+     */
+    public static class GZIPContentTransformer implements PooledContentTransformer, Destroyable
     {
-        private static final Logger logger = LoggerFactory.getLogger(GZIPContentTransformer.class);
-
-        private final List<ByteBuffer> buffers = new ArrayList<>(2);
-        private final ContentTransformer transformer;
-        private final ContentDecoder decoder;
-        private final ByteArrayOutputStream out;
-        private final GZIPOutputStream gzipOut;
+        private final ChainedContentTransformer chain;
 
         public GZIPContentTransformer(ContentTransformer transformer)
         {
@@ -766,71 +791,378 @@ public class AsyncMiddleManServlet extends AbstractProxyServlet
 
         public GZIPContentTransformer(HttpClient httpClient, ContentTransformer transformer)
         {
+            this.chain = new ChainedContentTransformer(
+                new GZIPDecodingContentTransformer(httpClient),
+                transformer,
+                new GZIPEncodingContentTransformer(httpClient));
+        }
+
+        @Override
+        public void transform(ByteBuffer input, boolean finished, List<ByteBuffer> output) throws IOException
+        {
+            chain.transform(input, finished, output);
+        }
+
+        @Override
+        public void retainOutput()
+        {
+            chain.retainOutput();
+        }
+
+        @Override
+        public void release()
+        {
+            chain.release();
+        }
+
+        @Override
+        public void destroy()
+        {
+            chain.destroy();
+        }
+    }
+
+    /**
+     * <p>A {@link ContentTransformer} that feeds the output of each of its
+     * stages to the following stage, for example gunzip &rarr; transform &rarr; gzip.</p>
+     * <p>Each output buffer of a stage is passed to the next stage as soon as it is
+     * produced, and the {@code finished} flag is only passed along with the last
+     * buffer produced by a finished stage, so that no stage needs to buffer the
+     * whole content.
+     * A stage after the first one is called once for each buffer produced by the
+     * previous stage, so the output buffers of {@link PooledContentTransformer} stages
+     * are retained until the following call to {@code transform(...)} of this
+     * transformer: at that point the previous output has been written to the other
+     * peer.</p>
+     * <p>Stages that are {@link Destroyable} are destroyed when this transformer
+     * is destroyed.</p>
+     */
+    public static class ChainedContentTransformer implements PooledContentTransformer, Destroyable
+    {
+        private final List<ContentTransformer> transformers;
+        private final List<List<ByteBuffer>> outputs;
+        private boolean retainOutput;
+
+        public ChainedContentTransformer(ContentTransformer... transformers)
+        {
+            this(List.of(transformers));
+        }
+
+        public ChainedContentTransformer(List<ContentTransformer> transformers)
+        {
+            this.transformers = List.copyOf(transformers);
+            this.outputs = new ArrayList<>(this.transformers.size());
+            for (ContentTransformer transformer : this.transformers)
+            {
+                outputs.add(new ArrayList<>(2));
+                if (transformer instanceof PooledContentTransformer)
+                    ((PooledContentTransformer)transformer).retainOutput();
+            }
+        }
+
+        /**
+         * @return the stages of this transformer, in processing order
+         */
+        public List<ContentTransformer> getTransformers()
+        {
+            return transformers;
+        }
+
+        @Override
+        public void transform(ByteBuffer input, boolean finished, List<ByteBuffer> output) throws IOException
+        {
+            if (!retainOutput)
+                release();
+            transform(0, input, finished, output);
+        }
+
+        @Override
+        public void retainOutput()
+        {
+            retainOutput = true;
+        }
+
+        @Override
+        public void release()
+        {
+            for (ContentTransformer transformer : transformers)
+            {
+                if (transformer instanceof PooledContentTransformer)
+                    ((PooledContentTransformer)transformer).release();
+            }
+        }
+
+        private void transform(int index, ByteBuffer input, boolean finished, List<ByteBuffer> output) throws IOException
+        {
+            if (index == transformers.size())
+            {
+                output.add(input);
+                return;
+            }
+
+            List<ByteBuffer> buffers = outputs.get(index);
             try
             {
-                this.transformer = transformer;
-                ByteBufferPool byteBufferPool = httpClient == null ? null : httpClient.getByteBufferPool();
-                this.decoder = new GZIPContentDecoder(byteBufferPool, GZIPContentDecoder.DEFAULT_BUFFER_SIZE);
-                this.out = new ByteArrayOutputStream();
-                this.gzipOut = new GZIPOutputStream(out);
+                transformers.get(index).transform(input, finished, buffers);
+                int size = buffers.size();
+                if (size == 0)
+                {
+                    if (finished)
+                        transform(index + 1, BufferUtil.EMPTY_BUFFER, true, output);
+                    return;
+                }
+                for (int i = 0; i < size; ++i)
+                {
+                    ByteBuffer buffer = buffers.get(i);
+                    boolean last = finished && i == size - 1;
+                    // Skip empty non-last buffers, as they carry no information.
+                    if (buffer.hasRemaining() || last)
+                        transform(index + 1, buffer, last, output);
+                }
             }
-            catch (IOException x)
+            finally
             {
-                throw new RuntimeIOException(x);
+                buffers.clear();
             }
         }
 
+        @Override
+        public void destroy()
+        {
+            for (ContentTransformer transformer : transformers)
+            {
+                if (transformer instanceof Destroyable)
+                    ((Destroyable)transformer).destroy();
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x%s", getClass().getSimpleName(), hashCode(), transformers);
+        }
+    }
+
+    /**
+     * <p>A streaming {@link ContentTransformer} that decompresses gzip content.</p>
+     * <p>Decompressed buffers are acquired from the {@link HttpClient}'s
+     * {@link ByteBufferPool} (if any) and released as described by
+     * {@link PooledContentTransformer} or when this transformer is destroyed.</p>
+     */
+    public static class GZIPDecodingContentTransformer implements PooledContentTransformer, Destroyable
+    {
+        private static final Logger logger = LoggerFactory.getLogger(GZIPDecodingContentTransformer.class);
+
+        private final List<ByteBuffer> decodeds = new ArrayList<>();
+        private final GZIPContentDecoder decoder;
+        private boolean retainOutput;
+
+        public GZIPDecodingContentTransformer(HttpClient httpClient)
+        {
+            ByteBufferPool byteBufferPool = httpClient == null ? null : httpClient.getByteBufferPool();
+            this.decoder = new GZIPContentDecoder(byteBufferPool, GZIPContentDecoder.DEFAULT_BUFFER_SIZE);
+        }
+
         @Override
         public void transform(ByteBuffer input, boolean finished, List<ByteBuffer> output) throws IOException
         {
+            if (!retainOutput)
+                release();
+
             if (logger.isDebugEnabled())
                 logger.debug("Ungzipping {} bytes, finished={}", input.remaining(), finished);
 
-            List<ByteBuffer> decodeds = Collections.emptyList();
-            if (!input.hasRemaining())
-            {
-                if (finished)
-                    transformer.transform(input, true, buffers);
-            }
-            else
+            // The decoder may have more inflated bytes even
+            // if the input is consumed, so decode until empty.
+            while (true)
             {
-                decodeds = new ArrayList<>();
-                while (true)
+                ByteBuffer decoded = decoder.decode(input);
+                if (decoded.hasRemaining())
                 {
-                    ByteBuffer decoded = decoder.decode(input);
-                    decodeds.add(decoded);
-                    boolean decodeComplete = !input.hasRemaining() && !decoded.hasRemaining();
-                    boolean complete = finished && decodeComplete;
                     if (logger.isDebugEnabled())
-                        logger.debug("Ungzipped {} bytes, complete={}", decoded.remaining(), complete);
-                    if (decoded.hasRemaining() || complete)
-                        transformer.transform(decoded, complete, buffers);
-                    if (decodeComplete)
+                        logger.debug("Ungzipped {} bytes", decoded.remaining());
+                    decodeds.add(decoded);
+                    output.add(decoded);
+                }
+                else
+                {
+                    decoder.release(decoded);
+                    if (!input.hasRemaining())
                         break;
                 }
             }
+        }
 
-            if (!buffers.isEmpty() || finished)
-            {
-                ByteBuffer result = gzip(buffers, finished);
-                buffers.clear();
-                output.add(result);
-            }
+        @Override
+        public void retainOutput()
+        {
+            retainOutput = true;
+        }
 
+        @Override
+        public void release()
+        {
             decodeds.forEach(decoder::release);
+            decodeds.clear();
         }
 
-        private ByteBuffer gzip(List<ByteBuffer> buffers, boolean finished) throws IOException
+        @Override
+        public void destroy()
+        {
+            release();
+            decoder.destroy();
+        }
+    }
+
+    /**
+     * <p>A streaming {@link ContentTransformer} that compresses content into gzip content.</p>
+     * <p>The compressed bytes of each input buffer are flushed (using
+     * {@link Deflater#SYNC_FLUSH}) at the end of each call to
+     * {@link #transform(ByteBuffer, boolean, List)}, so that they can be
+     * written to the other peer without waiting for the rest of the content.
+     * Compressed buffers are acquired from the {@link HttpClient}'s
+     * {@link ByteBufferPool} (if any) and released as described by
+     * {@link PooledContentTransformer} or when this transformer is destroyed.</p>
+     */
+    public static class GZIPEncodingContentTransformer implements PooledContentTransformer, Destroyable
+    {
+        private static final byte[] GZIP_HEADER = new byte[]{(byte)0x1F, (byte)0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+        private final List<ByteBuffer> encodeds = new ArrayList<>();
+        private final CRC32 crc = new CRC32();
+        private final ByteBufferPool byteBufferPool;
+        private final int bufferSize;
+        private final Deflater deflater;
+        private boolean headerWritten;
+        private boolean retainOutput;
+
+        public GZIPEncodingContentTransformer(HttpClient httpClient)
         {
-            for (ByteBuffer buffer : buffers)
+            this(httpClient, Deflater.DEFAULT_COMPRESSION);
+        }
+
+        public GZIPEncodingContentTransformer(HttpClient httpClient, int compressionLevel)
+        {
+            this.byteBufferPool = httpClient == null ? null : httpClient.getByteBufferPool();
+            this.bufferSize = GZIPContentDecoder.DEFAULT_BUFFER_SIZE;
+            this.deflater = new Deflater(compressionLevel, true);
+        }
+
+        @Override
+        public void transform(ByteBuffer input, boolean finished, List<ByteBuffer> output)
+        {
+            if (!retainOutput)
+                release();
+
+            if (deflater.finished())
+                return;
+            if (!input.hasRemaining() && !finished && headerWritten)
+                return;
+
+            ByteBuffer buffer = acquire();
+            if (!headerWritten)
+            {
+                buffer.put(GZIP_HEADER);
+                headerWritten = true;
+            }
+
+            if (input.hasRemaining())
             {
-                write(gzipOut, buffer);
+                crc.update(input.slice());
+                deflater.setInput(input);
+                while (!deflater.needsInput())
+                {
+                    buffer = deflate(buffer, Deflater.NO_FLUSH, output);
+                }
             }
+
             if (finished)
-                gzipOut.close();
-            byte[] gzipBytes = out.toByteArray();
-            out.reset();
-            return ByteBuffer.wrap(gzipBytes);
+            {
+                deflater.finish();
+                while (!deflater.finished())
+                {
+                    buffer = deflate(buffer, Deflater.NO_FLUSH, output);
+                }
+                if (buffer.remaining() < 8)
+                    buffer = flush(buffer, output);
+                putIntLE(buffer, (int)crc.getValue());
+                putIntLE(buffer, deflater.getTotalIn());
+            }
+            else
+            {
+                do
+                {
+                    buffer = deflate(buffer, Deflater.SYNC_FLUSH, output);
+                }
+                while (!buffer.hasRemaining());
+            }
+
+            if (buffer.position() > 0)
+                handOff(buffer, output);
+            else
+                release(buffer);
+        }
+
+        private ByteBuffer deflate(ByteBuffer buffer, int flush, List<ByteBuffer> output)
+        {
+            if (!buffer.hasRemaining())
+                buffer = flush(buffer, output);
+            deflater.deflate(buffer, flush);
+            return buffer;
+        }
+
+        private ByteBuffer flush(ByteBuffer buffer, List<ByteBuffer> output)
+        {
+            handOff(buffer, output);
+            return acquire();
+        }
+
+        private void handOff(ByteBuffer buffer, List<ByteBuffer> output)
+        {
+            buffer.flip();
+            encodeds.add(buffer);
+            output.add(buffer);
+        }
+
+        private static void putIntLE(ByteBuffer buffer, int value)
+        {
+            buffer.put((byte)value);
+            buffer.put((byte)(value >>> 8));
+            buffer.put((byte)(value >>> 16));
+            buffer.put((byte)(value >>> 24));
+        }
+
+        private ByteBuffer acquire()
+        {
+            ByteBuffer buffer = byteBufferPool == null ? BufferUtil.allocate(bufferSize) : byteBufferPool.acquire(bufferSize, false);
+            buffer.clear();
+            return buffer;
+        }
+
+        private void release(ByteBuffer buffer)
+        {
+            if (byteBufferPool != null)
+                byteBufferPool.release(buffer);
+        }
+
+        @Override
+        public void retainOutput()
+        {
+            retainOutput = true;
+        }
+
+        @Override
+        public void release()
+        {
+            encodeds.forEach(this::release);
+            encodeds.clear();
+        }
+
+        @Override
+        public void destroy()
+        {
+            release();
+            deflater.end();
         }
     }
 
@@ -19,16 +19,57 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import javax.servlet.ServletException;
 import javax.servlet.UnavailableException;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
+import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.util.URIUtil;
-
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A reverse proxy servlet that balances requests across a set of backend servers.</p>
+ * <p>Backends are configured with init parameters of the form
+ * {@code balancerMember.<name>.proxyTo}, and may be given a relative weight with
+ * {@code balancerMember.<name>.weight}. The other init parameters are:</p>
+ * <ul>
+ * <li>{@code stickySessions}: whether requests with a session id that names a member
+ * are sent to that member</li>
+ * <li>{@code proxyPassReverse}: whether redirects from the backends are rewritten</li>
+ * <li>{@code strategy}: how members are selected, one of {@code roundRobin} (the default),
+ * {@code leastRequests}, {@code latency}, {@code weightedRandom}, or the class name of a
+ * {@link Strategy} implementation</li>
+ * <li>{@code maxConsecutiveFailures}: the number of consecutive failed requests after which
+ * a member is ejected, defaults to 5, or 0 to never eject members</li>
+ * <li>{@code ejectionTime}: the time in milliseconds a member is first ejected for,
+ * defaults to 30000; members that are ejected again are ejected for longer</li>
+ * <li>{@code maxEjectionPercent}: the max percentage of members that can be ejected at the
+ * same time, defaults to 50</li>
+ * </ul>
+ * <p>The health of the members is tracked passively from the results of the proxied requests:
+ * a request fails if it could not be sent or if the backend responded with a 5xx status code.
+ * Ejected members are not selected until their ejection time elapses, unless all the members
+ * are ejected.</p>
+ * <p>When deployed in a Jetty context, the servlet and its members are added as beans to the
+ * context, so that they are exported over JMX if a {@code MBeanContainer} is configured.</p>
+ */
+@ManagedObject("Balancing reverse proxy")
 public class BalancerServlet extends ProxyServlet
 {
     private static final String BALANCER_MEMBER_PREFIX = "balancerMember.";
@@ -56,11 +97,16 @@ public class BalancerServlet extends ProxyServlet
 
     private static final String JSESSIONID = "jsessionid";
     private static final String JSESSIONID_URL_PREFIX = JSESSIONID + "=";
+    private static final String BALANCER_MEMBER_ATTRIBUTE = BalancerServlet.class.getName() + ".balancerMember";
 
     private final List<BalancerMember> _balancerMembers = new ArrayList<>();
-    private final AtomicLong counter = new AtomicLong();
+    private final LongAdder _ejections = new LongAdder();
+    private volatile Strategy _strategy = new RoundRobinStrategy();
     private boolean _stickySessions;
     private boolean _proxyPassReverse;
+    private int _maxConsecutiveFailures;
+    private long _ejectionTime;
+    private int _maxEjectionPercent;
 
     @Override
     public void init() throws ServletException
@@ -70,6 +116,27 @@ public class BalancerServlet extends ProxyServlet
         initStickySessions();
         initBalancers();
         initProxyPassReverse();
+        initStrategy();
+        initHealth();
+        _balancerMembers.forEach(member -> prewarm(member.getProxyTo()));
+        ContextHandler contextHandler = ContextHandler.getContextHandler(getServletContext());
+        if (contextHandler != null)
+        {
+            contextHandler.addBean(this);
+            _balancerMembers.forEach(contextHandler::addBean);
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        ContextHandler contextHandler = ContextHandler.getContextHandler(getServletContext());
+        if (contextHandler != null)
+        {
+            _balancerMembers.forEach(contextHandler::removeBean);
+            contextHandler.removeBean(this);
+        }
+        super.destroy();
     }
 
     private void validateConfig() throws ServletException
@@ -97,7 +164,11 @@ public class BalancerServlet extends ProxyServlet
             String proxyTo = getServletConfig().getInitParameter(memberProxyToParam);
             if (proxyTo == null || proxyTo.trim().length() == 0)
                 throw new UnavailableException(memberProxyToParam + " parameter is empty.");
-            members.add(new BalancerMember(balancerName, proxyTo));
+            BalancerMember member = new BalancerMember(balancerName, proxyTo);
+            String weight = getServletConfig().getInitParameter(BALANCER_MEMBER_PREFIX + balancerName + ".weight");
+            if (weight != null)
+                member.setWeight(Integer.parseInt(weight));
+            members.add(member);
         }
         _balancerMembers.addAll(members);
     }
@@ -107,6 +178,144 @@ public class BalancerServlet extends ProxyServlet
         _proxyPassReverse = Boolean.parseBoolean(getServletConfig().getInitParameter("proxyPassReverse"));
     }
 
+    private void initStrategy() throws ServletException
+    {
+        String strategy = getServletConfig().getInitParameter("strategy");
+        if (strategy != null)
+            _strategy = newStrategy(strategy);
+    }
+
+    private void initHealth()
+    {
+        String value = getServletConfig().getInitParameter("maxConsecutiveFailures");
+        _maxConsecutiveFailures = value == null ? 5 : Integer.parseInt(value);
+        value = getServletConfig().getInitParameter("ejectionTime");
+        _ejectionTime = value == null ? 30000 : Long.parseLong(value);
+        value = getServletConfig().getInitParameter("maxEjectionPercent");
+        _maxEjectionPercent = value == null ? 50 : Integer.parseInt(value);
+    }
+
+    /**
+     * @param name the name of a built-in strategy, or the class name of a {@link Strategy}
+     * @return a new strategy instance
+     * @throws UnavailableException if the strategy cannot be created
+     */
+    protected Strategy newStrategy(String name) throws UnavailableException
+    {
+        switch (name.trim().toLowerCase(Locale.ENGLISH))
+        {
+            case "roundrobin":
+                return new RoundRobinStrategy();
+            case "leastrequests":
+                return new LeastRequestsStrategy();
+            case "latency":
+                return new LatencyStrategy();
+            case "weightedrandom":
+                return new WeightedRandomStrategy();
+            default:
+            {
+                try
+                {
+                    Class<?> strategyClass = Thread.currentThread().getContextClassLoader().loadClass(name.trim());
+                    return (Strategy)strategyClass.getConstructor().newInstance();
+                }
+                catch (Exception x)
+                {
+                    UnavailableException failure = new UnavailableException("Invalid strategy " + name);
+                    failure.initCause(x);
+                    throw failure;
+                }
+            }
+        }
+    }
+
+    public Strategy getStrategy()
+    {
+        return _strategy;
+    }
+
+    public void setStrategy(Strategy strategy)
+    {
+        _strategy = strategy;
+    }
+
+    @ManagedAttribute("The balancing strategy")
+    public String getStrategyName()
+    {
+        return _strategy.getClass().getSimpleName();
+    }
+
+    public void setStrategyName(String name) throws UnavailableException
+    {
+        setStrategy(newStrategy(name));
+    }
+
+    @ManagedAttribute("The number of consecutive failures after which a member is ejected, or 0 if members are never ejected")
+    public int getMaxConsecutiveFailures()
+    {
+        return _maxConsecutiveFailures;
+    }
+
+    public void setMaxConsecutiveFailures(int maxConsecutiveFailures)
+    {
+        _maxConsecutiveFailures = maxConsecutiveFailures;
+    }
+
+    @ManagedAttribute("The time in milliseconds a member is first ejected for")
+    public long getEjectionTime()
+    {
+        return _ejectionTime;
+    }
+
+    public void setEjectionTime(long ejectionTime)
+    {
+        _ejectionTime = ejectionTime;
+    }
+
+    @ManagedAttribute("The max percentage of members that can be ejected at the same time")
+    public int getMaxEjectionPercent()
+    {
+        return _maxEjectionPercent;
+    }
+
+    public void setMaxEjectionPercent(int maxEjectionPercent)
+    {
+        _maxEjectionPercent = maxEjectionPercent;
+    }
+
+    @ManagedAttribute("The total number of member ejections")
+    public long getEjections()
+    {
+        return _ejections.sum();
+    }
+
+    @ManagedAttribute("The number of currently ejected members")
+    public int getEjectedMembers()
+    {
+        long now = System.nanoTime();
+        int ejected = 0;
+        for (BalancerMember member : _balancerMembers)
+        {
+            if (member.isEjected(now))
+                ++ejected;
+        }
+        return ejected;
+    }
+
+    @ManagedOperation(value = "Brings back all the ejected members", impact = "ACTION")
+    public void resetEjections()
+    {
+        _balancerMembers.forEach(BalancerMember::restore);
+    }
+
+    /**
+     * @return the balancer members
+     */
+    public List<BalancerMember> getBalancerMembers()
+    {
+        return Collections.unmodifiableList(_balancerMembers);
+    }
+
     private Set<String> getBalancerNames() throws ServletException
     {
         Set<String> names = new HashSet<>();
@@ -130,6 +339,7 @@ public class BalancerServlet extends ProxyServlet
         BalancerMember balancerMember = selectBalancerMember(request);
         if (_log.isDebugEnabled())
             _log.debug("Selected {}", balancerMember);
+        request.setAttribute(BALANCER_MEMBER_ATTRIBUTE, balancerMember);
         String path = request.getRequestURI();
         String query = request.getQueryString();
         if (query != null)
@@ -139,18 +349,84 @@ public class BalancerServlet extends ProxyServlet
 
     private BalancerMember selectBalancerMember(HttpServletRequest request)
     {
+        long now = System.nanoTime();
         if (_stickySessions)
         {
             String name = getBalancerMemberNameFromSessionId(request);
             if (name != null)
             {
                 BalancerMember balancerMember = findBalancerMemberByName(name);
-                if (balancerMember != null)
+                if (balancerMember != null && !balancerMember.isEjected(now))
                     return balancerMember;
             }
         }
-        int index = (int)(counter.getAndIncrement() % _balancerMembers.size());
-        return _balancerMembers.get(index);
+        return _strategy.select(getAvailableBalancerMembers(now));
+    }
+
+    private List<BalancerMember> getAvailableBalancerMembers(long now)
+    {
+        List<BalancerMember> available = null;
+        for (int i = 0; i < _balancerMembers.size(); ++i)
+        {
+            BalancerMember member = _balancerMembers.get(i);
+            if (member.isEjected(now))
+            {
+                if (available == null)
+                    available = new ArrayList<>(_balancerMembers.subList(0, i));
+            }
+            else if (available != null)
+            {
+                available.add(member);
+            }
+        }
+        // If all the members are ejected, use them all rather than failing.
+        if (available == null || available.isEmpty())
+            return _balancerMembers;
+        return available;
+    }
+
+    @Override
+    protected void sendProxyRequest(HttpServletRequest clientRequest, HttpServletResponse proxyResponse, Request proxyRequest)
+    {
+        BalancerMember balancerMember = (BalancerMember)clientRequest.getAttribute(BALANCER_MEMBER_ATTRIBUTE);
+        if (balancerMember != null)
+        {
+            long begin = System.nanoTime();
+            balancerMember.onRequestBegin();
+            proxyRequest.onComplete(result -> onBalancerMemberComplete(balancerMember, result, System.nanoTime() - begin));
+        }
+        super.sendProxyRequest(clientRequest, proxyResponse, proxyRequest);
+    }
+
+    private void onBalancerMemberComplete(BalancerMember balancerMember, Result result, long nanos)
+    {
+        boolean failed = result.isFailed() || result.getResponse().getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR_500;
+        int failures = balancerMember.onRequestComplete(nanos, failed);
+        if (failed && _maxConsecutiveFailures > 0 && failures >= _maxConsecutiveFailures)
+            eject(balancerMember);
+    }
+
+    private void eject(BalancerMember balancerMember)
+    {
+        long now = System.nanoTime();
+        int ejected = 0;
+        for (BalancerMember member : _balancerMembers)
+        {
+            if (member.isEjected(now))
+                ++ejected;
+        }
+        if ((ejected + 1) * 100 > _maxEjectionPercent * _balancerMembers.size())
+        {
+            if (_log.isDebugEnabled())
+                _log.debug("Not ejecting {}, {}/{} members already ejected", balancerMember, ejected, _balancerMembers.size());
+            return;
+        }
+        if (balancerMember.eject(now, _ejectionTime))
+        {
+            _ejections.increment();
+            if (_log.isDebugEnabled())
+                _log.debug("Ejected {}", balancerMember);
+        }
     }
 
     private BalancerMember findBalancerMemberByName(String name)
@@ -254,11 +530,163 @@ public class BalancerServlet extends ProxyServlet
         return true;
     }
 
-    private static class BalancerMember
+    /**
+     * <p>A strategy to select the member a request is proxied to.</p>
+     * <p>Implementations must be thread-safe.</p>
+     */
+    public interface Strategy
+    {
+        /**
+         * @param members the members that are not ejected, never empty
+         * @return the selected member
+         */
+        BalancerMember select(List<BalancerMember> members);
+    }
+
+    /**
+     * Selects the members in turn.
+     */
+    public static class RoundRobinStrategy implements Strategy
+    {
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public BalancerMember select(List<BalancerMember> members)
+        {
+            int index = (int)(counter.getAndIncrement() % members.size());
+            return members.get(index);
+        }
+    }
+
+    /**
+     * Selects the member with the least outstanding requests,
+     * in turn between members with the same outstanding requests.
+     */
+    public static class LeastRequestsStrategy implements Strategy
+    {
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public BalancerMember select(List<BalancerMember> members)
+        {
+            int size = members.size();
+            int start = (int)(counter.getAndIncrement() % size);
+            BalancerMember selected = null;
+            int least = Integer.MAX_VALUE;
+            for (int i = 0; i < size; ++i)
+            {
+                BalancerMember member = members.get((start + i) % size);
+                int outstanding = member.getOutstandingRequests();
+                if (outstanding < least)
+                {
+                    selected = member;
+                    least = outstanding;
+                }
+            }
+            return selected;
+        }
+    }
+
+    /**
+     * <p>Selects the member with the least expected latency, computed as the
+     * exponentially weighted moving average of its recent latencies multiplied by
+     * the number of its outstanding requests plus one.</p>
+     * <p>Members without a latency yet are given the mean latency of the other
+     * members, so that they are tried without being flooded; if no member has a
+     * latency yet, the member with the least outstanding requests is selected.</p>
+     */
+    public static class LatencyStrategy implements Strategy
     {
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public BalancerMember select(List<BalancerMember> members)
+        {
+            int size = members.size();
+            double total = 0;
+            int known = 0;
+            for (BalancerMember member : members)
+            {
+                double latency = member.getLatency();
+                if (latency >= 0)
+                {
+                    total += latency;
+                    ++known;
+                }
+            }
+            double mean = known == 0 ? 1 : total / known;
+
+            int start = (int)(counter.getAndIncrement() % size);
+            BalancerMember selected = null;
+            double least = Double.MAX_VALUE;
+            for (int i = 0; i < size; ++i)
+            {
+                BalancerMember member = members.get((start + i) % size);
+                double latency = member.getLatency();
+                if (latency < 0)
+                    latency = mean;
+                double cost = latency * (member.getOutstandingRequests() + 1);
+                if (cost < least)
+                {
+                    selected = member;
+                    least = cost;
+                }
+            }
+            return selected;
+        }
+    }
+
+    /**
+     * Selects members randomly, in proportion to their weight.
+     */
+    public static class WeightedRandomStrategy implements Strategy
+    {
+        @Override
+        public BalancerMember select(List<BalancerMember> members)
+        {
+            int total = 0;
+            for (BalancerMember member : members)
+            {
+                total += member.getWeight();
+            }
+            if (total <= 0)
+                return members.get(ThreadLocalRandom.current().nextInt(members.size()));
+
+            int random = ThreadLocalRandom.current().nextInt(total);
+            for (BalancerMember member : members)
+            {
+                random -= member.getWeight();
+                if (random < 0)
+                    return member;
+            }
+            return members.get(members.size() - 1);
+        }
+    }
+
+    /**
+     * <p>A backend server and the statistics of the requests proxied to it.</p>
+     */
+    @ManagedObject("A balancer member")
+    public static class BalancerMember
+    {
+        // The weight of the last latency in the moving average.
+        private static final double LATENCY_ALPHA = 0.3;
+        // Ejections are extended up to this many times the ejection time.
+        private static final int MAX_EJECTION_FACTOR = 10;
+
+        private final AutoLock _lock = new AutoLock();
+        private final AtomicInteger _outstanding = new AtomicInteger();
+        private final LongAdder _requests = new LongAdder();
+        private final LongAdder _failures = new LongAdder();
         private final String _name;
         private final String _proxyTo;
         private final URI _backendURI;
+        private volatile int _weight = 1;
+        private volatile double _latency = -1;
+        private volatile long _ejectedUntil;
+        private volatile boolean _ejected;
+        private int _consecutiveFailures;
+        private int _ejections;
 
         public BalancerMember(String name, String proxyTo)
         {
@@ -267,11 +695,13 @@ public class BalancerServlet extends ProxyServlet
             _backendURI = URI.create(_proxyTo).normalize();
         }
 
+        @ManagedAttribute("The member name")
         public String getName()
         {
             return _name;
         }
 
+        @ManagedAttribute("The URI requests are proxied to")
         public String getProxyTo()
         {
             return _proxyTo;
@@ -282,6 +712,100 @@ public class BalancerServlet extends ProxyServlet
             return _backendURI;
         }
 
+        @ManagedAttribute("The weight of the member for weighted strategies")
+        public int getWeight()
+        {
+            return _weight;
+        }
+
+        public void setWeight(int weight)
+        {
+            _weight = weight;
+        }
+
+        @ManagedAttribute("The number of outstanding requests")
+        public int getOutstandingRequests()
+        {
+            return _outstanding.get();
+        }
+
+        @ManagedAttribute("The total number of requests")
+        public long getRequests()
+        {
+            return _requests.sum();
+        }
+
+        @ManagedAttribute("The total number of failed requests")
+        public long getFailures()
+        {
+            return _failures.sum();
+        }
+
+        @ManagedAttribute("The moving average of the successful request latency in milliseconds, or -1 if unknown")
+        public double getLatency()
+        {
+            return _latency;
+        }
+
+        @ManagedAttribute("Whether the member is ejected")
+        public boolean isEjected()
+        {
+            return isEjected(System.nanoTime());
+        }
+
+        private boolean isEjected(long now)
+        {
+            return _ejected && now - _ejectedUntil < 0;
+        }
+
+        private void onRequestBegin()
+        {
+            _outstanding.incrementAndGet();
+            _requests.increment();
+        }
+
+        private int onRequestComplete(long nanos, boolean failed)
+        {
+            _outstanding.decrementAndGet();
+            if (failed)
+                _failures.increment();
+            double millis = nanos / (double)TimeUnit.MILLISECONDS.toNanos(1);
+            try (AutoLock l = _lock.lock())
+            {
+                // Failures are often fast, and must not make the member look faster.
+                if (failed)
+                    return ++_consecutiveFailures;
+                double latency = _latency;
+                _latency = latency < 0 ? millis : latency + LATENCY_ALPHA * (millis - latency);
+                _consecutiveFailures = 0;
+                _ejections = 0;
+                return 0;
+            }
+        }
+
+        private boolean eject(long now, long ejectionTime)
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                if (isEjected(now))
+                    return false;
+                _ejections = Math.min(_ejections + 1, MAX_EJECTION_FACTOR);
+                _ejectedUntil = now + TimeUnit.MILLISECONDS.toNanos(ejectionTime * _ejections);
+                _ejected = true;
+                _consecutiveFailures = 0;
+                return true;
+            }
+        }
+
+        private void restore()
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                _ejected = false;
+                _consecutiveFailures = 0;
+            }
+        }
+
         @Override
         public String toString()
         {
@@ -20,6 +20,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -51,6 +52,9 @@ import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.HostPort;
 import org.eclipse.jetty.util.Promise;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.slf4j.Logger;
@@ -58,7 +62,14 @@ import org.slf4j.LoggerFactory;
 
 /**
  * <p>Implementation of a {@link Handler} that supports HTTP CONNECT.</p>
+ * <p>The bytes of a tunnel are relayed between the client and the server
+ * {@link EndPoint}s by a pair of {@link ProxyConnection}s.
+ * When both endpoints are plain TCP endpoints, the bytes may be relayed directly
+ * by the selector threads (see {@link #setNonBlockingTunnels(boolean)}),
+ * and the relay buffers grow from {@link #getBufferSize()} up to
+ * {@link #getMaxBufferSize()} when the tunnel throughput is high.</p>
  */
+@ManagedObject("HTTP CONNECT proxy handler")
 public class ConnectHandler extends HandlerWrapper
 {
     protected static final Logger LOG = LoggerFactory.getLogger(ConnectHandler.class);
@@ -72,6 +83,9 @@ public class ConnectHandler extends HandlerWrapper
     private long connectTimeout = 15000;
     private long idleTimeout = 30000;
     private int bufferSize = 4096;
+    private int maxBufferSize = 64 * 1024;
+    private boolean nonBlockingTunnels;
+    private final Set<DownstreamConnection> tunnels = ConcurrentHashMap.newKeySet();
 
     public ConnectHandler()
     {
@@ -147,6 +161,7 @@ public class ConnectHandler extends HandlerWrapper
         this.idleTimeout = idleTimeout;
     }
 
+    @ManagedAttribute("The initial size of the tunnel relay buffers")
     public int getBufferSize()
     {
         return bufferSize;
@@ -157,6 +172,73 @@ public class ConnectHandler extends HandlerWrapper
         this.bufferSize = bufferSize;
     }
 
+    /**
+     * @return the max size the tunnel relay buffers may grow to when the throughput is high
+     */
+    @ManagedAttribute("The max size of the tunnel relay buffers")
+    public int getMaxBufferSize()
+    {
+        return maxBufferSize;
+    }
+
+    /**
+     * @param maxBufferSize the max size the tunnel relay buffers may grow to when the throughput is high,
+     * or a value not larger than {@link #getBufferSize()} to disable the adaptive sizing
+     */
+    public void setMaxBufferSize(int maxBufferSize)
+    {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    /**
+     * @return whether plain TCP tunnels are relayed by the selector threads
+     */
+    @ManagedAttribute("Whether plain TCP tunnels are relayed without dispatching to the executor")
+    public boolean isNonBlockingTunnels()
+    {
+        return nonBlockingTunnels;
+    }
+
+    /**
+     * <p>Sets whether tunnels between plain TCP endpoints are relayed by the selector
+     * threads, saving a dispatch to the executor for each chunk of bytes.</p>
+     * <p>This is disabled by default: a tunnel that always has bytes to relay keeps
+     * its selector thread busy, delaying the other endpoints of that selector.
+     * Enable it when tunnels are many and individually light.</p>
+     * <p>This must be disabled if {@link #read(EndPoint, ByteBuffer, ConcurrentMap)}
+     * or {@link #write(EndPoint, ByteBuffer, Callback, ConcurrentMap)} are overridden
+     * with implementations that may block.</p>
+     *
+     * @param nonBlockingTunnels whether plain TCP tunnels are relayed by the selector threads
+     */
+    public void setNonBlockingTunnels(boolean nonBlockingTunnels)
+    {
+        this.nonBlockingTunnels = nonBlockingTunnels;
+    }
+
+    /**
+     * @return the number of open tunnels
+     */
+    @ManagedAttribute("The number of open tunnels")
+    public int getTunnelCount()
+    {
+        return tunnels.size();
+    }
+
+    /**
+     * @return the client side connections of the open tunnels
+     */
+    public Set<DownstreamConnection> getTunnels()
+    {
+        return Collections.unmodifiableSet(tunnels);
+    }
+
+    @ManagedOperation(value = "The throughput of the open tunnels", impact = "INFO")
+    public String[] tunnels()
+    {
+        return tunnels.stream().map(DownstreamConnection::toTunnelString).toArray(String[]::new);
+    }
+
     @Override
     protected void doStart() throws Exception
     {
@@ -339,9 +421,15 @@ public class ConnectHandler extends HandlerWrapper
         EndPoint downstreamEndPoint = connectContext.getEndPoint();
         DownstreamConnection downstreamConnection = newDownstreamConnection(downstreamEndPoint, context);
         downstreamConnection.setInputBufferSize(getBufferSize());
+        downstreamConnection.setMaxInputBufferSize(getMaxBufferSize());
 
         upstreamConnection.setConnection(downstreamConnection);
         downstreamConnection.setConnection(upstreamConnection);
+
+        boolean nonBlocking = isNonBlockingTunnels() && downstreamConnection.canRelayNonBlocking(upstreamConnection);
+        downstreamConnection.setNonBlocking(nonBlocking);
+        upstreamConnection.setNonBlocking(nonBlocking);
+        tunnels.add(downstreamConnection);
         if (LOG.isDebugEnabled())
             LOG.debug("Connection setup completed: {}<->{}", downstreamConnection, upstreamConnection);
 
@@ -514,6 +602,7 @@ public class ConnectHandler extends HandlerWrapper
             ConnectContext connectContext = (ConnectContext)attachment;
             UpstreamConnection connection = newUpstreamConnection(endpoint, connectContext);
             connection.setInputBufferSize(getBufferSize());
+            connection.setMaxInputBufferSize(getMaxBufferSize());
             return connection;
         }
 
@@ -614,6 +703,30 @@ public class ConnectHandler extends HandlerWrapper
             this.buffer = buffer;
         }
 
+        @Override
+        public void onClose(Throwable cause)
+        {
+            if (tunnels.remove(this) && LOG.isDebugEnabled())
+                LOG.debug("Tunnel closed {}", toTunnelString());
+            super.onClose(cause);
+        }
+
+        /**
+         * @return a description of the tunnel with the bytes relayed in each direction and their throughput
+         */
+        public String toTunnelString()
+        {
+            ProxyConnection upstream = (ProxyConnection)getConnection();
+            return String.format("%s<->%s[up=%dB@%dB/s,down=%dB@%dB/s,nonBlocking=%b]",
+                getEndPoint().getRemoteAddress(),
+                upstream.getEndPoint().getRemoteAddress(),
+                getBytesIn(),
+                getBytesPerSecond(),
+                upstream.getBytesIn(),
+                upstream.getBytesPerSecond(),
+                isNonBlocking());
+        }
+
         @Override
         public void onOpen()
         {
@@ -17,22 +17,47 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jetty.io.AbstractConnection;
 import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.SocketChannelEndPoint;
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IteratingCallback;
 import org.slf4j.Logger;
 
+/**
+ * <p>A {@link Connection} that relays the bytes read from its {@link EndPoint}
+ * to the {@link EndPoint} of the {@link #getConnection() other connection}.</p>
+ * <p>The input buffer is retained while bytes are flowing, and only released
+ * when there is nothing to read, so that busy tunnels do not acquire and release
+ * a buffer for each chunk.
+ * If the {@link #getMaxInputBufferSize() max input buffer size} is larger than the
+ * {@link #getInputBufferSize() input buffer size}, the size of the input buffer
+ * adapts to the throughput: it grows when reads fill the whole buffer, and it
+ * shrinks back when reads only fill a small part of it.</p>
+ * <p>When the relay is {@link #isNonBlocking() non-blocking}, the reads and the
+ * writes are performed directly by the selector threads, without dispatching
+ * to the executor.</p>
+ */
 public abstract class ProxyConnection extends AbstractConnection
 {
     protected static final Logger LOG = ConnectHandler.LOG;
+    private static final int SHRINK_READS = 16;
+
     private final IteratingCallback pipe = new ProxyIteratingCallback();
+    private final Callback nonBlockingFillable = new NonBlockingFillableCallback();
+    private final AtomicLong bytes = new AtomicLong();
     private final ByteBufferPool bufferPool;
     private final ConcurrentMap<String, Object> context;
     private ProxyConnection connection;
+    private int maxInputBufferSize;
+    private int bufferSize;
+    private boolean nonBlocking;
 
     protected ProxyConnection(EndPoint endp, Executor executor, ByteBufferPool bufferPool, ConcurrentMap<String, Object> context)
     {
@@ -61,6 +86,66 @@ public abstract class ProxyConnection extends AbstractConnection
         this.connection = connection;
     }
 
+    /**
+     * @return the max size the input buffer may grow to when the throughput is high
+     */
+    public int getMaxInputBufferSize()
+    {
+        return Math.max(maxInputBufferSize, getInputBufferSize());
+    }
+
+    /**
+     * @param maxInputBufferSize the max size the input buffer may grow to when the throughput is high
+     */
+    public void setMaxInputBufferSize(int maxInputBufferSize)
+    {
+        this.maxInputBufferSize = maxInputBufferSize;
+    }
+
+    /**
+     * @return whether the bytes are relayed by the selector threads without dispatching to the executor
+     */
+    public boolean isNonBlocking()
+    {
+        return nonBlocking;
+    }
+
+    /**
+     * <p>Sets whether the bytes are relayed by the selector threads without dispatching to the executor.</p>
+     * <p>This is only possible when both {@link EndPoint}s are plain {@link SocketChannelEndPoint}s
+     * (for example, not TLS endpoints) and when reads and writes never block.</p>
+     *
+     * @param nonBlocking whether the relay is non-blocking
+     */
+    public void setNonBlocking(boolean nonBlocking)
+    {
+        this.nonBlocking = nonBlocking;
+    }
+
+    /**
+     * @param connection the other connection of the tunnel
+     * @return whether the bytes between this connection and the given one can be relayed without dispatching
+     */
+    protected boolean canRelayNonBlocking(ProxyConnection connection)
+    {
+        return getEndPoint() instanceof SocketChannelEndPoint && connection.getEndPoint() instanceof SocketChannelEndPoint;
+    }
+
+    @Override
+    public void fillInterested()
+    {
+        if (isNonBlocking())
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("fillInterested non-blocking {}", this);
+            getEndPoint().fillInterested(nonBlockingFillable);
+        }
+        else
+        {
+            super.fillInterested();
+        }
+    }
+
     @Override
     public void onFillable()
     {
@@ -76,6 +161,24 @@ public abstract class ProxyConnection extends AbstractConnection
         getEndPoint().close(failure);
     }
 
+    /**
+     * @return the number of bytes read from this connection's {@link EndPoint} and relayed to the other connection
+     */
+    @Override
+    public long getBytesIn()
+    {
+        return bytes.get();
+    }
+
+    /**
+     * @return the average number of bytes per second relayed from this connection to the other connection
+     */
+    public long getBytesPerSecond()
+    {
+        long elapsed = System.currentTimeMillis() - getCreatedTimeStamp();
+        return elapsed <= 0 ? 0 : getBytesIn() * TimeUnit.SECONDS.toMillis(1) / elapsed;
+    }
+
     @Override
     public String toConnectionString()
     {
@@ -86,15 +189,42 @@ public abstract class ProxyConnection extends AbstractConnection
             getEndPoint().getRemoteAddress().getPort());
     }
 
+    private class NonBlockingFillableCallback implements Callback
+    {
+        @Override
+        public void succeeded()
+        {
+            onFillable();
+        }
+
+        @Override
+        public void failed(Throwable x)
+        {
+            onFillInterestedFailed(x);
+        }
+
+        @Override
+        public InvocationType getInvocationType()
+        {
+            return InvocationType.NON_BLOCKING;
+        }
+    }
+
     private class ProxyIteratingCallback extends IteratingCallback
     {
         private ByteBuffer buffer;
         private int filled;
+        private int smallReads;
 
         @Override
         protected Action process()
         {
-            buffer = bufferPool.acquire(getInputBufferSize(), true);
+            if (buffer == null)
+            {
+                if (bufferSize < getInputBufferSize())
+                    bufferSize = getInputBufferSize();
+                buffer = bufferPool.acquire(bufferSize, true);
+            }
             try
             {
                 int filled = this.filled = read(getEndPoint(), buffer);
@@ -102,18 +232,19 @@ public abstract class ProxyConnection extends AbstractConnection
                     LOG.debug("{} filled {} bytes", ProxyConnection.this, filled);
                 if (filled > 0)
                 {
+                    bytes.addAndGet(filled);
                     write(connection.getEndPoint(), buffer, this);
                     return Action.SCHEDULED;
                 }
                 else if (filled == 0)
                 {
-                    bufferPool.release(buffer);
+                    release();
                     fillInterested();
                     return Action.IDLE;
                 }
                 else
                 {
-                    bufferPool.release(buffer);
+                    release();
                     connection.getEndPoint().shutdownOutput();
                     return Action.SUCCEEDED;
                 }
@@ -122,7 +253,7 @@ public abstract class ProxyConnection extends AbstractConnection
             {
                 if (LOG.isDebugEnabled())
                     LOG.debug("{} could not fill", ProxyConnection.this, x);
-                bufferPool.release(buffer);
+                release();
                 disconnect(x);
                 return Action.SUCCEEDED;
             }
@@ -133,10 +264,52 @@ public abstract class ProxyConnection extends AbstractConnection
         {
             if (LOG.isDebugEnabled())
                 LOG.debug("{} wrote {} bytes", ProxyConnection.this, filled);
-            bufferPool.release(buffer);
+            adapt();
             super.succeeded();
         }
 
+        private void adapt()
+        {
+            int size = buffer.capacity();
+            int maxSize = getMaxInputBufferSize();
+            if (filled >= size && size < maxSize)
+            {
+                // The reads fill the whole buffer, use a larger one.
+                smallReads = 0;
+                bufferSize = Math.min(maxSize, size * 2);
+                release();
+            }
+            else if (filled < size / 4 && size > getInputBufferSize())
+            {
+                // Shrink only after many small reads, to avoid oscillating.
+                if (++smallReads >= SHRINK_READS)
+                {
+                    smallReads = 0;
+                    bufferSize = Math.max(getInputBufferSize(), size / 2);
+                    release();
+                }
+            }
+            else
+            {
+                smallReads = 0;
+            }
+            if (buffer != null)
+                BufferUtil.clear(buffer);
+        }
+
+        private void release()
+        {
+            if (buffer != null)
+                bufferPool.release(buffer);
+            buffer = null;
+        }
+
+        @Override
+        public InvocationType getInvocationType()
+        {
+            return isNonBlocking() ? InvocationType.NON_BLOCKING : InvocationType.BLOCKING;
+        }
+
         @Override
         protected void onCompleteSuccess()
         {
@@ -147,7 +320,7 @@ public abstract class ProxyConnection extends AbstractConnection
         {
             if (LOG.isDebugEnabled())
                 LOG.debug("{} failed to write {} bytes", ProxyConnection.this, filled, x);
-            bufferPool.release(buffer);
+            release();
             disconnect(x);
         }
 
@@ -0,0 +1,224 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.proxy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jetty.client.AbstractConnectionPool;
+import org.eclipse.jetty.client.ConnectionPool;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpDestination;
+import org.eclipse.jetty.client.MultiplexConnectionPool;
+import org.eclipse.jetty.client.Origin;
+import org.eclipse.jetty.client.api.Destination;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.Dumpable;
+
+/**
+ * <p>Reports the connection pool usage of each upstream destination of a proxy {@link HttpClient}.</p>
+ * <p>The saturation of an upstream is the ratio between the connections that are in use
+ * (or being opened) and the max number of connections of its pool; a saturated upstream
+ * queues the proxied requests until a connection becomes available.
+ * For multiplexed upstreams (for example HTTP/2) a connection is in use as soon as it
+ * carries one request, so the {@link Upstream#getQueuedRequestCount() queued requests}
+ * are the signal that the multiplexing capacity is exhausted.</p>
+ *
+ * @see AbstractProxyServlet#getUpstreamPoolStatistics()
+ */
+@ManagedObject("Connection pool usage of the proxy upstreams")
+public class UpstreamPoolStatistics implements Dumpable
+{
+    private final HttpClient _client;
+
+    public UpstreamPoolStatistics(HttpClient client)
+    {
+        _client = client;
+    }
+
+    /**
+     * @return a snapshot of the connection pool usage of each upstream
+     */
+    public List<Upstream> getUpstreams()
+    {
+        List<Upstream> upstreams = new ArrayList<>();
+        for (Destination destination : _client.getDestinations())
+        {
+            if (destination instanceof HttpDestination)
+                upstreams.add(new Upstream((HttpDestination)destination));
+        }
+        return upstreams;
+    }
+
+    @ManagedAttribute("The number of upstream destinations")
+    public int getUpstreamCount()
+    {
+        return _client.getDestinations().size();
+    }
+
+    @ManagedAttribute("The saturation of the most saturated upstream connection pool")
+    public double getMaxSaturation()
+    {
+        return getUpstreams().stream().mapToDouble(Upstream::getSaturation).max().orElse(0D);
+    }
+
+    @ManagedAttribute("The number of proxied requests queued waiting for an upstream connection")
+    public int getQueuedRequestCount()
+    {
+        return getUpstreams().stream().mapToInt(Upstream::getQueuedRequestCount).sum();
+    }
+
+    @ManagedAttribute("The number of upstream connections")
+    public int getConnectionCount()
+    {
+        return getUpstreams().stream().mapToInt(Upstream::getConnectionCount).sum();
+    }
+
+    @ManagedOperation(value = "The connection pool usage of each upstream", impact = "INFO")
+    public String[] upstreams()
+    {
+        return getUpstreams().stream().map(Upstream::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        Dumpable.dumpObjects(out, indent, this, getUpstreams().toArray());
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[upstreams=%d]", getClass().getSimpleName(), hashCode(), getUpstreamCount());
+    }
+
+    /**
+     * <p>A snapshot of the connection pool usage of an upstream destination.</p>
+     */
+    public static class Upstream
+    {
+        private final String _origin;
+        private final List<String> _protocols;
+        private final int _connections;
+        private final int _activeConnections;
+        private final int _idleConnections;
+        private final int _pendingConnections;
+        private final int _maxConnections;
+        private final int _maxMultiplex;
+        private final int _queuedRequests;
+
+        private Upstream(HttpDestination destination)
+        {
+            Origin origin = destination.getOrigin();
+            _origin = origin.asString();
+            Origin.Protocol protocol = origin.getProtocol();
+            _protocols = protocol == null ? List.of() : protocol.getProtocols();
+            ConnectionPool pool = destination.getConnectionPool();
+            if (pool instanceof AbstractConnectionPool)
+            {
+                AbstractConnectionPool connectionPool = (AbstractConnectionPool)pool;
+                _connections = connectionPool.getConnectionCount();
+                _activeConnections = connectionPool.getActiveConnectionCount();
+                _idleConnections = connectionPool.getIdleConnectionCount();
+                _pendingConnections = connectionPool.getPendingConnectionCount();
+                _maxConnections = connectionPool.getMaxConnectionCount();
+            }
+            else
+            {
+                _connections = 0;
+                _activeConnections = 0;
+                _idleConnections = 0;
+                _pendingConnections = 0;
+                _maxConnections = 0;
+            }
+            _maxMultiplex = pool instanceof MultiplexConnectionPool ? ((MultiplexConnectionPool)pool).getMaxMultiplex() : 1;
+            _queuedRequests = destination.getQueuedRequestCount();
+        }
+
+        /**
+         * @return the upstream origin, for example {@code http://host:8080}
+         */
+        public String getOrigin()
+        {
+            return _origin;
+        }
+
+        /**
+         * @return the protocols used to connect to the upstream, empty if the default protocol is used
+         */
+        public List<String> getProtocols()
+        {
+            return _protocols;
+        }
+
+        public int getConnectionCount()
+        {
+            return _connections;
+        }
+
+        public int getActiveConnectionCount()
+        {
+            return _activeConnections;
+        }
+
+        public int getIdleConnectionCount()
+        {
+            return _idleConnections;
+        }
+
+        public int getPendingConnectionCount()
+        {
+            return _pendingConnections;
+        }
+
+        public int getMaxConnectionCount()
+        {
+            return _maxConnections;
+        }
+
+        /**
+         * @return the max number of concurrent requests per connection
+         */
+        public int getMaxMultiplex()
+        {
+            return _maxMultiplex;
+        }
+
+        public int getQueuedRequestCount()
+        {
+            return _queuedRequests;
+        }
+
+        /**
+         * @return the ratio, between 0 and 1, of in use and pending connections over the max connections
+         */
+        public double getSaturation()
+        {
+            if (_maxConnections <= 0)
+                return 0D;
+            return Math.min(1D, (double)(_activeConnections + _pendingConnections) / _maxConnections);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s%s[connections=%d,active=%d,idle=%d,pending=%d,max=%d,multiplex=%d,queued=%d,saturation=%.2f]",
+                _origin, _protocols, _connections, _activeConnections, _idleConnections, _pendingConnections,
+                _maxConnections, _maxMultiplex, _queuedRequests, getSaturation());
+        }
+    }
+}
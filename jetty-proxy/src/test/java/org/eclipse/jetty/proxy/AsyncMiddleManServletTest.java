@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.proxy;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,6 +39,8 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import javax.servlet.ServletException;
@@ -58,6 +61,7 @@ import org.eclipse.jetty.client.util.FutureResponseListener;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpHeaderValue;
 import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.io.MappedByteBufferPool;
 import org.eclipse.jetty.io.RuntimeIOException;
 import org.eclipse.jetty.logging.StacklessLogging;
 import org.eclipse.jetty.server.HttpChannel;
@@ -268,6 +272,109 @@ public class AsyncMiddleManServletTest
         assertArrayEquals(bytes, response.getContent());
     }
 
+    @Test
+    public void testServerResponseGzippedContentStreamedThroughChainedTransformer() throws Exception
+    {
+        int chunk = 64 * 1024;
+        int chunks = 16;
+        // Random content does not compress, so each stage produces many buffers.
+        byte[] bytes = new byte[chunk * chunks];
+        new Random().nextBytes(bytes);
+        startServer(new HttpServlet()
+        {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                response.setHeader(HttpHeader.CONTENT_ENCODING.asString(), "gzip");
+                OutputStream output = new GZIPOutputStream(response.getOutputStream(), true);
+                for (int i = 0; i < chunks; ++i)
+                {
+                    output.write(bytes, i * chunk, chunk);
+                    output.flush();
+                }
+                output.close();
+            }
+        });
+        AtomicInteger transforms = new AtomicInteger();
+        AtomicLong transformed = new AtomicLong();
+        startProxy(new AsyncMiddleManServlet()
+        {
+            @Override
+            protected ContentTransformer newServerResponseContentTransformer(HttpServletRequest clientRequest, HttpServletResponse proxyResponse, Response serverResponse)
+            {
+                return new ChainedContentTransformer(
+                    new GZIPDecodingContentTransformer(getHttpClient()),
+                    (input, finished, output) ->
+                    {
+                        // Must never see the whole content at once.
+                        assertTrue(input.remaining() < bytes.length);
+                        transforms.incrementAndGet();
+                        transformed.addAndGet(input.remaining());
+                        output.add(input);
+                    },
+                    new GZIPEncodingContentTransformer(getHttpClient()));
+            }
+        });
+        startClient();
+
+        ContentResponse response = client.newRequest("localhost", serverConnector.getLocalPort())
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+
+        assertEquals(200, response.getStatus());
+        byte[] content = response.getContent();
+        assertArrayEquals(bytes, content);
+        assertEquals(content.length, transformed.get());
+        assertTrue(transforms.get() > 1);
+    }
+
+    @Test
+    public void testGZIPEncodingContentTransformerReleasesBuffers() throws Exception
+    {
+        AtomicInteger acquired = new AtomicInteger();
+        MappedByteBufferPool pool = new MappedByteBufferPool()
+        {
+            @Override
+            public ByteBuffer acquire(int size, boolean direct)
+            {
+                acquired.incrementAndGet();
+                return super.acquire(size, direct);
+            }
+
+            @Override
+            public void release(ByteBuffer buffer)
+            {
+                acquired.decrementAndGet();
+                super.release(buffer);
+            }
+        };
+        HttpClient httpClient = new HttpClient();
+        httpClient.setByteBufferPool(pool);
+
+        int chunk = 16 * 1024;
+        int chunks = 4;
+        byte[] bytes = new byte[chunk * chunks];
+        new Random().nextBytes(bytes);
+        AsyncMiddleManServlet.GZIPEncodingContentTransformer transformer = new AsyncMiddleManServlet.GZIPEncodingContentTransformer(httpClient);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        List<ByteBuffer> output = new ArrayList<>();
+        for (int i = 0; i < chunks; ++i)
+        {
+            transformer.transform(ByteBuffer.wrap(bytes, i * chunk, chunk), i == chunks - 1, output);
+            for (ByteBuffer buffer : output)
+            {
+                gzipped.write(BufferUtil.toArray(buffer));
+            }
+            output.clear();
+            // Only the buffers of the last output are retained.
+            assertTrue(acquired.get() > 0);
+        }
+        transformer.destroy();
+
+        assertEquals(0, acquired.get());
+        assertArrayEquals(bytes, IO.readBytes(new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))));
+    }
+
     @Test
     public void testTransformUpstreamAndDownstreamKnownContentLengthGzipped() throws Exception
     {
@@ -17,6 +17,11 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.servlet.ServletException;
@@ -35,6 +40,11 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class BalancerServletTest
@@ -46,6 +56,7 @@ public class BalancerServletTest
     private Server server1;
     private Server server2;
     private Server balancer;
+    private ServletHolder balancerServletHolder;
     private HttpClient client;
 
     @BeforeEach
@@ -66,13 +77,19 @@ public class BalancerServletTest
 
     protected void startBalancer(Class<? extends HttpServlet> servletClass) throws Exception
     {
-        server1 = createServer(new ServletHolder(servletClass), "node1");
+        startBalancer(new ServletHolder(servletClass), new ServletHolder(servletClass), Map.of());
+    }
+
+    protected void startBalancer(ServletHolder servletHolder1, ServletHolder servletHolder2, Map<String, String> initParams) throws Exception
+    {
+        server1 = createServer(servletHolder1, "node1");
         server1.start();
 
-        server2 = createServer(new ServletHolder(servletClass), "node2");
+        server2 = createServer(servletHolder2, "node2");
         server2.start();
 
-        ServletHolder balancerServletHolder = new ServletHolder(BalancerServlet.class);
+        balancerServletHolder = new ServletHolder(BalancerServlet.class);
+        balancerServletHolder.setInitParameters(initParams);
         balancerServletHolder.setInitParameter("stickySessions", String.valueOf(stickySessions));
         balancerServletHolder.setInitParameter("proxyPassReverse", "true");
         balancerServletHolder.setInitParameter("balancerMember." + "node1" + ".proxyTo", "http://localhost:" + getServerPort(server1));
@@ -108,11 +125,15 @@ public class BalancerServletTest
 
     protected byte[] sendRequestToBalancer(String path) throws Exception
     {
-        ContentResponse response = client.newRequest("localhost", getServerPort(balancer))
+        return sendToBalancer(path).getContent();
+    }
+
+    private ContentResponse sendToBalancer(String path) throws Exception
+    {
+        return client.newRequest("localhost", getServerPort(balancer))
             .path(CONTEXT_PATH + SERVLET_PATH + path)
             .timeout(5, TimeUnit.SECONDS)
             .send();
-        return response.getContent();
     }
 
     @Test
@@ -155,6 +176,112 @@ public class BalancerServletTest
         assertEquals("success", msg);
     }
 
+    @Test
+    public void testLatencyStrategyImprovesTailLatency() throws Exception
+    {
+        stickySessions = false;
+        startBalancer(new ServletHolder(new NodeServlet("node1", 0, HttpServletResponse.SC_OK)),
+            new ServletHolder(new NodeServlet("node2", 200, HttpServletResponse.SC_OK)),
+            Map.of());
+        BalancerServlet balancerServlet = (BalancerServlet)balancerServletHolder.getServlet();
+
+        Map<String, Integer> roundRobinNodes = new HashMap<>();
+        long roundRobinTail = sendRequestsToBalancer(20, roundRobinNodes);
+        assertEquals(10, roundRobinNodes.get("node2"));
+
+        balancerServlet.setStrategyName("latency");
+        Map<String, Integer> latencyNodes = new HashMap<>();
+        long latencyTail = sendRequestsToBalancer(20, latencyNodes);
+
+        // The slow member is avoided once its latency is known.
+        assertThat(latencyNodes.getOrDefault("node2", 0), lessThanOrEqualTo(1));
+        assertThat(latencyTail, lessThan(roundRobinTail));
+    }
+
+    @Test
+    public void testLatencyStrategyIgnoresFailureLatency() throws Exception
+    {
+        stickySessions = false;
+        startBalancer(new ServletHolder(new NodeServlet("node1", 50, HttpServletResponse.SC_OK)),
+            new ServletHolder(new NodeServlet("node2", 0, HttpServletResponse.SC_SERVICE_UNAVAILABLE)),
+            Map.of("strategy", "latency", "maxConsecutiveFailures", "0"));
+        BalancerServlet balancerServlet = (BalancerServlet)balancerServletHolder.getServlet();
+
+        Map<String, Integer> nodes = new HashMap<>();
+        sendRequestsToBalancer(10, nodes);
+
+        // The fast failures must not make node2 look faster than node1,
+        // and node2 is still tried, with the mean latency of the other members.
+        assertThat(nodes.getOrDefault("node2", 0), lessThanOrEqualTo(5));
+        assertThat(nodes.getOrDefault("node2", 0), greaterThan(0));
+        for (BalancerServlet.BalancerMember member : balancerServlet.getBalancerMembers())
+        {
+            if ("node2".equals(member.getName()))
+                assertThat(member.getLatency(), lessThan(0D));
+        }
+    }
+
+    @Test
+    public void testLeastRequestsStrategy() throws Exception
+    {
+        stickySessions = false;
+        startBalancer(new ServletHolder(new NodeServlet("node1", 0, HttpServletResponse.SC_OK)),
+            new ServletHolder(new NodeServlet("node2", 0, HttpServletResponse.SC_OK)),
+            Map.of("strategy", "leastRequests"));
+        BalancerServlet balancerServlet = (BalancerServlet)balancerServletHolder.getServlet();
+        assertThat(balancerServlet.getStrategy(), instanceOf(BalancerServlet.LeastRequestsStrategy.class));
+
+        Map<String, Integer> nodes = new HashMap<>();
+        sendRequestsToBalancer(10, nodes);
+        // Sequential requests see no outstanding requests, so members are selected in turn.
+        assertEquals(5, nodes.get("node1"));
+        assertEquals(5, nodes.get("node2"));
+        for (BalancerServlet.BalancerMember member : balancerServlet.getBalancerMembers())
+        {
+            assertEquals(0, member.getOutstandingRequests());
+            assertEquals(5, member.getRequests());
+        }
+    }
+
+    @Test
+    public void testOutlierEjection() throws Exception
+    {
+        stickySessions = false;
+        startBalancer(new ServletHolder(new NodeServlet("node1", 0, HttpServletResponse.SC_OK)),
+            new ServletHolder(new NodeServlet("node2", 0, HttpServletResponse.SC_SERVICE_UNAVAILABLE)),
+            Map.of("maxConsecutiveFailures", "2", "ejectionTime", "60000"));
+        BalancerServlet balancerServlet = (BalancerServlet)balancerServletHolder.getServlet();
+
+        int failures = 0;
+        for (int i = 0; i < 20; i++)
+        {
+            if (sendToBalancer("/ejection").getStatus() != HttpServletResponse.SC_OK)
+                ++failures;
+        }
+
+        assertEquals(2, failures);
+        assertEquals(1, balancerServlet.getEjections());
+        assertEquals(1, balancerServlet.getEjectedMembers());
+
+        balancerServlet.resetEjections();
+        assertEquals(0, balancerServlet.getEjectedMembers());
+    }
+
+    private long sendRequestsToBalancer(int count, Map<String, Integer> nodes) throws Exception
+    {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            long begin = System.nanoTime();
+            String node = readFirstLine(sendRequestToBalancer("/latency"));
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+            nodes.merge(node, 1, Integer::sum);
+        }
+        // Return the 90th percentile latency.
+        Collections.sort(latencies);
+        return latencies.get(count * 9 / 10 - 1);
+    }
+
     private String readFirstLine(byte[] responseBytes) throws IOException
     {
         BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(responseBytes)));
@@ -175,6 +302,36 @@ public class BalancerServletTest
         }
     }
 
+    public static final class NodeServlet extends HttpServlet
+    {
+        private final String node;
+        private final long delay;
+        private final int status;
+
+        public NodeServlet(String node, long delay, int status)
+        {
+            this.node = node;
+            this.delay = delay;
+            this.status = status;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException
+        {
+            try
+            {
+                Thread.sleep(delay);
+            }
+            catch (InterruptedException x)
+            {
+                throw new ServletException(x);
+            }
+            resp.setStatus(status);
+            resp.setContentType("text/plain");
+            resp.getWriter().println(node);
+        }
+    }
+
     public static final class RelocationServlet extends HttpServlet
     {
         @Override
@@ -23,9 +23,11 @@ import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Locale;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
@@ -658,6 +660,61 @@ public class ConnectHandlerTest extends AbstractConnectHandlerTest
         }
     }
 
+    @Test
+    public void testCONNECTTunnelIsNonBlockingAndReportsThroughput() throws Exception
+    {
+        connectHandler.setNonBlockingTunnels(true);
+        String hostPort = "localhost:" + serverConnector.getLocalPort();
+        String request =
+            "CONNECT " + hostPort + " HTTP/1.1\r\n" +
+                "Host: " + hostPort + "\r\n" +
+                "\r\n";
+        try (Socket socket = newSocket())
+        {
+            OutputStream output = socket.getOutputStream();
+            InputStream input = socket.getInputStream();
+
+            output.write(request.getBytes(StandardCharsets.UTF_8));
+            output.flush();
+
+            // Expect 200 OK from the CONNECT request
+            HttpTester.Input in = HttpTester.from(input);
+            HttpTester.Response response = HttpTester.parseResponse(in);
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+
+            char[] chars = new char[1024 * 1024];
+            Arrays.fill(chars, 'x');
+            String body = new String(chars);
+            request =
+                "POST /echo HTTP/1.1\r\n" +
+                    "Host: " + hostPort + "\r\n" +
+                    "Content-Length: " + body.length() + "\r\n" +
+                    "\r\n" +
+                    body;
+            output.write(request.getBytes(StandardCharsets.UTF_8));
+            output.flush();
+
+            response = HttpTester.parseResponse(in);
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+            assertEquals("POST /echo\r\n" + body, response.getContent());
+
+            assertEquals(1, connectHandler.getTunnelCount());
+            ConnectHandler.DownstreamConnection tunnel = connectHandler.getTunnels().iterator().next();
+            assertTrue(tunnel.isNonBlocking());
+            assertTrue(tunnel.getBytesIn() > body.length());
+            assertTrue(((ProxyConnection)tunnel.getConnection()).getBytesIn() > body.length());
+            assertTrue(tunnel.getBytesPerSecond() > 0);
+            assertTrue(connectHandler.tunnels()[0].contains("nonBlocking=true"));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (connectHandler.getTunnelCount() > 0 && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(0, connectHandler.getTunnelCount());
+    }
+
     @Test
     public void testCONNECTAndPOSTWithContext() throws Exception
     {
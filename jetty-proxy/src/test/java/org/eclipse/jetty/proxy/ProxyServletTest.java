@@ -76,6 +76,7 @@ import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpScheme;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.io.ClientConnector;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
@@ -995,6 +996,51 @@ public class ProxyServletTest
         assertTrue(response.getHeaders().contains(PROXIED_HEADER));
     }
 
+    @ParameterizedTest
+    @MethodSource("transparentImpls")
+    public void testTransparentProxyPrewarmsUpstreamConnections(AbstractProxyServlet proxyServletClass) throws Exception
+    {
+        startServer(new EmptyHttpServlet());
+        String proxyTo = "http://localhost:" + serverConnector.getLocalPort();
+        Map<String, String> initParams = new HashMap<>();
+        initParams.put("proxyTo", proxyTo);
+        initParams.put("prewarmConnections", "4");
+        startProxy(proxyServletClass, initParams);
+
+        UpstreamPoolStatistics statistics = proxyServlet.getUpstreamPoolStatistics();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (statistics.getConnectionCount() < 4 && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+
+        // The connections are opened before any request is proxied.
+        List<UpstreamPoolStatistics.Upstream> upstreams = statistics.getUpstreams();
+        assertEquals(1, upstreams.size());
+        UpstreamPoolStatistics.Upstream upstream = upstreams.get(0);
+        assertEquals(4, upstream.getConnectionCount());
+        assertEquals(4, upstream.getIdleConnectionCount());
+        assertEquals(0, upstream.getQueuedRequestCount());
+        assertEquals(0D, upstream.getSaturation());
+
+        startClient();
+        ContentResponse response = client.newRequest("localhost", proxyConnector.getLocalPort())
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+        assertEquals(200, response.getStatus());
+        assertEquals(4, statistics.getConnectionCount());
+    }
+
+    @Test
+    public void testHTTP2UpstreamWithoutHTTP2Transport()
+    {
+        // This module does not depend on the HTTP/2 client modules.
+        ProxyServlet proxyServlet = new ProxyServlet();
+        IllegalStateException x = assertThrows(IllegalStateException.class, () -> proxyServlet.newHTTP2ClientConnectionFactoryInfo(new ClientConnector()));
+        assertThat(x.getMessage(), containsString("jetty-http2-http-client-transport"));
+        assertThat(x.getCause(), instanceOf(ClassNotFoundException.class));
+    }
+
     /**
      * Only tests overridden ProxyServlet behavior, see CachingProxyServlet
      */
@@ -23,3 +23,5 @@ basehome:modules/jetty-quickstart.d/quickstart-webapp.xml|etc/quickstart-webapp.
 # jetty.quickstart.mode=AUTO
 # jetty.quickstart.origin=origin
 # jetty.quickstart.xml=
+# jetty.quickstart.snapshot=false
+# jetty.quickstart.snapshot.verify=false
@@ -15,6 +15,7 @@ package org.eclipse.jetty.quickstart;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -48,6 +49,15 @@ public class QuickStartConfiguration extends AbstractConfiguration
     public static final String ORIGIN_ATTRIBUTE = "org.eclipse.jetty.quickstart.origin";
     public static final String QUICKSTART_WEB_XML = "org.eclipse.jetty.quickstart.xml";
     public static final String MODE = "org.eclipse.jetty.quickstart.mode";
+    /**
+     * The context attribute to generate and restore a {@link QuickStartSnapshot} with the quickstart-web.xml:
+     * true for a snapshot alongside the quickstart-web.xml, or the location of the snapshot relative to WEB-INF.
+     */
+    public static final String SNAPSHOT = "org.eclipse.jetty.quickstart.snapshot";
+    /**
+     * The context attribute to check that the WAR has not changed since the {@link QuickStartSnapshot} was generated.
+     */
+    public static final String SNAPSHOT_VERIFY = "org.eclipse.jetty.quickstart.snapshot.verify";
 
     static
     {
@@ -78,6 +88,7 @@ public class QuickStartConfiguration extends AbstractConfiguration
 
     private Mode _mode = Mode.AUTO;
     private boolean _quickStart;
+    private QuickStartSnapshot _snapshot;
 
     public QuickStartConfiguration()
     {
@@ -104,6 +115,7 @@ public class QuickStartConfiguration extends AbstractConfiguration
             _mode = mode;
         
         _quickStart = false;
+        _snapshot = null;
         
         switch (_mode)
         {
@@ -155,6 +167,7 @@ public class QuickStartConfiguration extends AbstractConfiguration
             generator.setOriginAttribute(attr.toString());
 
         generator.setQuickStartWebXml((Resource)context.getAttribute(QUICKSTART_WEB_XML));
+        generator.setQuickStartSnapshot(getQuickStartSnapshot(context, generator.getQuickStartWebXml()));
     }
 
     @Override
@@ -170,7 +183,7 @@ public class QuickStartConfiguration extends AbstractConfiguration
             context.getMetaData().addDescriptorProcessor(new StandardDescriptorProcessor());
 
             //add a processor to handle extended web.xml format
-            context.getMetaData().addDescriptorProcessor(new QuickStartDescriptorProcessor());
+            context.getMetaData().addDescriptorProcessor(new QuickStartDescriptorProcessor(_snapshot));
 
             //add a decorator that will find introspectable annotations
             context.getObjectFactory().addDecorator(new AnnotationDecorator(context)); //this must be the last Decorator because they are run in reverse order!
@@ -210,6 +223,48 @@ public class QuickStartConfiguration extends AbstractConfiguration
         context.getMetaData().setWebDescriptor(new WebDescriptor((Resource)context.getAttribute(QUICKSTART_WEB_XML)));
         context.getServletContext().setEffectiveMajorVersion(context.getMetaData().getWebDescriptor().getMajorVersion());
         context.getServletContext().setEffectiveMinorVersion(context.getMetaData().getWebDescriptor().getMinorVersion());
+
+        Path snapshotFile = getQuickStartSnapshot(context);
+        if (snapshotFile != null)
+        {
+            Object verify = context.getAttribute(SNAPSHOT_VERIFY);
+            QuickStartSnapshot snapshot = new QuickStartSnapshot(snapshotFile);
+            if (snapshot.restore(context, (Resource)context.getAttribute(QUICKSTART_WEB_XML), verify != null && Boolean.parseBoolean(verify.toString())))
+            {
+                snapshot.configureClassPath(context);
+                _snapshot = snapshot;
+            }
+        }
+    }
+
+    /**
+     * Get the location of the quickstart snapshot, as configured by the {@link #SNAPSHOT} attribute.
+     *
+     * @param context the web app context
+     * @return the location of the snapshot, or null if no snapshot is generated or restored
+     * @throws Exception if unable to find the quickstart xml
+     */
+    public Path getQuickStartSnapshot(WebAppContext context) throws Exception
+    {
+        return getQuickStartSnapshot(context, getQuickStartWebXml(context));
+    }
+
+    private Path getQuickStartSnapshot(WebAppContext context, Resource quickStartWebXml) throws IOException
+    {
+        Object attr = context.getAttribute(SNAPSHOT);
+        if (attr == null)
+            return null;
+        if (attr instanceof Path)
+            return (Path)attr;
+        if (attr instanceof File)
+            return ((File)attr).toPath();
+
+        String value = attr.toString();
+        if (StringUtil.isBlank(value) || Boolean.FALSE.toString().equalsIgnoreCase(value))
+            return null;
+        if (Boolean.TRUE.toString().equalsIgnoreCase(value))
+            return quickStartWebXml.getFile().toPath().resolveSibling(QuickStartSnapshot.DEFAULT_FILENAME);
+        return context.getWebInf().getFile().toPath().resolve(value);
     }
 
     /**
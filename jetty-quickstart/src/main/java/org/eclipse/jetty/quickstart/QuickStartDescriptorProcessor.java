@@ -42,6 +42,7 @@ import org.eclipse.jetty.xml.XmlParser;
 public class QuickStartDescriptorProcessor extends IterativeDescriptorProcessor
 {
 
+    private final QuickStartSnapshot _snapshot;
     private String _originAttributeName = null;
 
     /**
@@ -49,6 +50,16 @@ public class QuickStartDescriptorProcessor extends IterativeDescriptorProcessor
      */
     public QuickStartDescriptorProcessor()
     {
+        this(null);
+    }
+
+    /**
+     * @param snapshot the snapshot restored for the webapp, whose TLDs and META-INF/resources
+     * are used rather than resolving the ones listed in the quickstart-web.xml, or null
+     */
+    public QuickStartDescriptorProcessor(QuickStartSnapshot snapshot)
+    {
+        _snapshot = snapshot;
         try
         {
             registerVisitor("context-param", this.getClass().getMethod("visitContextParam", __signature));
@@ -184,13 +195,20 @@ public class QuickStartDescriptorProcessor extends IterativeDescriptorProcessor
                 Object o = context.getAttribute(MetaInfConfiguration.METAINF_TLDS);
                 if (o instanceof Collection<?>)
                     tlds.addAll((Collection<?>)o);
-                for (String i : values)
+                if (_snapshot != null)
                 {
-                    Resource r = Resource.newResource(normalizer.expand(i));
-                    if (r.exists())
-                        tlds.add(r.getURI().toURL());
-                    else
-                        throw new IllegalArgumentException("TLD not found: " + r);
+                    tlds.addAll(_snapshot.getTlds());
+                }
+                else
+                {
+                    for (String i : values)
+                    {
+                        Resource r = Resource.newResource(normalizer.expand(i));
+                        if (r.exists())
+                            tlds.add(r.getURI().toURL());
+                        else
+                            throw new IllegalArgumentException("TLD not found: " + r);
+                    }
                 }
 
                 //empty list signals that tlds were prescanned but none found.
@@ -201,13 +219,23 @@ public class QuickStartDescriptorProcessor extends IterativeDescriptorProcessor
 
             case MetaInfConfiguration.METAINF_RESOURCES:
             {
-                for (String i : values)
+                if (_snapshot != null)
                 {
-                    Resource r = Resource.newResource(normalizer.expand(i));
-                    if (r.exists())
+                    for (Resource r : _snapshot.getMetaInfResources())
+                    {
                         visitMetaInfResource(context, r);
-                    else
-                        throw new IllegalArgumentException("Resource not found: " + r);
+                    }
+                }
+                else
+                {
+                    for (String i : values)
+                    {
+                        Resource r = Resource.newResource(normalizer.expand(i));
+                        if (r.exists())
+                            visitMetaInfResource(context, r);
+                        else
+                            throw new IllegalArgumentException("Resource not found: " + r);
+                    }
                 }
                 break;
             }
@@ -17,6 +17,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -81,6 +82,7 @@ public class QuickStartGeneratorConfiguration extends AbstractConfiguration
     protected String _originAttribute;
     protected int _count;
     protected Resource _quickStartWebXml;
+    protected Path _quickStartSnapshot;
    
     public QuickStartGeneratorConfiguration()
     {
@@ -123,6 +125,19 @@ public class QuickStartGeneratorConfiguration extends AbstractConfiguration
         _quickStartWebXml = quickStartWebXml;
     }
 
+    public Path getQuickStartSnapshot()
+    {
+        return _quickStartSnapshot;
+    }
+
+    /**
+     * @param quickStartSnapshot the location of the {@link QuickStartSnapshot} to generate with the quickstart-web.xml, or null
+     */
+    public void setQuickStartSnapshot(Path quickStartSnapshot)
+    {
+        _quickStartSnapshot = quickStartSnapshot;
+    }
+
     /**
      * Perform the generation of the xml file
      *
@@ -803,6 +818,12 @@ public class QuickStartGeneratorConfiguration extends AbstractConfiguration
             if (context.getAttribute(WebInfConfiguration.TEMPORARY_RESOURCE_BASE) != null && !context.isPersistTempDirectory())
                 LOG.warn("Generated to non persistent location: {}", _quickStartWebXml);
         }
+
+        if (_quickStartSnapshot != null)
+        {
+            new QuickStartSnapshot(_quickStartSnapshot).generate(context, _quickStartWebXml);
+            LOG.info("Generated {}", _quickStartSnapshot);
+        }
     }
 
     @Override
@@ -0,0 +1,352 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.quickstart;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jetty.util.resource.Resource;
+import org.eclipse.jetty.webapp.ClassPathIndex;
+import org.eclipse.jetty.webapp.MetaInfConfiguration;
+import org.eclipse.jetty.webapp.WebAppClassLoader;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.eclipse.jetty.webapp.WebInfConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * QuickStartSnapshot
+ * <p>
+ * A binary snapshot of what a quickstarted webapp would otherwise resolve again from the
+ * contents of the WAR on every start: the class path of the WEB-INF classes and lib, with the
+ * {@link ClassPathIndex} of its jars, and the locations of the TLDs and META-INF/resources
+ * listed in the quickstart-web.xml.
+ * <p>
+ * The snapshot is generated with the quickstart-web.xml and restored in a single read, as long
+ * as the quickstart-web.xml has not changed since. Like the quickstart-web.xml, the snapshot is
+ * trusted to match the WAR. In verify mode, the size and last modified time of WEB-INF/lib, its
+ * jars and the TLD files are compared to the snapshot, and the webapp is resolved normally if
+ * any of them has changed.
+ */
+public class QuickStartSnapshot
+{
+    private static final Logger LOG = LoggerFactory.getLogger(QuickStartSnapshot.class);
+    public static final String DEFAULT_FILENAME = "quickstart.snapshot";
+    private static final int MAGIC = 0x4A515353;
+    private static final int FORMAT = 1;
+
+    private final Path _file;
+    private final List<URL> _classPath = new ArrayList<>();
+    private final List<URL> _tlds = new ArrayList<>();
+    private final List<Resource> _metaInfResources = new ArrayList<>();
+    private ClassPathIndex _classPathIndex;
+
+    public QuickStartSnapshot(Path file)
+    {
+        _file = file;
+    }
+
+    public Path getFile()
+    {
+        return _file;
+    }
+
+    /**
+     * @return the class path restored from the snapshot, in class loader order
+     */
+    public List<URL> getClassPath()
+    {
+        return Collections.unmodifiableList(_classPath);
+    }
+
+    /**
+     * @return the TLD locations restored from the snapshot
+     */
+    public List<URL> getTlds()
+    {
+        return Collections.unmodifiableList(_tlds);
+    }
+
+    /**
+     * @return the META-INF/resources restored from the snapshot
+     */
+    public List<Resource> getMetaInfResources()
+    {
+        return Collections.unmodifiableList(_metaInfResources);
+    }
+
+    /**
+     * Write the snapshot of a webapp whose quickstart-web.xml has just been generated.
+     *
+     * @param context the webapp
+     * @param quickStartWebXml the generated quickstart-web.xml
+     * @throws IOException if unable to write the snapshot
+     */
+    public void generate(WebAppContext context, Resource quickStartWebXml) throws IOException
+    {
+        AttributeNormalizer normalizer = new AttributeNormalizer(context.getBaseResource());
+
+        List<URL> classPath = new ArrayList<>();
+        ClassPathIndex index = null;
+        if (context.getClassLoader() instanceof WebAppClassLoader)
+        {
+            WebAppClassLoader loader = (WebAppClassLoader)context.getClassLoader();
+            Collections.addAll(classPath, loader.getURLs());
+            index = loader.getClassPathIndex();
+        }
+        if (index == null)
+        {
+            // Index the jars now, so that they are not opened to be indexed when quickstarting.
+            index = new ClassPathIndex();
+            for (URL url : classPath)
+            {
+                index.add(url);
+            }
+        }
+
+        Collection<?> tlds = toCollection(context.getAttribute(MetaInfConfiguration.METAINF_TLDS));
+        Collection<?> resources = toCollection(context.getAttribute(MetaInfConfiguration.METAINF_RESOURCES));
+
+        // The files whose changes are detected in verify mode.
+        Set<File> stamped = new LinkedHashSet<>();
+        Resource webInf = context.getWebInf();
+        if (webInf != null && webInf.getFile() != null)
+            stamped.add(new File(webInf.getFile(), "lib"));
+        for (URL url : classPath)
+        {
+            File file = toFile(url.toString());
+            if (file != null && file.isFile())
+                stamped.add(file);
+        }
+        if (tlds != null)
+        {
+            for (Object tld : tlds)
+            {
+                File file = toFile(String.valueOf(tld));
+                if (file != null)
+                    stamped.add(file);
+            }
+        }
+
+        Path dir = _file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, _file.getFileName().toString(), ".tmp");
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                File xml = quickStartWebXml.getFile();
+                out.writeLong(xml.length());
+                out.writeLong(xml.lastModified());
+
+                out.writeInt(stamped.size());
+                for (File file : stamped)
+                {
+                    out.writeUTF(normalizer.normalize(file.toURI()));
+                    out.writeLong(file.length());
+                    out.writeLong(file.lastModified());
+                }
+
+                writeList(out, classPath, normalizer);
+                writeList(out, tlds, normalizer);
+                writeList(out, resources, normalizer);
+
+                // Last, as what follows the index cannot be read if it is for another Java version.
+                index.writeTo(out);
+            }
+            Files.move(tmp, _file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Read the snapshot of a webapp to be quickstarted.
+     *
+     * @param context the webapp
+     * @param quickStartWebXml the quickstart-web.xml the snapshot was generated with
+     * @param verify whether to check that the files of the WAR recorded in the snapshot are unchanged
+     * @return true if the snapshot was restored, false if the webapp must be resolved normally
+     */
+    public boolean restore(WebAppContext context, Resource quickStartWebXml, boolean verify)
+    {
+        if (!Files.exists(_file))
+        {
+            LOG.warn("No quickstart snapshot {}, resolving {}", _file, context);
+            return false;
+        }
+
+        AttributeNormalizer normalizer = new AttributeNormalizer(context.getBaseResource());
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(_file))))
+        {
+            File xml = quickStartWebXml.getFile();
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT || in.readLong() != xml.length() || in.readLong() != xml.lastModified())
+            {
+                LOG.warn("Stale quickstart snapshot {}, regenerate it with {}", _file, xml);
+                return false;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++)
+            {
+                String location = in.readUTF();
+                long length = in.readLong();
+                long lastModified = in.readLong();
+                if (verify)
+                {
+                    File file = toFile(normalizer.expand(location));
+                    if (file == null || file.length() != length || file.lastModified() != lastModified)
+                    {
+                        LOG.warn("Quickstart snapshot {} does not match {}, resolving {}", _file, normalizer.expand(location), context);
+                        return false;
+                    }
+                }
+            }
+
+            List<URL> classPath = new ArrayList<>();
+            for (String location : readList(in))
+            {
+                classPath.add(new URL(normalizer.expand(location)));
+            }
+            List<URL> tlds = new ArrayList<>();
+            for (String location : readList(in))
+            {
+                tlds.add(new URL(normalizer.expand(location)));
+            }
+            List<Resource> resources = new ArrayList<>();
+            for (String location : readList(in))
+            {
+                resources.add(Resource.newResource(normalizer.expand(location)));
+            }
+
+            ClassPathIndex index = new ClassPathIndex();
+            _classPathIndex = index.readFrom(in) ? index : null;
+            _classPath.addAll(classPath);
+            _tlds.addAll(tlds);
+            _metaInfResources.addAll(resources);
+        }
+        catch (IOException x)
+        {
+            LOG.warn("Unable to read quickstart snapshot {}, resolving {}", _file, context, x);
+            return false;
+        }
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("Restored {} for {}", this, context);
+        return true;
+    }
+
+    /**
+     * Add the restored class path to the webapp class loader, so that
+     * the WEB-INF classes and lib are not resolved again.
+     *
+     * @param context the webapp
+     * @throws IOException if unable to add the class path
+     */
+    public void configureClassPath(WebAppContext context) throws IOException
+    {
+        if (!(context.getClassLoader() instanceof WebAppClassLoader))
+            return;
+
+        WebAppClassLoader loader = (WebAppClassLoader)context.getClassLoader();
+        ClassPathIndex index = loader.getClassPathIndex();
+        Object indexAttribute = context.getAttribute(WebAppClassLoader.CLASS_PATH_INDEX);
+        boolean disabled = indexAttribute != null && Boolean.FALSE.toString().equalsIgnoreCase(indexAttribute.toString());
+        // Unless indexing is disabled or persisted elsewhere, index with the jars of the snapshot.
+        if (_classPathIndex != null && !disabled && (index == null || index.getStore() == null))
+            loader.setClassPathIndex(_classPathIndex);
+
+        for (URL url : _classPath)
+        {
+            loader.addClassPath(Resource.newResource(url));
+        }
+        context.setAttribute(WebInfConfiguration.CLASSPATH_CONFIGURED, Boolean.TRUE);
+    }
+
+    private static Collection<?> toCollection(Object o)
+    {
+        if (o == null)
+            return null;
+        return (o instanceof Collection) ? (Collection<?>)o : Collections.singletonList(o);
+    }
+
+    private static void writeList(DataOutputStream out, Collection<?> list, AttributeNormalizer normalizer) throws IOException
+    {
+        if (list == null)
+        {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(list.size());
+        for (Object item : list)
+        {
+            out.writeUTF(normalizer.normalize(item));
+        }
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException
+    {
+        int count = in.readInt();
+        List<String> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            list.add(in.readUTF());
+        }
+        return list;
+    }
+
+    private static File toFile(String location)
+    {
+        try
+        {
+            URI uri = new URI(location);
+            if (!"file".equalsIgnoreCase(uri.getScheme()))
+                return null;
+            return Paths.get(uri).toFile();
+        }
+        catch (URISyntaxException | IllegalArgumentException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Not a file {}", location, x);
+            return null;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s,classPath=%d,tlds=%d,resources=%d}", getClass().getSimpleName(), hashCode(), _file, _classPath.size(), _tlds.size(), _metaInfResources.size());
+    }
+}
@@ -14,7 +14,13 @@
 package org.eclipse.jetty.quickstart;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.servlet.FilterHolder;
@@ -23,7 +29,9 @@ import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.toolchain.test.FS;
 import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
 import org.eclipse.jetty.util.resource.Resource;
+import org.eclipse.jetty.webapp.WebAppClassLoader;
 import org.eclipse.jetty.webapp.WebAppContext;
+import org.eclipse.jetty.webapp.WebInfConfiguration;
 import org.eclipse.jetty.xml.XmlConfiguration;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
@@ -34,6 +42,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -285,4 +294,72 @@ public class TestQuickStart
         assertEquals(1,
             Arrays.stream(listeners).filter(l -> "org.eclipse.jetty.quickstart.FooContextListener".equals(l.getClassName())).count());
     }
+
+    @Test
+    public void testSnapshot() throws Exception
+    {
+        File testDir = MavenTestingUtils.getTargetTestingDir("snapshot");
+        FS.ensureEmpty(testDir);
+        File webInf = new File(testDir, "WEB-INF");
+        FS.ensureDirExists(new File(webInf, "classes"));
+        File lib = new File(webInf, "lib");
+        FS.ensureDirExists(lib);
+        Path jar = lib.toPath().resolve("foo.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)))
+        {
+            out.putNextEntry(new JarEntry("foo/bar.txt"));
+            out.write("bar".getBytes());
+        }
+
+        File quickstartXml = new File(webInf, "quickstart-web.xml");
+        File snapshot = new File(webInf, QuickStartSnapshot.DEFAULT_FILENAME);
+
+        // generate a quickstart-web.xml and its snapshot
+        WebAppContext quickstart = new WebAppContext();
+        quickstart.setResourceBase(testDir.getAbsolutePath());
+        quickstart.addConfiguration(new QuickStartConfiguration());
+        quickstart.setAttribute(QuickStartConfiguration.MODE, QuickStartConfiguration.Mode.GENERATE);
+        quickstart.setAttribute(QuickStartConfiguration.SNAPSHOT, Boolean.TRUE);
+        server.setHandler(quickstart);
+        server.setDryRun(true);
+        server.start();
+
+        assertTrue(quickstartXml.exists());
+        assertTrue(snapshot.exists());
+
+        // quick start from the snapshot
+        WebAppContext webapp = newSnapshotWebApp(testDir);
+        server.setHandler(webapp);
+        server.setDryRun(false);
+        server.start();
+
+        assertEquals(Boolean.TRUE, webapp.getAttribute(WebInfConfiguration.CLASSPATH_CONFIGURED));
+        WebAppClassLoader loader = (WebAppClassLoader)webapp.getClassLoader();
+        assertThat(List.of(loader.getURLs()), Matchers.hasItem(Matchers.hasToString(Matchers.endsWith("/WEB-INF/lib/foo.jar"))));
+        assertNotNull(loader.getClassPathIndex());
+        assertNotNull(loader.getResource("foo/bar.txt"));
+        server.stop();
+
+        // a changed jar is detected and the webapp resolved normally
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 60_000));
+        webapp = newSnapshotWebApp(testDir);
+        server.setHandler(webapp);
+        server.start();
+
+        assertNull(webapp.getAttribute(WebInfConfiguration.CLASSPATH_CONFIGURED));
+        loader = (WebAppClassLoader)webapp.getClassLoader();
+        assertThat(List.of(loader.getURLs()), Matchers.hasItem(Matchers.hasToString(Matchers.endsWith("/WEB-INF/lib/foo.jar"))));
+        assertNotNull(loader.getResource("foo/bar.txt"));
+    }
+
+    private WebAppContext newSnapshotWebApp(File testDir)
+    {
+        WebAppContext webapp = new WebAppContext();
+        webapp.addConfiguration(new QuickStartConfiguration());
+        webapp.setAttribute(QuickStartConfiguration.MODE, QuickStartConfiguration.Mode.QUICKSTART);
+        webapp.setAttribute(QuickStartConfiguration.SNAPSHOT, Boolean.TRUE);
+        webapp.setAttribute(QuickStartConfiguration.SNAPSHOT_VERIFY, Boolean.TRUE);
+        webapp.setResourceBase(testDir.getAbsolutePath());
+        return webapp;
+    }
 }
@@ -42,6 +42,10 @@ etc/jetty-ssl-context.xml
 ## Whether to enable the SO_REUSEADDR socket option.
 # jetty.ssl.reuseAddress=true
 
+## Whether to enable the SO_REUSEPORT socket option.
+## With 0 acceptors, one listening socket is bound per selector.
+# jetty.ssl.reusePort=false
+
 ## Whether to enable the TCP_NODELAY socket option on accepted sockets.
 # jetty.ssl.acceptedTcpNoDelay=true
 
@@ -27,6 +27,8 @@ module org.eclipse.jetty.server
     // Only required if using DatabaseAdaptor/JDBCSessionDataStore.
     requires static java.sql;
     requires static java.naming;
+    // Only required if using OverloadMonitor.
+    requires static java.management;
     // Only required if using JMX.
     requires static org.eclipse.jetty.jmx;
 }
@@ -64,7 +64,7 @@ public class AcceptRateLimit extends AbstractLifeCycle implements SelectorManage
     private final Server _server;
     private final List<AbstractConnector> _connectors = new ArrayList<>();
     private final Rate _rate;
-    private final int _acceptRateLimit;
+    private int _acceptRateLimit;
     private boolean _limiting;
     private Scheduler.Task _task;
 
@@ -90,7 +90,26 @@ public class AcceptRateLimit extends AbstractLifeCycle implements SelectorManage
     @ManagedAttribute("The accept rate limit")
     public int getAcceptRateLimit()
     {
-        return _acceptRateLimit;
+        try (AutoLock l = _lock.lock())
+        {
+            return _acceptRateLimit;
+        }
+    }
+
+    /**
+     * <p>Changes the accept rate limit.</p>
+     * <p>If the new limit is lower than the current rate, accepting is suspended
+     * when the next connection is accepted; if it is higher, accepting is resumed
+     * when the rate is next checked.</p>
+     *
+     * @param acceptRateLimit the new accept rate limit
+     */
+    public void setAcceptRateLimit(int acceptRateLimit)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _acceptRateLimit = acceptRateLimit;
+        }
     }
 
     @ManagedAttribute("The accept rate period")
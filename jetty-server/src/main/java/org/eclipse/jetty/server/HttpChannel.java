@@ -89,6 +89,7 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
      * Bytes written after interception (eg after compression)
      */
     private long _written;
+    private int _responseWrites;
 
     public HttpChannel(Connector connector, HttpConfiguration configuration, EndPoint endPoint, HttpTransport transport)
     {
@@ -209,6 +210,14 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
         return _written;
     }
 
+    /**
+     * @return the number of writes made to the transport for the current response
+     */
+    public int getResponseWrites()
+    {
+        return _responseWrites;
+    }
+
     /**
      * @return the number of requests handled by this connection
      */
@@ -341,6 +350,7 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
         _committedMetaData = null;
         _requestLog = _connector == null ? null : _connector.getServer().getRequestLog();
         _written = 0;
+        _responseWrites = 0;
         _oldIdleTimeout = 0;
         _transientListeners.clear();
     }
@@ -948,11 +958,13 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
                 : new SendCallback(callback, content, true, complete);
 
             // committing write
+            _responseWrites++;
             _transport.send(_request.getMetaData(), response, content, complete, committed);
         }
         else if (response == null)
         {
             // This is a normal write
+            _responseWrites++;
             _transport.send(_request.getMetaData(), null, content, complete, new SendCallback(callback, content, false, complete));
         }
         else
@@ -962,6 +974,60 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
         return committing;
     }
 
+    /**
+     * <p>Sends the response, or more content for an already committed response,
+     * made of several content buffers that the transport may write together.</p>
+     *
+     * @param response the response metadata, or null if the response is already committed
+     * @param complete whether the content is the last content of the response
+     * @param callback the callback notified when the send completes
+     * @param content the content buffers to send, in order
+     * @return whether this call committed the response
+     * @see HttpTransport#send(MetaData.Request, MetaData.Response, boolean, Callback, ByteBuffer...)
+     */
+    protected boolean sendResponse(MetaData.Response response, boolean complete, Callback callback, ByteBuffer... content)
+    {
+        if (content.length == 1)
+            return sendResponse(response, content[0], complete, callback);
+
+        boolean committing = _state.commitResponse();
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("sendResponse info={} content={} complete={} committing={} callback={}",
+                response,
+                content.length,
+                complete,
+                committing,
+                callback);
+
+        if (committing)
+        {
+            if (response == null)
+                response = _response.newResponseMetaData();
+            commit(response);
+            _combinedListener.onResponseBegin(_request);
+            _request.onResponseCommit();
+
+            final int status = response.getStatus();
+            final Callback committed = (status < HttpStatus.OK_200 && status >= HttpStatus.CONTINUE_100)
+                ? new Send100Callback(callback)
+                : new SendCallback(callback, content, true, complete);
+
+            _responseWrites++;
+            _transport.send(_request.getMetaData(), response, complete, committed, content);
+        }
+        else if (response == null)
+        {
+            _responseWrites++;
+            _transport.send(_request.getMetaData(), null, complete, new SendCallback(callback, content, false, complete), content);
+        }
+        else
+        {
+            callback.failed(new IllegalStateException("committed"));
+        }
+        return committing;
+    }
+
     public boolean sendResponse(MetaData.Response info, ByteBuffer content, boolean complete) throws IOException
     {
         try (Blocker blocker = _response.getHttpOutput().acquireWriteBlockingCallback())
@@ -1028,6 +1094,12 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
         sendResponse(null, content, complete, callback);
     }
 
+    @Override
+    public void write(Callback callback, boolean complete, ByteBuffer... content)
+    {
+        sendResponse(null, complete, callback, content);
+    }
+
     @Override
     public void resetBuffer()
     {
@@ -1310,6 +1382,7 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
     private class SendCallback extends Callback.Nested
     {
         private final ByteBuffer _content;
+        private final ByteBuffer[] _contents;
         private final int _length;
         private final boolean _commit;
         private final boolean _complete;
@@ -1318,18 +1391,43 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
         {
             super(callback);
             _content = content == null ? BufferUtil.EMPTY_BUFFER : content.slice();
+            _contents = null;
             _length = _content.remaining();
             _commit = commit;
             _complete = complete;
         }
 
+        private SendCallback(Callback callback, ByteBuffer[] contents, boolean commit, boolean complete)
+        {
+            super(callback);
+            _content = BufferUtil.EMPTY_BUFFER;
+            _contents = new ByteBuffer[contents.length];
+            int length = 0;
+            for (int i = 0; i < contents.length; i++)
+            {
+                _contents[i] = contents[i] == null ? BufferUtil.EMPTY_BUFFER : contents[i].slice();
+                length += _contents[i].remaining();
+            }
+            _length = length;
+            _commit = commit;
+            _complete = complete;
+        }
+
         @Override
         public void succeeded()
         {
             _written += _length;
             if (_commit)
                 _combinedListener.onResponseCommit(_request);
-            if (_length > 0)
+            if (_contents != null)
+            {
+                for (ByteBuffer content : _contents)
+                {
+                    if (content.hasRemaining())
+                        _combinedListener.onResponseContent(_request, content);
+                }
+            }
+            else if (_length > 0)
                 _combinedListener.onResponseContent(_request, _content);
             if (_complete && _state.completeResponse())
                 _combinedListener.onResponseEnd(_request);
@@ -1373,7 +1471,7 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
     {
         private Send100Callback(Callback callback)
         {
-            super(callback, null, false, false);
+            super(callback, (ByteBuffer)null, false, false);
         }
 
         @Override
@@ -16,6 +16,8 @@ package org.eclipse.jetty.server;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritePendingException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
@@ -564,6 +566,62 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
         }
     }
 
+    @Override
+    public void send(MetaData.Request request, MetaData.Response response, boolean lastContent, Callback callback, ByteBuffer... content)
+    {
+        // Empty buffers would end the generation early, so only gather buffers with content.
+        int buffers = 0;
+        long length = 0;
+        for (ByteBuffer buffer : content)
+        {
+            if (BufferUtil.hasContent(buffer))
+            {
+                buffers++;
+                length += buffer.remaining();
+            }
+        }
+        if (buffers <= 1)
+        {
+            ByteBuffer single = BufferUtil.EMPTY_BUFFER;
+            for (ByteBuffer buffer : content)
+            {
+                if (BufferUtil.hasContent(buffer))
+                    single = buffer;
+            }
+            send(request, response, single, lastContent, callback);
+            return;
+        }
+
+        ByteBuffer[] contents = content;
+        if (buffers < content.length)
+        {
+            contents = new ByteBuffer[buffers];
+            int i = 0;
+            for (ByteBuffer buffer : content)
+            {
+                if (BufferUtil.hasContent(buffer))
+                    contents[i++] = buffer;
+            }
+        }
+
+        if (response != null)
+        {
+            if (_channel.isExpecting100Continue())
+                _generator.setPersistent(false);
+
+            // The generator only sees one buffer at a time, so give it the
+            // content length that it would have computed from a single last buffer.
+            if (lastContent && response.getContentLength() < 0 && response.getTrailerSupplier() == null &&
+                !response.getFields().contains(HttpHeader.CONTENT_LENGTH))
+                response = new MetaData.Response(response.getHttpVersion(), response.getStatus(), response.getReason(), response.getFields(), length);
+        }
+
+        if (_sendCallback.reset(request, response, contents, lastContent, callback))
+        {
+            _sendCallback.iterate();
+        }
+    }
+
     HttpInput.Content newContent(ByteBuffer c)
     {
         return new Content(c);
@@ -684,6 +742,12 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
         private ByteBuffer _header;
         private ByteBuffer _chunk;
         private boolean _shutdownOut;
+        private ByteBuffer[] _contents;
+        private int _contentIndex;
+        private boolean _lastContents;
+        private boolean _headerGathered;
+        private final List<ByteBuffer> _gather = new ArrayList<>();
+        private final List<ByteBuffer> _gatheredChunks = new ArrayList<>();
 
         private SendCallback()
         {
@@ -707,6 +771,7 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
                 _callback = callback;
                 _header = null;
                 _shutdownOut = false;
+                _contents = null;
 
                 if (getConnector().isShutdown())
                     _generator.setPersistent(false);
@@ -721,6 +786,17 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
             return false;
         }
 
+        private boolean reset(MetaData.Request request, MetaData.Response info, ByteBuffer[] contents, boolean last, Callback callback)
+        {
+            if (!reset(request, info, contents[0], last && contents.length == 1, callback))
+                return false;
+            _contents = contents;
+            _contentIndex = 0;
+            _lastContents = last;
+            _headerGathered = false;
+            return true;
+        }
+
         @Override
         public Action process() throws Exception
         {
@@ -776,6 +852,58 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
                         {
                             BufferUtil.clear(_chunk);
                             BufferUtil.clear(_content);
+                            if (_contents != null)
+                            {
+                                // Skip to the last content, so that the generator completes
+                                for (ByteBuffer content : _contents)
+                                {
+                                    BufferUtil.clear(content);
+                                }
+                                _contentIndex = _contents.length - 1;
+                                _content = _contents[_contentIndex];
+                                _lastContent = _lastContents;
+                            }
+                        }
+
+                        if (_contents != null)
+                        {
+                            if (_contentIndex < _contents.length - 1)
+                            {
+                                // Keep the generated buffers and generate for the next content,
+                                // so that all of them are written with a single gathering write.
+                                if (BufferUtil.hasContent(_header) && !_headerGathered)
+                                {
+                                    _gather.add(_header);
+                                    _headerGathered = true;
+                                }
+                                if (_chunk != null)
+                                {
+                                    if (BufferUtil.hasContent(_chunk))
+                                        _gather.add(_chunk);
+                                    _gatheredChunks.add(_chunk);
+                                    _chunk = null;
+                                }
+                                if (BufferUtil.hasContent(_content))
+                                    _gather.add(_content);
+                                _content = _contents[++_contentIndex];
+                                _lastContent = _lastContents && _contentIndex == _contents.length - 1;
+                                continue;
+                            }
+
+                            if (!_gather.isEmpty())
+                            {
+                                if (BufferUtil.hasContent(_header) && !_headerGathered)
+                                    _gather.add(_header);
+                                if (BufferUtil.hasContent(_chunk))
+                                    _gather.add(_chunk);
+                                if (BufferUtil.hasContent(_content))
+                                    _gather.add(_content);
+                                ByteBuffer[] buffers = _gather.toArray(new ByteBuffer[0]);
+                                _gather.clear();
+                                HttpConnection.this.bytesOut.add(BufferUtil.remaining(buffers));
+                                getEndPoint().write(this, buffers);
+                                return Action.SCHEDULED;
+                            }
                         }
 
                         byte gatherWrite = 0;
@@ -858,8 +986,15 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
             _callback = null;
             _info = null;
             _content = null;
+            _contents = null;
+            _gather.clear();
             releaseHeader();
             releaseChunk();
+            for (ByteBuffer chunk : _gatheredChunks)
+            {
+                _bufferPool.release(chunk);
+            }
+            _gatheredChunks.clear();
             return complete;
         }
 
@@ -39,6 +39,7 @@ import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.IteratingCallback;
+import org.eclipse.jetty.util.IteratingNestedCallback;
 import org.eclipse.jetty.util.SharedBlockingCallback;
 import org.eclipse.jetty.util.SharedBlockingCallback.Blocker;
 import org.eclipse.jetty.util.thread.AutoLock;
@@ -152,6 +153,46 @@ public class HttpOutput extends ServletOutputStream implements Runnable
          */
         void write(ByteBuffer content, boolean last, Callback callback);
 
+        /**
+         * Write several content buffers.
+         * Interceptors that can write the buffers together, for example with a
+         * gathering write, should override this method. The default implementation
+         * writes each buffer in turn with {@link #write(ByteBuffer, boolean, Callback)}.
+         *
+         * @param callback The callback to use to indicate {@link Callback#succeeded()}
+         * or {@link Callback#failed(Throwable)}.
+         * @param last True if the last buffer is the last content to write
+         * @param content The content buffers to be written, in order.
+         */
+        default void write(Callback callback, boolean last, ByteBuffer... content)
+        {
+            if (content.length == 0)
+            {
+                write(BufferUtil.EMPTY_BUFFER, last, callback);
+                return;
+            }
+            if (content.length == 1)
+            {
+                write(content[0], last, callback);
+                return;
+            }
+
+            new IteratingNestedCallback(callback)
+            {
+                private int _index;
+
+                @Override
+                protected Action process()
+                {
+                    if (_index == content.length)
+                        return Action.SUCCEEDED;
+                    ByteBuffer buffer = content[_index++];
+                    write(buffer, last && _index == content.length, this);
+                    return Action.SCHEDULED;
+                }
+            }.iterate();
+        }
+
         /**
          * @return The next Interceptor in the chain or null if this is the
          * last Interceptor in the chain.
@@ -257,6 +298,27 @@ public class HttpOutput extends ServletOutputStream implements Runnable
     }
 
     private void channelWrite(ByteBuffer content, boolean last, Callback callback)
+    {
+        onChannelWrite();
+        _interceptor.write(content, last, callback);
+    }
+
+    private void channelWrite(boolean last, ByteBuffer... content) throws IOException
+    {
+        try (Blocker blocker = _writeBlocker.acquire())
+        {
+            channelWrite(blocker, last, content);
+            blocker.block();
+        }
+    }
+
+    private void channelWrite(Callback callback, boolean last, ByteBuffer... content)
+    {
+        onChannelWrite();
+        _interceptor.write(callback, last, content);
+    }
+
+    private void onChannelWrite()
     {
         if (_firstByteTimeStamp == -1)
         {
@@ -266,8 +328,6 @@ public class HttpOutput extends ServletOutputStream implements Runnable
             else
                 _firstByteTimeStamp = Long.MAX_VALUE;
         }
-
-        _interceptor.write(content, last, callback);
     }
 
     private void onWriteComplete(boolean last, Throwable failure)
@@ -847,8 +907,21 @@ public class HttpOutput extends ServletOutputStream implements Runnable
         // Blocking write
         try
         {
-            // flush any content from the aggregate
-            if (BufferUtil.hasContent(_aggregate))
+            // flush any content from the aggregate, gathered with the start of
+            // the content if that will not be aggregated again
+            if (BufferUtil.hasContent(_aggregate) && len > 0 && (last || len > _commitSize))
+            {
+                int l = Math.min(len, getBufferSize());
+                channelWrite(last && l == len, _aggregate, ByteBuffer.wrap(b, off, l));
+                off += l;
+                len -= l;
+                if (len == 0)
+                {
+                    onWriteComplete(last, null);
+                    return;
+                }
+            }
+            else if (BufferUtil.hasContent(_aggregate))
             {
                 channelWrite(_aggregate, last && len == 0);
 
@@ -950,12 +1023,13 @@ public class HttpOutput extends ServletOutputStream implements Runnable
             try
             {
                 // Blocking write
-                // flush any content from the aggregate
-                if (BufferUtil.hasContent(_aggregate))
-                    channelWrite(_aggregate, last && len == 0);
-
+                // flush any content from the aggregate together with the buffer
+                if (BufferUtil.hasContent(_aggregate) && len > 0)
+                    channelWrite(last, _aggregate, buffer);
+                else if (BufferUtil.hasContent(_aggregate))
+                    channelWrite(_aggregate, last);
                 // write any remaining content in the buffer directly
-                if (len > 0)
+                else if (len > 0)
                     channelWrite(buffer, last);
                 else if (last)
                     channelWrite(BufferUtil.EMPTY_BUFFER, true);
@@ -1660,6 +1734,26 @@ public class HttpOutput extends ServletOutputStream implements Runnable
             // flush any content from the aggregate
             if (BufferUtil.hasContent(_aggregate))
             {
+                // gather the buffer with the aggregate if it will not be aggregated
+                if (_buffer.hasRemaining() && (_last || _len >= _commitSize))
+                {
+                    if (_slice == null)
+                    {
+                        _completed = true;
+                        channelWrite(this, _last, _aggregate, _buffer);
+                        return Action.SCHEDULED;
+                    }
+
+                    int p = _buffer.position();
+                    int pl = p + Math.min(getBufferSize(), _buffer.remaining());
+                    _slice.limit(pl);
+                    _buffer.position(pl);
+                    _slice.position(p);
+                    _completed = !_buffer.hasRemaining();
+                    channelWrite(this, _last && _completed, _aggregate, _slice);
+                    return Action.SCHEDULED;
+                }
+
                 _completed = _len == 0;
                 channelWrite(_aggregate, _last && _completed, this);
                 return Action.SCHEDULED;
@@ -16,7 +16,9 @@ package org.eclipse.jetty.server;
 import java.nio.ByteBuffer;
 
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.IteratingNestedCallback;
 
 /**
  * Abstraction of the outbound HTTP transport.
@@ -37,6 +39,49 @@ public interface HttpTransport
      */
     void send(MetaData.Request request, MetaData.Response response, ByteBuffer content, boolean lastContent, Callback callback);
 
+    /**
+     * <p>Asynchronous call to send a response (or part) made of several buffers over the transport.</p>
+     * <p>Transports that support gathering writes should override this method to write the
+     * generated headers and all the content buffers with as few writes as possible.
+     * The default implementation sends each buffer in turn with
+     * {@link #send(MetaData.Request, MetaData.Response, ByteBuffer, boolean, Callback)}.</p>
+     *
+     * @param request the request metadata
+     * @param response The header info to send, or null if just sending more data.
+     * The first call to send for a response must have a non null info.
+     * @param lastContent True if the content is the last content for the current response.
+     * @param callback The Callback instance that success or failure of the send is notified on
+     * @param content the buffers of content to be sent, in order
+     */
+    default void send(MetaData.Request request, MetaData.Response response, boolean lastContent, Callback callback, ByteBuffer... content)
+    {
+        if (content.length == 0)
+        {
+            send(request, response, BufferUtil.EMPTY_BUFFER, lastContent, callback);
+            return;
+        }
+        if (content.length == 1)
+        {
+            send(request, response, content[0], lastContent, callback);
+            return;
+        }
+
+        new IteratingNestedCallback(callback)
+        {
+            private int _index;
+
+            @Override
+            protected Action process()
+            {
+                if (_index == content.length)
+                    return Action.SUCCEEDED;
+                int index = _index++;
+                send(request, index == 0 ? response : null, content[index], lastContent && _index == content.length, this);
+                return Action.SCHEDULED;
+            }
+        }.iterate();
+    }
+
     /**
      * @return true if responses can be pushed over this transport
      */
@@ -21,6 +21,7 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.file.FileSystems;
@@ -34,6 +35,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.servlet.MultipartConfigElement;
+import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.Part;
 
@@ -42,6 +44,7 @@ import org.eclipse.jetty.util.ByteArrayOutputStream2;
 import org.eclipse.jetty.util.LazyList;
 import org.eclipse.jetty.util.MultiException;
 import org.eclipse.jetty.util.MultiMap;
+import org.eclipse.jetty.util.Promise;
 import org.eclipse.jetty.util.QuotedStringTokenizer;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.thread.AutoLock;
@@ -54,6 +57,13 @@ import org.slf4j.LoggerFactory;
  * Handle a MultiPart Mime input stream, breaking it up on the boundary into files and strings.
  * </p>
  * <p>
+ * The input stream may be parsed by blocking the calling thread, see {@link #getParts()}, or, if it is a
+ * {@link ServletInputStream}, without blocking, see {@link #parseAsync(Promise)}; in the latter case the
+ * parsing thread is the thread notifying the {@link ReadListener}.
+ * Callers that want the parts while another thread is parsing them wait for the parsing to complete,
+ * and are then given the parts or the parsing failure.
+ * </p>
+ * <p>
  * Deleting the parts can be done from a different thread if the parts are parsed asynchronously.
  * Because of this we use the state to fail the parsing and coordinate which thread will delete any remaining parts.
  * The deletion of parts is done by the cleanup thread in all cases except the transition from DELETING-&gt;DELETED which
@@ -91,9 +101,11 @@ public class MultiPartFormInputStream
 
     private static final Logger LOG = LoggerFactory.getLogger(MultiPartFormInputStream.class);
 
-    private final AutoLock _lock = new AutoLock();
+    private final AutoLock.WithCondition _lock = new AutoLock.WithCondition();
     private final MultiMap<Part> _parts = new MultiMap<>();
+    private final List<Promise<Collection<Part>>> _waiters = new ArrayList<>();
     private final InputStream _in;
+    private final ServletInputStream _servletInput;
     private final MultipartConfigElement _config;
     private final File _contextTmpDir;
     private final String _contentType;
@@ -102,6 +114,9 @@ public class MultiPartFormInputStream
     private volatile boolean _deleteOnExit;
     private volatile boolean _writeFilesWithFilenames;
     private volatile int _bufferSize = 16 * 1024;
+    private volatile PartListener _partListener;
+    private volatile Thread _parsingThread;
+    private long _total;
     private State state = State.UNPARSED;
 
     public class MultiPart implements Part
@@ -372,9 +387,15 @@ public class MultiPartFormInputStream
             if (((ServletInputStream)in).isFinished())
             {
                 _in = null;
+                _servletInput = null;
                 state = State.PARSED;
                 return;
             }
+            _servletInput = (ServletInputStream)in;
+        }
+        else
+        {
+            _servletInput = null;
         }
 
         _in = new BufferedInputStream(in);
@@ -504,147 +525,433 @@ public class MultiPartFormInputStream
 
     /**
      * Parse, if necessary, the multipart stream.
+     * If another thread is parsing the stream, wait for it to complete.
+     *
+     * @throws IOException if the parts have been deleted
      */
-    protected void parse()
+    protected void parse() throws IOException
     {
+        if (!startParsing())
+            return;
+
+        MultiPartParser parser = null;
+        try
+        {
+            _parsingThread = Thread.currentThread();
+            parser = newParser();
+            byte[] data = new byte[_bufferSize];
+            int len;
+
+            while (true)
+            {
+                if (!isParsing())
+                    return;
+
+                len = _in.read(data);
+                if (len > 0)
+                {
+                    if (parseContent(parser, data, len))
+                        break;
+                }
+                else if (len == -1)
+                {
+                    parser.parse(BufferUtil.EMPTY_BUFFER, true);
+                    break;
+                }
+            }
+
+            checkParserEnd(parser);
+        }
+        catch (Throwable e)
+        {
+            _err = e;
+
+            // Notify parser if failure occurs
+            if (parser != null)
+                parser.parse(BufferUtil.EMPTY_BUFFER, true);
+        }
+        finally
+        {
+            _parsingThread = null;
+            endParsing();
+        }
+    }
+
+    /**
+     * <p>Parses, if necessary, the multipart content without blocking, and notifies
+     * the given promise with the parts when the parsing is complete.</p>
+     * <p>The content is read by a {@link ReadListener} set on the {@link ServletInputStream}
+     * passed to the constructor, so that no thread is held while waiting for the content
+     * of slow uploads. Therefore, the request must be in asynchronous mode, and no other
+     * {@link ReadListener} must be set on the request input stream.
+     * If the input stream is not a {@link ServletInputStream}, the content is parsed
+     * by blocking the calling thread.</p>
+     * <p>The promise is notified by the thread that reads the last content, typically
+     * a thread that is not the one that called this method. If the content is already
+     * being parsed, the promise is notified when that parsing completes.</p>
+     *
+     * @param promise the promise notified with the parts, or with the parsing failure
+     */
+    public void parseAsync(Promise<Collection<Part>> promise)
+    {
+        if (_servletInput == null)
+        {
+            try
+            {
+                parse();
+            }
+            catch (IOException x)
+            {
+                promise.failed(x);
+                return;
+            }
+            notifyParts(promise);
+            return;
+        }
+
+        boolean parse = false;
+        IOException failure = null;
         try (AutoLock l = _lock.lock())
         {
             switch (state)
             {
                 case UNPARSED:
                     state = State.PARSING;
+                    parse = true;
                     break;
 
                 case PARSED:
+                    break;
+
+                case PARSING:
+                    if (_parsingThread == Thread.currentThread())
+                    {
+                        failure = new IOException(state.name());
+                        break;
+                    }
+                    // Notified by endParsing().
+                    _waiters.add(promise);
                     return;
 
                 default:
-                    _err = new IOException(state.name());
-                    return;
+                    failure = new IOException(state.name());
+                    break;
             }
         }
 
-        MultiPartParser parser = null;
+        if (failure != null)
+        {
+            promise.failed(failure);
+            return;
+        }
+        if (!parse)
+        {
+            notifyParts(promise);
+            return;
+        }
+
         try
         {
-            // Sort out the location to which to write files:
-            // If there is a MultiPartConfigElement.location, use it
-            // otherwise default to the context tmp dir
-            if (StringUtil.isBlank(_config.getLocation()))
-                _tmpDir = _contextTmpDir.toPath();
+            _servletInput.setReadListener(new AsyncParser(newParser(), promise));
+        }
+        catch (Throwable x)
+        {
+            _err = x;
+            if (endParsing())
+                promise.failed(new IOException(State.DELETED.name()));
             else
+                notifyParts(promise);
+        }
+    }
+
+    private void notifyParts(Promise<Collection<Part>> promise)
+    {
+        Collection<Part> parts;
+        try
+        {
+            throwIfError();
+            parts = _parts.values().stream().flatMap(List::stream).collect(Collectors.toList());
+        }
+        catch (Throwable x)
+        {
+            promise.failed(x);
+            return;
+        }
+        promise.succeeded(parts);
+    }
+
+    /**
+     * <p>Waits, if another thread is parsing the content, for the parsing to complete.</p>
+     * <p>The failures of the caller are thrown to the caller only, and not latched
+     * as the result of the parsing.</p>
+     *
+     * @return whether the caller must parse the content
+     * @throws IOException if the parts have been deleted, or if the caller is the parsing thread
+     */
+    private boolean startParsing() throws IOException
+    {
+        try (AutoLock.WithCondition l = _lock.lock())
+        {
+            while (true)
+            {
+                switch (state)
+                {
+                    case UNPARSED:
+                        state = State.PARSING;
+                        return true;
+
+                    case PARSED:
+                        return false;
+
+                    case PARSING:
+                        // Waiting would never end if called from a PartListener.
+                        if (_parsingThread == Thread.currentThread())
+                            throw new IOException(state.name());
+                        l.await();
+                        break;
+
+                    default:
+                        throw new IOException(state.name());
+                }
+            }
+        }
+        catch (InterruptedException x)
+        {
+            throw (IOException)new InterruptedIOException().initCause(x);
+        }
+    }
+
+    /**
+     * @return whether the parsing may continue, as the parts have not been deleted
+     */
+    private boolean isParsing()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (state != State.PARSING)
             {
-                // If the MultiPartConfigElement.location is
-                // relative, make it relative to the context tmp dir
-                Path location = FileSystems.getDefault().getPath(_config.getLocation());
-                _tmpDir = (location.isAbsolute() ? location : _contextTmpDir.toPath().resolve(location));
+                _err = new IOException(state.name());
+                return false;
             }
+            return true;
+        }
+    }
+
+    private MultiPartParser newParser() throws IOException
+    {
+        // Sort out the location to which to write files:
+        // If there is a MultiPartConfigElement.location, use it
+        // otherwise default to the context tmp dir
+        if (StringUtil.isBlank(_config.getLocation()))
+            _tmpDir = _contextTmpDir.toPath();
+        else
+        {
+            // If the MultiPartConfigElement.location is
+            // relative, make it relative to the context tmp dir
+            Path location = FileSystems.getDefault().getPath(_config.getLocation());
+            _tmpDir = (location.isAbsolute() ? location : _contextTmpDir.toPath().resolve(location));
+        }
+
+        if (!Files.exists(_tmpDir))
+            Files.createDirectories(_tmpDir);
+
+        String contentTypeBoundary = "";
+        int bstart = _contentType.indexOf("boundary=");
+        if (bstart >= 0)
+        {
+            int bend = _contentType.indexOf(";", bstart);
+            bend = (bend < 0 ? _contentType.length() : bend);
+            contentTypeBoundary = QuotedStringTokenizer.unquote(value(_contentType.substring(bstart, bend)).trim());
+        }
+
+        _total = 0;
+        return new MultiPartParser(new Handler(), contentTypeBoundary);
+    }
+
+    /**
+     * @return whether the parsing is complete, either because the parser
+     * reached the end of the multipart content or because of a failure
+     */
+    private boolean parseContent(MultiPartParser parser, byte[] data, int len)
+    {
+        // keep running total of size of bytes read from input and throw an exception if exceeds MultipartConfigElement._maxRequestSize
+        _total += len;
+        if (_config.getMaxRequestSize() > 0 && _total > _config.getMaxRequestSize())
+        {
+            _err = new IllegalStateException("Request exceeds maxRequestSize (" + _config.getMaxRequestSize() + ")");
+            return true;
+        }
+
+        ByteBuffer buffer = BufferUtil.toBuffer(data);
+        buffer.limit(len);
+        if (parser.parse(buffer, false))
+            return true;
 
-            if (!Files.exists(_tmpDir))
-                Files.createDirectories(_tmpDir);
+        if (buffer.hasRemaining())
+            throw new IllegalStateException("Buffer did not fully consume");
+        return false;
+    }
 
-            String contentTypeBoundary = "";
-            int bstart = _contentType.indexOf("boundary=");
-            if (bstart >= 0)
+    private void checkParserEnd(MultiPartParser parser)
+    {
+        // check for exceptions
+        if (_err != null)
+            return;
+
+        // check we read to the end of the message
+        if (parser.getState() != MultiPartParser.State.END)
+        {
+            if (parser.getState() == MultiPartParser.State.PREAMBLE)
+                _err = new IOException("Missing initial multi part boundary");
+            else
+                _err = new IOException("Incomplete Multipart");
+        }
+
+        if (LOG.isDebugEnabled())
+        {
+            LOG.debug("Parsing Complete {} err={}", parser, _err);
+        }
+    }
+
+    /**
+     * @return whether the parts have been deleted, as {@link #deleteParts()} was called while parsing
+     */
+    private boolean endParsing()
+    {
+        boolean cleanup = false;
+        List<Promise<Collection<Part>>> waiters;
+        try (AutoLock.WithCondition l = _lock.lock())
+        {
+            waiters = new ArrayList<>(_waiters);
+            _waiters.clear();
+            l.signalAll();
+            switch (state)
             {
-                int bend = _contentType.indexOf(";", bstart);
-                bend = (bend < 0 ? _contentType.length() : bend);
-                contentTypeBoundary = QuotedStringTokenizer.unquote(value(_contentType.substring(bstart, bend)).trim());
+                case PARSING:
+                    state = State.PARSED;
+                    break;
+
+                case DELETING:
+                    state = State.DELETED;
+                    cleanup = true;
+                    break;
+
+                default:
+                    _err = new IllegalStateException(state.name());
             }
+        }
 
-            parser = new MultiPartParser(new Handler(), contentTypeBoundary);
-            byte[] data = new byte[_bufferSize];
-            int len;
-            long total = 0;
+        if (cleanup)
+            delete();
 
-            while (true)
+        for (Promise<Collection<Part>> waiter : waiters)
+        {
+            if (cleanup)
+                waiter.failed(new IOException(State.DELETED.name()));
+            else
+                notifyParts(waiter);
+        }
+        return cleanup;
+    }
+
+    /**
+     * <p>Parses the multipart content as it becomes available from the {@link ServletInputStream}.</p>
+     */
+    private class AsyncParser implements ReadListener
+    {
+        private final MultiPartParser _parser;
+        private final Promise<Collection<Part>> _promise;
+        private final byte[] _data = new byte[_bufferSize];
+        private boolean _complete;
+
+        private AsyncParser(MultiPartParser parser, Promise<Collection<Part>> promise)
+        {
+            _parser = parser;
+            _promise = promise;
+        }
+
+        @Override
+        public void onDataAvailable()
+        {
+            _parsingThread = Thread.currentThread();
+            try
             {
-                try (AutoLock l = _lock.lock())
+                while (!_complete && _servletInput.isReady())
                 {
-                    if (state != State.PARSING)
+                    if (!isParsing())
                     {
-                        _err = new IOException(state.name());
+                        complete(false);
                         return;
                     }
-                }
 
-                len = _in.read(data);
-                if (len > 0)
-                {
-                    // keep running total of size of bytes read from input and throw an exception if exceeds MultipartConfigElement._maxRequestSize
-                    total += len;
-                    if (_config.getMaxRequestSize() > 0 && total > _config.getMaxRequestSize())
+                    int len = _servletInput.read(_data);
+                    if (len > 0)
                     {
-                        _err = new IllegalStateException("Request exceeds maxRequestSize (" + _config.getMaxRequestSize() + ")");
+                        if (parseContent(_parser, _data, len))
+                        {
+                            complete(true);
+                            return;
+                        }
+                    }
+                    else if (len == -1)
+                    {
+                        onAllDataRead();
                         return;
                     }
-
-                    ByteBuffer buffer = BufferUtil.toBuffer(data);
-                    buffer.limit(len);
-                    if (parser.parse(buffer, false))
-                        break;
-
-                    if (buffer.hasRemaining())
-                        throw new IllegalStateException("Buffer did not fully consume");
-                }
-                else if (len == -1)
-                {
-                    parser.parse(BufferUtil.EMPTY_BUFFER, true);
-                    break;
                 }
             }
-
-            // check for exceptions
-            if (_err != null)
+            catch (Throwable x)
             {
-                return;
+                onError(x);
             }
-
-            // check we read to the end of the message
-            if (parser.getState() != MultiPartParser.State.END)
+            finally
             {
-                if (parser.getState() == MultiPartParser.State.PREAMBLE)
-                    _err = new IOException("Missing initial multi part boundary");
-                else
-                    _err = new IOException("Incomplete Multipart");
+                _parsingThread = null;
             }
+        }
 
-            if (LOG.isDebugEnabled())
+        @Override
+        public void onAllDataRead()
+        {
+            if (_complete)
+                return;
+            _parsingThread = Thread.currentThread();
+            try
+            {
+                _parser.parse(BufferUtil.EMPTY_BUFFER, true);
+                complete(true);
+            }
+            catch (Throwable x)
             {
-                LOG.debug("Parsing Complete {} err={}", parser, _err);
+                onError(x);
+            }
+            finally
+            {
+                _parsingThread = null;
             }
         }
-        catch (Throwable e)
-        {
-            _err = e;
 
-            // Notify parser if failure occurs
-            if (parser != null)
-                parser.parse(BufferUtil.EMPTY_BUFFER, true);
-        }
-        finally
+        @Override
+        public void onError(Throwable failure)
         {
-            boolean cleanup = false;
-            try (AutoLock l = _lock.lock())
-            {
-                switch (state)
-                {
-                    case PARSING:
-                        state = State.PARSED;
-                        break;
-
-                    case DELETING:
-                        state = State.DELETED;
-                        cleanup = true;
-                        break;
-
-                    default:
-                        _err = new IllegalStateException(state.name());
-                }
-            }
+            if (_complete)
+                return;
+            if (_err == null)
+                _err = failure;
+            // Notify parser of the failure.
+            _parser.parse(BufferUtil.EMPTY_BUFFER, true);
+            complete(false);
+        }
 
-            if (cleanup)
-                delete();
+        private void complete(boolean checkEnd)
+        {
+            _complete = true;
+            if (checkEnd)
+                checkParserEnd(_parser);
+            if (endParsing())
+                _promise.failed(new IOException(State.DELETED.name()));
+            else
+                notifyParts(_promise);
         }
     }
 
@@ -735,6 +1042,10 @@ public class MultiPartFormInputStream
                     _err = e;
                     return true;
                 }
+
+                PartListener listener = _partListener;
+                if (listener != null)
+                    listener.onPartBegin(_part);
             }
             catch (Exception e)
             {
@@ -751,8 +1062,12 @@ public class MultiPartFormInputStream
             if (_part == null)
                 return false;
 
+            PartListener listener = _partListener;
             if (BufferUtil.hasContent(buffer))
             {
+                if (listener != null)
+                    listener.onPartContent(_part, buffer.asReadOnlyBuffer());
+
                 try
                 {
                     _part.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
@@ -775,6 +1090,9 @@ public class MultiPartFormInputStream
                     _err = e;
                     return true;
                 }
+
+                if (listener != null)
+                    listener.onPartEnd(_part);
             }
 
             return false;
@@ -873,6 +1191,19 @@ public class MultiPartFormInputStream
             return QuotedStringTokenizer.unquoteOnly(value, true);
     }
 
+    public PartListener getPartListener()
+    {
+        return _partListener;
+    }
+
+    /**
+     * @param partListener the listener notified of the parts as they are parsed
+     */
+    public void setPartListener(PartListener partListener)
+    {
+        _partListener = partListener;
+    }
+
     /**
      * @return the size of buffer used to read data from the input stream
      */
@@ -888,4 +1219,43 @@ public class MultiPartFormInputStream
     {
         _bufferSize = bufferSize;
     }
+
+    /**
+     * <p>A listener notified of the parts while they are parsed, so that the
+     * application can process the content of a part as it arrives, rather than
+     * after the whole multipart content has been parsed.</p>
+     * <p>The parts are stored as usual, so they are also available from
+     * {@link #getParts()} when the parsing is complete.</p>
+     */
+    public interface PartListener
+    {
+        /**
+         * <p>Invoked when the headers of a part have been parsed.</p>
+         *
+         * @param part the part
+         */
+        default void onPartBegin(Part part)
+        {
+        }
+
+        /**
+         * <p>Invoked when some content of a part has been parsed.</p>
+         * <p>The content buffer is only valid during this invocation.</p>
+         *
+         * @param part the part
+         * @param content the content of the part
+         */
+        default void onPartContent(Part part, ByteBuffer content)
+        {
+        }
+
+        /**
+         * <p>Invoked when all the content of a part has been parsed.</p>
+         *
+         * @param part the part
+         */
+        default void onPartEnd(Part part)
+        {
+        }
+    }
 }
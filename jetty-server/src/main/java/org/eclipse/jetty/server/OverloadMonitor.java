@@ -0,0 +1,829 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.io.SelectorManager;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.annotation.Name;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A monitor that combines multiple load {@link Signal}s and applies graded
+ * responses to overload, so that the server degrades gracefully rather than
+ * switching abruptly between a normal and a low resources state like
+ * {@link LowResourceMonitor} does.</p>
+ * <p>Every {@link #getPeriod() period} each signal reports a load, normalized so
+ * that {@code 1.0} means the resource it measures is saturated. The load of the
+ * server is the max of the loads of the signals, extrapolated {@link #getPredictionPeriods()
+ * some periods} ahead when it is rising, so that responses are applied before saturation is reached.
+ * The load determines the {@link Level}:</p>
+ * <ul>
+ * <li>{@link Level#SHED_KEEP_ALIVE}: responses are sent with {@code Connection: close},
+ * so that persistent connections are closed and clients spread over other servers</li>
+ * <li>{@link Level#LIMIT_ACCEPT}: in addition, the limits of the {@link AcceptRateLimit}s
+ * of the server are lowered by the {@link #getAcceptRateFactor() accept rate factor}</li>
+ * <li>{@link Level#REJECT}: in addition, requests are rejected with a 503 status
+ * before being handled by the application</li>
+ * </ul>
+ * <p>The level is raised as soon as the load requires it, but it is lowered by one
+ * level per period, to avoid oscillations.</p>
+ * <p>The responses to requests are applied by this monitor acting as a
+ * {@link HttpConfiguration.Customizer}, that is added to the {@link HttpConfiguration}s
+ * of the monitored connectors when this monitor is started.</p>
+ * <p>Level changes, along with the loads of all signals, are recorded in a bounded
+ * {@link #getDecisionTrace() decision trace} that is exposed via JMX.</p>
+ * <p><b>Usage:</b></p>
+ * <pre>
+ *   Server server = new Server();
+ *   OverloadMonitor monitor = new OverloadMonitor(server);
+ *   monitor.addSignal(monitor.new ThreadPoolLatencySignal(100));
+ *   monitor.addSignal(monitor.new SelectorLagSignal(50));
+ *   monitor.addSignal(monitor.new GarbageCollectionSignal(0.2));
+ *   server.addBean(monitor);
+ * </pre>
+ */
+@ManagedObject("Monitor for overload conditions that applies graded degradation")
+public class OverloadMonitor extends ContainerLifeCycle implements HttpConfiguration.Customizer
+{
+    private static final Logger LOG = LoggerFactory.getLogger(OverloadMonitor.class);
+
+    /**
+     * The degradation levels, in order of increasing severity.
+     */
+    public enum Level
+    {
+        NORMAL, SHED_KEEP_ALIVE, LIMIT_ACCEPT, REJECT
+    }
+
+    private final AutoLock _lock = new AutoLock();
+    private final Server _server;
+    private final List<Signal> _signals = new CopyOnWriteArrayList<>();
+    private final ArrayDeque<String> _decisionTrace = new ArrayDeque<>();
+    private final Map<AcceptRateLimit, Integer> _acceptRateLimits = new HashMap<>();
+    private final List<HttpConfiguration> _configurations = new ArrayList<>();
+    private final LongAdder _keepAliveShed = new LongAdder();
+    private final LongAdder _rejected = new LongAdder();
+    private Scheduler _scheduler;
+    private Connector[] _monitoredConnectors;
+    private int _period = 1000;
+    private double _shedKeepAliveLoad = 0.6;
+    private double _limitAcceptLoad = 0.8;
+    private double _rejectLoad = 1.0;
+    private double _acceptRateFactor = 0.5;
+    private int _maxDecisionTraceSize = 64;
+    private double _predictionPeriods = 1;
+    private volatile Level _level = Level.NORMAL;
+    private volatile double _load = Double.NaN;
+    private volatile double _predictedLoad;
+
+    private final Runnable _monitor = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            if (isRunning())
+            {
+                monitor();
+                _scheduler.schedule(_monitor, _period, TimeUnit.MILLISECONDS);
+            }
+        }
+    };
+
+    public OverloadMonitor(@Name("server") Server server)
+    {
+        _server = server;
+    }
+
+    @ManagedAttribute("The monitor period in ms")
+    public int getPeriod()
+    {
+        return _period;
+    }
+
+    /**
+     * @param periodMS The period in ms to sample the signals
+     */
+    public void setPeriod(int periodMS)
+    {
+        _period = periodMS;
+    }
+
+    @ManagedAttribute("The monitored connectors. If null then all server connectors are monitored")
+    public Collection<Connector> getMonitoredConnectors()
+    {
+        if (_monitoredConnectors == null)
+            return Collections.emptyList();
+        return Arrays.asList(_monitoredConnectors);
+    }
+
+    /**
+     * @param monitoredConnectors The collections of Connectors to which the graded responses are applied.
+     */
+    public void setMonitoredConnectors(Collection<Connector> monitoredConnectors)
+    {
+        if (monitoredConnectors == null || monitoredConnectors.size() == 0)
+            _monitoredConnectors = null;
+        else
+            _monitoredConnectors = monitoredConnectors.toArray(new Connector[0]);
+    }
+
+    protected Connector[] getMonitoredOrServerConnectors()
+    {
+        if (_monitoredConnectors != null && _monitoredConnectors.length > 0)
+            return _monitoredConnectors;
+        return _server.getConnectors();
+    }
+
+    @ManagedAttribute("The load at or above which persistent connections are closed")
+    public double getShedKeepAliveLoad()
+    {
+        return _shedKeepAliveLoad;
+    }
+
+    public void setShedKeepAliveLoad(double shedKeepAliveLoad)
+    {
+        _shedKeepAliveLoad = shedKeepAliveLoad;
+    }
+
+    @ManagedAttribute("The load at or above which the accept rate limits are lowered")
+    public double getLimitAcceptLoad()
+    {
+        return _limitAcceptLoad;
+    }
+
+    public void setLimitAcceptLoad(double limitAcceptLoad)
+    {
+        _limitAcceptLoad = limitAcceptLoad;
+    }
+
+    @ManagedAttribute("The load at or above which requests are rejected with 503")
+    public double getRejectLoad()
+    {
+        return _rejectLoad;
+    }
+
+    public void setRejectLoad(double rejectLoad)
+    {
+        _rejectLoad = rejectLoad;
+    }
+
+    @ManagedAttribute("The factor applied to the accept rate limits when limiting accept")
+    public double getAcceptRateFactor()
+    {
+        return _acceptRateFactor;
+    }
+
+    /**
+     * @param acceptRateFactor the factor, between 0 and 1, applied to the limits of the
+     * {@link AcceptRateLimit}s of the server when the level is {@link Level#LIMIT_ACCEPT} or higher
+     */
+    public void setAcceptRateFactor(double acceptRateFactor)
+    {
+        if (acceptRateFactor < 0 || acceptRateFactor > 1)
+            throw new IllegalArgumentException("Invalid accept rate factor " + acceptRateFactor);
+        _acceptRateFactor = acceptRateFactor;
+    }
+
+    @ManagedAttribute("The number of periods ahead a rising load is extrapolated")
+    public double getPredictionPeriods()
+    {
+        return _predictionPeriods;
+    }
+
+    /**
+     * @param predictionPeriods the number of periods ahead a rising load is extrapolated,
+     * or zero to respond only to the current load
+     */
+    public void setPredictionPeriods(double predictionPeriods)
+    {
+        _predictionPeriods = predictionPeriods;
+    }
+
+    @ManagedAttribute("The max number of decisions retained in the decision trace")
+    public int getMaxDecisionTraceSize()
+    {
+        return _maxDecisionTraceSize;
+    }
+
+    public void setMaxDecisionTraceSize(int maxDecisionTraceSize)
+    {
+        _maxDecisionTraceSize = maxDecisionTraceSize;
+    }
+
+    public List<Signal> getSignals()
+    {
+        return Collections.unmodifiableList(_signals);
+    }
+
+    public void addSignal(Signal signal)
+    {
+        addBean(signal);
+        _signals.add(signal);
+    }
+
+    public boolean removeSignal(Signal signal)
+    {
+        removeBean(signal);
+        return _signals.remove(signal);
+    }
+
+    @ManagedAttribute("The current degradation level")
+    public Level getLevel()
+    {
+        return _level;
+    }
+
+    @ManagedAttribute("The max load of the signals at the last sample, NaN before the first sample")
+    public double getLoad()
+    {
+        return _load;
+    }
+
+    @ManagedAttribute("The load extrapolated ahead at the last sample")
+    public double getPredictedLoad()
+    {
+        return _predictedLoad;
+    }
+
+    @ManagedAttribute("The loads of the signals")
+    public List<String> getSignalLoads()
+    {
+        List<String> loads = new ArrayList<>();
+        for (Signal signal : _signals)
+        {
+            loads.add(String.format("%s=%.3f", signal.getName(), signal.getLastLoad()));
+        }
+        return loads;
+    }
+
+    @ManagedAttribute("The recent level changes, with the loads that caused them")
+    public List<String> getDecisionTrace()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return new ArrayList<>(_decisionTrace);
+        }
+    }
+
+    @ManagedAttribute("The number of responses sent with Connection: close because of overload")
+    public long getKeepAliveShed()
+    {
+        return _keepAliveShed.sum();
+    }
+
+    @ManagedAttribute("The number of requests rejected with 503 because of overload")
+    public long getRejected()
+    {
+        return _rejected.sum();
+    }
+
+    @ManagedOperation(value = "Resets the statistics and the decision trace", impact = "ACTION")
+    public void reset()
+    {
+        _keepAliveShed.reset();
+        _rejected.reset();
+        try (AutoLock l = _lock.lock())
+        {
+            _decisionTrace.clear();
+        }
+    }
+
+    protected void monitor()
+    {
+        double load = 0;
+        Signal cause = null;
+        for (Signal signal : _signals)
+        {
+            double signalLoad;
+            try
+            {
+                signalLoad = signal.sample();
+            }
+            catch (Throwable x)
+            {
+                LOG.warn("Failed to sample {}", signal, x);
+                continue;
+            }
+            // A load that is not a number is treated as saturation.
+            if (Double.isNaN(signalLoad))
+                signalLoad = Double.POSITIVE_INFINITY;
+            if (cause == null || signalLoad > load)
+            {
+                load = signalLoad;
+                cause = signal;
+            }
+        }
+
+        // Extrapolate a rising load, to respond before saturation.
+        // The first sample after a start has no previous load to extrapolate from,
+        // a saturated load, such as an infinite latency, cannot be extrapolated
+        // and subtracting consecutive infinite loads would not be a number.
+        double predictedLoad = load;
+        if (Double.isFinite(load) && Double.isFinite(_load))
+            predictedLoad = load + Math.max(0, load - _load) * getPredictionPeriods();
+        _load = load;
+        _predictedLoad = predictedLoad;
+
+        Level current = _level;
+        Level target = levelFor(predictedLoad);
+        // Raise the level immediately, but lower it one level at a time.
+        Level next = target.ordinal() >= current.ordinal() ? target : Level.values()[current.ordinal() - 1];
+        if (next != current)
+        {
+            _level = next;
+            onLevelChange(current, next, load, predictedLoad, cause);
+        }
+    }
+
+    private Level levelFor(double load)
+    {
+        if (load >= getRejectLoad())
+            return Level.REJECT;
+        if (load >= getLimitAcceptLoad())
+            return Level.LIMIT_ACCEPT;
+        if (load >= getShedKeepAliveLoad())
+            return Level.SHED_KEEP_ALIVE;
+        return Level.NORMAL;
+    }
+
+    protected void onLevelChange(Level from, Level to, double load, double predictedLoad, Signal cause)
+    {
+        String decision = String.format("%s %s->%s load=%.3f predicted=%.3f cause=%s signals=%s",
+            Instant.now(), from, to, load, predictedLoad, cause == null ? null : cause.getName(), getSignalLoads());
+        if (to.ordinal() > from.ordinal())
+            LOG.warn("Overload {}", decision);
+        else
+            LOG.info("Overload {}", decision);
+
+        try (AutoLock l = _lock.lock())
+        {
+            _decisionTrace.addLast(decision);
+            while (_decisionTrace.size() > Math.max(0, getMaxDecisionTraceSize()))
+            {
+                _decisionTrace.removeFirst();
+            }
+
+            if (to.ordinal() >= Level.LIMIT_ACCEPT.ordinal() && from.ordinal() < Level.LIMIT_ACCEPT.ordinal())
+                limitAccept();
+            else if (to.ordinal() < Level.LIMIT_ACCEPT.ordinal() && from.ordinal() >= Level.LIMIT_ACCEPT.ordinal())
+                unlimitAccept();
+        }
+    }
+
+    private void limitAccept()
+    {
+        for (AcceptRateLimit acceptRateLimit : _server.getContainedBeans(AcceptRateLimit.class))
+        {
+            int limit = acceptRateLimit.getAcceptRateLimit();
+            _acceptRateLimits.putIfAbsent(acceptRateLimit, limit);
+            acceptRateLimit.setAcceptRateLimit(Math.max(1, (int)(limit * getAcceptRateFactor())));
+        }
+    }
+
+    private void unlimitAccept()
+    {
+        _acceptRateLimits.forEach(AcceptRateLimit::setAcceptRateLimit);
+        _acceptRateLimits.clear();
+    }
+
+    @Override
+    public void customize(Connector connector, HttpConfiguration channelConfig, Request request)
+    {
+        Level level = _level;
+        if (level == Level.NORMAL)
+            return;
+
+        Response response = request.getResponse();
+        response.getHttpFields().put(HttpHeader.CONNECTION, HttpHeaderValue.CLOSE.asString());
+        if (level != Level.REJECT)
+        {
+            _keepAliveShed.increment();
+            return;
+        }
+
+        _rejected.increment();
+        try
+        {
+            request.setHandled(true);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE_503);
+        }
+        catch (IOException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not reject {}", request, x);
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        _scheduler = _server.getBean(Scheduler.class);
+
+        if (_scheduler == null)
+        {
+            _scheduler = new OverloadScheduler();
+            _scheduler.start();
+        }
+
+        super.doStart();
+
+        for (Connector connector : getMonitoredOrServerConnectors())
+        {
+            for (HttpConfiguration configuration : connector.getContainedBeans(HttpConfiguration.class))
+            {
+                if (!configuration.getCustomizers().contains(this))
+                {
+                    configuration.addCustomizer(this);
+                    _configurations.add(configuration);
+                }
+            }
+        }
+
+        _scheduler.schedule(_monitor, _period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        for (HttpConfiguration configuration : _configurations)
+        {
+            configuration.getCustomizers().remove(this);
+        }
+        _configurations.clear();
+
+        try (AutoLock l = _lock.lock())
+        {
+            unlimitAccept();
+        }
+        _level = Level.NORMAL;
+        _load = Double.NaN;
+        _predictedLoad = 0;
+
+        if (_scheduler instanceof OverloadScheduler)
+            _scheduler.stop();
+        super.doStop();
+    }
+
+    private static class OverloadScheduler extends ScheduledExecutorScheduler
+    {
+    }
+
+    /**
+     * <p>A source of load information.</p>
+     */
+    public interface Signal
+    {
+        /**
+         * @return the name of this signal
+         */
+        String getName();
+
+        /**
+         * <p>Samples the resource measured by this signal.</p>
+         * <p>This method is called once per period by the monitor.</p>
+         *
+         * @return the load of the resource, where {@code 1.0} means that the resource is saturated
+         */
+        double sample();
+
+        /**
+         * @return the load returned by the last call to {@link #sample()}
+         */
+        double getLastLoad();
+    }
+
+    /**
+     * <p>A base {@link Signal} that remembers the last load sampled.</p>
+     */
+    public abstract static class AbstractSignal implements Signal
+    {
+        private volatile double _lastLoad;
+
+        @Override
+        public String getName()
+        {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public double sample()
+        {
+            double load = computeLoad();
+            _lastLoad = load;
+            return load;
+        }
+
+        @Override
+        public double getLastLoad()
+        {
+            return _lastLoad;
+        }
+
+        protected abstract double computeLoad();
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{load=%.3f}", getName(), hashCode(), getLastLoad());
+        }
+    }
+
+    /**
+     * <p>A probe that measures the latency of a task, submitted at most once per sample.</p>
+     */
+    private static class Probe
+    {
+        private volatile long _submitted;
+        private volatile long _latency;
+
+        /**
+         * @return whether a new probe should be submitted
+         */
+        private boolean begin()
+        {
+            if (_submitted != 0)
+                return false;
+            _submitted = System.nanoTime();
+            return true;
+        }
+
+        private void end()
+        {
+            _latency = System.nanoTime() - _submitted;
+            _submitted = 0;
+        }
+
+        private void cancel()
+        {
+            _submitted = 0;
+        }
+
+        /**
+         * @return the latency of the last completed probe, or the age of the pending probe if greater, in ms
+         */
+        private long getLatency()
+        {
+            long latency = _latency;
+            long submitted = _submitted;
+            if (submitted != 0)
+                latency = Math.max(latency, System.nanoTime() - submitted);
+            return TimeUnit.NANOSECONDS.toMillis(latency);
+        }
+    }
+
+    /**
+     * <p>A {@link Signal} that measures the queue latency of the server thread pool,
+     * that is the time a task waits in the queue before being run by a thread,
+     * by submitting a probe task every period.</p>
+     */
+    @ManagedObject("Measures the queue latency of the server thread pool")
+    public class ThreadPoolLatencySignal extends AbstractSignal
+    {
+        private final Probe _probe = new Probe();
+        private long _maxLatency;
+
+        /**
+         * @param maxLatency the queue latency in ms at which the thread pool is considered saturated
+         */
+        public ThreadPoolLatencySignal(@Name("maxLatency") long maxLatency)
+        {
+            _maxLatency = maxLatency;
+        }
+
+        @ManagedAttribute("The queue latency in ms at which the thread pool is considered saturated")
+        public long getMaxLatency()
+        {
+            return _maxLatency;
+        }
+
+        public void setMaxLatency(long maxLatency)
+        {
+            _maxLatency = maxLatency;
+        }
+
+        @ManagedAttribute("The last queue latency measured in ms")
+        public long getLatency()
+        {
+            return _probe.getLatency();
+        }
+
+        @Override
+        protected double computeLoad()
+        {
+            if (_probe.begin())
+            {
+                try
+                {
+                    _server.getThreadPool().execute(_probe::end);
+                }
+                catch (RejectedExecutionException x)
+                {
+                    _probe.cancel();
+                    return Double.POSITIVE_INFINITY;
+                }
+            }
+            return (double)_probe.getLatency() / Math.max(1, getMaxLatency());
+        }
+    }
+
+    /**
+     * <p>A {@link Signal} that measures the lag of the selectors of the monitored connectors,
+     * that is the time a selector takes to process an update submitted to it,
+     * by submitting a probe update to every selector every period.</p>
+     */
+    @ManagedObject("Measures the lag of the selectors of the monitored connectors")
+    public class SelectorLagSignal extends AbstractSignal
+    {
+        private final Map<ManagedSelector, Probe> _probes = new ConcurrentHashMap<>();
+        private long _maxLag;
+
+        /**
+         * @param maxLag the selector lag in ms at which the selectors are considered saturated
+         */
+        public SelectorLagSignal(@Name("maxLag") long maxLag)
+        {
+            _maxLag = maxLag;
+        }
+
+        @ManagedAttribute("The selector lag in ms at which the selectors are considered saturated")
+        public long getMaxLag()
+        {
+            return _maxLag;
+        }
+
+        public void setMaxLag(long maxLag)
+        {
+            _maxLag = maxLag;
+        }
+
+        @ManagedAttribute("The max selector lag last measured in ms")
+        public long getLag()
+        {
+            long lag = 0;
+            for (Probe probe : _probes.values())
+            {
+                lag = Math.max(lag, probe.getLatency());
+            }
+            return lag;
+        }
+
+        @Override
+        protected double computeLoad()
+        {
+            List<ManagedSelector> selectors = new ArrayList<>();
+            for (Connector connector : getMonitoredOrServerConnectors())
+            {
+                SelectorManager selectorManager = connector.getBean(SelectorManager.class);
+                if (selectorManager != null)
+                    selectors.addAll(selectorManager.getBeans(ManagedSelector.class));
+            }
+            _probes.keySet().retainAll(selectors);
+
+            for (ManagedSelector selector : selectors)
+            {
+                Probe probe = _probes.computeIfAbsent(selector, s -> new Probe());
+                if (probe.begin())
+                    selector.submit(s -> probe.end());
+            }
+            return (double)getLag() / Math.max(1, getMaxLag());
+        }
+    }
+
+    /**
+     * <p>A {@link Signal} that measures the memory used by the JVM direct buffer pool,
+     * where the buffers of the {@link org.eclipse.jetty.io.ByteBufferPool}s are typically allocated.</p>
+     */
+    @ManagedObject("Measures the memory used by direct buffers")
+    public class BufferMemorySignal extends AbstractSignal
+    {
+        private final BufferPoolMXBean _directPool;
+        private long _maxMemory;
+
+        /**
+         * @param maxMemory the direct memory in bytes at which the buffers are considered saturated
+         */
+        public BufferMemorySignal(@Name("maxMemory") long maxMemory)
+        {
+            _maxMemory = maxMemory;
+            _directPool = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .findFirst()
+                .orElse(null);
+        }
+
+        @ManagedAttribute("The direct memory in bytes at which the buffers are considered saturated")
+        public long getMaxMemory()
+        {
+            return _maxMemory;
+        }
+
+        public void setMaxMemory(long maxMemory)
+        {
+            _maxMemory = maxMemory;
+        }
+
+        @Override
+        protected double computeLoad()
+        {
+            if (_directPool == null)
+                return 0;
+            return (double)_directPool.getMemoryUsed() / Math.max(1, getMaxMemory());
+        }
+    }
+
+    /**
+     * <p>A {@link Signal} that measures the fraction of time spent in garbage collection
+     * during the last period.</p>
+     */
+    @ManagedObject("Measures the fraction of time spent in garbage collection")
+    public class GarbageCollectionSignal extends AbstractSignal
+    {
+        private final List<GarbageCollectorMXBean> _collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        private double _maxTimeRatio;
+        private long _lastCollectionTime = -1;
+        private long _lastNanoTime;
+
+        /**
+         * @param maxTimeRatio the fraction of time, between 0 and 1, spent in garbage collection
+         * at which the JVM is considered saturated
+         */
+        public GarbageCollectionSignal(@Name("maxTimeRatio") double maxTimeRatio)
+        {
+            _maxTimeRatio = maxTimeRatio;
+        }
+
+        @ManagedAttribute("The fraction of time spent in garbage collection at which the JVM is considered saturated")
+        public double getMaxTimeRatio()
+        {
+            return _maxTimeRatio;
+        }
+
+        public void setMaxTimeRatio(double maxTimeRatio)
+        {
+            _maxTimeRatio = maxTimeRatio;
+        }
+
+        @Override
+        protected double computeLoad()
+        {
+            long collectionTime = 0;
+            for (GarbageCollectorMXBean collector : _collectors)
+            {
+                collectionTime += Math.max(0, collector.getCollectionTime());
+            }
+            long now = System.nanoTime();
+            long lastCollectionTime = _lastCollectionTime;
+            long lastNanoTime = _lastNanoTime;
+            _lastCollectionTime = collectionTime;
+            _lastNanoTime = now;
+            if (lastCollectionTime < 0)
+                return 0;
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(now - lastNanoTime);
+            if (elapsed <= 0)
+                return 0;
+            double ratio = (double)(collectionTime - lastCollectionTime) / elapsed;
+            return ratio / Math.max(Double.MIN_VALUE, getMaxTimeRatio());
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.UnsupportedEncodingException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
@@ -43,6 +44,7 @@ import javax.servlet.AsyncContext;
 import javax.servlet.AsyncListener;
 import javax.servlet.DispatcherType;
 import javax.servlet.MultipartConfigElement;
+import javax.servlet.ReadListener;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -81,6 +83,7 @@ import org.eclipse.jetty.http.HttpURI;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.io.ByteBufferAccumulator;
 import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.RuntimeIOException;
 import org.eclipse.jetty.server.handler.ContextHandler;
@@ -89,12 +92,15 @@ import org.eclipse.jetty.server.session.Session;
 import org.eclipse.jetty.server.session.SessionHandler;
 import org.eclipse.jetty.util.Attributes;
 import org.eclipse.jetty.util.AttributesMap;
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.HostPort;
 import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.MultiMap;
+import org.eclipse.jetty.util.Promise;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.jetty.util.UrlEncoded;
+import org.eclipse.jetty.util.UrlEncodedView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -222,7 +228,9 @@ public class Request implements HttpServletRequest
     private BufferedReader _reader;
     private String _readerEncoding;
     private MultiMap<String> _queryParameters;
+    private UrlEncodedView _queryView;
     private MultiMap<String> _contentParameters;
+    private UrlEncodedView _formView;
     private MultiMap<String> _parameters;
     private Charset _queryEncoding;
     private InetSocketAddress _remote;
@@ -508,6 +516,11 @@ public class Request implements HttpServletRequest
         String contentType = getContentType();
         if (contentType == null || contentType.isEmpty())
             _contentParameters = NO_PARAMS;
+        else if (_formView != null)
+        {
+            _contentParameters = new MultiMap<>();
+            _formView.decodeTo(_contentParameters);
+        }
         else
         {
             _contentParameters = new MultiMap<>();
@@ -553,20 +566,8 @@ public class Request implements HttpServletRequest
     {
         try
         {
-            int maxFormContentSize = ContextHandler.DEFAULT_MAX_FORM_CONTENT_SIZE;
-            int maxFormKeys = ContextHandler.DEFAULT_MAX_FORM_KEYS;
-
-            if (_context != null)
-            {
-                ContextHandler contextHandler = _context.getContextHandler();
-                maxFormContentSize = contextHandler.getMaxFormContentSize();
-                maxFormKeys = contextHandler.getMaxFormKeys();
-            }
-            else
-            {
-                maxFormContentSize = lookupServerAttribute(ContextHandler.MAX_FORM_CONTENT_SIZE_KEY, maxFormContentSize);
-                maxFormKeys = lookupServerAttribute(ContextHandler.MAX_FORM_KEYS_KEY, maxFormKeys);
-            }
+            int maxFormContentSize = getMaxFormContentSize();
+            int maxFormKeys = getMaxFormKeys();
 
             int contentLength = getContentLength();
             if (maxFormContentSize >= 0 && contentLength > maxFormContentSize)
@@ -587,6 +588,68 @@ public class Request implements HttpServletRequest
         }
     }
 
+    /**
+     * <p>Reads the form content of this request without blocking, and notifies the
+     * given promise with a lazily decoded view of the form parameters when all the
+     * content has been read.</p>
+     * <p>The content is read with a {@link ReadListener}, so that no thread is held
+     * while waiting for the content of slow clients. Therefore, this method must be
+     * called after {@link #startAsync()}, and no other {@code ReadListener} must be
+     * set on the request input stream. The form size and number of keys are limited
+     * in the same way as for {@link #extractFormParameters(MultiMap)}. When the promise
+     * succeeds, the form fields are also available from the request parameters.</p>
+     *
+     * @param promise the promise notified with the form view, or with the read failure
+     */
+    public void getFormParametersAsync(Promise<UrlEncodedView> promise)
+    {
+        String contentType = getContentType();
+        if (contentType == null || !MimeTypes.Type.FORM_ENCODED.is(HttpField.valueParameters(contentType, null)))
+        {
+            promise.failed(new ServletException("Unsupported Content-Type [" + contentType + "], expected [application/x-www-form-urlencoded]"));
+            return;
+        }
+
+        if (_formView != null)
+        {
+            promise.succeeded(_formView);
+            return;
+        }
+
+        try
+        {
+            if (_metaData != null && !isContentEncodingSupported())
+                throw new BadMessageException(HttpStatus.UNSUPPORTED_MEDIA_TYPE_415, "Unsupported Content-Encoding");
+
+            int maxFormContentSize = getMaxFormContentSize();
+            if (maxFormContentSize >= 0 && getContentLength() > maxFormContentSize)
+                throw new IllegalStateException("Form is larger than max length " + maxFormContentSize);
+
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? null : Charset.forName(encoding);
+            ServletInputStream input = getInputStream();
+            input.setReadListener(new FormReader(input, charset, maxFormContentSize, getMaxFormKeys(), promise));
+        }
+        catch (Throwable x)
+        {
+            promise.failed(x);
+        }
+    }
+
+    private int getMaxFormContentSize()
+    {
+        if (_context != null)
+            return _context.getContextHandler().getMaxFormContentSize();
+        return lookupServerAttribute(ContextHandler.MAX_FORM_CONTENT_SIZE_KEY, ContextHandler.DEFAULT_MAX_FORM_CONTENT_SIZE);
+    }
+
+    private int getMaxFormKeys()
+    {
+        if (_context != null)
+            return _context.getContextHandler().getMaxFormKeys();
+        return lookupServerAttribute(ContextHandler.MAX_FORM_KEYS_KEY, ContextHandler.DEFAULT_MAX_FORM_KEYS);
+    }
+
     private int lookupServerAttribute(String key, int dftValue)
     {
         Object attribute = _channel.getServer().getAttribute(key);
@@ -1074,6 +1137,27 @@ public class Request implements HttpServletRequest
         return _queryParameters;
     }
 
+    /**
+     * <p>Returns a lazily decoded view of the query string of the request URI, so that
+     * applications that only look at a few parameters of a long query do not pay to
+     * decode all of them, as {@link #getParameter(String)} does.</p>
+     * <p>The view is of the query of the current URI only: unlike {@link #getQueryParameters()},
+     * it does not include the query parameters merged by a forward dispatch.</p>
+     *
+     * @return the view of the query parameters, empty if there is no query
+     * @see #getFormParametersAsync(Promise)
+     */
+    public UrlEncodedView getQueryParametersView()
+    {
+        UrlEncodedView view = _queryView;
+        if (view == null)
+        {
+            view = new UrlEncodedView(_uri == null ? null : _uri.getQuery(), _queryEncoding, -1);
+            _queryView = view;
+        }
+        return view;
+    }
+
     public void setQueryParameters(MultiMap<String> queryParameters)
     {
         _queryParameters = queryParameters;
@@ -1548,6 +1632,8 @@ public class Request implements HttpServletRequest
     {
         if (_uri != null && !Objects.equals(_uri.getQuery(), uri.getQuery()) && _queryParameters != BAD_PARAMS)
             _parameters = _queryParameters = null;
+        if (_uri == null || !Objects.equals(_uri.getQuery(), uri.getQuery()))
+            _queryView = null;
         _uri = uri.asImmutable();
     }
 
@@ -1815,7 +1901,9 @@ public class Request implements HttpServletRequest
         // _reader can be reused
         // _readerEncoding can be reused
         _queryParameters = null;
+        _queryView = null;
         _contentParameters = null;
+        _formView = null;
         _parameters = null;
         _queryEncoding = null;
         _remote = null;
@@ -2095,6 +2183,7 @@ public class Request implements HttpServletRequest
     public void setQueryEncoding(String queryEncoding)
     {
         _queryEncoding = Charset.forName(queryEncoding);
+        _queryView = null;
     }
 
     /**
@@ -2245,6 +2334,74 @@ public class Request implements HttpServletRequest
         return getParts(null);
     }
 
+    /**
+     * <p>Parses the multipart content of this request without blocking, and notifies the
+     * given promise with the parts when the parsing is complete.</p>
+     * <p>The content is read with a {@link javax.servlet.ReadListener}, so that no thread
+     * is held while waiting for the content of slow uploads. Therefore, this method
+     * must be called after {@link #startAsync()}, and no other {@code ReadListener}
+     * must be set on the request input stream. When the promise succeeds, the parts are
+     * also available from {@link #getParts()} and the form fields from the request parameters.</p>
+     *
+     * @param listener the listener notified of the parts while they are parsed, or null
+     * @param promise the promise notified with the parts, or with the parsing failure
+     * @see MultiPartFormInputStream#parseAsync(Promise)
+     */
+    public void getPartsAsync(MultiPartFormInputStream.PartListener listener, Promise<Collection<Part>> promise)
+    {
+        String contentType = getContentType();
+        if (contentType == null || !MimeTypes.Type.MULTIPART_FORM_DATA.is(HttpField.valueParameters(contentType, null)))
+        {
+            promise.failed(new ServletException("Unsupported Content-Type [" + contentType + "], expected [multipart/form-data]"));
+            return;
+        }
+
+        if (_multiParts != null)
+        {
+            // Already parsed or being parsed, the promise is notified with the same parts.
+            _multiParts.parseAsync(promise);
+            return;
+        }
+
+        try
+        {
+            MultipartConfigElement config = (MultipartConfigElement)getAttribute(__MULTIPART_CONFIG_ELEMENT);
+            if (config == null)
+                throw new IllegalStateException("No multipart config for servlet");
+            _multiParts = newMultiParts(config);
+            _multiParts.setPartListener(listener);
+        }
+        catch (Throwable x)
+        {
+            promise.failed(x);
+            return;
+        }
+
+        _multiParts.parseAsync(new Promise<>()
+        {
+            @Override
+            public void succeeded(Collection<Part> parts)
+            {
+                try
+                {
+                    extractPartParameters(parts, null);
+                }
+                catch (Throwable x)
+                {
+                    promise.failed(x);
+                    return;
+                }
+                promise.succeeded(parts);
+            }
+
+            @Override
+            public void failed(Throwable x)
+            {
+                promise.failed(x);
+            }
+        });
+    }
+
     private Collection<Part> getParts(MultiMap<String> params) throws IOException
     {
         if (_multiParts == null)
@@ -2255,64 +2412,146 @@ public class Request implements HttpServletRequest
 
             _multiParts = newMultiParts(config);
             Collection<Part> parts = _multiParts.getParts();
+            extractPartParameters(parts, params);
+        }
+
+        return _multiParts.getParts();
+    }
+
+    private void extractPartParameters(Collection<Part> parts, MultiMap<String> params) throws IOException
+    {
+        String formCharset = null;
+        Part charsetPart = _multiParts.getPart("_charset_");
+        if (charsetPart != null)
+        {
+            try (InputStream is = charsetPart.getInputStream())
+            {
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                IO.copy(is, os);
+                formCharset = new String(os.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+
+        /*
+        Select Charset to use for this part. (NOTE: charset behavior is for the part value only and not the part header/field names)
+            1. Use the part specific charset as provided in that part's Content-Type header; else
+            2. Use the overall default charset. Determined by:
+                a. if part name _charset_ exists, use that part's value.
+                b. if the request.getCharacterEncoding() returns a value, use that.
+                    (note, this can be either from the charset field on the request Content-Type
+                    header, or from a manual call to request.setCharacterEncoding())
+                c. use utf-8.
+         */
+        Charset defaultCharset;
+        if (formCharset != null)
+            defaultCharset = Charset.forName(formCharset);
+        else if (getCharacterEncoding() != null)
+            defaultCharset = Charset.forName(getCharacterEncoding());
+        else
+            defaultCharset = StandardCharsets.UTF_8;
 
-            String formCharset = null;
-            Part charsetPart = _multiParts.getPart("_charset_");
-            if (charsetPart != null)
+        ByteArrayOutputStream os = null;
+        for (Part p : parts)
+        {
+            if (p.getSubmittedFileName() == null)
             {
-                try (InputStream is = charsetPart.getInputStream())
+                // Servlet Spec 3.0 pg 23, parts without filename must be put into params.
+                String charset = null;
+                if (p.getContentType() != null)
+                    charset = MimeTypes.getCharsetFromContentType(p.getContentType());
+
+                try (InputStream is = p.getInputStream())
                 {
-                    ByteArrayOutputStream os = new ByteArrayOutputStream();
+                    if (os == null)
+                        os = new ByteArrayOutputStream();
                     IO.copy(is, os);
-                    formCharset = new String(os.toByteArray(), StandardCharsets.UTF_8);
+
+                    String content = new String(os.toByteArray(), charset == null ? defaultCharset : Charset.forName(charset));
+                    if (_contentParameters == null)
+                        _contentParameters = params == null ? new MultiMap<>() : params;
+                    _contentParameters.add(p.getName(), content);
                 }
+                os.reset();
             }
+        }
+    }
 
-            /*
-            Select Charset to use for this part. (NOTE: charset behavior is for the part value only and not the part header/field names)
-                1. Use the part specific charset as provided in that part's Content-Type header; else
-                2. Use the overall default charset. Determined by:
-                    a. if part name _charset_ exists, use that part's value.
-                    b. if the request.getCharacterEncoding() returns a value, use that.
-                        (note, this can be either from the charset field on the request Content-Type
-                        header, or from a manual call to request.setCharacterEncoding())
-                    c. use utf-8.
-             */
-            Charset defaultCharset;
-            if (formCharset != null)
-                defaultCharset = Charset.forName(formCharset);
-            else if (getCharacterEncoding() != null)
-                defaultCharset = Charset.forName(getCharacterEncoding());
-            else
-                defaultCharset = StandardCharsets.UTF_8;
+    /**
+     * Accumulates the form content into pooled buffers as it becomes available,
+     * then indexes it with an {@link UrlEncodedView} without copying it again.
+     */
+    private class FormReader implements ReadListener
+    {
+        private final ByteBufferAccumulator _accumulator = new ByteBufferAccumulator(_channel.getByteBufferPool(), false);
+        private final ServletInputStream _input;
+        private final Charset _charset;
+        private final int _maxLength;
+        private final int _maxKeys;
+        private final Promise<UrlEncodedView> _promise;
+        private int _length;
+
+        private FormReader(ServletInputStream input, Charset charset, int maxLength, int maxKeys, Promise<UrlEncodedView> promise)
+        {
+            _input = input;
+            _charset = charset;
+            _maxLength = maxLength;
+            _maxKeys = maxKeys;
+            _promise = promise;
+        }
 
-            ByteArrayOutputStream os = null;
-            for (Part p : parts)
+        @Override
+        public void onDataAvailable() throws IOException
+        {
+            while (_input.isReady() && !_input.isFinished())
             {
-                if (p.getSubmittedFileName() == null)
-                {
-                    // Servlet Spec 3.0 pg 23, parts without filename must be put into params.
-                    String charset = null;
-                    if (p.getContentType() != null)
-                        charset = MimeTypes.getCharsetFromContentType(p.getContentType());
+                ByteBuffer buffer = _accumulator.ensureBuffer(1, 4096);
+                int pos = BufferUtil.flipToFill(buffer);
+                int read = _input.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                if (read > 0)
+                    buffer.position(buffer.position() + read);
+                BufferUtil.flipToFlush(buffer, pos);
+                if (read < 0)
+                    break;
+                _length += read;
+                if (_maxLength >= 0 && _length > _maxLength)
+                    throw new IllegalStateException("Form is larger than max length " + _maxLength);
+            }
+        }
 
-                    try (InputStream is = p.getInputStream())
-                    {
-                        if (os == null)
-                            os = new ByteArrayOutputStream();
-                        IO.copy(is, os);
-
-                        String content = new String(os.toByteArray(), charset == null ? defaultCharset : Charset.forName(charset));
-                        if (_contentParameters == null)
-                            _contentParameters = params == null ? new MultiMap<>() : params;
-                        _contentParameters.add(p.getName(), content);
-                    }
-                    os.reset();
-                }
+        @Override
+        public void onAllDataRead()
+        {
+            UrlEncodedView view;
+            try
+            {
+                // The combined buffer is not returned to the pool, as the view refers to its bytes.
+                ByteBuffer content = _accumulator.takeByteBuffer();
+                view = new UrlEncodedView(content.array(), content.arrayOffset() + content.position(), content.remaining(), _charset, _maxKeys);
             }
+            catch (Throwable x)
+            {
+                onError(x);
+                return;
+            }
+            finally
+            {
+                _accumulator.close();
+            }
+
+            _formView = view;
+            // Re-extract the content parameters from the view if they were already looked up.
+            _contentParameters = null;
+            _contentParamsExtracted = false;
+            _parameters = null;
+            _promise.succeeded(view);
         }
 
-        return _multiParts.getParts();
+        @Override
+        public void onError(Throwable x)
+        {
+            _accumulator.close();
+            _promise.failed(x);
+        }
     }
 
     private MultiPartFormInputStream newMultiParts(MultipartConfigElement config) throws IOException
@@ -0,0 +1,126 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.statistic.HistogramStatistic;
+
+/**
+ * <p>A {@link HttpChannel.Listener} that tracks how many writes to the transport
+ * are needed to send each response.</p>
+ * <p>Adding an instance of this class as a bean to a Connector tracks the responses
+ * of that Connector. Responses written with fewer writes, for example because the
+ * headers, the aggregated content and the application content are gathered in a
+ * single write, use fewer system calls.</p>
+ *
+ * @see HttpChannel#getResponseWrites()
+ */
+@ManagedObject("Tracks statistics on response writes")
+public class ResponseWriteStatistics extends AbstractLifeCycle implements HttpChannel.Listener, Dumpable
+{
+    private final LongAdder _responses = new LongAdder();
+    private final LongAdder _writes = new LongAdder();
+    private final HistogramStatistic _writesPerResponse = new HistogramStatistic();
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void reset()
+    {
+        _responses.reset();
+        _writes.reset();
+        _writesPerResponse.reset();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        reset();
+    }
+
+    @Override
+    public void onComplete(Request request)
+    {
+        if (!isStarted())
+            return;
+
+        int writes = request.getHttpChannel().getResponseWrites();
+        _responses.increment();
+        _writes.add(writes);
+        _writesPerResponse.record(writes);
+    }
+
+    @ManagedAttribute("The total number of responses")
+    public long getResponses()
+    {
+        return _responses.sum();
+    }
+
+    @ManagedAttribute("The total number of response writes")
+    public long getWrites()
+    {
+        return _writes.sum();
+    }
+
+    @ManagedAttribute("The mean number of writes per response")
+    public double getWritesPerResponseMean()
+    {
+        return _writesPerResponse.getMean();
+    }
+
+    @ManagedAttribute("The max number of writes per response")
+    public long getWritesPerResponseMax()
+    {
+        return _writesPerResponse.getMax();
+    }
+
+    @ManagedAttribute("The 99th percentile of the number of writes per response")
+    public long getWritesPerResponse99thPercentile()
+    {
+        return _writesPerResponse.getPercentile(99);
+    }
+
+    /**
+     * @return a snapshot of the histogram of the number of writes per response
+     */
+    public HistogramStatistic.Snapshot getWritesPerResponse()
+    {
+        return _writesPerResponse.snapshot();
+    }
+
+    @Override
+    public String dump()
+    {
+        return Dumpable.dump(this);
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        Dumpable.dumpObjects(out, indent, this,
+            String.format("responses/writes=%d/%d", getResponses(), getWrites()),
+            String.format("writes per response=%s", _writesPerResponse));
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x", getClass().getSimpleName(), hashCode());
+    }
+}
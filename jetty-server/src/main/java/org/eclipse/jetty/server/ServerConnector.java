@@ -19,12 +19,15 @@ import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.StandardSocketOptions;
 import java.nio.channels.Channel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.EventListener;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -66,6 +69,15 @@ import org.eclipse.jetty.util.thread.Scheduler;
  * which should allow optimal performance even if all the connections used are performing
  * significant non-blocking work in the callback tasks.
  * </p>
+ * <h2>SO_REUSEPORT</h2>
+ * <p>
+ * If {@link #setReusePort(boolean) reusePort} is enabled, the listening socket is bound with
+ * {@code SO_REUSEPORT}.  If additionally the connector has no acceptor threads (acceptors == 0),
+ * then one listening socket is bound per selector and each listening socket is accepted by, and
+ * registers its accepted connections with, its own selector.  The operating system (for example
+ * Linux 3.9 or later) then load-balances new connections across the listening sockets, which avoids
+ * contention on a single accept queue.
+ * </p>
  */
 @ManagedObject("HTTP connector using NIO ByteChannels and Selectors")
 public class ServerConnector extends AbstractNetworkConnector
@@ -73,10 +85,12 @@ public class ServerConnector extends AbstractNetworkConnector
     private final SelectorManager _manager;
     private final AtomicReference<Closeable> _acceptor = new AtomicReference<>();
     private volatile ServerSocketChannel _acceptChannel;
+    private volatile List<ServerSocketChannel> _reusePortChannels = List.of();
     private volatile boolean _inheritChannel = false;
     private volatile int _localPort = -1;
     private volatile int _acceptQueueSize = 0;
     private volatile boolean _reuseAddress = true;
+    private volatile boolean _reusePort = false;
     private volatile boolean _acceptedTcpNoDelay = true;
     private volatile int _acceptedReceiveBufferSize = -1;
     private volatile int _acceptedSendBufferSize = -1;
@@ -228,10 +242,36 @@ public class ServerConnector extends AbstractNetworkConnector
         if (getAcceptors() == 0)
         {
             _acceptChannel.configureBlocking(false);
-            _acceptor.set(_manager.acceptor(_acceptChannel));
+            for (ServerSocketChannel channel : _reusePortChannels)
+            {
+                channel.configureBlocking(false);
+            }
+            _acceptor.set(newAcceptor());
         }
     }
 
+    private Closeable newAcceptor()
+    {
+        List<ServerSocketChannel> reusePortChannels = _reusePortChannels;
+        if (reusePortChannels.isEmpty())
+            return _manager.acceptor(_acceptChannel);
+
+        // One acceptor per listening socket, each pinned to its own selector.
+        List<Closeable> acceptors = new ArrayList<>(reusePortChannels.size() + 1);
+        acceptors.add(_manager.acceptor(_acceptChannel, 0));
+        for (int i = 0; i < reusePortChannels.size(); i++)
+        {
+            acceptors.add(_manager.acceptor(reusePortChannels.get(i), i + 1));
+        }
+        return () ->
+        {
+            for (Closeable acceptor : acceptors)
+            {
+                acceptor.close();
+            }
+        };
+    }
+
     @Override
     protected void doStop() throws Exception
     {
@@ -305,6 +345,61 @@ public class ServerConnector extends AbstractNetworkConnector
             if (_localPort <= 0)
                 throw new IOException("Server channel not bound");
             addBean(_acceptChannel);
+            _reusePortChannels = openReusePortChannels();
+        }
+    }
+
+    /**
+     * <p>Called by {@link #open()} to obtain the additional listening channels used when
+     * {@link #isReusePort() reusePort} is enabled and no acceptor threads are configured.</p>
+     * <p>One channel per selector, in addition to the channel returned by {@link #openAcceptChannel()},
+     * is bound with {@code SO_REUSEPORT} to the same address, so that each selector accepts from its own
+     * listening socket.</p>
+     *
+     * @return the additional channels, possibly empty
+     * @throws IOException if unable to bind the additional channels
+     */
+    protected List<ServerSocketChannel> openReusePortChannels() throws IOException
+    {
+        int count = _manager.getSelectorCount() - 1;
+        if (!isReusePort() || getAcceptors() > 0 || count <= 0 || !isReusePortEnabled(_acceptChannel))
+            return List.of();
+
+        List<ServerSocketChannel> channels = new ArrayList<>(count);
+        try
+        {
+            InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(_localPort) : new InetSocketAddress(getHost(), _localPort);
+            for (int i = 0; i < count; i++)
+            {
+                ServerSocketChannel channel = bindAcceptChannel(bindAddress);
+                channel.configureBlocking(true);
+                channels.add(channel);
+                addBean(channel);
+            }
+            return channels;
+        }
+        catch (Throwable x)
+        {
+            for (ServerSocketChannel channel : channels)
+            {
+                removeBean(channel);
+                IO.close(channel);
+            }
+            throw x;
+        }
+    }
+
+    private static boolean isReusePortEnabled(ServerSocketChannel channel)
+    {
+        try
+        {
+            return channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT) &&
+                channel.getOption(StandardSocketOptions.SO_REUSEPORT);
+        }
+        catch (IOException x)
+        {
+            LOG.trace("IGNORED", x);
+            return false;
         }
     }
 
@@ -329,22 +424,35 @@ public class ServerConnector extends AbstractNetworkConnector
         if (serverChannel == null)
         {
             InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(getPort()) : new InetSocketAddress(getHost(), getPort());
-            serverChannel = ServerSocketChannel.open();
-            try
-            {
-                serverChannel.socket().setReuseAddress(getReuseAddress());
-                serverChannel.socket().bind(bindAddress, getAcceptQueueSize());
-            }
-            catch (Throwable e)
-            {
-                IO.close(serverChannel);
-                throw new IOException("Failed to bind to " + bindAddress, e);
-            }
+            serverChannel = bindAcceptChannel(bindAddress);
         }
 
         return serverChannel;
     }
 
+    private ServerSocketChannel bindAcceptChannel(InetSocketAddress bindAddress) throws IOException
+    {
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try
+        {
+            serverChannel.socket().setReuseAddress(getReuseAddress());
+            if (isReusePort())
+            {
+                if (serverChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT))
+                    serverChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                else
+                    LOG.warn("SO_REUSEPORT not supported on this platform, ignoring for {}", this);
+            }
+            serverChannel.socket().bind(bindAddress, getAcceptQueueSize());
+            return serverChannel;
+        }
+        catch (Throwable e)
+        {
+            IO.close(serverChannel);
+            throw new IOException("Failed to bind to " + bindAddress, e);
+        }
+    }
+
     @Override
     public void close()
     {
@@ -368,6 +476,14 @@ public class ServerConnector extends AbstractNetworkConnector
                 }
             }
         }
+
+        List<ServerSocketChannel> reusePortChannels = _reusePortChannels;
+        _reusePortChannels = List.of();
+        for (ServerSocketChannel channel : reusePortChannels)
+        {
+            removeBean(channel);
+            IO.close(channel);
+        }
         _localPort = -2;
     }
 
@@ -390,6 +506,21 @@ public class ServerConnector extends AbstractNetworkConnector
         _manager.accept(channel);
     }
 
+    private void accepted(SocketChannel channel, int selectorId) throws IOException
+    {
+        if (_reusePortChannels.isEmpty())
+        {
+            accepted(channel);
+        }
+        else
+        {
+            // Keep the connection on the selector that accepted it.
+            channel.configureBlocking(false);
+            configure(channel.socket());
+            _manager.accept(channel, null, selectorId);
+        }
+    }
+
     protected void configure(Socket socket)
     {
         try
@@ -418,6 +549,15 @@ public class ServerConnector extends AbstractNetworkConnector
         return _acceptChannel;
     }
 
+    /**
+     * @return the number of listening sockets bound by this connector
+     */
+    @ManagedAttribute("The number of listening sockets")
+    public int getAcceptChannelCount()
+    {
+        return (_acceptChannel == null ? 0 : 1) + _reusePortChannels.size();
+    }
+
     @Override
     @ManagedAttribute("local port")
     public int getLocalPort()
@@ -468,6 +608,30 @@ public class ServerConnector extends AbstractNetworkConnector
         _reuseAddress = reuseAddress;
     }
 
+    /**
+     * @return whether the server socket is bound with {@code SO_REUSEPORT}
+     * @see StandardSocketOptions#SO_REUSEPORT
+     */
+    @ManagedAttribute("Server Socket SO_REUSEPORT")
+    public boolean isReusePort()
+    {
+        return _reusePort;
+    }
+
+    /**
+     * <p>Sets whether the server socket is bound with {@code SO_REUSEPORT}.</p>
+     * <p>When enabled and the connector has no acceptor threads, one listening socket
+     * is bound per selector, so that the operating system distributes new connections
+     * across the selectors.</p>
+     *
+     * @param reusePort whether the server socket is bound with {@code SO_REUSEPORT}
+     * @see StandardSocketOptions#SO_REUSEPORT
+     */
+    public void setReusePort(boolean reusePort)
+    {
+        _reusePort = reusePort;
+    }
+
     /**
      * @return whether the accepted socket gets {@link java.net.SocketOptions#TCP_NODELAY TCP_NODELAY} enabled.
      * @see Socket#getTcpNoDelay()
@@ -542,7 +706,7 @@ public class ServerConnector extends AbstractNetworkConnector
             {
                 if (_acceptor.get() == null)
                 {
-                    Closeable acceptor = _manager.acceptor(_acceptChannel);
+                    Closeable acceptor = newAcceptor();
                     if (!_acceptor.compareAndSet(null, acceptor))
                         acceptor.close();
                 }
@@ -573,6 +737,12 @@ public class ServerConnector extends AbstractNetworkConnector
             ServerConnector.this.accepted((SocketChannel)channel);
         }
 
+        @Override
+        protected void accepted(SelectableChannel channel, int selectorId) throws IOException
+        {
+            ServerConnector.this.accepted((SocketChannel)channel, selectorId);
+        }
+
         @Override
         protected SocketChannelEndPoint newEndPoint(SelectableChannel channel, ManagedSelector selector, SelectionKey selectionKey) throws IOException
         {
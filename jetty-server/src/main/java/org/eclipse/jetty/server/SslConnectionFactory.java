@@ -14,6 +14,8 @@
 package org.eclipse.jetty.server;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSession;
 
@@ -23,6 +25,8 @@ import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.ssl.SslConnection;
 import org.eclipse.jetty.io.ssl.SslHandshakeListener;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.annotation.Name;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
@@ -38,6 +42,23 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
     private boolean _directBuffersForEncryption = false;
     private boolean _directBuffersForDecryption = false;
     private boolean _ensureSecureRequestCustomizer = true;
+    private Executor _handshakeExecutor;
+    private boolean _adaptiveBuffers;
+    private final LongAdder _decryptedBytesCopied = new LongAdder();
+    private final LongAdder _decryptedBytesInPlace = new LongAdder();
+    private final Connection.Listener _decryptedBytesListener = new Connection.Listener.Adapter()
+    {
+        @Override
+        public void onClosed(Connection connection)
+        {
+            if (connection instanceof SslConnection)
+            {
+                SslConnection sslConnection = (SslConnection)connection;
+                _decryptedBytesCopied.add(sslConnection.getDecryptedBytesCopied());
+                _decryptedBytesInPlace.add(sslConnection.getDecryptedBytesInPlace());
+            }
+        }
+    };
 
     public SslConnectionFactory()
     {
@@ -102,6 +123,78 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
         _ensureSecureRequestCustomizer = ensureSecureRequestCustomizer;
     }
 
+    /**
+     * @return the executor that runs the TLS handshake delegated tasks, or null if they are run by the connection threads
+     * @see SslConnection#getHandshakeExecutor()
+     */
+    public Executor getHandshakeExecutor()
+    {
+        return _handshakeExecutor;
+    }
+
+    /**
+     * <p>Sets a dedicated executor that runs the TLS handshake delegated tasks.</p>
+     * <p>Typically this is a {@link org.eclipse.jetty.util.thread.QueuedThreadPool} with a small
+     * number of threads and a bounded queue: when the queue is full, new TLS handshakes are
+     * failed rather than competing with request processing for CPU and threads.</p>
+     * <p>If the executor is a {@link org.eclipse.jetty.util.component.LifeCycle}, it is managed by this factory.</p>
+     *
+     * @param handshakeExecutor the executor that runs the TLS handshake delegated tasks,
+     * or null to run them by the connection threads
+     * @see SslConnection#setHandshakeExecutor(Executor)
+     */
+    public void setHandshakeExecutor(Executor handshakeExecutor)
+    {
+        updateBean(_handshakeExecutor, handshakeExecutor, true);
+        _handshakeExecutor = handshakeExecutor;
+    }
+
+    /**
+     * @return whether the TLS input buffers are sized after the observed TLS records
+     * @see SslConnection#isAdaptiveBuffers()
+     */
+    @ManagedAttribute("Whether the TLS input buffers are sized after the observed TLS records")
+    public boolean isAdaptiveBuffers()
+    {
+        return _adaptiveBuffers;
+    }
+
+    /**
+     * @param adaptiveBuffers whether the TLS input buffers are sized after the observed TLS records
+     * @see SslConnection#setAdaptiveBuffers(boolean)
+     */
+    public void setAdaptiveBuffers(boolean adaptiveBuffers)
+    {
+        _adaptiveBuffers = adaptiveBuffers;
+    }
+
+    /**
+     * @return the number of decrypted bytes copied from an intermediate buffer by the closed connections
+     * @see SslConnection#getDecryptedBytesCopied()
+     */
+    @ManagedAttribute("The number of decrypted bytes copied from an intermediate buffer by closed connections")
+    public long getDecryptedBytesCopied()
+    {
+        return _decryptedBytesCopied.sum();
+    }
+
+    /**
+     * @return the number of bytes decrypted directly into the application buffer by the closed connections
+     * @see SslConnection#getDecryptedBytesInPlace()
+     */
+    @ManagedAttribute("The number of bytes decrypted directly into the application buffer by closed connections")
+    public long getDecryptedBytesInPlace()
+    {
+        return _decryptedBytesInPlace.sum();
+    }
+
+    @ManagedOperation(value = "Resets the decrypted bytes statistics", impact = "ACTION")
+    public void resetDecryptedBytes()
+    {
+        _decryptedBytesCopied.reset();
+        _decryptedBytesInPlace.reset();
+    }
+
     @Override
     protected void doStart() throws Exception
     {
@@ -148,6 +241,9 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
         SslConnection sslConnection = newSslConnection(connector, endPoint, engine);
         sslConnection.setRenegotiationAllowed(_sslContextFactory.isRenegotiationAllowed());
         sslConnection.setRenegotiationLimit(_sslContextFactory.getRenegotiationLimit());
+        sslConnection.setHandshakeExecutor(getHandshakeExecutor());
+        sslConnection.setAdaptiveBuffers(isAdaptiveBuffers());
+        sslConnection.addEventListener(_decryptedBytesListener);
         configure(sslConnection, connector, endPoint);
 
         ConnectionFactory next = connector.getConnectionFactory(_nextProtocol);
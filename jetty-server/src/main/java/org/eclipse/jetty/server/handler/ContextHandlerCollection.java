@@ -21,6 +21,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -51,6 +52,7 @@ public class ContextHandlerCollection extends HandlerCollection
 {
     private static final Logger LOG = LoggerFactory.getLogger(ContextHandlerCollection.class);
     private final SerializedExecutor _serializedExecutor = new SerializedExecutor();
+    private final AtomicBoolean _mapContextsPending = new AtomicBoolean();
 
     public ContextHandlerCollection()
     {
@@ -69,13 +71,18 @@ public class ContextHandlerCollection extends HandlerCollection
      * However, if configuration changes in the deep handler structure (eg contextpath is changed), then
      * this call will trigger a remapping.
      * This method is mutually excluded from {@link #deployHandler(Handler, Callback)} and
-     * {@link #undeployHandler(Handler, Callback)}
+     * {@link #undeployHandler(Handler, Callback)}.
+     * Calls made while a remapping is already pending are coalesced into that remapping,
+     * which maps the context paths current at the time it is executed.
      */
     @ManagedOperation("Update the mapping of context path to context")
     public void mapContexts()
     {
+        if (!_mapContextsPending.compareAndSet(false, true))
+            return;
         _serializedExecutor.execute(() ->
         {
+            _mapContextsPending.set(false);
             while (true)
             {
                 Handlers handlers = _handlers.get();
@@ -22,6 +22,8 @@ import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
@@ -45,6 +47,7 @@ import org.junit.jupiter.api.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -859,6 +862,92 @@ public class HttpOutputTest
         }
     }
 
+    @Test
+    public void testAggregateGatheredKnown() throws Exception
+    {
+        CountDownLatch completed = new CountDownLatch(1);
+        ResponseWriteStatistics statistics = newResponseWriteStatistics(completed);
+        GatherHandler handler = new GatherHandler(true);
+        _swap.setHandler(handler);
+        handler.start();
+        String response = _connector.getResponse("GET / HTTP/1.0\nHost: localhost:80\n\n");
+        assertThat(response, containsString("HTTP/1.1 200 OK"));
+        assertThat(response, containsString("Content-Length: " + handler.expected.size()));
+        assertThat(response, endsWith(handler.expected.toString()));
+
+        // Headers, aggregate and content are sent with a single write.
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertThat(statistics.getResponses(), is(1L));
+        assertThat(statistics.getWrites(), is(1L));
+    }
+
+    @Test
+    public void testAggregateGatheredChunked() throws Exception
+    {
+        CountDownLatch completed = new CountDownLatch(1);
+        ResponseWriteStatistics statistics = newResponseWriteStatistics(completed);
+        GatherHandler handler = new GatherHandler(false);
+        _swap.setHandler(handler);
+        handler.start();
+        String response = _connector.getResponse("GET / HTTP/1.1\nHost: localhost:80\nConnection: close\n\n");
+        assertThat(response, containsString("HTTP/1.1 200 OK"));
+        assertThat(response, containsString("Transfer-Encoding: chunked"));
+        assertThat(response, containsString(handler.expected.toString().substring(0, 16)));
+
+        // Headers, aggregate and content are sent with a single write, then the last chunk.
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertThat(statistics.getResponses(), is(1L));
+        assertThat(statistics.getWrites(), is(2L));
+    }
+
+    private ResponseWriteStatistics newResponseWriteStatistics(CountDownLatch completed)
+    {
+        ResponseWriteStatistics statistics = new ResponseWriteStatistics()
+        {
+            @Override
+            public void onComplete(Request request)
+            {
+                super.onComplete(request);
+                completed.countDown();
+            }
+        };
+        _connector.addBean(statistics);
+        return statistics;
+    }
+
+    static class GatherHandler extends AbstractHandler
+    {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final boolean known;
+
+        GatherHandler(boolean known)
+        {
+            this.known = known;
+        }
+
+        @Override
+        public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException
+        {
+            baseRequest.setHandled(true);
+            HttpOutput out = (HttpOutput)response.getOutputStream();
+
+            // write data that will be aggregated
+            byte[] small = new byte[16];
+            Arrays.fill(small, (byte)'A');
+            expected.write(small);
+
+            // write data that will not be aggregated
+            byte[] large = new byte[OUTPUT_AGGREGATION_SIZE * 2];
+            Arrays.fill(large, (byte)'B');
+            expected.write(large);
+
+            if (known)
+                response.setContentLength(expected.size());
+            out.write(small);
+            out.write(large);
+        }
+    }
+
     @Test
     public void testPrint() throws Exception
     {
@@ -18,12 +18,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.servlet.MultipartConfigElement;
@@ -33,12 +40,16 @@ import javax.servlet.http.Part;
 
 import org.eclipse.jetty.server.MultiPartFormInputStream.MultiPart;
 import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.Promise;
 import org.junit.jupiter.api.Test;
 
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
@@ -1097,6 +1108,239 @@ public class MultiPartFormInputStreamTest
         assertThat(part2, notNullValue());
     }
 
+    @Test
+    public void testParseAsync() throws Exception
+    {
+        MultipartConfigElement config = new MultipartConfigElement(_dirname, 1024, 3072, 50);
+        AsyncServletInputStream input = new AsyncServletInputStream(_multi.getBytes(ISO_8859_1), 7);
+        MultiPartFormInputStream mpis = new MultiPartFormInputStream(input, _contentType, config, _tmpDir);
+        mpis.setDeleteOnExit(true);
+
+        List<String> events = new CopyOnWriteArrayList<>();
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        mpis.setPartListener(new MultiPartFormInputStream.PartListener()
+        {
+            @Override
+            public void onPartBegin(Part part)
+            {
+                events.add("begin " + part.getName());
+            }
+
+            @Override
+            public void onPartContent(Part part, ByteBuffer content)
+            {
+                if ("field1".equals(part.getName()))
+                    streamed.write(BufferUtil.toArray(content), 0, content.remaining());
+            }
+
+            @Override
+            public void onPartEnd(Part part)
+            {
+                events.add("end " + part.getName());
+            }
+        });
+
+        Promise.Completable<Collection<Part>> promise = new Promise.Completable<>();
+        mpis.parseAsync(promise);
+        Collection<Part> parts = promise.get(5, TimeUnit.SECONDS);
+
+        assertThat(parts.size(), is(2));
+        assertThat(events, contains("begin field1", "end field1", "begin stuff", "end stuff"));
+        assertEquals("Joe Blow", new String(streamed.toByteArray(), ISO_8859_1));
+        assertThat(input.getReadListener(), notNullValue());
+
+        Part field1 = mpis.getPart("field1");
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (InputStream is = field1.getInputStream())
+        {
+            IO.copy(is, os);
+        }
+        assertEquals("Joe Blow", new String(os.toByteArray()));
+        assertThat(mpis.getPart("stuff").getSize(), is(51L));
+    }
+
+    @Test
+    public void testGetPartsWhileParsingAsync() throws Exception
+    {
+        MultipartConfigElement config = new MultipartConfigElement(_dirname, 1024, 3072, 50);
+        AsyncServletInputStream input = new AsyncServletInputStream(_multi.getBytes(ISO_8859_1), 16);
+        MultiPartFormInputStream mpis = new MultiPartFormInputStream(input, _contentType, config, _tmpDir);
+        mpis.setDeleteOnExit(true);
+
+        Promise.Completable<Collection<Part>> promise = new Promise.Completable<>();
+        mpis.parseAsync(promise);
+        Promise.Completable<Collection<Part>> waiter = new Promise.Completable<>();
+        mpis.parseAsync(waiter);
+
+        // Waits for the parsing to complete, instead of failing the parsing.
+        assertThat(mpis.getParts().size(), is(2));
+        assertThat(promise.get(5, TimeUnit.SECONDS).size(), is(2));
+        assertThat(waiter.get(5, TimeUnit.SECONDS).size(), is(2));
+    }
+
+    @Test
+    public void testDeletePartsWhileParsingAsync() throws Exception
+    {
+        MultipartConfigElement config = new MultipartConfigElement(_dirname, 1024, 3072, 50);
+        byte[] content = _multi.getBytes(ISO_8859_1);
+        // A single chunk, so that the parsing completes after the parts are deleted.
+        AsyncServletInputStream input = new AsyncServletInputStream(content, content.length);
+        MultiPartFormInputStream mpis = new MultiPartFormInputStream(input, _contentType, config, _tmpDir);
+        mpis.setDeleteOnExit(true);
+
+        List<File> files = new CopyOnWriteArrayList<>();
+        mpis.setPartListener(new MultiPartFormInputStream.PartListener()
+        {
+            @Override
+            public void onPartEnd(Part part)
+            {
+                if ("stuff".equals(part.getName()))
+                {
+                    files.add(((MultiPart)part).getFile());
+                    mpis.deleteParts();
+                }
+            }
+        });
+
+        Promise.Completable<Collection<Part>> promise = new Promise.Completable<>();
+        mpis.parseAsync(promise);
+
+        ExecutionException x = assertThrows(ExecutionException.class, () -> promise.get(5, TimeUnit.SECONDS));
+        assertThat(x.getCause(), instanceOf(IOException.class));
+        assertThat(x.getCause().getMessage(), is("DELETED"));
+        assertThat(files.size(), is(1));
+        assertFalse(files.get(0).exists());
+        assertThrows(IOException.class, mpis::getParts);
+    }
+
+    @Test
+    public void testParseAsyncRequestTooBig() throws Exception
+    {
+        MultipartConfigElement config = new MultipartConfigElement(_dirname, 60, 100, 50);
+        AsyncServletInputStream input = new AsyncServletInputStream(_multi.getBytes(ISO_8859_1), 16);
+        MultiPartFormInputStream mpis = new MultiPartFormInputStream(input, _contentType, config, _tmpDir);
+        mpis.setDeleteOnExit(true);
+
+        Promise.Completable<Collection<Part>> promise = new Promise.Completable<>();
+        mpis.parseAsync(promise);
+        ExecutionException x = assertThrows(ExecutionException.class, () -> promise.get(5, TimeUnit.SECONDS));
+        assertThat(x.getCause().getMessage(), containsString("Request exceeds maxRequestSize"));
+    }
+
+    @Test
+    public void testParseAsyncIncomplete() throws Exception
+    {
+        MultipartConfigElement config = new MultipartConfigElement(_dirname, 1024, 3072, 50);
+        String incomplete = _multi.substring(0, _multi.length() - 20);
+        AsyncServletInputStream input = new AsyncServletInputStream(incomplete.getBytes(ISO_8859_1), 16);
+        MultiPartFormInputStream mpis = new MultiPartFormInputStream(input, _contentType, config, _tmpDir);
+        mpis.setDeleteOnExit(true);
+
+        Promise.Completable<Collection<Part>> promise = new Promise.Completable<>();
+        mpis.parseAsync(promise);
+        ExecutionException x = assertThrows(ExecutionException.class, () -> promise.get(5, TimeUnit.SECONDS));
+        assertThat(x.getCause().getMessage(), startsWith("Incomplete"));
+    }
+
+    /**
+     * <p>A {@link ServletInputStream} that makes its content available in chunks,
+     * notifying its {@link ReadListener} from another thread, like a slow client would.</p>
+     */
+    private static class AsyncServletInputStream extends ServletInputStream
+    {
+        private final Queue<byte[]> _chunks = new ConcurrentLinkedQueue<>();
+        private volatile ReadListener _listener;
+        private volatile byte[] _chunk;
+        private volatile int _index;
+        private volatile boolean _finished;
+
+        private AsyncServletInputStream(byte[] content, int chunkSize)
+        {
+            for (int i = 0; i < content.length; i += chunkSize)
+            {
+                _chunks.add(Arrays.copyOfRange(content, i, Math.min(content.length, i + chunkSize)));
+            }
+        }
+
+        private ReadListener getReadListener()
+        {
+            return _listener;
+        }
+
+        private void deliver()
+        {
+            new Thread(() ->
+            {
+                try
+                {
+                    Thread.sleep(1);
+                    byte[] chunk = _chunks.poll();
+                    if (chunk == null)
+                    {
+                        _finished = true;
+                        _listener.onAllDataRead();
+                    }
+                    else
+                    {
+                        _index = 0;
+                        _chunk = chunk;
+                        _listener.onDataAvailable();
+                    }
+                }
+                catch (Throwable x)
+                {
+                    _listener.onError(x);
+                }
+            }).start();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return _finished;
+        }
+
+        @Override
+        public boolean isReady()
+        {
+            if (_finished)
+                return true;
+            byte[] chunk = _chunk;
+            if (chunk != null && _index < chunk.length)
+                return true;
+            _chunk = null;
+            deliver();
+            return false;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener)
+        {
+            _listener = readListener;
+            deliver();
+        }
+
+        @Override
+        public int read()
+        {
+            byte[] b = new byte[1];
+            int read = read(b, 0, 1);
+            return read < 0 ? read : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            byte[] chunk = _chunk;
+            if (chunk == null || _index >= chunk.length)
+                return _finished ? -1 : 0;
+            int length = Math.min(len, chunk.length - _index);
+            System.arraycopy(chunk, _index, b, off, length);
+            _index += length;
+            return length;
+        }
+    }
+
     private static String createMultipartRequestString(String filename)
     {
         int length = filename.length();
@@ -0,0 +1,220 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpTester;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OverloadMonitorTest
+{
+    private Server _server;
+    private LocalConnector _connector;
+    private AcceptRateLimit _acceptRateLimit;
+    private OverloadMonitor _monitor;
+    private TestSignal _signal;
+
+    @BeforeEach
+    public void before() throws Exception
+    {
+        _server = new Server();
+        _connector = new LocalConnector(_server);
+        _server.addConnector(_connector);
+        _server.setHandler(new DumpHandler());
+
+        _acceptRateLimit = new AcceptRateLimit(100, 1, TimeUnit.SECONDS, _server);
+        _server.addBean(_acceptRateLimit);
+
+        _monitor = new OverloadMonitor(_server);
+        // The test drives the monitor explicitly.
+        _monitor.setPeriod(3600000);
+        _monitor.setPredictionPeriods(0);
+        _signal = new TestSignal();
+        _monitor.addSignal(_signal);
+        _server.addBean(_monitor);
+
+        _server.start();
+    }
+
+    @AfterEach
+    public void after() throws Exception
+    {
+        _server.stop();
+    }
+
+    private HttpTester.Response request() throws Exception
+    {
+        String response = _connector.getResponse("GET /test HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        return HttpTester.parseResponse(response);
+    }
+
+    @Test
+    public void testNormal() throws Exception
+    {
+        _signal.load = 0.1;
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.NORMAL));
+
+        HttpTester.Response response = request();
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertThat(response.get(HttpHeader.CONNECTION), nullValue());
+    }
+
+    @Test
+    public void testGradedDegradation() throws Exception
+    {
+        _signal.load = 0.65;
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.SHED_KEEP_ALIVE));
+        HttpTester.Response response = request();
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertThat(response.get(HttpHeader.CONNECTION), is("close"));
+        assertEquals(100, _acceptRateLimit.getAcceptRateLimit());
+
+        _signal.load = 0.85;
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.LIMIT_ACCEPT));
+        assertEquals(50, _acceptRateLimit.getAcceptRateLimit());
+
+        _signal.load = 1.2;
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.REJECT));
+        response = request();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE_503, response.getStatus());
+        assertEquals(1, _monitor.getRejected());
+
+        // The level is lowered one step per period.
+        _signal.load = 0;
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.LIMIT_ACCEPT));
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.SHED_KEEP_ALIVE));
+        assertEquals(100, _acceptRateLimit.getAcceptRateLimit());
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.NORMAL));
+
+        response = request();
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        assertThat(_monitor.getDecisionTrace(), hasSize(6));
+        assertThat(_monitor.getDecisionTrace().get(0), containsString("NORMAL->SHED_KEEP_ALIVE"));
+    }
+
+    @Test
+    public void testRisingLoadIsPredicted() throws Exception
+    {
+        _monitor.setPredictionPeriods(1);
+
+        _signal.load = 0.2;
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.NORMAL));
+
+        // The load is rising fast, so the monitor responds before the threshold is reached.
+        _signal.load = 0.4;
+        _monitor.monitor();
+        assertEquals(0.6, _monitor.getPredictedLoad(), 0.0001);
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.SHED_KEEP_ALIVE));
+    }
+
+    @Test
+    public void testSteadyLoadIsNotPredictedAfterStart() throws Exception
+    {
+        // The default prediction period.
+        _monitor.setPredictionPeriods(1);
+
+        for (int run = 0; run < 2; run++)
+        {
+            // The first sample has no previous load to extrapolate from.
+            _signal.load = 0.5;
+            _monitor.monitor();
+            assertEquals(0.5, _monitor.getPredictedLoad(), 0.0001);
+            assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.NORMAL));
+
+            _monitor.monitor();
+            assertEquals(0.5, _monitor.getPredictedLoad(), 0.0001);
+            assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.NORMAL));
+
+            // Nor after a restart.
+            _monitor.stop();
+            _monitor.start();
+        }
+        assertThat(_monitor.getDecisionTrace(), hasSize(0));
+    }
+
+    @Test
+    public void testSustainedSaturationHoldsReject() throws Exception
+    {
+        _monitor.setPredictionPeriods(1);
+
+        // A saturated signal, such as a thread pool that rejects the latency probe.
+        _signal.load = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 3; i++)
+        {
+            _monitor.monitor();
+            assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.REJECT));
+            assertEquals(Double.POSITIVE_INFINITY, _monitor.getPredictedLoad());
+        }
+
+        // Recovering from saturation is not extrapolated.
+        _signal.load = 0.1;
+        _monitor.monitor();
+        assertEquals(0.1, _monitor.getPredictedLoad(), 0.0001);
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.LIMIT_ACCEPT));
+
+        // A load that is not a number is treated as saturation.
+        _signal.load = Double.NaN;
+        _monitor.monitor();
+        assertThat(_monitor.getLevel(), is(OverloadMonitor.Level.REJECT));
+        assertThat(_monitor.getDecisionTrace(), hasSize(3));
+    }
+
+    @Test
+    public void testDecisionTraceIsBounded() throws Exception
+    {
+        _monitor.setMaxDecisionTraceSize(2);
+        for (int i = 0; i < 5; i++)
+        {
+            _signal.load = 1;
+            _monitor.monitor();
+            _signal.load = 0;
+            _monitor.monitor();
+            _monitor.monitor();
+            _monitor.monitor();
+        }
+        assertThat(_monitor.getDecisionTrace(), hasSize(2));
+    }
+
+    private static class TestSignal extends OverloadMonitor.AbstractSignal
+    {
+        private volatile double load;
+
+        @Override
+        protected double computeLoad()
+        {
+            return load;
+        }
+    }
+}
@@ -28,14 +28,18 @@ import java.security.Principal;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
+import javax.servlet.AsyncContext;
 import javax.servlet.DispatcherType;
 import javax.servlet.MultipartConfigElement;
 import javax.servlet.ServletException;
@@ -74,6 +78,8 @@ import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
 import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.Promise;
+import org.eclipse.jetty.util.UrlEncodedView;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -469,6 +475,81 @@ public class RequestTest
         assertThat("File Count in dir: " + testTmpDir, getFileCount(testTmpDir), is(0L));
     }
 
+    @Test
+    public void testMultiPartAsync() throws Exception
+    {
+        Path testTmpDir = workDir.getEmptyPathDir();
+        CountDownLatch requested = new CountDownLatch(1);
+
+        ContextHandler contextHandler = new ContextHandler();
+        contextHandler.setContextPath("/foo");
+        contextHandler.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                baseRequest.setHandled(true);
+                request.setAttribute(Request.__MULTIPART_CONFIG_ELEMENT, new MultipartConfigElement(testTmpDir.toString(), -1, -1, 2));
+                AsyncContext async = request.startAsync();
+
+                Promise.Completable<Collection<Part>> first = new Promise.Completable<>();
+                baseRequest.getPartsAsync(null, first);
+                // The content is still being parsed, so this caller must wait for the same parts.
+                Promise.Completable<Collection<Part>> second = new Promise.Completable<>();
+                baseRequest.getPartsAsync(null, second);
+                requested.countDown();
+
+                CompletableFuture.allOf(first, second).whenComplete((r, x) ->
+                {
+                    if (x == null)
+                    {
+                        response.setHeader("Parts", first.join().size() + "," + second.join().size());
+                        response.setHeader("Field1", request.getParameter("field1"));
+                        response.setStatus(200);
+                    }
+                    else
+                    {
+                        response.setHeader("Failure", String.valueOf(x.getCause()));
+                        response.setStatus(500);
+                    }
+                    async.complete();
+                });
+            }
+        });
+        _server.stop();
+        _server.setHandler(contextHandler);
+        _server.start();
+
+        String multipart = "--AaB03x\r\n" +
+            "content-disposition: form-data; name=\"field1\"\r\n" +
+            "\r\n" +
+            "Joe Blow\r\n" +
+            "--AaB03x\r\n" +
+            "content-disposition: form-data; name=\"stuff\"; filename=\"foo.upload\"\r\n" +
+            "Content-Type: text/plain;charset=ISO-8859-1\r\n" +
+            "\r\n" +
+            "000000000000000000000000000000000000000000000000000\r\n" +
+            "--AaB03x--\r\n";
+
+        String request = "POST /foo/x.html HTTP/1.1\r\n" +
+            "Host: whatever\r\n" +
+            "Content-Type: multipart/form-data; boundary=\"AaB03x\"\r\n" +
+            "Content-Length: " + multipart.getBytes().length + "\r\n" +
+            "Connection: close\r\n" +
+            "\r\n";
+
+        LocalEndPoint endPoint = _connector.connect();
+        endPoint.addInput(request + multipart.substring(0, 20));
+        assertTrue(requested.await(5, TimeUnit.SECONDS));
+        endPoint.addInput(multipart.substring(20));
+
+        HttpTester.Response response = HttpTester.parseResponse(endPoint.getResponse());
+        assertNotNull(response);
+        assertEquals(200, response.getStatus(), response.get("Failure"));
+        assertEquals("2,2", response.get("Parts"));
+        assertEquals("Joe Blow", response.get("Field1"));
+    }
+
     @Test
     public void testBadMultiPart() throws Exception
     {
@@ -590,6 +671,74 @@ public class RequestTest
         assertThat(responses, startsWith("HTTP/1.1 200"));
     }
 
+    @Test
+    public void testFormParametersAsync() throws Exception
+    {
+        _server.stop();
+        _server.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                baseRequest.setHandled(true);
+                AsyncContext async = request.startAsync();
+                baseRequest.getFormParametersAsync(new Promise<>()
+                {
+                    @Override
+                    public void succeeded(UrlEncodedView view)
+                    {
+                        response.setHeader("View", view.getValue("name") + "|" + view.getValues("other"));
+                        response.setHeader("Param", request.getParameter("name"));
+                        async.complete();
+                    }
+
+                    @Override
+                    public void failed(Throwable x)
+                    {
+                        response.setStatus(500);
+                        async.complete();
+                    }
+                });
+            }
+        });
+        _server.start();
+
+        String content = "name=Value+1&other=a&other=%41";
+        String request = "POST /?name=query HTTP/1.1\r\n" +
+            "Host: whatever\r\n" +
+            "Content-Type: application/x-www-form-urlencoded; charset=utf-8\r\n" +
+            "Content-Length: " + content.length() + "\r\n" +
+            "Connection: close\r\n" +
+            "\r\n" +
+            content;
+
+        String responses = _connector.getResponse(request);
+        assertThat(responses, startsWith("HTTP/1.1 200"));
+        assertThat(responses, containsString("View: Value 1|[a, A]"));
+        assertThat(responses, containsString("Param: query"));
+    }
+
+    @Test
+    public void testQueryParametersView() throws Exception
+    {
+        _handler._checker = (request, response) ->
+        {
+            UrlEncodedView view = ((Request)request).getQueryParametersView();
+            return view.size() == 3 &&
+                "Value 1".equals(view.getValue("name")) &&
+                Arrays.asList("a", "\u00e9").equals(view.getValues("other")) &&
+                view == ((Request)request).getQueryParametersView();
+        };
+
+        String request = "GET /?name=Value+1&other=a&other=%C3%A9 HTTP/1.1\r\n" +
+            "Host: whatever\r\n" +
+            "Connection: close\r\n" +
+            "\r\n";
+
+        String responses = _connector.getResponse(request);
+        assertThat(responses, startsWith("HTTP/1.1 200"));
+    }
+
     @Test
     public void testContentLengthExceedsMaxInteger() throws Exception
     {
@@ -41,6 +41,7 @@ import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.util.IO;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
@@ -50,9 +51,11 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.condition.OS.LINUX;
 
 public class ServerConnectorTest
 {
@@ -283,6 +286,68 @@ public class ServerConnectorTest
         assertThat(connector.getTransport(), Matchers.nullValue());
     }
 
+    @Test
+    @EnabledOnOs(LINUX)
+    public void testReusePortWithSelectorAcceptors() throws Exception
+    {
+        int selectors = 4;
+        Server server = new Server();
+        ServerConnector connector = new ServerConnector(server, 0, selectors);
+        connector.setPort(0);
+        connector.setReusePort(true);
+        server.addConnector(connector);
+
+        server.setHandler(new HandlerList(new ReuseInfoHandler(), new DefaultHandler()));
+
+        try
+        {
+            server.start();
+
+            assertTrue(connector.isReusePort());
+            assertEquals(selectors, connector.getAcceptChannelCount());
+
+            URI uri = toServerURI(connector);
+            for (int i = 0; i < 2 * selectors; i++)
+            {
+                String response = getResponse(uri);
+                assertThat("Response", response, containsString("connector.getReuseAddress() = true"));
+            }
+        }
+        finally
+        {
+            server.stop();
+        }
+
+        assertEquals(0, connector.getAcceptChannelCount());
+        assertFalse(connector.isOpen());
+    }
+
+    @Test
+    public void testReusePortWithAcceptorThreads() throws Exception
+    {
+        Server server = new Server();
+        ServerConnector connector = new ServerConnector(server, 1, 2);
+        connector.setPort(0);
+        connector.setReusePort(true);
+        server.addConnector(connector);
+
+        server.setHandler(new HandlerList(new ReuseInfoHandler(), new DefaultHandler()));
+
+        try
+        {
+            server.start();
+
+            // Acceptor threads all accept from the single listening socket.
+            assertEquals(1, connector.getAcceptChannelCount());
+            String response = getResponse(toServerURI(connector));
+            assertThat("Response", response, containsString("connector.getReuseAddress() = true"));
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
     @Test
     public void testBindToAddressWhichIsInUse() throws Exception
     {
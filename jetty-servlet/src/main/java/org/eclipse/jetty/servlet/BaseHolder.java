@@ -47,6 +47,7 @@ public abstract class BaseHolder<T> extends AbstractLifeCycle implements Dumpabl
     private String _className;
     private T _instance;
     private ServletHandler _servletHandler;
+    private volatile long _initializeTime = -1;
 
     protected BaseHolder(Source source)
     {
@@ -114,6 +115,21 @@ public abstract class BaseHolder<T> extends AbstractLifeCycle implements Dumpabl
             _class = null;
     }
 
+    /**
+     * @return the time in ms taken to start and initialize this holder when the
+     * {@link ServletHandler} was initialized, or -1 if it has not been measured.
+     */
+    @ManagedAttribute(value = "Time in ms to start and initialize", readonly = true)
+    public long getInitializeTime()
+    {
+        return _initializeTime;
+    }
+
+    void setInitializeTime(long initializeTime)
+    {
+        _initializeTime = initializeTime;
+    }
+
     @ManagedAttribute(value = "Class Name", readonly = true)
     public String getClassName()
     {
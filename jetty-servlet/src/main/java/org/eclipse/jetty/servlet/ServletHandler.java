@@ -26,8 +26,13 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -78,6 +83,10 @@ import org.slf4j.LoggerFactory;
  * <p>
  * Unless run as part of a {@link ServletContextHandler} or derivative, the {@link #initialize()}
  * method must be called manually after start().
+ * <p>
+ * If the {@link #setInitParallelism(int) init parallelism} is greater than 1, then load-on-startup
+ * servlets with the same init order are initialized concurrently, while servlets with different
+ * init orders are still initialized one order after the other.
  */
 @ManagedObject("Servlet Handler")
 public class ServletHandler extends ScopedHandler
@@ -110,6 +119,7 @@ public class ServletHandler extends ScopedHandler
 
     private ListenerHolder[] _listeners = new ListenerHolder[0];
     private boolean _initialized = false;
+    private int _initParallelism = 1;
 
     @SuppressWarnings("unchecked")
     protected final ConcurrentMap<String, FilterChain>[] _chainCache = new ConcurrentMap[FilterMapping.ALL];
@@ -666,6 +676,31 @@ public class ServletHandler extends ScopedHandler
         _allowDuplicateMappings = allowDuplicateMappings;
     }
 
+    /**
+     * @return the maximum number of load-on-startup servlets with the same init order that are initialized concurrently
+     */
+    @ManagedAttribute("maximum number of servlets with the same init order initialized concurrently")
+    public int getInitParallelism()
+    {
+        return _initParallelism;
+    }
+
+    /**
+     * <p>Set the maximum number of load-on-startup servlets with the same init order that are
+     * initialized concurrently by {@link #initialize()}.</p>
+     * <p>Servlets with different init orders are initialized in order regardless of this value,
+     * and listeners and filters are always initialized one at a time.
+     * The default of 1 initializes all servlets one at a time.</p>
+     *
+     * @param initParallelism the maximum number of servlets initialized concurrently
+     */
+    public void setInitParallelism(int initParallelism)
+    {
+        if (initParallelism < 1)
+            throw new IllegalArgumentException("Invalid init parallelism " + initParallelism);
+        _initParallelism = initParallelism;
+    }
+
     /**
      * @return True if this handler will start with unavailable servlets
      */
@@ -688,16 +723,16 @@ public class ServletHandler extends ScopedHandler
         {
             try
             {
-                if (!h.isStarted())
-                {
-                    h.start();
-                    h.initialize();
-                }
+                startAndInitialize(h);
             }
             catch (Throwable e)
             {
                 LOG.debug("Unable to start {}", h, e);
-                mx.add(e);
+                // May be called concurrently when initializing servlets.
+                synchronized (mx)
+                {
+                    mx.add(e);
+                }
             }
         };
         
@@ -712,13 +747,103 @@ public class ServletHandler extends ScopedHandler
         _initialized = true;
             
         //Start the filters then the servlets
-        Stream.concat(
-            Arrays.stream(_filters),
-            Arrays.stream(_servlets).sorted())
-            .forEach(c);
+        Arrays.stream(_filters).forEach(c);
+        initializeServlets(Arrays.stream(_servlets).sorted().toArray(ServletHolder[]::new), c);
 
         mx.ifExceptionThrow();
     }
+
+    private void startAndInitialize(BaseHolder<?> holder) throws Exception
+    {
+        if (!holder.isStarted())
+        {
+            long start = System.nanoTime();
+            holder.start();
+            holder.initialize();
+            holder.setInitializeTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (LOG.isDebugEnabled())
+                LOG.debug("Initialized {} in {}ms", holder, holder.getInitializeTime());
+        }
+    }
+
+    /**
+     * Initialize the sorted servlets, concurrently for load-on-startup servlets with
+     * the same init order if the init parallelism allows it.
+     *
+     * @param servlets the servlets sorted by init order
+     * @param initializer the initializer of a single servlet, which does not throw
+     * @throws InterruptedException if interrupted while waiting for servlets to initialize
+     */
+    private void initializeServlets(ServletHolder[] servlets, Consumer<BaseHolder<?>> initializer) throws InterruptedException
+    {
+        ExecutorService executor = null;
+        try
+        {
+            int from = 0;
+            while (from < servlets.length)
+            {
+                int initOrder = servlets[from].getInitOrder();
+                int to = from + 1;
+                while (to < servlets.length && servlets[to].getInitOrder() == initOrder)
+                {
+                    to++;
+                }
+
+                if (_initParallelism <= 1 || initOrder < 0 || to - from == 1)
+                {
+                    for (int i = from; i < to; i++)
+                    {
+                        initializer.accept(servlets[i]);
+                    }
+                }
+                else
+                {
+                    if (executor == null)
+                        executor = newInitExecutor();
+                    List<Future<?>> futures = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++)
+                    {
+                        ServletHolder holder = servlets[i];
+                        Runnable task = () -> initializer.accept(holder);
+                        Runnable scoped = _contextHandler == null ? task : () -> _contextHandler.handle(task);
+                        futures.add(executor.submit(scoped));
+                    }
+                    // The next init order starts only after all the servlets of this one are initialized.
+                    for (Future<?> future : futures)
+                    {
+                        try
+                        {
+                            future.get();
+                        }
+                        catch (ExecutionException e)
+                        {
+                            throw new IllegalStateException(e.getCause());
+                        }
+                    }
+                }
+                from = to;
+            }
+        }
+        finally
+        {
+            if (executor != null)
+                executor.shutdownNow();
+        }
+    }
+
+    private ExecutorService newInitExecutor()
+    {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        String name = String.format("%s@%x-init-", getClass().getSimpleName(), hashCode());
+        AtomicInteger ids = new AtomicInteger();
+        return Executors.newFixedThreadPool(_initParallelism, runnable ->
+        {
+            Thread thread = new Thread(runnable, name + ids.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(loader);
+            return thread;
+        });
+    }
     
     /**
      * @return true if initialized has been called, false otherwise
@@ -737,11 +862,7 @@ public class ServletHandler extends ScopedHandler
             {
                 try
                 {
-                    if (!holder.isStarted())
-                    {
-                        holder.start();
-                        holder.initialize();
-                    }
+                    startAndInitialize(holder);
                 }
                 catch (Exception e)
                 {
@@ -17,6 +17,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
 import javax.servlet.FilterConfig;
@@ -30,6 +33,7 @@ import javax.servlet.http.HttpSessionListener;
 import org.eclipse.jetty.http.pathmap.MappedResource;
 import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.util.component.Container;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -830,6 +834,75 @@ public class ServletHandlerTest
         assertThat(connector.getResponse("GET /other.bob HTTP/1.0\r\n\r\n"), containsString("path-/*-path-*.bob-default"));
     }
 
+    @Test
+    public void testConcurrentInitialization() throws Exception
+    {
+        Server server = new Server();
+        ServletContextHandler context = new ServletContextHandler(server, "/");
+        ServletHandler handler = context.getServletHandler();
+        handler.setInitParallelism(3);
+
+        // The servlets with init order 1 can only all be initialized if they are initialized concurrently.
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        AtomicInteger initialized = new AtomicInteger();
+        AtomicInteger scoped = new AtomicInteger();
+        List<ServletHolder> holders = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            ServletHolder holder = new ServletHolder("concurrent" + i, new HttpServlet()
+            {
+                @Override
+                public void init() throws ServletException
+                {
+                    if (ContextHandler.getCurrentContext() == context.getServletContext())
+                        scoped.incrementAndGet();
+                    try
+                    {
+                        barrier.await(5, TimeUnit.SECONDS);
+                    }
+                    catch (Exception e)
+                    {
+                        throw new ServletException(e);
+                    }
+                    initialized.incrementAndGet();
+                }
+            });
+            holder.setInitOrder(1);
+            handler.addServletWithMapping(holder, "/concurrent" + i);
+            holders.add(holder);
+        }
+
+        // The servlet with init order 2 is only initialized after all those with init order 1.
+        AtomicInteger initializedBefore = new AtomicInteger(-1);
+        ServletHolder last = new ServletHolder("last", new HttpServlet()
+        {
+            @Override
+            public void init()
+            {
+                initializedBefore.set(initialized.get());
+            }
+        });
+        last.setInitOrder(2);
+        handler.addServletWithMapping(last, "/last");
+        holders.add(last);
+
+        server.start();
+        try
+        {
+            assertEquals(3, initialized.get());
+            assertEquals(3, scoped.get());
+            assertEquals(3, initializedBefore.get());
+            for (ServletHolder holder : holders)
+            {
+                assertTrue(holder.getInitializeTime() >= 0, holder.getName() + " initialize time");
+            }
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
     private interface TestFilter extends Filter
     {
         default void init(FilterConfig filterConfig) throws ServletException
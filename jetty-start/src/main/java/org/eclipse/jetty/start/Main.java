@@ -105,6 +105,7 @@ public class Main
     }
 
     private BaseHome baseHome;
+    private StartupCache startupCache;
     private StartArgs jsvcStartArgs;
 
     public Main() throws IOException
@@ -317,6 +318,14 @@ public class Main
             normalizeURI(baseHome.getBasePath().toUri().toString()),
             base.source);
 
+        // Use a valid startup cache instead of resolving the modules
+        if (args.isCreateStartupCache() || (args.isStartupCacheUsable() && Files.exists(baseHome.getBasePath(StartupCache.CACHE_FILENAME))))
+        {
+            startupCache = new StartupCache(baseHome);
+            if (!args.isCreateStartupCache() && startupCache.restore(args))
+                return args;
+        }
+
         // 3) Module Registration
         Modules modules = new Modules(baseHome, args);
         StartLog.debug("Registering all modules");
@@ -446,15 +455,23 @@ public class Main
             }
         }
 
-        // Check base directory
-        BaseBuilder baseBuilder = new BaseBuilder(baseHome, args);
-        if (baseBuilder.build())
-            StartLog.info("Base directory was modified");
-        else if (args.isCreateFiles() || !args.getStartModules().isEmpty())
-            StartLog.info("Base directory was not modified");
+        // A configuration restored from the startup cache was checked when the cache was created
+        if (!args.isStartupCacheRestored())
+        {
+            // Check base directory
+            BaseBuilder baseBuilder = new BaseBuilder(baseHome, args);
+            if (baseBuilder.build())
+                StartLog.info("Base directory was modified");
+            else if (args.isCreateFiles() || !args.getStartModules().isEmpty())
+                StartLog.info("Base directory was not modified");
+
+            // Check module dependencies
+            args.getAllModules().checkEnabledModules();
+        }
 
-        // Check module dependencies
-        args.getAllModules().checkEnabledModules();
+        // Record the resolved configuration for later launches
+        if (args.isCreateStartupCache())
+            startupCache.create(args);
 
         // Informational command line, don't run jetty
         if (!args.isRun())
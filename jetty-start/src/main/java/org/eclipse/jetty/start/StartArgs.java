@@ -13,6 +13,8 @@
 
 package org.eclipse.jetty.start;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -24,6 +26,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -234,6 +237,13 @@ public class StartArgs
     private String execProperties;
     private boolean approveAllLicenses = false;
 
+    /**
+     * --create-startup-cache[=cds]
+     */
+    private boolean createStartupCache = false;
+    private boolean createStartupArchive = false;
+    private boolean startupCacheRestored = false;
+
     public StartArgs(BaseHome baseHome)
     {
         this.baseHome = baseHome;
@@ -912,6 +922,11 @@ public class StartArgs
         return xmls;
     }
 
+    public List<Path> getPropertyFiles()
+    {
+        return propertyFiles;
+    }
+
     public boolean hasJvmArgs()
     {
         return !jvmArgs.isEmpty();
@@ -1032,6 +1047,35 @@ public class StartArgs
         return updateIni;
     }
 
+    public boolean isCreateStartupCache()
+    {
+        return createStartupCache;
+    }
+
+    public boolean isCreateStartupArchive()
+    {
+        return createStartupArchive;
+    }
+
+    /**
+     * @return true if the resolved configuration was restored from a {@link StartupCache}
+     * rather than resolved from the modules.
+     */
+    public boolean isStartupCacheRestored()
+    {
+        return startupCacheRestored;
+    }
+
+    /**
+     * @return true if the requested commands only need the resolved configuration,
+     * so that it may be restored from a {@link StartupCache}.
+     */
+    public boolean isStartupCacheUsable()
+    {
+        return (run || dryRun) && !createStartupCache && !createFiles && !updateIni && !help && !stopCommand &&
+            !listClasspath && !listConfig && listModules == null && showModules == null && moduleGraphFilename == null;
+    }
+
     public String getMavenBaseUri()
     {
         return mavenBaseUri;
@@ -1155,6 +1199,20 @@ public class StartArgs
             return;
         }
 
+        if ("--create-startup-cache".equals(arg) || arg.startsWith("--create-startup-cache="))
+        {
+            if (arg.indexOf('=') > 0)
+            {
+                String mode = Props.getValue(arg);
+                if (!"cds".equals(mode))
+                    throw new UsageException(UsageException.ERR_BAD_ARG, "Unrecognized --create-startup-cache=\"%s\" in %s", mode, source);
+                createStartupArchive = true;
+            }
+            createStartupCache = true;
+            run = false;
+            return;
+        }
+
         if ("--list-classpath".equals(arg) || "--version".equals(arg) || "-v".equals(arg) || "--info".equals(arg))
         {
             listClasspath = true;
@@ -1500,6 +1558,153 @@ public class StartArgs
         }
     }
 
+    /**
+     * Write the resolved configuration: the classpath, the XML and property files,
+     * the properties, the system properties, the JVM arguments and the JPMS directives.
+     *
+     * @param out the stream to write to
+     * @throws IOException if unable to write
+     * @see #restoreResolution(DataInputStream)
+     */
+    void saveResolution(DataOutputStream out) throws IOException
+    {
+        List<String> elements = new ArrayList<>();
+        for (File element : classpath)
+        {
+            elements.add(element.getAbsolutePath());
+        }
+        writeStrings(out, elements);
+        writeStrings(out, xmls.stream().map(Path::toString).collect(Collectors.toList()));
+        writeStrings(out, propertyFiles.stream().map(Path::toString).collect(Collectors.toList()));
+
+        out.writeInt(properties.size());
+        for (Prop prop : properties)
+        {
+            writeString(out, prop.key);
+            writeString(out, prop.value);
+            writeString(out, prop.source);
+        }
+
+        out.writeInt(systemPropertySource.size());
+        for (Map.Entry<String, String> entry : systemPropertySource.entrySet())
+        {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+            writeString(out, System.getProperty(entry.getKey()));
+        }
+
+        writeStrings(out, jvmArgs);
+        out.writeBoolean(exec);
+        out.writeBoolean(jpms);
+        writeStrings(out, jmodAdds);
+        for (Map<String, Set<String>> directives : List.of(jmodPatch, jmodOpens, jmodExports, jmodReads))
+        {
+            out.writeInt(directives.size());
+            for (Map.Entry<String, Set<String>> entry : directives.entrySet())
+            {
+                writeString(out, entry.getKey());
+                writeStrings(out, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Restore the resolved configuration written by {@link #saveResolution(DataOutputStream)},
+     * in place of expanding the enabled modules.
+     *
+     * @param in the stream to read from
+     * @throws IOException if unable to read
+     */
+    void restoreResolution(DataInputStream in) throws IOException
+    {
+        classpath = new Classpath();
+        for (String element : readStrings(in))
+        {
+            classpath.addComponent(new File(element));
+        }
+        xmls = readStrings(in).stream().map(Paths::get).collect(Collectors.toList());
+        propertyFiles = readStrings(in).stream().map(Paths::get).collect(Collectors.toList());
+
+        properties.reset();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++)
+        {
+            String key = readString(in);
+            String value = readString(in);
+            properties.setProperty(key, value, readString(in));
+        }
+
+        size = in.readInt();
+        for (int i = 0; i < size; i++)
+        {
+            String key = readString(in);
+            systemPropertySource.put(key, readString(in));
+            String value = readString(in);
+            if (value != null)
+                System.setProperty(key, value);
+        }
+
+        jvmArgs = readStrings(in);
+        exec = in.readBoolean();
+        jpms = in.readBoolean();
+        jmodAdds = new LinkedHashSet<>(readStrings(in));
+        for (Map<String, Set<String>> directives : List.of(jmodPatch, jmodOpens, jmodExports, jmodReads))
+        {
+            directives.clear();
+            size = in.readInt();
+            for (int i = 0; i < size; i++)
+            {
+                directives.put(readString(in), new LinkedHashSet<>(readStrings(in)));
+            }
+        }
+
+        startupCacheRestored = true;
+    }
+
+    /**
+     * Use a class data sharing archive when running the server.
+     * Like the JVM arguments of a module [exec] section, this requires a forked JVM.
+     *
+     * @param archive the archive created with {@code -XX:ArchiveClassesAtExit}
+     */
+    void setSharedArchive(Path archive)
+    {
+        jvmArgs.add("-XX:SharedArchiveFile=" + archive);
+        exec = true;
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException
+    {
+        out.writeInt(strings.size());
+        for (String string : strings)
+        {
+            writeString(out, string);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException
+    {
+        out.writeBoolean(string != null);
+        if (string != null)
+            out.writeUTF(string);
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException
+    {
+        int size = in.readInt();
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+        {
+            strings.add(readString(in));
+        }
+        return strings;
+    }
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
     public void setAllModules(Modules allModules)
     {
         this.allModules = allModules;
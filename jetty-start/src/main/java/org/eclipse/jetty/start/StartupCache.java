@@ -0,0 +1,325 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.start;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jetty.start.config.ConfigSource;
+import org.eclipse.jetty.start.config.DirConfigSource;
+
+/**
+ * A cache of the resolved configuration of a {@code ${jetty.base}}.
+ * <p>
+ * Every launch registers all the modules, resolves the enabled ones and expands their
+ * libraries and XMLs. The cache, created with {@code --create-startup-cache}, records the
+ * result of that resolution in {@code ${jetty.base}/start.cache} together with a fingerprint
+ * of its inputs: the start.jar version, the arguments from the command line and the ini files,
+ * the system properties, the module files and the library directories.
+ * Later launches with the same fingerprint restore the recorded configuration instead of
+ * resolving the modules again, provided that none of the recorded files has changed.
+ * </p>
+ * <p>
+ * With {@code --create-startup-cache=cds}, the server is also started once in a forked JVM
+ * to record a class data sharing archive of the classes loaded while starting, in
+ * {@code ${jetty.base}/start.jsa}. Launches restored from the cache then run the server in a
+ * forked JVM using that archive, as does the command line printed by {@code --dry-run}.
+ * </p>
+ */
+public class StartupCache
+{
+    public static final String CACHE_FILENAME = "start.cache";
+    public static final String ARCHIVE_FILENAME = "start.jsa";
+
+    /**
+     * The system property that makes {@code XmlConfiguration.main(String...)} exit once the configured objects are started.
+     */
+    private static final String EXIT_AFTER_START = "org.eclipse.jetty.xml.XmlConfiguration.exitAfterStart";
+    private static final int MAGIC = 0x4A535443;
+    private static final int FORMAT = 1;
+
+    /**
+     * Options that do not change the resolved configuration and so are not part of the fingerprint.
+     */
+    private static final List<String> IGNORED_ARGS = List.of(
+        "--create-startup-cache",
+        "--dry-run",
+        "--exec-print",
+        "--debug",
+        "--start-log-file",
+        "--testing-mode");
+
+    private final BaseHome baseHome;
+    private final Path cacheFile;
+    private final Path archiveFile;
+    private final String fingerprint;
+
+    /**
+     * Compute the fingerprint of the current configuration, which must be done
+     * after the arguments are parsed but before the modules are resolved.
+     *
+     * @param baseHome the base and home of the configuration
+     * @throws IOException if unable to compute the fingerprint
+     */
+    public StartupCache(BaseHome baseHome) throws IOException
+    {
+        this.baseHome = baseHome;
+        this.cacheFile = baseHome.getBasePath(CACHE_FILENAME);
+        this.archiveFile = baseHome.getBasePath(ARCHIVE_FILENAME);
+        this.fingerprint = fingerprint(baseHome);
+    }
+
+    public Path getCacheFile()
+    {
+        return cacheFile;
+    }
+
+    public Path getArchiveFile()
+    {
+        return archiveFile;
+    }
+
+    public String getFingerprint()
+    {
+        return fingerprint;
+    }
+
+    /**
+     * Restore the resolved configuration recorded in the cache file, if it is still valid.
+     *
+     * @param args the parsed arguments to complete
+     * @return true if the configuration was restored, false if it must be resolved from the modules
+     */
+    public boolean restore(StartArgs args)
+    {
+        if (!Files.exists(cacheFile))
+            return false;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT || !fingerprint.equals(in.readUTF()))
+            {
+                StartLog.info("Startup cache %s is stale, recreate it with --create-startup-cache", baseHome.toShortForm(cacheFile));
+                return false;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++)
+            {
+                Path path = Path.of(in.readUTF());
+                long lastModified = in.readLong();
+                long length = in.readLong();
+                File file = path.toFile();
+                if (file.lastModified() != lastModified || file.length() != length)
+                {
+                    StartLog.info("Startup cache %s is stale as %s changed, recreate it with --create-startup-cache", baseHome.toShortForm(cacheFile), baseHome.toShortForm(path));
+                    return false;
+                }
+            }
+
+            args.restoreResolution(in);
+        }
+        catch (IOException e)
+        {
+            StartLog.warn("Unable to read startup cache %s", baseHome.toShortForm(cacheFile));
+            StartLog.warn(e);
+            return false;
+        }
+
+        if (Files.exists(archiveFile))
+            args.setSharedArchive(archiveFile);
+
+        StartLog.debug("Restored configuration from startup cache %s", baseHome.toShortForm(cacheFile));
+        return true;
+    }
+
+    /**
+     * Record the resolved configuration in the cache file, and create the
+     * class data sharing archive if requested.
+     *
+     * @param args the resolved arguments
+     * @throws IOException if unable to write the cache file or to create the archive
+     */
+    public void create(StartArgs args) throws IOException
+    {
+        List<Path> files = new ArrayList<>();
+        args.getClasspath().getElements().forEach(element -> files.add(element.toPath()));
+        files.addAll(args.getXmlFiles());
+        files.addAll(args.getPropertyFiles());
+
+        Path temp = Files.createTempFile(cacheFile.getParent(), CACHE_FILENAME, ".tmp");
+        try
+        {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeUTF(fingerprint);
+                out.writeInt(files.size());
+                for (Path path : files)
+                {
+                    File file = path.toFile();
+                    out.writeUTF(file.getAbsolutePath());
+                    out.writeLong(file.lastModified());
+                    out.writeLong(file.length());
+                }
+                args.saveResolution(out);
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(temp);
+        }
+        StartLog.info("Created startup cache %s", baseHome.toShortForm(cacheFile));
+
+        // An archive from a previous configuration would no longer match the classpath.
+        Files.deleteIfExists(archiveFile);
+        if (args.isCreateStartupArchive())
+            createArchive(args);
+    }
+
+    /**
+     * Start the server once in a forked JVM that records the classes loaded while
+     * starting in a dynamic class data sharing archive, then exits.
+     */
+    private void createArchive(StartArgs args) throws IOException
+    {
+        List<String> command = new ArrayList<>(args.getMainArgs(StartArgs.ALL_PARTS).getArgs());
+        command.add(1, "-XX:ArchiveClassesAtExit=" + archiveFile);
+        command.add(2, "-D" + EXIT_AFTER_START + "=true");
+        StartLog.info("Creating class data sharing archive %s", baseHome.toShortForm(archiveFile));
+        StartLog.debug("Command Line: %s", command);
+
+        int exit;
+        try
+        {
+            Process process = new ProcessBuilder(command).inheritIO().start();
+            exit = process.waitFor();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted creating " + archiveFile, e);
+        }
+
+        if (exit != 0 || !Files.exists(archiveFile))
+            throw new IOException("Unable to create " + archiveFile + ", exit code " + exit);
+        StartLog.info("Created class data sharing archive %s", baseHome.toShortForm(archiveFile));
+    }
+
+    private static String fingerprint(BaseHome baseHome) throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException(e);
+        }
+
+        update(digest, StartArgs.VERSION);
+
+        for (ConfigSource source : baseHome.getConfigSources())
+        {
+            update(digest, source.getId());
+            for (RawArgs.Entry arg : source.getArgs())
+            {
+                if (IGNORED_ARGS.stream().noneMatch(arg::startsWith))
+                {
+                    update(digest, arg.getLine());
+                    update(digest, arg.getOrigin());
+                }
+            }
+
+            if (source instanceof DirConfigSource)
+            {
+                // Added or changed modules, and jars added to library directories, change the resolution.
+                Path dir = ((DirConfigSource)source).getDir();
+                Path modules = dir.resolve("modules");
+                if (Files.isDirectory(modules))
+                {
+                    try (Stream<Path> paths = Files.list(modules))
+                    {
+                        for (Path path : paths.sorted().collect(Collectors.toList()))
+                        {
+                            update(digest, path, true);
+                        }
+                    }
+                }
+                Path lib = dir.resolve("lib");
+                if (Files.isDirectory(lib))
+                {
+                    try (Stream<Path> paths = Files.walk(lib))
+                    {
+                        for (Path path : paths.filter(Files::isDirectory).sorted().collect(Collectors.toList()))
+                        {
+                            update(digest, path, false);
+                        }
+                    }
+                }
+            }
+        }
+
+        // The system properties, including the JVM version, may be referenced by the modules.
+        Map<String, String> properties = new TreeMap<>();
+        System.getProperties().forEach((key, value) -> properties.put(String.valueOf(key), String.valueOf(value)));
+        properties.remove("sun.java.command");
+        properties.forEach((key, value) ->
+        {
+            update(digest, key);
+            update(digest, value);
+        });
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest())
+        {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static void update(MessageDigest digest, Path path, boolean length)
+    {
+        File file = path.toFile();
+        update(digest, path.toString());
+        update(digest, Long.toString(file.lastModified()));
+        if (length)
+            update(digest, Long.toString(file.length()));
+    }
+
+    private static void update(MessageDigest digest, String value)
+    {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+    }
+}
@@ -0,0 +1,166 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.start;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jetty.start.Props.Prop;
+import org.eclipse.jetty.toolchain.test.FS;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WorkDirExtension.class)
+public class StartupCacheTest
+{
+    public WorkDir testdir;
+
+    private Path home;
+    private Path base;
+
+    @BeforeEach
+    public void prepareBase() throws Exception
+    {
+        System.setProperty("jetty.home", "");
+        System.setProperty("jetty.base", "");
+
+        home = testdir.getPathFile("home");
+        FS.ensureEmpty(home);
+        TestEnv.copyTestDir("dist-home", home);
+
+        base = testdir.getPathFile("base");
+        FS.ensureEmpty(base);
+        TestEnv.makeFile(base, "start.ini",
+            "--module=main",
+            "jetty.http.host=127.0.0.1");
+    }
+
+    private StartArgs processCommandLine(Main main, String... cmdLineArgs) throws Exception
+    {
+        List<String> cmdLine = new ArrayList<>();
+        cmdLine.add("jetty.home=" + home.toString());
+        cmdLine.add("jetty.base=" + base.toString());
+        cmdLine.addAll(List.of(cmdLineArgs));
+        return main.processCommandLine(cmdLine);
+    }
+
+    private StartArgs createStartupCache() throws Exception
+    {
+        Main main = new Main();
+        StartArgs args = processCommandLine(main, "--create-startup-cache");
+        assertFalse(args.isRun(), "--create-startup-cache should not run");
+        main.start(args);
+        assertTrue(Files.exists(base.resolve(StartupCache.CACHE_FILENAME)), "Startup cache created");
+        return args;
+    }
+
+    @Test
+    public void testRestore() throws Exception
+    {
+        StartArgs resolved = createStartupCache();
+
+        StartArgs restored = processCommandLine(new Main());
+        assertTrue(restored.isStartupCacheRestored(), "Restored from startup cache");
+        assertThat(restored.getAllModules(), nullValue());
+        assertThat(restored.getClasspath().getElements(), is(resolved.getClasspath().getElements()));
+        assertThat(restored.getXmlFiles(), is(resolved.getXmlFiles()));
+        assertThat(restored.getJvmArgs(), is(resolved.getJvmArgs()));
+        assertThat(restored.getProperties().size(), is(resolved.getProperties().size()));
+        for (Prop prop : resolved.getProperties())
+        {
+            assertThat("Prop[" + prop.key + "]", restored.getProperties().getString(prop.key), is(prop.value));
+        }
+        Set<String> parts = Set.of("java", "opts", "path", "main");
+        assertThat(restored.getMainArgs(parts).getArgs(), is(resolved.getMainArgs(parts).getArgs()));
+    }
+
+    @Test
+    public void testRestoreDryRun() throws Exception
+    {
+        createStartupCache();
+
+        StartArgs restored = processCommandLine(new Main(), "--dry-run");
+        assertTrue(restored.isStartupCacheRestored(), "Dry run restored from startup cache");
+    }
+
+    @Test
+    public void testReportCommandsResolveModules() throws Exception
+    {
+        createStartupCache();
+
+        StartArgs args = processCommandLine(new Main(), "--list-config");
+        assertFalse(args.isStartupCacheRestored(), "--list-config resolves the modules");
+    }
+
+    @Test
+    public void testStaleIni() throws Exception
+    {
+        createStartupCache();
+
+        TestEnv.makeFile(base, "start.ini",
+            "--module=main",
+            "jetty.http.host=localhost");
+
+        StartArgs args = processCommandLine(new Main());
+        assertFalse(args.isStartupCacheRestored(), "Changed start.ini invalidates the startup cache");
+        assertThat(args.getProperties().getString("jetty.http.host"), is("localhost"));
+    }
+
+    @Test
+    public void testStaleCommandLine() throws Exception
+    {
+        createStartupCache();
+
+        StartArgs args = processCommandLine(new Main(), "jetty.http.port=9090");
+        assertFalse(args.isStartupCacheRestored(), "Changed command line invalidates the startup cache");
+        assertThat(args.getProperties().getString("jetty.http.port"), is("9090"));
+    }
+
+    @Test
+    public void testStaleModule() throws Exception
+    {
+        createStartupCache();
+
+        Path module = home.resolve("modules/main.mod");
+        Files.setLastModifiedTime(module, FileTime.fromMillis(Files.getLastModifiedTime(module).toMillis() + 60_000));
+
+        StartArgs args = processCommandLine(new Main());
+        assertFalse(args.isStartupCacheRestored(), "Changed module invalidates the startup cache");
+    }
+
+    @Test
+    public void testStaleLibrary() throws Exception
+    {
+        createStartupCache();
+
+        Path lib = home.resolve("lib/main.jar");
+        Files.setLastModifiedTime(lib, FileTime.fromMillis(Files.getLastModifiedTime(lib).toMillis() + 60_000));
+
+        StartArgs args = processCommandLine(new Main());
+        assertFalse(args.isStartupCacheRestored(), "Changed library invalidates the startup cache");
+    }
+}
@@ -146,6 +146,15 @@ public class AsyncJSON
             return new AsyncJSON(this);
         }
 
+        /**
+         * @return a new pull parser instance
+         * @see JSONPullParser
+         */
+        public JSONPullParser newJSONPullParser()
+        {
+            return new JSONPullParser(this);
+        }
+
         /**
          * <p>Associates the given {@link Convertor} to the given class name.</p>
          *
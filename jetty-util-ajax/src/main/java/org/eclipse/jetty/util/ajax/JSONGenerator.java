@@ -0,0 +1,512 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.ajax;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * <p>A streaming JSON generator that encodes JSON directly as UTF-8 bytes into a {@link ByteBuffer}.</p>
+ * <p>Differently from {@link JSON#toJSON(Object)}, this generator does not build
+ * the whole JSON string in memory: the bytes are written into the buffer and,
+ * when the buffer is full, the buffer is passed to a {@link Sink} that typically
+ * writes it to the network (for example to a servlet response output), and then
+ * reused for the next bytes.</p>
+ * <p>Usage:</p>
+ * <pre>
+ * JSONGenerator generator = new JSONGenerator(response.getOutputStream());
+ * generator.writeStartObject();
+ * generator.writeFieldName("id");
+ * generator.writeNumber(42);
+ * generator.writeFieldName("tags");
+ * generator.writeObject(List.of("a", "b"));
+ * generator.writeEndObject();
+ * generator.complete();
+ * </pre>
+ * <p>Commas between object fields and array elements are generated automatically.
+ * Strings are escaped with the same rules of {@link JSON#escapeString(Appendable, String)}.</p>
+ * <p>Instances of this class are not thread-safe.</p>
+ */
+public class JSONGenerator
+{
+    /**
+     * <p>The destination of the generated JSON bytes.</p>
+     */
+    @FunctionalInterface
+    public interface Sink
+    {
+        /**
+         * <p>Writes the given buffer, that is in flush mode.</p>
+         * <p>The buffer is reused by the generator when this method returns,
+         * so implementations must consume the buffer bytes before returning.</p>
+         *
+         * @param buffer the buffer with the JSON bytes
+         * @param last whether it is the last write
+         * @throws IOException if the write fails
+         */
+        void write(ByteBuffer buffer, boolean last) throws IOException;
+    }
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    // The longest sequence of bytes put without flushing in between is MIN_LONG.
+    private static final int MIN_BUFFER_SIZE = 24;
+
+    private final byte[] digits = new byte[20];
+    private final ByteBuffer buffer;
+    private final Sink sink;
+    private JSON json;
+    // The stack of containers, true if the container has at least one element.
+    private boolean[] elements = new boolean[16];
+    private int depth;
+    private boolean afterFieldName;
+
+    /**
+     * @param output the stream to write the JSON bytes to
+     */
+    public JSONGenerator(OutputStream output)
+    {
+        this(ByteBuffer.allocate(4096), (buffer, last) ->
+        {
+            output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (last)
+                output.flush();
+        });
+    }
+
+    /**
+     * @param buffer the buffer to generate the JSON bytes into, typically a pooled buffer,
+     * of at least 24 bytes
+     * @param sink the destination of the buffer when it is full
+     */
+    public JSONGenerator(ByteBuffer buffer, Sink sink)
+    {
+        if (buffer.capacity() < MIN_BUFFER_SIZE)
+            throw new IllegalArgumentException("Buffer too small, capacity " + buffer.capacity() + " < " + MIN_BUFFER_SIZE);
+        this.buffer = buffer;
+        this.sink = sink;
+        buffer.clear();
+    }
+
+    /**
+     * @return the {@link JSON} instance used to generate objects that are not maps, arrays or basic types
+     */
+    public JSON getJSON()
+    {
+        if (json == null)
+            json = new JSON();
+        return json;
+    }
+
+    /**
+     * @param json the {@link JSON} instance used to generate objects that are not maps, arrays or basic types
+     */
+    public void setJSON(JSON json)
+    {
+        this.json = json;
+    }
+
+    /**
+     * @return the depth in the JSON structure, 0 at top level
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    public void writeStartObject() throws IOException
+    {
+        startValue();
+        put((byte)'{');
+        push();
+    }
+
+    public void writeEndObject() throws IOException
+    {
+        pop();
+        put((byte)'}');
+    }
+
+    public void writeStartArray() throws IOException
+    {
+        startValue();
+        put((byte)'[');
+        push();
+    }
+
+    public void writeEndArray() throws IOException
+    {
+        pop();
+        put((byte)']');
+    }
+
+    /**
+     * <p>Writes an object field name, that must be followed by the field value.</p>
+     *
+     * @param name the field name
+     * @throws IOException if the write fails
+     */
+    public void writeFieldName(String name) throws IOException
+    {
+        if (depth == 0 || afterFieldName)
+            throw new IllegalStateException("Field name not allowed");
+        separate();
+        putString(name);
+        put((byte)':');
+        afterFieldName = true;
+    }
+
+    public void writeString(String value) throws IOException
+    {
+        if (value == null)
+        {
+            writeNull();
+            return;
+        }
+        startValue();
+        putString(value);
+    }
+
+    public void writeNumber(long value) throws IOException
+    {
+        startValue();
+        putLong(value);
+    }
+
+    public void writeNumber(double value) throws IOException
+    {
+        startValue();
+        putAscii(Double.toString(value));
+    }
+
+    public void writeBoolean(boolean value) throws IOException
+    {
+        startValue();
+        put(value ? TRUE : FALSE);
+    }
+
+    public void writeNull() throws IOException
+    {
+        startValue();
+        put(NULL);
+    }
+
+    /**
+     * <p>Writes the given object.</p>
+     * <p>Maps, {@link Iterable}s, arrays, numbers, booleans, strings and enums
+     * are written directly by this generator; other objects are converted to
+     * JSON via {@link #getJSON()}.</p>
+     *
+     * @param object the object to write
+     * @throws IOException if the write fails
+     */
+    public void writeObject(Object object) throws IOException
+    {
+        if (object == null)
+        {
+            writeNull();
+        }
+        else if (object instanceof CharSequence)
+        {
+            writeString(object.toString());
+        }
+        else if (object instanceof Boolean)
+        {
+            writeBoolean((Boolean)object);
+        }
+        else if (object instanceof Long || object instanceof Integer || object instanceof Short || object instanceof Byte)
+        {
+            writeNumber(((Number)object).longValue());
+        }
+        else if (object instanceof Number)
+        {
+            startValue();
+            putAscii(object.toString());
+        }
+        else if (object instanceof Character)
+        {
+            writeString(object.toString());
+        }
+        else if (object instanceof Enum)
+        {
+            writeString(((Enum<?>)object).name());
+        }
+        else if (object instanceof Map)
+        {
+            writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)object).entrySet())
+            {
+                writeFieldName(String.valueOf(entry.getKey()));
+                writeObject(entry.getValue());
+            }
+            writeEndObject();
+        }
+        else if (object instanceof Iterable)
+        {
+            writeStartArray();
+            for (Object element : (Iterable<?>)object)
+            {
+                writeObject(element);
+            }
+            writeEndArray();
+        }
+        else if (object.getClass().isArray())
+        {
+            writeStartArray();
+            int length = Array.getLength(object);
+            for (int i = 0; i < length; ++i)
+            {
+                writeObject(Array.get(object, i));
+            }
+            writeEndArray();
+        }
+        else
+        {
+            startValue();
+            putRaw(getJSON().toJSON(object));
+        }
+    }
+
+    /**
+     * <p>Writes the bytes generated so far to the {@link Sink}.</p>
+     *
+     * @throws IOException if the write fails
+     */
+    public void flush() throws IOException
+    {
+        write(false);
+    }
+
+    /**
+     * <p>Writes the remaining bytes to the {@link Sink}, signaling that the generation is complete.</p>
+     * <p>After this method returns, this generator can be reused to generate another JSON string.</p>
+     *
+     * @throws IOException if the write fails
+     * @throws IllegalStateException if the JSON structure is not complete
+     */
+    public void complete() throws IOException
+    {
+        if (depth > 0 || afterFieldName)
+            throw new IllegalStateException("Incomplete JSON");
+        write(true);
+    }
+
+    private void write(boolean last) throws IOException
+    {
+        buffer.flip();
+        try
+        {
+            sink.write(buffer, last);
+        }
+        finally
+        {
+            buffer.clear();
+        }
+    }
+
+    private void push()
+    {
+        if (depth == elements.length)
+            elements = Arrays.copyOf(elements, depth * 2);
+        elements[depth++] = false;
+    }
+
+    private void pop()
+    {
+        if (depth == 0 || afterFieldName)
+            throw new IllegalStateException("Unbalanced JSON");
+        --depth;
+    }
+
+    private void startValue() throws IOException
+    {
+        if (afterFieldName)
+            afterFieldName = false;
+        else
+            separate();
+    }
+
+    private void separate() throws IOException
+    {
+        if (depth > 0)
+        {
+            if (elements[depth - 1])
+                put((byte)',');
+            else
+                elements[depth - 1] = true;
+        }
+    }
+
+    private void put(byte b) throws IOException
+    {
+        if (!buffer.hasRemaining())
+            flush();
+        buffer.put(b);
+    }
+
+    private void put(byte[] bytes) throws IOException
+    {
+        if (buffer.remaining() < bytes.length)
+            flush();
+        buffer.put(bytes);
+    }
+
+    private void putLong(long value) throws IOException
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            put(MIN_LONG);
+            return;
+        }
+        if (value < 0)
+        {
+            put((byte)'-');
+            value = -value;
+        }
+        int index = digits.length;
+        do
+        {
+            digits[--index] = (byte)('0' + value % 10);
+            value /= 10;
+        }
+        while (value > 0);
+        if (buffer.remaining() < digits.length - index)
+            flush();
+        buffer.put(digits, index, digits.length - index);
+    }
+
+    private void putAscii(String value) throws IOException
+    {
+        for (int i = 0; i < value.length(); ++i)
+        {
+            put((byte)value.charAt(i));
+        }
+    }
+
+    private void putRaw(String value) throws IOException
+    {
+        for (int i = 0; i < value.length(); ++i)
+        {
+            i = putChar(value, i, value.charAt(i));
+        }
+    }
+
+    private void putString(String value) throws IOException
+    {
+        put((byte)'"');
+        for (int i = 0; i < value.length(); ++i)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                case '\\':
+                    putEscape((byte)c);
+                    break;
+                case '\b':
+                    putEscape((byte)'b');
+                    break;
+                case '\f':
+                    putEscape((byte)'f');
+                    break;
+                case '\n':
+                    putEscape((byte)'n');
+                    break;
+                case '\r':
+                    putEscape((byte)'r');
+                    break;
+                case '\t':
+                    putEscape((byte)'t');
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x7F)
+                    {
+                        if (buffer.remaining() < 6)
+                            flush();
+                        buffer.put((byte)'\\').put((byte)'u').put((byte)'0').put((byte)'0')
+                            .put(HEX[(c >> 4) & 0xF]).put(HEX[c & 0xF]);
+                    }
+                    else
+                    {
+                        i = putChar(value, i, c);
+                    }
+                    break;
+            }
+        }
+        put((byte)'"');
+    }
+
+    private void putEscape(byte b) throws IOException
+    {
+        if (buffer.remaining() < 2)
+            flush();
+        buffer.put((byte)'\\').put(b);
+    }
+
+    /**
+     * <p>Encodes the given character as UTF-8.</p>
+     *
+     * @return the index of the last character consumed, that differs
+     * from the given index when a surrogate pair is consumed
+     */
+    private int putChar(String value, int index, char c) throws IOException
+    {
+        if (c < 0x80)
+        {
+            put((byte)c);
+            return index;
+        }
+        if (buffer.remaining() < 4)
+            flush();
+        if (c < 0x800)
+        {
+            buffer.put((byte)(0xC0 | (c >> 6)));
+            buffer.put((byte)(0x80 | (c & 0x3F)));
+        }
+        else if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1)))
+        {
+            int codePoint = Character.toCodePoint(c, value.charAt(++index));
+            buffer.put((byte)(0xF0 | (codePoint >> 18)));
+            buffer.put((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte)(0x80 | (codePoint & 0x3F)));
+        }
+        else if (Character.isSurrogate(c))
+        {
+            // Unpaired surrogate, encode the replacement character.
+            buffer.put((byte)0xEF).put((byte)0xBF).put((byte)0xBD);
+        }
+        else
+        {
+            buffer.put((byte)(0xE0 | (c >> 12)));
+            buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte)(0x80 | (c & 0x3F)));
+        }
+        return index;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[depth=%d]", getClass().getSimpleName(), hashCode(), depth);
+    }
+}
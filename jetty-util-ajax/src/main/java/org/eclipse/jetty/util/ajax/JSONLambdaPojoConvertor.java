@@ -0,0 +1,484 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.ajax;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jetty.util.ajax.JSON.Output;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link JSONPojoConvertor} that invokes the POJO constructor, getters
+ * and setters through accessors generated once, when the convertor is created,
+ * via {@link LambdaMetafactory}, rather than through {@link Method#invoke(Object, Object...)}
+ * at every conversion.</p>
+ * <p>Getters returning {@code long}, {@code int}, {@code short}, {@code byte},
+ * {@code double} and {@code boolean} and setters accepting {@code long},
+ * {@code int} and {@code double} are invoked without boxing the primitive value.</p>
+ * <p>The accessors are generated in the class loader of this class, so they are
+ * only generated if the POJO class and its property types are visible from it;
+ * otherwise, for example for a POJO of a web application, the accessor invokes
+ * a {@link MethodHandle}. If the POJO class is not accessible, the reflective
+ * invocation is used for that accessor.</p>
+ *
+ * @see JSONLambdaPojoConvertorFactory
+ */
+public class JSONLambdaPojoConvertor extends JSONPojoConvertor
+{
+    private static final Logger LOG = LoggerFactory.getLogger(JSONLambdaPojoConvertor.class);
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Supplier<Object> _constructor;
+    private final Getter[] _compiledGetters;
+    private boolean _lambdaConstructor;
+
+    /**
+     * @param pojoClass The class to convert
+     */
+    public JSONLambdaPojoConvertor(Class<?> pojoClass)
+    {
+        this(pojoClass, null, true);
+    }
+
+    /**
+     * @param pojoClass The class to convert
+     * @param fromJSON If true, add a class field to the JSON
+     */
+    public JSONLambdaPojoConvertor(Class<?> pojoClass, boolean fromJSON)
+    {
+        this(pojoClass, null, fromJSON);
+    }
+
+    /**
+     * @param pojoClass The class to convert
+     * @param excluded The fields to exclude
+     */
+    public JSONLambdaPojoConvertor(Class<?> pojoClass, String[] excluded)
+    {
+        this(pojoClass, new HashSet<>(Arrays.asList(excluded)), true);
+    }
+
+    /**
+     * @param pojoClass The class to convert
+     * @param excluded The fields to exclude
+     * @param fromJSON If true, add a class field to the JSON
+     */
+    public JSONLambdaPojoConvertor(Class<?> pojoClass, Set<String> excluded, boolean fromJSON)
+    {
+        super(pojoClass, excluded, fromJSON);
+        _constructor = newConstructor(pojoClass);
+        List<Getter> getters = new ArrayList<>(_getters.size());
+        for (Map.Entry<String, Method> entry : _getters.entrySet())
+        {
+            getters.add(newGetter(entry.getKey(), entry.getValue()));
+        }
+        _compiledGetters = getters.toArray(new Getter[0]);
+    }
+
+    @Override
+    protected void addSetter(String name, Method method)
+    {
+        _setters.put(name, new LambdaSetter(name, method));
+    }
+
+    @Override
+    public Object fromJSON(Map<String, Object> object)
+    {
+        Object obj = _constructor.get();
+        setProps(obj, object);
+        return obj;
+    }
+
+    // Package-private for testing only.
+    boolean isLambda()
+    {
+        if (!_lambdaConstructor)
+            return false;
+        for (Getter getter : _compiledGetters)
+        {
+            if (!getter._lambda)
+                return false;
+        }
+        for (Setter setter : _setters.values())
+        {
+            if (!((LambdaSetter)setter).isLambda())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void toJSON(Object obj, Output out)
+    {
+        if (_fromJSON)
+            out.addClass(_pojoClass);
+        for (Getter getter : _compiledGetters)
+        {
+            try
+            {
+                getter.toJSON(obj, out);
+            }
+            catch (Exception e)
+            {
+                LOG.warn("{}#{} excluded: {}",
+                    _pojoClass.getName(),
+                    getter.getPropertyName(),
+                    e.toString());
+            }
+        }
+    }
+
+    private Supplier<Object> newConstructor(Class<?> pojoClass)
+    {
+        try
+        {
+            MethodHandle constructor = lookup(pojoClass).findConstructor(pojoClass, MethodType.methodType(void.class));
+            MethodType instantiatedType = MethodType.methodType(pojoClass);
+            if (isVisible(instantiatedType))
+            {
+                try
+                {
+                    Supplier<Object> supplier = newLambda(Supplier.class, "get", MethodType.methodType(Object.class), constructor, instantiatedType);
+                    _lambdaConstructor = true;
+                    return supplier;
+                }
+                catch (Throwable x)
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Using a method handle to instantiate {}", pojoClass.getName(), x);
+                }
+            }
+            MethodHandle handle = constructor.asType(MethodType.methodType(Object.class));
+            return () ->
+            {
+                try
+                {
+                    return (Object)handle.invokeExact();
+                }
+                catch (RuntimeException | Error x)
+                {
+                    throw x;
+                }
+                catch (Throwable x)
+                {
+                    throw new RuntimeException(x);
+                }
+            };
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Using reflection to instantiate {}", pojoClass.getName(), x);
+            return () ->
+            {
+                try
+                {
+                    return pojoClass.getConstructor().newInstance();
+                }
+                catch (Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+            };
+        }
+    }
+
+    private Getter newGetter(String name, Method method)
+    {
+        Class<?> owner = method.getDeclaringClass();
+        Class<?> type = method.getReturnType();
+        MethodHandle getter;
+        try
+        {
+            getter = lookup(owner).unreflect(method);
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Using reflection to invoke {}", method, x);
+            return new Getter(name, false, (obj, out) -> out.add(name, method.invoke(obj)));
+        }
+
+        if (isVisible(MethodType.methodType(type, owner)))
+        {
+            try
+            {
+                return newLambdaGetter(name, getter, owner, type);
+            }
+            catch (Throwable x)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Using a method handle to invoke {}", method, x);
+            }
+        }
+        MethodHandle handle = getter.asType(MethodType.methodType(Object.class, Object.class));
+        return new Getter(name, false, (obj, out) -> out.add(name, invoke(handle, obj)));
+    }
+
+    private static Getter newLambdaGetter(String name, MethodHandle getter, Class<?> owner, Class<?> type) throws Throwable
+    {
+        if (type == long.class || type == int.class || type == short.class || type == byte.class)
+        {
+            ToLongFunction<Object> function = newLambda(ToLongFunction.class, "applyAsLong",
+                MethodType.methodType(long.class, Object.class), getter, MethodType.methodType(long.class, owner));
+            return new Getter(name, true, (obj, out) -> out.add(name, function.applyAsLong(obj)));
+        }
+        if (type == double.class)
+        {
+            ToDoubleFunction<Object> function = newLambda(ToDoubleFunction.class, "applyAsDouble",
+                MethodType.methodType(double.class, Object.class), getter, MethodType.methodType(double.class, owner));
+            return new Getter(name, true, (obj, out) -> out.add(name, function.applyAsDouble(obj)));
+        }
+        if (type == boolean.class)
+        {
+            Predicate<Object> function = newLambda(Predicate.class, "test",
+                MethodType.methodType(boolean.class, Object.class), getter, MethodType.methodType(boolean.class, owner));
+            return new Getter(name, true, (obj, out) -> out.add(name, function.test(obj)));
+        }
+        Function<Object, Object> function = newLambda(Function.class, "apply",
+            MethodType.methodType(Object.class, Object.class), getter, MethodType.methodType(MethodType.methodType(type).wrap().returnType(), owner));
+        return new Getter(name, true, (obj, out) -> out.add(name, function.apply(obj)));
+    }
+
+    private static Object invoke(MethodHandle getter, Object obj) throws Exception
+    {
+        try
+        {
+            return (Object)getter.invokeExact(obj);
+        }
+        catch (Exception | Error x)
+        {
+            throw x;
+        }
+        catch (Throwable x)
+        {
+            throw new InvocationTargetException(x);
+        }
+    }
+
+    /**
+     * @param type the type of an accessor
+     * @return whether the classes of the given type can be linked by the accessors
+     * generated in the class loader of this class
+     */
+    private static boolean isVisible(MethodType type)
+    {
+        ClassLoader loader = JSONLambdaPojoConvertor.class.getClassLoader();
+        List<Class<?>> classes = new ArrayList<>(type.parameterList());
+        classes.add(type.returnType());
+        for (Class<?> c : classes)
+        {
+            while (c.isArray())
+            {
+                c = c.getComponentType();
+            }
+            if (c.isPrimitive())
+                continue;
+            try
+            {
+                if (Class.forName(c.getName(), false, loader) != c)
+                    return false;
+            }
+            catch (ClassNotFoundException | LinkageError x)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type)
+    {
+        // The generated accessors live in this module, which must be able to read the POJO module.
+        Module module = JSONLambdaPojoConvertor.class.getModule();
+        if (!module.canRead(type.getModule()))
+            module.addReads(type.getModule());
+        return LOOKUP;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T newLambda(Class<? super T> type, String name, MethodType erasedType, MethodHandle target, MethodType instantiatedType) throws Throwable
+    {
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, name, MethodType.methodType(type), erasedType, target, instantiatedType);
+        return (T)callSite.getTarget().invoke();
+    }
+
+    private interface Accessor
+    {
+        void toJSON(Object obj, Output out) throws Exception;
+    }
+
+    private static class Getter
+    {
+        private final String _propertyName;
+        private final boolean _lambda;
+        private final Accessor _accessor;
+
+        private Getter(String propertyName, boolean lambda, Accessor accessor)
+        {
+            _propertyName = propertyName;
+            _lambda = lambda;
+            _accessor = accessor;
+        }
+
+        private String getPropertyName()
+        {
+            return _propertyName;
+        }
+
+        private void toJSON(Object obj, Output out) throws Exception
+        {
+            _accessor.toJSON(obj, out);
+        }
+    }
+
+    /**
+     * <p>A {@link JSONPojoConvertor.Setter} that invokes the setter method
+     * through an accessor generated via {@link LambdaMetafactory}, or through
+     * a {@link MethodHandle} if the accessor cannot be generated.</p>
+     */
+    public static class LambdaSetter extends Setter
+    {
+        private ObjLongConsumer<Object> _longSetter;
+        private ObjIntConsumer<Object> _intSetter;
+        private ObjDoubleConsumer<Object> _doubleSetter;
+        private BiConsumer<Object, Object> _objectSetter;
+        private MethodHandle _handle;
+
+        public LambdaSetter(String propertyName, Method method)
+        {
+            super(propertyName, method);
+            Class<?> owner = method.getDeclaringClass();
+            MethodHandle setter;
+            try
+            {
+                setter = lookup(owner).unreflect(method);
+            }
+            catch (Throwable x)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Using reflection to invoke {}", method, x);
+                return;
+            }
+
+            if (!isVisible(MethodType.methodType(void.class, owner, _type)))
+            {
+                _handle = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+                return;
+            }
+            try
+            {
+                if (_type == long.class)
+                    _longSetter = newLambda(ObjLongConsumer.class, "accept",
+                        MethodType.methodType(void.class, Object.class, long.class), setter, MethodType.methodType(void.class, owner, long.class));
+                else if (_type == int.class)
+                    _intSetter = newLambda(ObjIntConsumer.class, "accept",
+                        MethodType.methodType(void.class, Object.class, int.class), setter, MethodType.methodType(void.class, owner, int.class));
+                else if (_type == double.class)
+                    _doubleSetter = newLambda(ObjDoubleConsumer.class, "accept",
+                        MethodType.methodType(void.class, Object.class, double.class), setter, MethodType.methodType(void.class, owner, double.class));
+                else
+                    _objectSetter = newLambda(BiConsumer.class, "accept",
+                        MethodType.methodType(void.class, Object.class, Object.class), setter,
+                        MethodType.methodType(void.class, owner, MethodType.methodType(_type).wrap().returnType()));
+            }
+            catch (Throwable x)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Using a method handle to invoke {}", method, x);
+                _handle = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            }
+        }
+
+        // Package-private for testing only.
+        boolean isLambda()
+        {
+            return _longSetter != null || _intSetter != null || _doubleSetter != null || _objectSetter != null;
+        }
+
+        @Override
+        public void invoke(Object obj, Object value) throws Exception
+        {
+            if (value instanceof Number)
+            {
+                if (_longSetter != null)
+                {
+                    _longSetter.accept(obj, ((Number)value).longValue());
+                    return;
+                }
+                if (_intSetter != null)
+                {
+                    _intSetter.accept(obj, ((Number)value).intValue());
+                    return;
+                }
+                if (_doubleSetter != null)
+                {
+                    _doubleSetter.accept(obj, ((Number)value).doubleValue());
+                    return;
+                }
+            }
+            super.invoke(obj, value);
+        }
+
+        @Override
+        protected void set(Object obj, Object value) throws Exception
+        {
+            if (_objectSetter != null)
+            {
+                _objectSetter.accept(obj, value);
+            }
+            else if (_handle != null)
+            {
+                try
+                {
+                    _handle.invokeExact(obj, value);
+                }
+                catch (Exception | Error x)
+                {
+                    throw x;
+                }
+                catch (Throwable x)
+                {
+                    throw new InvocationTargetException(x);
+                }
+            }
+            else
+            {
+                super.set(obj, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.ajax;
+
+import org.eclipse.jetty.util.ajax.JSON.Convertor;
+
+/**
+ * <p>A {@link JSONPojoConvertorFactory} that creates {@link JSONLambdaPojoConvertor}s,
+ * so that the POJO accessors are generated once per class and then invoked
+ * without reflection.</p>
+ */
+public class JSONLambdaPojoConvertorFactory extends JSONPojoConvertorFactory
+{
+    public JSONLambdaPojoConvertorFactory(JSON json)
+    {
+        super(json);
+    }
+
+    /**
+     * @param json The JSON instance to use
+     * @param fromJSON If true, the class name of the objects is included
+     * in the generated JSON and is used to instantiate the object when
+     * JSON is parsed (otherwise a Map is used).
+     */
+    public JSONLambdaPojoConvertorFactory(JSON json, boolean fromJSON)
+    {
+        super(json, fromJSON);
+    }
+
+    @Override
+    protected Convertor newConvertor(Class<?> cls, boolean fromJSON)
+    {
+        return new JSONLambdaPojoConvertor(cls, fromJSON);
+    }
+}
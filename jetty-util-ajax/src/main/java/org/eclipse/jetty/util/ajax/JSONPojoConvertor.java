@@ -194,7 +194,7 @@ public class JSONPojoConvertor implements JSON.Convertor
         }
     }
 
-    private void setProps(Object obj, Map<String, Object> props)
+    protected void setProps(Object obj, Map<String, Object> props)
     {
         for (Map.Entry<String, Object> entry : props.entrySet())
         {
@@ -295,18 +295,30 @@ public class JSONPojoConvertor implements JSON.Convertor
         public void invoke(Object obj, Object value) throws Exception
         {
             if (value == null)
-                _setter.invoke(obj, value);
+                set(obj, value);
             else
                 invokeObject(obj, value);
         }
 
+        /**
+         * <p>Invokes the setter method with the given, already converted, value.</p>
+         *
+         * @param obj the object to invoke the setter on
+         * @param value the converted value
+         * @throws Exception if the invocation fails
+         */
+        protected void set(Object obj, Object value) throws Exception
+        {
+            _setter.invoke(obj, value);
+        }
+
         protected void invokeObject(Object obj, Object value) throws Exception
         {
             if (_type.isEnum())
             {
                 if (value instanceof Enum)
                 {
-                    _setter.invoke(obj, value);
+                    set(obj, value);
                 }
                 else
                 {
@@ -314,16 +326,16 @@ public class JSONPojoConvertor implements JSON.Convertor
                     Class<? extends Enum> enumType = (Class<? extends Enum>)_type;
                     @SuppressWarnings("unchecked")
                     Enum<?> enumValue = Enum.valueOf(enumType, value.toString());
-                    _setter.invoke(obj, enumValue);
+                    set(obj, enumValue);
                 }
             }
             else if (isPropertyNumber() && value instanceof Number)
             {
-                _setter.invoke(obj, _numberType.getActualValue((Number)value));
+                set(obj, _numberType.getActualValue((Number)value));
             }
             else if (Character.TYPE.equals(_type) || Character.class.equals(_type))
             {
-                _setter.invoke(obj, String.valueOf(value).charAt(0));
+                set(obj, String.valueOf(value).charAt(0));
             }
             else if (_componentType != null && value.getClass().isArray())
             {
@@ -334,13 +346,13 @@ public class JSONPojoConvertor implements JSON.Convertor
                     try
                     {
                         System.arraycopy(value, 0, array, 0, len);
-                        _setter.invoke(obj, array);
+                        set(obj, array);
                     }
                     catch (Exception e)
                     {
                         // Unusual array with multiple types.
                         LOG.trace("IGNORED", e);
-                        _setter.invoke(obj, value);
+                        set(obj, value);
                     }
                 }
                 else
@@ -353,19 +365,19 @@ public class JSONPojoConvertor implements JSON.Convertor
                         {
                             Array.set(array, i, _numberType.getActualValue((Number)old[i]));
                         }
-                        _setter.invoke(obj, array);
+                        set(obj, array);
                     }
                     catch (Exception e)
                     {
                         // unusual array with multiple types
                         LOG.trace("IGNORED", e);
-                        _setter.invoke(obj, value);
+                        set(obj, value);
                     }
                 }
             }
             else
             {
-                _setter.invoke(obj, value);
+                set(obj, value);
             }
         }
     }
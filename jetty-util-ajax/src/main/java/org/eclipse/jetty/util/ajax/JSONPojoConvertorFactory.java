@@ -54,7 +54,7 @@ public class JSONPojoConvertorFactory implements JSON.Convertor
         Convertor convertor = _json.getConvertorFor(clsName);
         if (convertor == null)
         {
-            convertor = new JSONPojoConvertor(cls, _fromJson);
+            convertor = newConvertor(cls, _fromJson);
             _json.addConvertorFor(clsName, convertor);
         }
         convertor.toJSON(obj, out);
@@ -72,7 +72,7 @@ public class JSONPojoConvertorFactory implements JSON.Convertor
                 try
                 {
                     Class<?> cls = Loader.loadClass(clsName);
-                    convertor = new JSONPojoConvertor(cls, _fromJson);
+                    convertor = newConvertor(cls, _fromJson);
                     _json.addConvertorFor(clsName, convertor);
                 }
                 catch (ClassNotFoundException e)
@@ -85,4 +85,17 @@ public class JSONPojoConvertorFactory implements JSON.Convertor
         }
         return map;
     }
+
+    /**
+     * <p>Creates the {@link Convertor} for the given class; the returned convertor
+     * is cached in the {@link JSON} instance, so this method is called once per class.</p>
+     *
+     * @param cls the class to convert
+     * @param fromJSON whether the class name is included in the generated JSON
+     * @return a new {@link Convertor} for the given class
+     */
+    protected Convertor newConvertor(Class<?> cls, boolean fromJSON)
+    {
+        return new JSONPojoConvertor(cls, fromJSON);
+    }
 }
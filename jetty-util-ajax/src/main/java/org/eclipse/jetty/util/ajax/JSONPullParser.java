@@ -0,0 +1,751 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.ajax;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.jetty.util.Utf8StringBuilder;
+
+/**
+ * <p>A non-blocking, event based (pull) JSON parser that parses JSON from {@link ByteBuffer} chunks.</p>
+ * <p>Differently from {@link AsyncJSON}, this parser does not build the {@code Map}
+ * and {@code List} representation of the JSON structure; rather, the application
+ * pulls the parse {@link Event events} and only retains what it needs.
+ * Strings are decoded directly from the buffer bytes, and field names (and values)
+ * that have been {@link AsyncJSON.Factory#cache(String) cached} in the factory
+ * are not allocated.</p>
+ * <p>Usage:</p>
+ * <pre>
+ * JSONPullParser parser = new AsyncJSON.Factory().newJSONPullParser();
+ *
+ * // For each chunk of JSON bytes.
+ * parser.feed(chunk);
+ * while (true)
+ * {
+ *     JSONPullParser.Event event = parser.next();
+ *     if (event == JSONPullParser.Event.NEED_INPUT)
+ *         break;
+ *     switch (event)
+ *     {
+ *         case FIELD_NAME:
+ *             String name = parser.getString();
+ *             ...
+ *     }
+ * }
+ *
+ * // When there are no more chunks.
+ * parser.complete();
+ * // Pull the remaining events until Event.END.
+ * </pre>
+ * <p>The chunk passed to {@link #feed(ByteBuffer)} must not be modified until
+ * {@link #next()} returns {@link Event#NEED_INPUT}.</p>
+ * <p>After {@link Event#END}, the parser can be {@link #reset() reset} and reused
+ * to parse another JSON string.</p>
+ */
+public class JSONPullParser
+{
+    /**
+     * <p>The events produced by the parser.</p>
+     */
+    public enum Event
+    {
+        /**
+         * <p>The beginning of a JSON object.</p>
+         */
+        START_OBJECT,
+        /**
+         * <p>The end of a JSON object.</p>
+         */
+        END_OBJECT,
+        /**
+         * <p>The beginning of a JSON array.</p>
+         */
+        START_ARRAY,
+        /**
+         * <p>The end of a JSON array.</p>
+         */
+        END_ARRAY,
+        /**
+         * <p>A field name, available via {@link #getString()}.</p>
+         */
+        FIELD_NAME,
+        /**
+         * <p>A string value, available via {@link #getString()}.</p>
+         */
+        STRING,
+        /**
+         * <p>A number value, available via {@link #getNumber()}, {@link #getLong()} or {@link #getDouble()}.</p>
+         */
+        NUMBER,
+        /**
+         * <p>The {@code true} literal.</p>
+         */
+        TRUE,
+        /**
+         * <p>The {@code false} literal.</p>
+         */
+        FALSE,
+        /**
+         * <p>The {@code null} literal.</p>
+         */
+        NULL,
+        /**
+         * <p>More bytes must be {@link #feed(ByteBuffer) fed} to produce further events.</p>
+         */
+        NEED_INPUT,
+        /**
+         * <p>The JSON string has been completely parsed.</p>
+         */
+        END
+    }
+
+    private enum State
+    {
+        VALUE, VALUE_OR_END, FIELD, FIELD_OR_END, COLON, AFTER_VALUE, STRING, ESCAPE, UNICODE, NUMBER, LITERAL, DONE
+    }
+
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final Utf8StringBuilder stringBuilder = new Utf8StringBuilder(32);
+    private final StringBuilder numberBuilder = new StringBuilder(16);
+    private final AsyncJSON.Factory factory;
+    // The stack of containers, true for objects and false for arrays.
+    private boolean[] containers = new boolean[16];
+    private int depth;
+    private State state = State.VALUE;
+    private ByteBuffer buffer;
+    private boolean completed;
+    private boolean fieldName;
+    private boolean quoted;
+    private byte[] literal;
+    private int literalIndex;
+    private int unicode;
+    private int unicodeDigits;
+    private boolean integral;
+    private boolean negative;
+    private int digits;
+    private long longValue;
+    private double doubleValue;
+    private String string;
+
+    public JSONPullParser(AsyncJSON.Factory factory)
+    {
+        this.factory = factory;
+    }
+
+    /**
+     * @return the depth in the JSON structure, 0 at top level
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * <p>Feeds the parser with the given buffer chunk.</p>
+     *
+     * @param buffer the buffer to parse
+     * @throws IllegalStateException if the previous chunk has not been fully parsed,
+     * or the parser has been {@link #complete() completed}
+     */
+    public void feed(ByteBuffer buffer)
+    {
+        if (completed)
+            throw new IllegalStateException("completed");
+        if (this.buffer != null && this.buffer.hasRemaining())
+            throw new IllegalStateException("previous chunk not fully parsed");
+        this.buffer = buffer;
+    }
+
+    /**
+     * <p>Signals to the parser that there are no more chunks to parse.</p>
+     * <p>The remaining events must be pulled via {@link #next()}, until {@link Event#END}.</p>
+     */
+    public void complete()
+    {
+        completed = true;
+    }
+
+    /**
+     * <p>Parses the next event.</p>
+     *
+     * @return the next event, or {@link Event#NEED_INPUT} if more chunks must be fed to the parser
+     * @throws IllegalArgumentException if the JSON is malformed
+     */
+    public Event next()
+    {
+        try
+        {
+            Event event = parse();
+            if (event != null)
+                return event;
+            if (!completed)
+                return Event.NEED_INPUT;
+            if (state == State.NUMBER)
+            {
+                endNumber();
+                return Event.NUMBER;
+            }
+            if (state == State.DONE)
+                return Event.END;
+            throw newInvalidJSON("incomplete JSON");
+        }
+        catch (IllegalArgumentException x)
+        {
+            reset();
+            throw x;
+        }
+    }
+
+    /**
+     * @return the field name or the string value of the last {@link Event#FIELD_NAME} or {@link Event#STRING} event
+     */
+    public String getString()
+    {
+        return string;
+    }
+
+    /**
+     * @return the value of the last {@link Event#NUMBER} event, as a {@link Long} or a {@link Double}
+     */
+    public Number getNumber()
+    {
+        return integral ? (Number)longValue : (Number)doubleValue;
+    }
+
+    /**
+     * @return the value of the last {@link Event#NUMBER} event, as a long
+     */
+    public long getLong()
+    {
+        return integral ? longValue : (long)doubleValue;
+    }
+
+    /**
+     * @return the value of the last {@link Event#NUMBER} event, as a double
+     */
+    public double getDouble()
+    {
+        return integral ? (double)longValue : doubleValue;
+    }
+
+    /**
+     * <p>Resets this parser so that it can be reused to parse another JSON string.</p>
+     */
+    public void reset()
+    {
+        depth = 0;
+        state = State.VALUE;
+        buffer = null;
+        completed = false;
+        string = null;
+        stringBuilder.reset();
+        numberBuilder.setLength(0);
+    }
+
+    private Event parse()
+    {
+        while (true)
+        {
+            switch (state)
+            {
+                case STRING:
+                case ESCAPE:
+                case UNICODE:
+                {
+                    if (!parseString())
+                        return null;
+                    if (fieldName)
+                    {
+                        state = State.COLON;
+                        return Event.FIELD_NAME;
+                    }
+                    endValue();
+                    return Event.STRING;
+                }
+                case NUMBER:
+                {
+                    if (!parseNumber())
+                        return null;
+                    endNumber();
+                    return Event.NUMBER;
+                }
+                case LITERAL:
+                {
+                    if (!parseLiteral())
+                        return null;
+                    endValue();
+                    return literal == TRUE ? Event.TRUE : literal == FALSE ? Event.FALSE : Event.NULL;
+                }
+                case DONE:
+                {
+                    if (skipWhitespace())
+                        throw newInvalidJSON("invalid character after JSON data");
+                    return null;
+                }
+                default:
+                {
+                    if (!skipWhitespace())
+                        return null;
+                    Event event = parseStructure(buffer.get(buffer.position()));
+                    if (event != null)
+                        return event;
+                    break;
+                }
+            }
+        }
+    }
+
+    private Event parseStructure(byte current)
+    {
+        switch (state)
+        {
+            case VALUE:
+            case VALUE_OR_END:
+            {
+                switch (current)
+                {
+                    case '{':
+                        buffer.get();
+                        push(true);
+                        state = State.FIELD_OR_END;
+                        return Event.START_OBJECT;
+                    case '[':
+                        buffer.get();
+                        push(false);
+                        state = State.VALUE_OR_END;
+                        return Event.START_ARRAY;
+                    case ']':
+                        if (state != State.VALUE_OR_END)
+                            throw newInvalidJSON("invalid character in array");
+                        buffer.get();
+                        --depth;
+                        endValue();
+                        return Event.END_ARRAY;
+                    case '"':
+                        fieldName = false;
+                        quoted = false;
+                        state = State.STRING;
+                        return null;
+                    case 't':
+                        return startLiteral(TRUE);
+                    case 'f':
+                        return startLiteral(FALSE);
+                    case 'n':
+                        return startLiteral(NULL);
+                    case '-':
+                    case '0':
+                    case '1':
+                    case '2':
+                    case '3':
+                    case '4':
+                    case '5':
+                    case '6':
+                    case '7':
+                    case '8':
+                    case '9':
+                        integral = true;
+                        negative = false;
+                        digits = 0;
+                        longValue = 0;
+                        numberBuilder.setLength(0);
+                        state = State.NUMBER;
+                        return null;
+                    default:
+                        throw newInvalidJSON("invalid value");
+                }
+            }
+            case FIELD:
+            case FIELD_OR_END:
+            {
+                if (current == '"')
+                {
+                    fieldName = true;
+                    quoted = false;
+                    state = State.STRING;
+                    return null;
+                }
+                if (current == '}' && state == State.FIELD_OR_END)
+                {
+                    buffer.get();
+                    --depth;
+                    endValue();
+                    return Event.END_OBJECT;
+                }
+                throw newInvalidJSON("invalid object field");
+            }
+            case COLON:
+            {
+                if (current != ':')
+                    throw newInvalidJSON("invalid object field, expected ':'");
+                buffer.get();
+                state = State.VALUE;
+                return null;
+            }
+            case AFTER_VALUE:
+            {
+                boolean object = containers[depth - 1];
+                if (current == ',')
+                {
+                    buffer.get();
+                    state = object ? State.FIELD : State.VALUE;
+                    return null;
+                }
+                if (object && current == '}')
+                {
+                    buffer.get();
+                    --depth;
+                    endValue();
+                    return Event.END_OBJECT;
+                }
+                if (!object && current == ']')
+                {
+                    buffer.get();
+                    --depth;
+                    endValue();
+                    return Event.END_ARRAY;
+                }
+                throw newInvalidJSON(object ? "invalid object" : "invalid array");
+            }
+            default:
+            {
+                throw new IllegalStateException("invalid state " + state);
+            }
+        }
+    }
+
+    private void push(boolean object)
+    {
+        if (depth == containers.length)
+            containers = Arrays.copyOf(containers, depth * 2);
+        containers[depth++] = object;
+    }
+
+    private void endValue()
+    {
+        state = depth == 0 ? State.DONE : State.AFTER_VALUE;
+    }
+
+    private boolean skipWhitespace()
+    {
+        if (buffer == null)
+            return false;
+        while (buffer.hasRemaining())
+        {
+            byte current = buffer.get(buffer.position());
+            switch (current)
+            {
+                case ' ':
+                case '\n':
+                case '\r':
+                case '\t':
+                    buffer.get();
+                    break;
+                default:
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private Event startLiteral(byte[] literal)
+    {
+        this.literal = literal;
+        this.literalIndex = 0;
+        state = State.LITERAL;
+        return null;
+    }
+
+    private boolean parseLiteral()
+    {
+        while (buffer.hasRemaining())
+        {
+            if (buffer.get() != literal[literalIndex++])
+                throw newInvalidJSON("invalid literal");
+            if (literalIndex == literal.length)
+                return true;
+        }
+        return false;
+    }
+
+    private boolean parseString()
+    {
+        if (buffer == null)
+            return false;
+
+        if (!quoted && buffer.hasRemaining())
+        {
+            // At the opening quote: try the cache, then the ASCII fast path.
+            String cached = factory.cached(buffer);
+            if (cached != null)
+            {
+                string = cached;
+                return true;
+            }
+            buffer.get();
+            quoted = true;
+            if (parseAsciiString())
+                return true;
+        }
+
+        while (buffer.hasRemaining())
+        {
+            switch (state)
+            {
+                case ESCAPE:
+                {
+                    parseEscape(buffer.get());
+                    break;
+                }
+                case UNICODE:
+                {
+                    unicode = (unicode << 4) + hexToInt(buffer.get());
+                    if (++unicodeDigits == 4)
+                    {
+                        stringBuilder.append((char)unicode);
+                        state = State.STRING;
+                    }
+                    break;
+                }
+                default:
+                {
+                    byte current = buffer.get();
+                    if (current == '"')
+                    {
+                        string = stringBuilder.toString();
+                        stringBuilder.reset();
+                        return true;
+                    }
+                    if (current == '\\')
+                        state = State.ESCAPE;
+                    else
+                        stringBuilder.append(current);
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>Creates the string directly from the buffer bytes
+     * when the whole string is in the buffer and is ASCII
+     * without escapes, which is the most common case.</p>
+     *
+     * @return whether the string has been parsed
+     */
+    private boolean parseAsciiString()
+    {
+        if (!buffer.hasArray())
+            return false;
+        int position = buffer.position();
+        int limit = buffer.limit();
+        byte[] array = buffer.array();
+        int offset = buffer.arrayOffset();
+        for (int i = position; i < limit; ++i)
+        {
+            byte current = array[offset + i];
+            if (current == '"')
+            {
+                string = new String(array, offset + position, i - position, StandardCharsets.US_ASCII);
+                buffer.position(i + 1);
+                return true;
+            }
+            if (current < 0x20 || current == '\\')
+                return false;
+        }
+        return false;
+    }
+
+    private void parseEscape(byte escape)
+    {
+        state = State.STRING;
+        switch (escape)
+        {
+            case '"':
+            case '\\':
+            case '/':
+                stringBuilder.append((char)escape);
+                break;
+            case 'b':
+                stringBuilder.append('\b');
+                break;
+            case 'f':
+                stringBuilder.append('\f');
+                break;
+            case 'n':
+                stringBuilder.append('\n');
+                break;
+            case 'r':
+                stringBuilder.append('\r');
+                break;
+            case 't':
+                stringBuilder.append('\t');
+                break;
+            case 'u':
+                unicode = 0;
+                unicodeDigits = 0;
+                state = State.UNICODE;
+                break;
+            default:
+                throw newInvalidJSON("invalid escape sequence");
+        }
+    }
+
+    private int hexToInt(byte hex)
+    {
+        if (hex >= '0' && hex <= '9')
+            return hex - '0';
+        if (hex >= 'a' && hex <= 'f')
+            return hex - 'a' + 10;
+        if (hex >= 'A' && hex <= 'F')
+            return hex - 'A' + 10;
+        throw newInvalidJSON("invalid hex digit");
+    }
+
+    private boolean parseNumber()
+    {
+        if (buffer == null)
+            return false;
+        while (buffer.hasRemaining())
+        {
+            byte current = buffer.get(buffer.position());
+            switch (current)
+            {
+                case '0':
+                case '1':
+                case '2':
+                case '3':
+                case '4':
+                case '5':
+                case '6':
+                case '7':
+                case '8':
+                case '9':
+                {
+                    // Integral numbers are accumulated as negative values,
+                    // as the magnitude of Long.MIN_VALUE does not fit in a long.
+                    int digit = current - '0';
+                    if (integral && (longValue < Long.MIN_VALUE / 10 || longValue * 10 < Long.MIN_VALUE + digit))
+                        toNonIntegral();
+                    if (integral)
+                        longValue = longValue * 10 - digit;
+                    else
+                        numberBuilder.append((char)current);
+                    ++digits;
+                    break;
+                }
+                case '-':
+                {
+                    if (integral && digits == 0 && !negative)
+                        negative = true;
+                    else if (isAfterExponent())
+                        numberBuilder.append('-');
+                    else
+                        throw newInvalidJSON("invalid number");
+                    break;
+                }
+                case '+':
+                {
+                    if (!isAfterExponent())
+                        throw newInvalidJSON("invalid number");
+                    numberBuilder.append('+');
+                    break;
+                }
+                case '.':
+                case 'e':
+                case 'E':
+                {
+                    if (digits == 0)
+                        throw newInvalidJSON("invalid number");
+                    if (integral)
+                        toNonIntegral();
+                    if (numberBuilder.indexOf(".") >= 0 && current == '.' ||
+                        numberBuilder.indexOf("e") >= 0 || numberBuilder.indexOf("E") >= 0)
+                        throw newInvalidJSON("invalid number");
+                    numberBuilder.append((char)current);
+                    break;
+                }
+                default:
+                {
+                    return true;
+                }
+            }
+            buffer.get();
+        }
+        return false;
+    }
+
+    private boolean isAfterExponent()
+    {
+        int length = numberBuilder.length();
+        if (integral || length == 0)
+            return false;
+        char last = numberBuilder.charAt(length - 1);
+        return last == 'e' || last == 'E';
+    }
+
+    private void toNonIntegral()
+    {
+        integral = false;
+        numberBuilder.setLength(0);
+        if (negative)
+            numberBuilder.append('-');
+        String magnitude = Long.toString(longValue);
+        numberBuilder.append(magnitude, longValue < 0 ? 1 : 0, magnitude.length());
+    }
+
+    private void endNumber()
+    {
+        if (digits == 0)
+            throw newInvalidJSON("invalid number");
+        if (integral && !negative)
+        {
+            // The magnitude of Long.MIN_VALUE is one past Long.MAX_VALUE.
+            if (longValue == Long.MIN_VALUE)
+                toNonIntegral();
+            else
+                longValue = -longValue;
+        }
+        if (!integral)
+        {
+            try
+            {
+                doubleValue = Double.parseDouble(numberBuilder.toString());
+            }
+            catch (NumberFormatException x)
+            {
+                throw newInvalidJSON("invalid number");
+            }
+            numberBuilder.setLength(0);
+        }
+        endValue();
+    }
+
+    private IllegalArgumentException newInvalidJSON(String message)
+    {
+        int position = buffer == null ? 0 : buffer.position();
+        return new IllegalArgumentException(String.format("%s at position %d of the current chunk", message, position));
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[state=%s,depth=%d]", getClass().getSimpleName(), hashCode(), state, depth);
+    }
+}
@@ -0,0 +1,125 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.ajax;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JSONGeneratorTest
+{
+    @Test
+    public void testGenerateSameAsJSON() throws Exception
+    {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("string", "quote\" backslash\\ tab\t ctrl\u0001 del\u007F euro€ clef\uD834\uDD1E");
+        object.put("long", Long.MIN_VALUE);
+        object.put("int", 42);
+        object.put("double", 1.5D);
+        object.put("boolean", true);
+        object.put("null", null);
+        object.put("list", List.of(1, "two", List.of()));
+        object.put("array", new int[]{3, 4});
+        object.put("map", Map.of("k", "v"));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JSONGenerator generator = new JSONGenerator(output);
+        generator.writeObject(object);
+        generator.complete();
+
+        JSON json = new JSON();
+        assertEquals(json.toJSON(object), output.toString(UTF_8));
+    }
+
+    @Test
+    public void testGenerateWithSmallBuffer() throws Exception
+    {
+        List<ByteBuffer> writes = new ArrayList<>();
+        List<Boolean> lasts = new ArrayList<>();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JSONGenerator generator = new JSONGenerator(ByteBuffer.allocateDirect(24), (buffer, last) ->
+        {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            output.write(bytes);
+            writes.add(ByteBuffer.wrap(bytes));
+            lasts.add(last);
+        });
+
+        char[] chars = new char[100];
+        Arrays.fill(chars, 'é');
+        String value = new String(chars);
+        generator.writeStartArray();
+        for (int i = 0; i < 10; ++i)
+        {
+            generator.writeStartObject();
+            generator.writeFieldName("value");
+            generator.writeString(value);
+            generator.writeFieldName("index");
+            generator.writeNumber(i);
+            generator.writeEndObject();
+        }
+        // The longest numbers fit a buffer of the minimum size.
+        generator.writeNumber(Long.MIN_VALUE);
+        generator.writeNumber(-Long.MAX_VALUE);
+        generator.writeEndArray();
+        generator.complete();
+
+        assertTrue(writes.size() > 1);
+        assertFalse(lasts.get(0));
+        assertTrue(lasts.get(lasts.size() - 1));
+        assertTrue(writes.stream().allMatch(buffer -> buffer.remaining() <= 24));
+
+        Object[] result = (Object[])new JSON().fromJSON(output.toString(UTF_8));
+        assertEquals(12, result.length);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> last = (Map<String, Object>)result[9];
+        assertEquals(value, last.get("value"));
+        assertEquals(9L, last.get("index"));
+        assertEquals(Long.MIN_VALUE, result[10]);
+        assertEquals(-Long.MAX_VALUE, result[11]);
+    }
+
+    @Test
+    public void testGenerateWithTooSmallBuffer()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new JSONGenerator(ByteBuffer.allocate(23), (buffer, last) ->
+        {
+        }));
+    }
+
+    @Test
+    public void testGenerateInvalidStructure() throws Exception
+    {
+        JSONGenerator generator = new JSONGenerator(new ByteArrayOutputStream());
+        assertThrows(IllegalStateException.class, () -> generator.writeFieldName("top"));
+        assertThrows(IllegalStateException.class, generator::writeEndObject);
+        generator.writeStartObject();
+        generator.writeFieldName("a");
+        assertThrows(IllegalStateException.class, () -> generator.writeFieldName("b"));
+        assertThrows(IllegalStateException.class, generator::complete);
+    }
+}
@@ -0,0 +1,183 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.ajax;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JSONLambdaPojoConvertorTest
+{
+    private static Bar newBar()
+    {
+        Foo foo = new Foo();
+        foo.setName("Foo");
+        foo.setInt1(1);
+        foo.setInt2(2);
+        foo.setLong1(1000001L);
+        foo.setLong2(1000002L);
+        foo.setFloat1(10.11f);
+        foo.setFloat2(10.22f);
+        foo.setDouble1(10000.11111d);
+        foo.setDouble2(10000.22222d);
+
+        Bar bar = new Bar("Hello", true, new Baz("World", Boolean.FALSE, foo), new Baz[]{
+            new Baz("baz0", Boolean.TRUE, null), new Baz("baz1", Boolean.FALSE, null)
+        });
+        bar.setColor(Color.Green);
+        return bar;
+    }
+
+    @Test
+    public void testSameJSONAsReflectiveConvertor()
+    {
+        JSON reflective = new JSON();
+        reflective.addConvertor(Foo.class, new JSONPojoConvertor(Foo.class));
+        reflective.addConvertor(Bar.class, new JSONPojoConvertor(Bar.class));
+        reflective.addConvertor(Baz.class, new JSONPojoConvertor(Baz.class));
+
+        JSON lambda = new JSON();
+        lambda.addConvertor(Foo.class, new JSONLambdaPojoConvertor(Foo.class));
+        lambda.addConvertor(Bar.class, new JSONLambdaPojoConvertor(Bar.class));
+        lambda.addConvertor(Baz.class, new JSONLambdaPojoConvertor(Baz.class));
+
+        Bar bar = newBar();
+        String json = lambda.toJSON(bar);
+        assertEquals(reflective.toJSON(bar), json);
+
+        Object obj = lambda.parse(new JSON.StringSource(json));
+        assertTrue(obj instanceof Bar);
+        Bar br = (Bar)obj;
+        assertEquals(bar.getBaz().getFoo(), br.getBaz().getFoo());
+        assertEquals(2, br.getBazs().length);
+        assertEquals("baz1", br.getBazs()[1].getMessage());
+        assertEquals(Color.Green, br.getColor());
+    }
+
+    @Test
+    public void testExclude()
+    {
+        JSON json = new JSON();
+        json.addConvertor(Foo.class, new JSONLambdaPojoConvertor(Foo.class, new String[]{"name", "long1", "int2"}));
+        json.addConvertor(Bar.class, new JSONLambdaPojoConvertor(Bar.class, new String[]{"title", "boolean1"}));
+        json.addConvertor(Baz.class, new JSONLambdaPojoConvertor(Baz.class, new String[]{"boolean2"}));
+
+        Object obj = json.parse(new JSON.StringSource(json.toJSON(newBar())));
+        Bar br = (Bar)obj;
+        Foo f = br.getBaz().getFoo();
+        assertNull(br.getTitle());
+        assertNull(br.getBaz().isBoolean2());
+        assertEquals(0L, f.getLong1());
+        assertNull(f.getInt2());
+        assertNull(f.getName());
+        assertEquals(Long.valueOf(1000002L), f.getLong2());
+    }
+
+    @Test
+    public void testFactoryWithAsyncJSON()
+    {
+        JSON json = new JSON();
+        json.addConvertor(Object.class, new JSONLambdaPojoConvertorFactory(json));
+        json.addConvertor(Enum.class, new JSONEnumConvertor());
+        Bar bar = newBar();
+        String string = json.toJSON(bar);
+        assertTrue(json.getConvertorFor(Foo.class.getName()) instanceof JSONLambdaPojoConvertor);
+
+        AsyncJSON.Factory factory = new AsyncJSON.Factory();
+        factory.putConvertor(Foo.class.getName(), json.getConvertorFor(Foo.class.getName()));
+        factory.putConvertor(Bar.class.getName(), json.getConvertorFor(Bar.class.getName()));
+        factory.putConvertor(Baz.class.getName(), json.getConvertorFor(Baz.class.getName()));
+        factory.putConvertor(Color.class.getName(), new JSONEnumConvertor());
+        AsyncJSON parser = factory.newAsyncJSON();
+        parser.parse(ByteBuffer.wrap(string.getBytes(UTF_8)));
+        Bar br = parser.complete();
+        assertEquals(bar.getBaz().getFoo(), br.getBaz().getFoo());
+        assertEquals(Color.Green, br.getColor());
+    }
+
+    @Test
+    public void testPojoFromChildClassLoader() throws Exception
+    {
+        JSONLambdaPojoConvertor convertor = new JSONLambdaPojoConvertor(Foo.class, false);
+        assertTrue(convertor.isLambda());
+
+        // The lambdas generated by this module cannot link to a class that its class loader does not see.
+        Class<?> childFoo = new ChildClassLoader(Foo.class).loadClass(Foo.class.getName());
+        assertNotSame(Foo.class, childFoo);
+        JSONLambdaPojoConvertor childConvertor = new JSONLambdaPojoConvertor(childFoo, false);
+        assertFalse(childConvertor.isLambda());
+
+        JSON json = new JSON();
+        json.addConvertor(Foo.class, convertor);
+        String string = json.toJSON(newBar().getBaz().getFoo());
+
+        Object childObject = childConvertor.fromJSON(asMap(json.parse(new JSON.StringSource(string))));
+        assertEquals(childFoo, childObject.getClass());
+        JSON childJSON = new JSON();
+        childJSON.addConvertor(childFoo, childConvertor);
+        assertEquals(string, childJSON.toJSON(childObject));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object object)
+    {
+        return (Map<String, Object>)object;
+    }
+
+    /**
+     * <p>Loads its own copy of the given class, and delegates the other classes to its parent.</p>
+     */
+    private static class ChildClassLoader extends ClassLoader
+    {
+        private final Class<?> type;
+
+        private ChildClassLoader(Class<?> type)
+        {
+            super(type.getClassLoader());
+            this.type = type;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+        {
+            if (!type.getName().equals(name))
+                return super.loadClass(name, resolve);
+            synchronized (getClassLoadingLock(name))
+            {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded != null)
+                    return loaded;
+                try (InputStream input = getParent().getResourceAsStream(name.replace('.', '/') + ".class"))
+                {
+                    byte[] bytes = input.readAllBytes();
+                    return defineClass(name, bytes, 0, bytes.length);
+                }
+                catch (IOException x)
+                {
+                    throw new ClassNotFoundException(name, x);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.ajax;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JSONPullParserTest
+{
+    private static List<String> parse(JSONPullParser parser, String json, int chunkSize)
+    {
+        List<String> events = new ArrayList<>();
+        byte[] bytes = json.getBytes(UTF_8);
+        for (int i = 0; i < bytes.length; i += chunkSize)
+        {
+            parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)).slice());
+            pull(parser, events);
+        }
+        parser.complete();
+        pull(parser, events);
+        return events;
+    }
+
+    private static void pull(JSONPullParser parser, List<String> events)
+    {
+        while (true)
+        {
+            JSONPullParser.Event event = parser.next();
+            switch (event)
+            {
+                case NEED_INPUT:
+                    return;
+                case END:
+                    events.add(event.name());
+                    return;
+                case FIELD_NAME:
+                case STRING:
+                    events.add(event.name() + ":" + parser.getString());
+                    break;
+                case NUMBER:
+                    events.add(event.name() + ":" + parser.getNumber());
+                    break;
+                default:
+                    events.add(event.name());
+                    break;
+            }
+        }
+    }
+
+    @Test
+    public void testParseEventsInChunksOfAnySize()
+    {
+        String json = "{\"name\": \"Jetty \\\"\\u20AC\\\" €\", \"version\" : 10, \"ratio\": -1.5e2, " +
+            "\"big\": 12345678901234567890, \"flags\": [true, false, null, []], \"empty\": {}}";
+        List<String> expected = List.of("START_OBJECT",
+            "FIELD_NAME:name", "STRING:Jetty \"€\" €",
+            "FIELD_NAME:version", "NUMBER:10",
+            "FIELD_NAME:ratio", "NUMBER:-150.0",
+            "FIELD_NAME:big", "NUMBER:1.2345678901234567E19",
+            "FIELD_NAME:flags", "START_ARRAY", "TRUE", "FALSE", "NULL", "START_ARRAY", "END_ARRAY", "END_ARRAY",
+            "FIELD_NAME:empty", "START_OBJECT", "END_OBJECT",
+            "END_OBJECT", "END");
+
+        JSONPullParser parser = new AsyncJSON.Factory().newJSONPullParser();
+        for (int chunkSize = 1; chunkSize <= json.length(); ++chunkSize)
+        {
+            assertEquals(expected, parse(parser, json, chunkSize), "chunkSize=" + chunkSize);
+            parser.reset();
+        }
+    }
+
+    @Test
+    public void testParseTopLevelValues()
+    {
+        JSONPullParser parser = new AsyncJSON.Factory().newJSONPullParser();
+        assertEquals(List.of("NUMBER:42", "END"), parse(parser, " 42 ", 1));
+        parser.reset();
+        assertEquals(List.of("NUMBER:-7", "END"), parse(parser, "-7", 1));
+        parser.reset();
+        assertEquals(List.of("STRING:", "END"), parse(parser, "\"\"", 1));
+        parser.reset();
+        assertEquals(List.of("NULL", "END"), parse(parser, "null", 2));
+    }
+
+    @Test
+    public void testParseLongRangeExtremes()
+    {
+        Map<String, Number> numbers = new LinkedHashMap<>();
+        numbers.put(String.valueOf(Long.MAX_VALUE), Long.MAX_VALUE);
+        numbers.put(String.valueOf(Long.MIN_VALUE), Long.MIN_VALUE);
+        numbers.put("9223372036854775808", 9223372036854775808D);
+        numbers.put("-9223372036854775809", -9223372036854775809D);
+        numbers.put("-0", 0L);
+
+        JSONPullParser parser = new AsyncJSON.Factory().newJSONPullParser();
+        for (Map.Entry<String, Number> entry : numbers.entrySet())
+        {
+            String json = entry.getKey();
+            for (int chunkSize = 1; chunkSize <= json.length(); ++chunkSize)
+            {
+                byte[] bytes = json.getBytes(UTF_8);
+                for (int i = 0; i < bytes.length; i += chunkSize)
+                {
+                    parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)).slice());
+                    assertEquals(JSONPullParser.Event.NEED_INPUT, parser.next());
+                }
+                parser.complete();
+                assertEquals(JSONPullParser.Event.NUMBER, parser.next(), json);
+                assertEquals(entry.getValue(), parser.getNumber(), json);
+                // Every number in the long range is parsed exactly as JSON does.
+                if (entry.getValue() instanceof Long)
+                    assertEquals(new JSON().fromJSON(json), parser.getNumber(), json);
+                parser.reset();
+            }
+        }
+    }
+
+    @Test
+    public void testParseCachedStrings()
+    {
+        AsyncJSON.Factory factory = new AsyncJSON.Factory();
+        String channel = "/meta/connect";
+        factory.cache(channel);
+        JSONPullParser parser = factory.newJSONPullParser();
+
+        parser.feed(ByteBuffer.wrap(("{\"channel\":\"" + channel + "\"}").getBytes(UTF_8)));
+        assertEquals(JSONPullParser.Event.START_OBJECT, parser.next());
+        assertEquals(JSONPullParser.Event.FIELD_NAME, parser.next());
+        assertEquals(JSONPullParser.Event.STRING, parser.next());
+        assertSame(channel, parser.getString());
+        assertEquals(1, parser.getDepth());
+        assertEquals(JSONPullParser.Event.END_OBJECT, parser.next());
+        assertEquals(0, parser.getDepth());
+    }
+
+    @Test
+    public void testParseInvalidJSON()
+    {
+        for (String json : List.of("|", "}", "]", "{]", "[}", "+", ".", "{} []", "[1,]", "{\"a\"}", "{\"a\":1,}", "tru", "\"abc", "[1 2]", "-", "1.2.3", "\"\\x\""))
+        {
+            JSONPullParser parser = new AsyncJSON.Factory().newJSONPullParser();
+            assertThrows(IllegalArgumentException.class, () -> parse(parser, json, 1), json);
+            // The parser is reusable after a failure.
+            assertEquals(List.of("START_ARRAY", "END_ARRAY", "END"), parse(parser, "[]", 1));
+        }
+    }
+}
@@ -48,6 +48,7 @@ import org.slf4j.LoggerFactory;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 /**
  * Watch a Path (and sub directories) for Path changes.
@@ -1125,6 +1126,15 @@ public class PathWatcher extends AbstractLifeCycle implements Runnable
 
         for (WatchEvent<?> event : key.pollEvents())
         {
+            if (event.kind() == OVERFLOW)
+            {
+                // Events have been lost, so report the watched directory as changed in an unknown way.
+                if (LOG.isDebugEnabled())
+                    LOG.debug("handleKey? OVERFLOW {}", config);
+                handleWatchEvent(config.getPath(), new PathWatchEvent(config.getPath(), PathWatchEventType.UNKNOWN, config));
+                continue;
+            }
+
             WatchEvent<Path> ev = cast(event);
             Path name = ev.context();
             Path path = config.resolve(name);
@@ -22,7 +22,9 @@ import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -47,6 +49,15 @@ import org.slf4j.LoggerFactory;
  *
  * Utility for scanning a directory for added, removed and changed
  * files and reporting these events via registered Listeners.
+ * <p>
+ * By default the directories are walked on every scan. If
+ * {@link #setUseWatchService(boolean)} is true, scan cycles are instead
+ * driven by the events of a {@link PathWatcher}: after the initial scan,
+ * only the paths reported by the watcher (plus the paths not yet reported
+ * as stable) are examined, so an idle scanner does no I/O at all.
+ * Events are debounced by the {@link #setWatchQuietTime(long) quiet time},
+ * an overflow of the watch service falls back to a full scan, and the
+ * listeners are notified exactly as for a periodic scan.
  */
 public class Scanner extends AbstractLifeCycle
 {
@@ -71,6 +82,11 @@ public class Scanner extends AbstractLifeCycle
     private Scheduler.Task _task;
     private Scheduler _scheduler;
     private int _scanDepth = DEFAULT_SCAN_DEPTH;
+    private boolean _useWatchService;
+    private long _watchQuietTime = 1000;
+    private PathWatcher _watcher;
+    private final Set<Path> _watchChanges = new HashSet<>();
+    private boolean _watchRescan;
 
     private enum Status
     {
@@ -432,6 +448,49 @@ public class Scanner extends AbstractLifeCycle
         _scanDepth = scanDepth;
     }
 
+    /**
+     * @return whether scan cycles are driven by {@link PathWatcher} events rather than periodic
+     */
+    public boolean isUseWatchService()
+    {
+        return _useWatchService;
+    }
+
+    /**
+     * Set whether the scan cycles are driven by the events of a {@link PathWatcher}
+     * rather than by walking all the scanned directories every scan interval.
+     * In this mode, the scan interval is the delay before a changed file that has
+     * not yet been reported is examined again, and as for periodic scans, a scan
+     * interval of 0 disables the scans after the initial scan, so no watcher is started.
+     *
+     * @param useWatchService true to drive the scan cycles by file system events
+     */
+    public void setUseWatchService(boolean useWatchService)
+    {
+        if (isRunning())
+            throw new IllegalStateException("Scanner started");
+        _useWatchService = useWatchService;
+    }
+
+    /**
+     * @return the time in milliseconds a path must be quiet before its watch events trigger a scan cycle
+     */
+    public long getWatchQuietTime()
+    {
+        return _watchQuietTime;
+    }
+
+    /**
+     * @param quietTime the time in milliseconds a path must be quiet before its watch events trigger a scan cycle
+     * @see PathWatcher#setUpdateQuietTime(long, TimeUnit)
+     */
+    public void setWatchQuietTime(long quietTime)
+    {
+        if (isRunning())
+            throw new IllegalStateException("Scanner started");
+        _watchQuietTime = quietTime;
+    }
+
     /**
      * Whether or not an initial scan will report all files as being
      * added.
@@ -519,8 +578,19 @@ public class Scanner extends AbstractLifeCycle
         _scheduler = new ScheduledExecutorScheduler("Scanner-" + SCANNER_IDS.getAndIncrement(), true, 1);
         _scheduler.start();
 
-        //schedule the scan
-        schedule();
+        if (_useWatchService && getScanInterval() > 0)
+        {
+            _watcher = newPathWatcher();
+            _watcher.start();
+            // Changes between the initial scan and the watcher
+            // registration are not evented, so scan them fully.
+            onPathWatchEvents(Collections.singletonList(null));
+        }
+        else
+        {
+            //schedule the scan
+            schedule();
+        }
     }
 
     private void schedule()
@@ -529,12 +599,172 @@ public class Scanner extends AbstractLifeCycle
             _task = _scheduler.schedule(new ScanTask(), 1010L * getScanInterval(), TimeUnit.MILLISECONDS);
     }
 
+    private PathWatcher newPathWatcher()
+    {
+        PathWatcher watcher = new PathWatcher();
+        watcher.setNotifyExistingOnStart(false);
+        watcher.setUpdateQuietTime(_watchQuietTime, TimeUnit.MILLISECONDS);
+        for (Path path : _scannables.keySet())
+        {
+            if (Files.isDirectory(path))
+            {
+                // The filtering is done by the scan of the changed paths, so watch all the paths to the scan depth.
+                PathWatcher.Config config = new PathWatcher.Config(path);
+                config.setRecurseDepth(_scanDepth == MAX_SCAN_DEPTH ? PathWatcher.Config.UNLIMITED_DEPTH : _scanDepth - 1);
+                watcher.watch(config);
+            }
+            else
+            {
+                watcher.watch(path);
+            }
+        }
+        watcher.addListener((PathWatcher.EventListListener)this::onPathWatchEvents);
+        return watcher;
+    }
+
+    /**
+     * Called by the {@link PathWatcher} thread with debounced events.
+     * A null or {@link PathWatcher.PathWatchEventType#UNKNOWN} event
+     * (e.g. an overflow of the watch service) requires a full scan.
+     */
+    private void onPathWatchEvents(List<PathWatcher.PathWatchEvent> events)
+    {
+        synchronized (_watchChanges)
+        {
+            for (PathWatcher.PathWatchEvent event : events)
+            {
+                if (event == null || event.getType() == PathWatcher.PathWatchEventType.UNKNOWN)
+                    _watchRescan = true;
+                else
+                    _watchChanges.add(event.getPath());
+            }
+        }
+
+        Scheduler scheduler = _scheduler;
+        if (isRunning() && scheduler != null)
+            scheduler.schedule(this::scanWatchChanges, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Perform a scan cycle of the paths reported by the {@link PathWatcher}
+     * and of the paths not yet reported as stable, then schedule another
+     * cycle if some paths are still not stable.
+     */
+    private void scanWatchChanges()
+    {
+        List<Path> changes;
+        boolean rescan;
+        synchronized (_watchChanges)
+        {
+            changes = new ArrayList<>(_watchChanges);
+            _watchChanges.clear();
+            rescan = _watchRescan;
+            _watchRescan = false;
+        }
+
+        if (rescan || _prevScan == null)
+        {
+            scan();
+        }
+        else
+        {
+            // Only cycle if there is something to examine.
+            List<String> unstable = unstableFiles();
+            if (changes.isEmpty() && unstable.isEmpty())
+                return;
+
+            int cycle = _scanCount.incrementAndGet();
+            reportScanStart(cycle);
+            Map<String, MetaData> currentScan = new HashMap<>(_prevScan);
+            for (String file : unstable)
+            {
+                scanPath(Paths.get(file), currentScan, false);
+            }
+            for (Path path : changes)
+            {
+                scanPath(path, currentScan, true);
+                // The last modified time of the parent directory changes too.
+                if (!_scannables.containsKey(path))
+                    scanPath(path.getParent(), currentScan, false);
+            }
+            reportDifferences(currentScan, Collections.unmodifiableMap(_prevScan));
+            _prevScan = currentScan;
+            reportScanEnd(cycle);
+        }
+
+        if (isRunning() && !unstableFiles().isEmpty())
+        {
+            // Check again the files until they are stable, as a periodic scan would.
+            Scheduler.Task task = _task;
+            if (task != null)
+                task.cancel();
+            _task = _scheduler.schedule(this::scanWatchChanges, 1010L * getScanInterval(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private List<String> unstableFiles()
+    {
+        List<String> unstable = new ArrayList<>();
+        for (Map.Entry<String, MetaData> entry : _prevScan.entrySet())
+        {
+            Status status = entry.getValue()._status;
+            if (status == Status.ADDED || status == Status.CHANGED)
+                unstable.add(entry.getKey());
+        }
+        return unstable;
+    }
+
+    /**
+     * Scan a single path of one of the scannables, replacing its
+     * previous scan information.
+     *
+     * @param path the path to scan
+     * @param scanInfoMap the scan information to update
+     * @param subtree whether the descendants of a directory must be scanned too
+     */
+    private void scanPath(Path path, Map<String, MetaData> scanInfoMap, boolean subtree)
+    {
+        for (Map.Entry<Path, IncludeExcludeSet<PathMatcher, Path>> entry : _scannables.entrySet())
+        {
+            Path root = entry.getKey();
+            if (!path.startsWith(root))
+                continue;
+            int depth = path.getNameCount() - root.getNameCount();
+            if (depth > _scanDepth)
+                continue;
+
+            try
+            {
+                String key = path.toFile().getCanonicalPath();
+                scanInfoMap.remove(key);
+                if (subtree && !Files.isRegularFile(path))
+                {
+                    String prefix = key.endsWith(File.separator) ? key : key + File.separator;
+                    scanInfoMap.keySet().removeIf(k -> k.startsWith(prefix));
+                }
+                if (Files.exists(path))
+                {
+                    Files.walkFileTree(path, EnumSet.allOf(FileVisitOption.class), subtree ? _scanDepth - depth : 0,
+                                       new Visitor(root, entry.getValue(), scanInfoMap));
+                }
+            }
+            catch (IOException e)
+            {
+                LOG.warn("Error scanning {}", path, e);
+            }
+        }
+    }
+
     /**
      * Stop the scanning.
      */
     @Override
     public void doStop() throws Exception
     {
+        PathWatcher watcher = _watcher;
+        _watcher = null;
+        if (watcher != null)
+            watcher.stop();
         Scheduler.Task task = _task;
         _task = null;
         if (task != null)
@@ -0,0 +1,273 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>A lazily decoded view of "x-www-form-urlencoded" content.</p>
+ * <p>The content is scanned once on construction to find the boundaries of
+ * each parameter name and value, but no name or value is decoded until it
+ * is asked for. Decoded strings are cached, so applications that only look
+ * at a few parameters of a large form do not pay to decode all of them.</p>
+ * <p>The parsing rules are the same as {@link UrlEncoded#decodeTo(String, MultiMap, Charset)}:
+ * empty parameters are ignored, a parameter without {@code '='} has an
+ * empty value, and parameters keep the order in which they were received.</p>
+ */
+public class UrlEncodedView
+{
+    private final byte[] _bytes;
+    private final String _string;
+    private final Charset _charset;
+    // For every parameter: name start, name end, value start, value end.
+    private final int[] _bounds;
+    private final int _size;
+    private final String[] _names;
+    private final String[] _values;
+
+    /**
+     * @param query the encoded content
+     * @param charset the charset to decode with, or null for {@link UrlEncoded#ENCODING}
+     * @param maxKeys the maximum number of parameters, or -1 for no limit
+     * @throws IllegalStateException if there are more than {@code maxKeys} parameters
+     */
+    public UrlEncodedView(String query, Charset charset, int maxKeys)
+    {
+        this(null, query, 0, query == null ? 0 : query.length(), charset, maxKeys);
+    }
+
+    /**
+     * @param bytes the encoded content; the array is not copied and must not be modified
+     * @param offset the offset of the content in the array
+     * @param length the length of the content
+     * @param charset the charset to decode with, or null for {@link UrlEncoded#ENCODING}
+     * @param maxKeys the maximum number of parameters, or -1 for no limit
+     * @throws IllegalStateException if there are more than {@code maxKeys} parameters
+     */
+    public UrlEncodedView(byte[] bytes, int offset, int length, Charset charset, int maxKeys)
+    {
+        this(bytes, null, offset, length, charset, maxKeys);
+    }
+
+    private UrlEncodedView(byte[] bytes, String string, int offset, int length, Charset charset, int maxKeys)
+    {
+        _bytes = bytes;
+        _string = string;
+        _charset = charset == null ? UrlEncoded.ENCODING : charset;
+
+        int[] bounds = new int[32];
+        int size = 0;
+        int end = offset + length;
+        int start = offset;
+        int equals = -1;
+        for (int i = offset; i <= end; i++)
+        {
+            int c = i == end ? '&' : charAt(i);
+            if (c == '=' && equals < 0)
+            {
+                equals = i;
+            }
+            else if (c == '&')
+            {
+                if (i > start)
+                {
+                    if (maxKeys >= 0 && size >= maxKeys)
+                        throw new IllegalStateException(String.format("Form with too many keys [%d > %d]", size + 1, maxKeys));
+                    if (bounds.length < (size + 1) * 4)
+                        bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                    int b = size * 4;
+                    bounds[b] = start;
+                    bounds[b + 1] = equals < 0 ? i : equals;
+                    bounds[b + 2] = equals < 0 ? i : equals + 1;
+                    bounds[b + 3] = i;
+                    size++;
+                }
+                start = i + 1;
+                equals = -1;
+            }
+        }
+        _bounds = bounds;
+        _size = size;
+        _names = new String[size];
+        _values = new String[size];
+    }
+
+    private int charAt(int i)
+    {
+        return _bytes == null ? _string.charAt(i) : _bytes[i];
+    }
+
+    /**
+     * @return the number of parameters, counting repeated names once per occurrence
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * @param index the parameter index
+     * @return the decoded name of the parameter at the given index
+     */
+    public String getName(int index)
+    {
+        String name = _names[index];
+        if (name == null)
+            _names[index] = name = decode(_bounds[index * 4], _bounds[index * 4 + 1]);
+        return name;
+    }
+
+    /**
+     * @param index the parameter index
+     * @return the decoded value of the parameter at the given index, possibly empty
+     */
+    public String getValue(int index)
+    {
+        String value = _values[index];
+        if (value == null)
+            _values[index] = value = decode(_bounds[index * 4 + 2], _bounds[index * 4 + 3]);
+        return value;
+    }
+
+    /**
+     * @param name the parameter name
+     * @return the first value of the named parameter, or null if there is no such parameter
+     */
+    public String getValue(String name)
+    {
+        for (int i = 0; i < _size; i++)
+        {
+            if (name.equals(getName(i)))
+                return getValue(i);
+        }
+        return null;
+    }
+
+    /**
+     * @param name the parameter name
+     * @return all the values of the named parameter in order, possibly empty
+     */
+    public List<String> getValues(String name)
+    {
+        List<String> values = null;
+        for (int i = 0; i < _size; i++)
+        {
+            if (name.equals(getName(i)))
+            {
+                if (values == null)
+                    values = new ArrayList<>(2);
+                values.add(getValue(i));
+            }
+        }
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * @return the distinct decoded parameter names in order
+     */
+    public Set<String> getNames()
+    {
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < _size; i++)
+        {
+            names.add(getName(i));
+        }
+        return names;
+    }
+
+    /**
+     * Decode all the parameters into the given map.
+     *
+     * @param map the map to add the parameters to
+     */
+    public void decodeTo(MultiMap<String> map)
+    {
+        for (int i = 0; i < _size; i++)
+        {
+            map.add(getName(i), getValue(i));
+        }
+    }
+
+    /**
+     * @return a new map containing all the decoded parameters
+     */
+    public MultiMap<String> toMultiMap()
+    {
+        MultiMap<String> map = new MultiMap<>();
+        decodeTo(map);
+        return map;
+    }
+
+    private String decode(int start, int end)
+    {
+        if (start == end)
+            return "";
+
+        boolean encoded = false;
+        for (int i = start; i < end; i++)
+        {
+            int c = charAt(i);
+            if (c == '%' || c == '+')
+            {
+                encoded = true;
+                break;
+            }
+        }
+
+        if (_bytes == null)
+        {
+            if (encoded)
+                return UrlEncoded.decodeString(_string, start, end - start, _charset);
+            return _string.substring(start, end);
+        }
+
+        if (!encoded)
+            return new String(_bytes, start, end - start, _charset);
+
+        byte[] decoded = new byte[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++)
+        {
+            byte b = _bytes[i];
+            if (b == '+')
+            {
+                decoded[length++] = (byte)' ';
+            }
+            else if (b == '%')
+            {
+                if (i + 2 >= end)
+                    throw new IllegalArgumentException("Incomplete % encoding");
+                decoded[length++] = (byte)((TypeUtil.convertHexDigit(_bytes[i + 1]) << 4) + TypeUtil.convertHexDigit(_bytes[i + 2]));
+                i += 2;
+            }
+            else
+            {
+                decoded[length++] = b;
+            }
+        }
+        return new String(decoded, 0, length, _charset);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{size=%d,charset=%s}", getClass().getSimpleName(), hashCode(), _size, _charset);
+    }
+}
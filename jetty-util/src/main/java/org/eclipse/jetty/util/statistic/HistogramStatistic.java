@@ -0,0 +1,282 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.statistic;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Statistics on the distribution of a sampled value.</p>
+ * <p>Samples are counted in logarithmic buckets: each power of two range is split
+ * into {@value #SUB_BUCKETS} linear sub-buckets, so that the relative error of the
+ * reported percentiles is at most 25%, while the number of buckets is fixed and small.</p>
+ * <p>Recording a sample is lock-free and does not allocate, so it is cheap enough
+ * to be called for every connection or request.
+ * Reading the statistics is performed via {@link #snapshot()}, which returns an immutable
+ * {@link Snapshot} that can be inspected or exported without further contention
+ * with the recording threads.</p>
+ * <p>Negative samples are recorded as zero.</p>
+ */
+public class HistogramStatistic
+{
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray _buckets = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator _max = new LongAccumulator(Math::max, 0L);
+    private final LongAdder _total = new LongAdder();
+    private final LongAdder _count = new LongAdder();
+
+    /**
+     * Resets the statistics.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            _buckets.set(i, 0);
+        }
+        _max.reset();
+        _total.reset();
+        _count.reset();
+    }
+
+    /**
+     * Records a sample value.
+     *
+     * @param sample the value to record
+     */
+    public void record(long sample)
+    {
+        if (sample < 0)
+            sample = 0;
+        _buckets.incrementAndGet(bucketIndex(sample));
+        _max.accumulate(sample);
+        _total.add(sample);
+        _count.increment();
+    }
+
+    /**
+     * @return the number of samples recorded
+     */
+    public long getCount()
+    {
+        return _count.sum();
+    }
+
+    /**
+     * @return the max value of the recorded samples
+     */
+    public long getMax()
+    {
+        return _max.get();
+    }
+
+    /**
+     * @return the sum of all the recorded samples
+     */
+    public long getTotal()
+    {
+        return _total.sum();
+    }
+
+    /**
+     * @return the average value of the samples recorded, or zero if there are no samples
+     */
+    public double getMean()
+    {
+        long count = getCount();
+        return count > 0 ? (double)getTotal() / count : 0.0D;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return an estimate of the value at the given percentile
+     * @see Snapshot#getPercentile(double)
+     */
+    public long getPercentile(double percentile)
+    {
+        return snapshot().getPercentile(percentile);
+    }
+
+    /**
+     * @return an immutable copy of the current statistics
+     */
+    public Snapshot snapshot()
+    {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            long c = _buckets.get(i);
+            counts[i] = c;
+            count += c;
+        }
+        // Use the bucket counts for the count, so that the snapshot is self consistent.
+        return new Snapshot(counts, count, getTotal(), getMax());
+    }
+
+    static int bucketIndex(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int)value;
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long bucketLowerBound(int index)
+    {
+        if (index < SUB_BUCKETS)
+            return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        return (long)(SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long bucketUpperBound(int index)
+    {
+        if (index < SUB_BUCKETS)
+            return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return bucketLowerBound(index) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    @Override
+    public String toString()
+    {
+        return snapshot().toString();
+    }
+
+    /**
+     * <p>An immutable copy of the statistics of a {@link HistogramStatistic}.</p>
+     */
+    public static class Snapshot
+    {
+        private final long[] _counts;
+        private final long _count;
+        private final long _total;
+        private final long _max;
+
+        private Snapshot(long[] counts, long count, long total, long max)
+        {
+            _counts = counts;
+            _count = count;
+            _total = total;
+            _max = max;
+        }
+
+        /**
+         * @return the number of samples recorded
+         */
+        public long getCount()
+        {
+            return _count;
+        }
+
+        /**
+         * @return the sum of all the recorded samples
+         */
+        public long getTotal()
+        {
+            return _total;
+        }
+
+        /**
+         * @return the max value of the recorded samples
+         */
+        public long getMax()
+        {
+            return _max;
+        }
+
+        /**
+         * @return the average value of the samples recorded, or zero if there are no samples
+         */
+        public double getMean()
+        {
+            return _count > 0 ? (double)_total / _count : 0.0D;
+        }
+
+        /**
+         * <p>Returns an estimate of the value at the given percentile, that is the
+         * upper bound of the bucket containing the sample at the given percentile,
+         * capped to the max value recorded.</p>
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return an estimate of the value at the given percentile, or zero if there are no samples
+         */
+        public long getPercentile(double percentile)
+        {
+            if (percentile < 0 || percentile > 100)
+                throw new IllegalArgumentException("Invalid percentile " + percentile);
+            if (_count == 0)
+                return 0;
+            long rank = Math.max(1, (long)Math.ceil(_count * percentile / 100.0D));
+            long seen = 0;
+            for (int i = 0; i < _counts.length; i++)
+            {
+                seen += _counts[i];
+                if (seen >= rank)
+                    return Math.min(_max, bucketUpperBound(i));
+            }
+            return _max;
+        }
+
+        /**
+         * <p>Iterates over the non empty buckets, in increasing order of values.</p>
+         *
+         * @param consumer the consumer of the bucket ranges and counts
+         */
+        public void forEachBucket(BucketConsumer consumer)
+        {
+            for (int i = 0; i < _counts.length; i++)
+            {
+                long count = _counts[i];
+                if (count > 0)
+                    consumer.accept(bucketLowerBound(i), bucketUpperBound(i), count);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{count=%d,max=%d,mean=%f,p50=%d,p90=%d,p99=%d}",
+                HistogramStatistic.class.getSimpleName(),
+                hashCode(),
+                getCount(),
+                getMax(),
+                getMean(),
+                getPercentile(50),
+                getPercentile(90),
+                getPercentile(99));
+        }
+    }
+
+    /**
+     * <p>A consumer of histogram buckets.</p>
+     */
+    @FunctionalInterface
+    public interface BucketConsumer
+    {
+        /**
+         * @param lowerBound the inclusive lower bound of the bucket values
+         * @param upperBound the inclusive upper bound of the bucket values
+         * @param count the number of samples in the bucket
+         */
+        void accept(long lowerBound, long upperBound, long count);
+    }
+}
@@ -461,6 +461,118 @@ public class ScannerTest
         }
     }
 
+    @Test
+    public void testWatchService() throws Exception
+    {
+        File root = new File(_directory, "watched");
+        FS.ensureEmpty(root);
+        File dir = new File(root, "dir");
+        FS.ensureDirExists(dir);
+
+        BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+        Scanner scanner = new Scanner();
+        scanner.setUseWatchService(true);
+        scanner.setWatchQuietTime(100);
+        scanner.setScanInterval(1);
+        scanner.setScanDepth(2);
+        scanner.setReportDirs(false);
+        scanner.setReportExistingFilesOnStartup(false);
+        scanner.addDirectory(root.toPath());
+        scanner.addListener(new Scanner.DiscreteListener()
+        {
+            @Override
+            public void fileRemoved(String filename)
+            {
+                queue.add(new Event(filename, Notification.REMOVED));
+            }
+
+            @Override
+            public void fileChanged(String filename)
+            {
+                queue.add(new Event(filename, Notification.CHANGED));
+            }
+
+            @Override
+            public void fileAdded(String filename)
+            {
+                queue.add(new Event(filename, Notification.ADDED));
+            }
+        });
+        scanner.start();
+        try
+        {
+            File file = new File(root, "foo.txt");
+            FS.touch(file);
+            assertEquals(new Event(file.getCanonicalPath(), Notification.ADDED), queue.poll(10, TimeUnit.SECONDS));
+
+            File nested = new File(dir, "bar.txt");
+            FS.touch(nested);
+            assertEquals(new Event(nested.getCanonicalPath(), Notification.ADDED), queue.poll(10, TimeUnit.SECONDS));
+
+            try (OutputStream out = new FileOutputStream(file, true))
+            {
+                out.write('x');
+            }
+            assertEquals(new Event(file.getCanonicalPath(), Notification.CHANGED), queue.poll(10, TimeUnit.SECONDS));
+
+            IO.delete(nested);
+            assertEquals(new Event(nested.getCanonicalPath(), Notification.REMOVED), queue.poll(10, TimeUnit.SECONDS));
+
+            // Nothing else is reported.
+            assertNull(queue.poll(500, TimeUnit.MILLISECONDS));
+        }
+        finally
+        {
+            scanner.stop();
+        }
+    }
+
+    @Test
+    public void testWatchServiceWithoutScanInterval() throws Exception
+    {
+        File root = new File(_directory, "unwatched");
+        FS.ensureEmpty(root);
+
+        BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+        Scanner scanner = new Scanner();
+        scanner.setUseWatchService(true);
+        scanner.setWatchQuietTime(100);
+        scanner.setScanInterval(0);
+        scanner.setReportExistingFilesOnStartup(false);
+        scanner.addDirectory(root.toPath());
+        scanner.addListener(new Scanner.DiscreteListener()
+        {
+            @Override
+            public void fileRemoved(String filename)
+            {
+                queue.add(new Event(filename, Notification.REMOVED));
+            }
+
+            @Override
+            public void fileChanged(String filename)
+            {
+                queue.add(new Event(filename, Notification.CHANGED));
+            }
+
+            @Override
+            public void fileAdded(String filename)
+            {
+                queue.add(new Event(filename, Notification.ADDED));
+            }
+        });
+        scanner.start();
+        try
+        {
+            // Only the initial scan is performed, as for periodic scans.
+            FS.touch(new File(root, "foo.txt"));
+            assertNull(queue.poll(1, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            scanner.stop();
+        }
+    }
+
     private void delete(String string)
     {
         File file = new File(_directory, string);
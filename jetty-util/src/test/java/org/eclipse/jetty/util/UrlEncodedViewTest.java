@@ -0,0 +1,97 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UrlEncodedViewTest
+{
+    private static UrlEncodedView bytesView(String content, int maxKeys)
+    {
+        byte[] bytes = ("XX" + content + "YY").getBytes(StandardCharsets.ISO_8859_1);
+        return new UrlEncodedView(bytes, 2, bytes.length - 4, UTF_8, maxKeys);
+    }
+
+    @Test
+    public void testSameAsDecodeTo()
+    {
+        String[] forms = {
+            "",
+            "Name1=Value1",
+            "Name1=&Name2",
+            "&&Name1=Value1&&",
+            "=Value1&Name2=",
+            "Name1=Value+Num+1&Name2=Value%20Num%202",
+            "Name1=a=b&Name1=c&Name%2b1=%2B",
+            "Name1=%E2%82%AC&%E2%82%AC=x"
+        };
+        for (String form : forms)
+        {
+            MultiMap<String> expected = new MultiMap<>();
+            UrlEncoded.decodeTo(form, expected, UTF_8);
+
+            assertThat(form, new UrlEncodedView(form, UTF_8, -1).toMultiMap(), is(expected));
+            assertThat(form, bytesView(form, -1).toMultiMap(), is(expected));
+        }
+    }
+
+    @Test
+    public void testLazyAccess()
+    {
+        UrlEncodedView view = bytesView("a=1&b=2+2&a=3&c", -1);
+        assertThat(view.size(), is(4));
+        assertThat(view.getName(1), is("b"));
+        assertThat(view.getValue(1), is("2 2"));
+        assertThat(view.getValue("a"), is("1"));
+        assertThat(view.getValues("a"), contains("1", "3"));
+        assertThat(view.getValue("c"), is(""));
+        assertThat(view.getValue("d"), nullValue());
+        assertThat(view.getValues("d"), empty());
+        assertThat(view.getNames(), contains("a", "b", "c"));
+    }
+
+    @Test
+    public void testMaxKeys()
+    {
+        assertThat(bytesView("a=1&b=2", 2).size(), is(2));
+        assertThrows(IllegalStateException.class, () -> bytesView("a=1&b=2&c=3", 2));
+        assertThrows(IllegalStateException.class, () -> new UrlEncodedView("a=1&b=2&c=3", UTF_8, 2));
+    }
+
+    @Test
+    public void testBadEncoding()
+    {
+        UrlEncodedView view = bytesView("a=%2&b=2", -1);
+        assertThat(view.getValue("b"), is("2"));
+        assertThrows(IllegalArgumentException.class, () -> view.getValue(0));
+    }
+
+    @Test
+    public void testCharset()
+    {
+        String form = "name=%E4%F6%FC";
+        UrlEncodedView view = new UrlEncodedView(form.getBytes(StandardCharsets.ISO_8859_1), 0, form.length(), StandardCharsets.ISO_8859_1, -1);
+        assertThat(view.getValue("name"), is("äöü"));
+    }
+}
@@ -0,0 +1,112 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.statistic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HistogramStatisticTest
+{
+    @Test
+    public void testBuckets()
+    {
+        for (long value : new long[]{0, 1, 3, 4, 5, 7, 8, 9, 15, 16, 1000, 1023, 1024, 123456789L, Long.MAX_VALUE})
+        {
+            int index = HistogramStatistic.bucketIndex(value);
+            assertThat(HistogramStatistic.bucketLowerBound(index), lessThanOrEqualTo(value));
+            assertThat(HistogramStatistic.bucketUpperBound(index), greaterThanOrEqualTo(value));
+        }
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        HistogramStatistic histogram = new HistogramStatistic();
+        HistogramStatistic.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getPercentile(50));
+        assertEquals(0.0D, snapshot.getMean());
+    }
+
+    @Test
+    public void testPercentiles()
+    {
+        HistogramStatistic histogram = new HistogramStatistic();
+        for (int i = 1; i <= 1000; i++)
+        {
+            histogram.record(i);
+        }
+
+        HistogramStatistic.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500500, snapshot.getTotal());
+        assertEquals(500.5D, snapshot.getMean());
+        assertEquals(1, snapshot.getPercentile(0));
+        assertEquals(1000, snapshot.getPercentile(100));
+
+        // The relative error of the percentiles is bound by the bucket width.
+        assertNearEnough(500, snapshot.getPercentile(50));
+        assertNearEnough(900, snapshot.getPercentile(90));
+        assertNearEnough(990, snapshot.getPercentile(99));
+
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentile(101));
+    }
+
+    @Test
+    public void testNegativeAndReset()
+    {
+        HistogramStatistic histogram = new HistogramStatistic();
+        histogram.record(-10);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.snapshot().getCount());
+    }
+
+    @Test
+    public void testForEachBucket()
+    {
+        HistogramStatistic histogram = new HistogramStatistic();
+        histogram.record(1);
+        histogram.record(1);
+        histogram.record(100);
+
+        List<long[]> buckets = new ArrayList<>();
+        histogram.snapshot().forEachBucket((lower, upper, count) -> buckets.add(new long[]{lower, upper, count}));
+        assertEquals(2, buckets.size());
+        assertEquals(1, buckets.get(0)[0]);
+        assertEquals(2, buckets.get(0)[2]);
+        assertThat(buckets.get(1)[0], lessThanOrEqualTo(100L));
+        assertThat(buckets.get(1)[1], greaterThanOrEqualTo(100L));
+        assertEquals(1, buckets.get(1)[2]);
+    }
+
+    private void assertNearEnough(long expected, long actual)
+    {
+        assertThat(actual, greaterThanOrEqualTo(expected));
+        assertThat(actual, lessThanOrEqualTo(expected + expected / 4));
+    }
+}
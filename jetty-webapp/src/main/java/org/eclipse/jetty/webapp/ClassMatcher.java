@@ -24,9 +24,11 @@ import java.nio.file.Paths;
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,6 +41,7 @@ import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.TypeUtil;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.jetty.util.resource.Resource;
+import org.eclipse.jetty.util.thread.AutoLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +64,11 @@ import org.slf4j.LoggerFactory;
  * </ul>
  * When class is initialized from a classpath pattern string, entries
  * in this string should be separated by ':' (semicolon) or ',' (comma).
+ * <p>
+ * For matching, the entries are compiled into a trie of package segments
+ * and lookup tables of locations and modules, and the decisions for the most
+ * recently used locations are memoised. The compiled form is discarded when
+ * entries are added or removed.
  */
 
 public class ClassMatcher extends AbstractSet<String>
@@ -493,6 +501,7 @@ public class ClassMatcher extends AbstractSet<String>
     Map<String, Entry> _entries = new HashMap<>();
     IncludeExcludeSet<Entry, String> _patterns = new IncludeExcludeSet<>(ByPackageOrName.class);
     IncludeExcludeSet<Entry, URI> _locations = new IncludeExcludeSet<>(ByLocationOrModule.class);
+    private volatile Compiled _compiled;
 
     public ClassMatcher()
     {
@@ -575,6 +584,7 @@ public class ClassMatcher extends AbstractSet<String>
         if (_entries.containsKey(entry.getPattern()))
             return false;
         _entries.put(entry.getPattern(), entry);
+        _compiled = null;
 
         if (entry instanceof LocationEntry || entry instanceof ModuleEntry)
         {
@@ -639,6 +649,7 @@ public class ClassMatcher extends AbstractSet<String>
         _entries.clear();
         _patterns.clear();
         _locations.clear();
+        _compiled = null;
     }
 
     @Override
@@ -661,6 +672,7 @@ public class ClassMatcher extends AbstractSet<String>
     private void setAll(String[] classes)
     {
         _entries.clear();
+        _compiled = null;
         addAll(classes);
     }
 
@@ -705,7 +717,11 @@ public class ClassMatcher extends AbstractSet<String>
      */
     public boolean match(String name)
     {
-        return _patterns.test(name);
+        Compiled compiled = compile();
+        Decision byName = compiled.byName(name);
+        if (byName == Decision.EXCLUDED)
+            return false;
+        return !compiled._hasNameIncludes || byName == Decision.INCLUDED;
     }
 
     /**
@@ -718,7 +734,7 @@ public class ClassMatcher extends AbstractSet<String>
     {
         try
         {
-            return combine(_patterns, clazz.getName(), _locations, () -> TypeUtil.getLocationOfClass(clazz));
+            return compile().combine(clazz.getName(), () -> TypeUtil.getLocationOfClass(clazz));
         }
         catch (Exception ignored)
         {
@@ -735,7 +751,7 @@ public class ClassMatcher extends AbstractSet<String>
         // Treat path elements as packages for name matching
         name = StringUtil.replace(name, '/', '.');
 
-        return combine(_patterns, name, _locations, () ->
+        return compile().combine(name, () ->
         {
             try
             {
@@ -787,4 +803,250 @@ public class ClassMatcher extends AbstractSet<String>
         // Otherwise there are no includes and it was not excluded, so match
         return true;
     }
+
+    private Compiled compile()
+    {
+        Compiled compiled = _compiled;
+        if (compiled == null)
+        {
+            compiled = new Compiled(_entries.values());
+            _compiled = compiled;
+        }
+        return compiled;
+    }
+
+    private enum Decision
+    {
+        INCLUDED, EXCLUDED, NONE;
+
+        private static Decision of(boolean included, boolean excluded)
+        {
+            return excluded ? EXCLUDED : included ? INCLUDED : NONE;
+        }
+    }
+
+    /**
+     * A node of the package segment trie, for a name prefix ending with '.' or '$'.
+     */
+    private static class Node
+    {
+        private final Map<String, Node> _children = new HashMap<>();
+        private boolean _include;
+        private boolean _exclude;
+    }
+
+    /**
+     * An immutable compiled form of the entries, with memoised location decisions.
+     */
+    private static class Compiled
+    {
+        private static final int MAX_MEMOISED = 1024;
+
+        private final Node _root = new Node();
+        private final Map<String, Node> _classes = new HashMap<>();
+        private final Map<Path, Node> _files = new HashMap<>();
+        private final Map<Path, Node> _directories = new HashMap<>();
+        private final Map<String, Node> _modules = new HashMap<>();
+        private final AutoLock _lock = new AutoLock();
+        private final Map<URI, Decision> _byLocation = new LinkedHashMap<>(16, 0.75F, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, Decision> eldest)
+            {
+                return size() > MAX_MEMOISED;
+            }
+        };
+        private boolean _hasNameIncludes;
+        private boolean _hasNameExcludes;
+        private boolean _hasLocationIncludes;
+        private boolean _hasLocationExcludes;
+
+        private Compiled(Collection<Entry> entries)
+        {
+            for (Entry entry : entries)
+            {
+                Node node;
+                if (entry instanceof LocationEntry)
+                {
+                    File file = ((LocationEntry)entry).getFile();
+                    if (file == null)
+                        continue;
+                    Map<Path, Node> table = file.isDirectory() ? _directories : _files;
+                    node = table.computeIfAbsent(file.toPath(), p -> new Node());
+                }
+                else if (entry instanceof ModuleEntry)
+                {
+                    node = _modules.computeIfAbsent(((ModuleEntry)entry).getModule(), m -> new Node());
+                }
+                else
+                {
+                    // Classes act as packages for nested classes.
+                    String name = entry.getName();
+                    if (entry instanceof ClassEntry)
+                    {
+                        mark(_classes.computeIfAbsent(name, n -> new Node()), entry);
+                        name += "$";
+                    }
+                    else if (".".equals(name))
+                    {
+                        name = "";
+                    }
+                    node = insert(name);
+                }
+                mark(node, entry);
+
+                boolean location = entry instanceof LocationEntry || entry instanceof ModuleEntry;
+                if (entry.isInclusive())
+                {
+                    _hasNameIncludes |= !location;
+                    _hasLocationIncludes |= location;
+                }
+                else
+                {
+                    _hasNameExcludes |= !location;
+                    _hasLocationExcludes |= location;
+                }
+            }
+        }
+
+        private static void mark(Node node, Entry entry)
+        {
+            if (entry.isInclusive())
+                node._include = true;
+            else
+                node._exclude = true;
+        }
+
+        private Node insert(String key)
+        {
+            Node node = _root;
+            int start = 0;
+            for (int i = 0; i < key.length(); ++i)
+            {
+                char c = key.charAt(i);
+                if (c == '.' || c == '$')
+                {
+                    node = node._children.computeIfAbsent(key.substring(start, i + 1), k -> new Node());
+                    start = i + 1;
+                }
+            }
+            return node;
+        }
+
+        private Decision byName(String name)
+        {
+            if (!_hasNameIncludes && !_hasNameExcludes)
+                return Decision.NONE;
+            Node node = _root;
+            boolean included = node._include;
+            boolean excluded = node._exclude;
+            int start = 0;
+            for (int i = 0; i < name.length(); ++i)
+            {
+                char c = name.charAt(i);
+                if (c == '.' || c == '$')
+                {
+                    node = node._children.get(name.substring(start, i + 1));
+                    if (node == null)
+                        break;
+                    included |= node._include;
+                    excluded |= node._exclude;
+                    start = i + 1;
+                }
+            }
+            Node exact = _classes.get(name);
+            if (exact != null)
+            {
+                included |= exact._include;
+                excluded |= exact._exclude;
+            }
+            return Decision.of(included, excluded);
+        }
+
+        private Decision byLocation(URI uri)
+        {
+            if (uri == null || !uri.isAbsolute())
+                return Decision.NONE;
+            Decision decision;
+            try (AutoLock l = _lock.lock())
+            {
+                decision = _byLocation.get(uri);
+            }
+            if (decision == null)
+            {
+                decision = lookupLocation(uri);
+                try (AutoLock l = _lock.lock())
+                {
+                    _byLocation.put(uri, decision);
+                }
+            }
+            return decision;
+        }
+
+        private Decision lookupLocation(URI uri)
+        {
+            boolean included = false;
+            boolean excluded = false;
+            if (uri.getScheme().equals("file"))
+            {
+                Path path = Paths.get(uri);
+                Node file = _files.get(path);
+                if (file != null)
+                {
+                    included = file._include;
+                    excluded = file._exclude;
+                }
+                if (!_directories.isEmpty())
+                {
+                    for (Path dir = path; dir != null; dir = dir.getParent())
+                    {
+                        Node node = _directories.get(dir);
+                        if (node != null)
+                        {
+                            included |= node._include;
+                            excluded |= node._exclude;
+                        }
+                    }
+                }
+            }
+            else if (uri.getScheme().equalsIgnoreCase("jrt"))
+            {
+                String module = uri.getPath();
+                int end = module.indexOf('/', 1);
+                if (end < 1)
+                    end = module.length();
+                Node node = _modules.get(module.substring(1, end));
+                if (node != null)
+                {
+                    included = node._include;
+                    excluded = node._exclude;
+                }
+            }
+            return Decision.of(included, excluded);
+        }
+
+        /**
+         * Same as {@link ClassMatcher#combine(IncludeExcludeSet, String, IncludeExcludeSet, Supplier)},
+         * but the location is only computed if there are location entries.
+         */
+        private boolean combine(String name, Supplier<URI> location)
+        {
+            Decision byName = byName(name);
+            if (byName == Decision.EXCLUDED)
+                return false;
+
+            if (!_hasLocationIncludes && !_hasLocationExcludes)
+                return !_hasNameIncludes || byName == Decision.INCLUDED;
+
+            URI uri = location.get();
+            Decision byLocation = byLocation(uri);
+            if (byLocation == Decision.EXCLUDED || (_hasLocationExcludes && uri == null))
+                return false;
+
+            if (_hasNameIncludes || _hasLocationIncludes)
+                return byName == Decision.INCLUDED || byLocation == Decision.INCLUDED;
+
+            return true;
+        }
+    }
 }
@@ -0,0 +1,502 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.webapp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipFile;
+
+import org.eclipse.jetty.util.URIUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>An index of the resources of the elements of a {@link WebAppClassLoader} class path.</p>
+ * <p>When a jar is added to the class path, its entries are read once and mapped
+ * to the jar, so that finding a resource, or finding that a resource is not in
+ * the class path, is a single lookup rather than a probe of every jar in turn.
+ * Directories such as {@code WEB-INF/classes} are not indexed, since their
+ * content may change, and are probed on the file system before the jar that
+ * owns a resource, in class path order.</p>
+ * <p>The index is only {@link #isComplete() complete} if it can replicate the
+ * lookups of {@link java.net.URLClassLoader}: class path elements that are not
+ * local files or directories, or jars with a {@code Class-Path} manifest attribute,
+ * make the index incomplete and the class loader falls back to the normal lookup.</p>
+ * <p>The index may be persisted to a file, for example alongside the quickstart
+ * configuration, so that unchanged jars (same location, size and last modified
+ * time) are not opened again to be indexed after a restart.</p>
+ */
+public class ClassPathIndex
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ClassPathIndex.class);
+    private static final int MAGIC = 0x4A435049;
+    private static final int FORMAT = 1;
+
+    private final Map<String, JarIndex> _jars = new ConcurrentHashMap<>();
+    private final Set<String> _urls = new HashSet<>();
+    private final Map<String, Element> _owners = new ConcurrentHashMap<>();
+    private final List<Element> _directories = new CopyOnWriteArrayList<>();
+    private final List<Element> _elements = new CopyOnWriteArrayList<>();
+    private final Path _store;
+    private volatile boolean _complete = true;
+    private boolean _modified;
+
+    /**
+     * Creates an index that is not persisted.
+     */
+    public ClassPathIndex()
+    {
+        this(null);
+    }
+
+    /**
+     * Creates an index persisted to the given file, loading it if it exists.
+     *
+     * @param store the file where the index is persisted, or null
+     * @see #save()
+     */
+    public ClassPathIndex(Path store)
+    {
+        _store = store;
+        if (store != null)
+            load(store);
+    }
+
+    /**
+     * @return the file where the index is persisted, or null
+     */
+    public Path getStore()
+    {
+        return _store;
+    }
+
+    /**
+     * @return whether the index can resolve all the lookups of the class path
+     */
+    public boolean isComplete()
+    {
+        return _complete;
+    }
+
+    /**
+     * @return the number of class path elements
+     */
+    public int size()
+    {
+        return _elements.size();
+    }
+
+    /**
+     * Remove all the class path elements from the index,
+     * retaining the indexes of the jars for reuse.
+     */
+    public synchronized void clear()
+    {
+        _urls.clear();
+        _owners.clear();
+        _directories.clear();
+        _elements.clear();
+        _complete = true;
+    }
+
+    /**
+     * Add an element to the index, in the same order it is added to the class path.
+     *
+     * @param url the class path element
+     */
+    public synchronized void add(URL url)
+    {
+        if (url == null || !_urls.add(url.toString()))
+            return;
+
+        int position = _elements.size();
+        String path = url.getPath();
+        if (!"file".equalsIgnoreCase(url.getProtocol()))
+        {
+            // Not a local file, cannot replicate the lookup.
+            _complete = false;
+            _elements.add(new Element(position, url, null, null));
+        }
+        else if (path.endsWith("/"))
+        {
+            File dir = toFile(url);
+            if (dir == null)
+                _complete = false;
+            Element element = new Element(position, url, dir, null);
+            _elements.add(element);
+            _directories.add(element);
+        }
+        else
+        {
+            File file = toFile(url);
+            JarIndex jar = file == null ? null : getJarIndex(url, file);
+            if (jar == null || jar._classPath)
+                _complete = false;
+            Element element = new Element(position, jarBaseURL(url), null, jar);
+            _elements.add(element);
+            if (jar != null)
+            {
+                for (String name : jar._names)
+                {
+                    _owners.putIfAbsent(name, element);
+                }
+            }
+        }
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("Indexed {} in {}", url, this);
+    }
+
+    /**
+     * <p>Finds a resource like {@link java.net.URLClassLoader#findResource(String)}
+     * would, provided that the index is {@link #isComplete() complete}.</p>
+     *
+     * @param name the resource name
+     * @return the URL of the resource or null if the resource is not in the class path
+     */
+    public URL findResource(String name)
+    {
+        Element owner = _owners.get(name);
+        if (owner == null && !name.endsWith("/"))
+            owner = _owners.get(name + "/");
+        int limit = owner == null ? Integer.MAX_VALUE : owner._position;
+
+        for (Element directory : _directories)
+        {
+            if (directory._position >= limit)
+                break;
+            URL url = directory.findInDirectory(name);
+            if (url != null)
+                return url;
+        }
+
+        return owner == null ? null : owner.newJarURL(name);
+    }
+
+    /**
+     * <p>Persists the index to its store file, if any and if the index has been modified.</p>
+     * <p>The file is written atomically, and only contains the jars currently in the index.</p>
+     *
+     * @throws IOException if the index cannot be written
+     */
+    public synchronized void save() throws IOException
+    {
+        if (_store == null || !_modified)
+            return;
+
+        Path dir = _store.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, _store.getFileName().toString(), ".tmp");
+        try
+        {
+            try (OutputStream stream = Files.newOutputStream(tmp);
+                 DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream)))
+            {
+                writeTo(output);
+            }
+            Files.move(tmp, _store, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            _modified = false;
+            if (LOG.isDebugEnabled())
+                LOG.debug("Saved {}", this);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * <p>Writes the indexes of the jars currently in the index to the given output,
+     * so that they can be embedded in another file and {@link #readFrom(DataInputStream) read} back.</p>
+     *
+     * @param output the output to write to
+     * @throws IOException if the index cannot be written
+     */
+    public synchronized void writeTo(DataOutputStream output) throws IOException
+    {
+        List<JarIndex> jars = new ArrayList<>();
+        for (Element element : _elements)
+        {
+            if (element._jar != null)
+                jars.add(element._jar);
+        }
+
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT);
+        output.writeInt(JarFile.runtimeVersion().feature());
+        output.writeInt(jars.size());
+        for (JarIndex jar : jars)
+        {
+            jar.writeTo(output);
+        }
+    }
+
+    /**
+     * <p>Reads the indexes of jars written by {@link #writeTo(DataOutputStream)}, so that
+     * the jars that are unchanged when later {@link #add(URL) added} are not opened again.</p>
+     *
+     * @param input the input to read from
+     * @return true if the indexes were read, false if they were written in another format
+     * or for another Java version, in which case the rest of the input is not readable
+     * @throws IOException if the index cannot be read
+     */
+    public synchronized boolean readFrom(DataInputStream input) throws IOException
+    {
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT || input.readInt() != JarFile.runtimeVersion().feature())
+            return false;
+        int count = input.readInt();
+        for (int i = 0; i < count; ++i)
+        {
+            JarIndex jar = JarIndex.readFrom(input);
+            _jars.put(jar._url, jar);
+        }
+        return true;
+    }
+
+    private void load(Path store)
+    {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(store))))
+        {
+            if (readFrom(input) && LOG.isDebugEnabled())
+                LOG.debug("Loaded {} jars from {}", _jars.size(), store);
+        }
+        catch (NoSuchFileException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("No index {}", store);
+        }
+        catch (IOException x)
+        {
+            _jars.clear();
+            LOG.warn("Unable to load class path index {}", store, x);
+        }
+    }
+
+    private JarIndex getJarIndex(URL url, File file)
+    {
+        String key = url.toString();
+        JarIndex jar = _jars.get(key);
+        if (jar != null && jar._length == file.length() && jar._lastModified == file.lastModified())
+            return jar;
+
+        try
+        {
+            jar = JarIndex.scan(key, file);
+            _jars.put(key, jar);
+            _modified = true;
+            return jar;
+        }
+        catch (IOException x)
+        {
+            LOG.warn("Unable to index {}", url, x);
+            return null;
+        }
+    }
+
+    private static File toFile(URL url)
+    {
+        try
+        {
+            return new File(url.toURI());
+        }
+        catch (URISyntaxException | IllegalArgumentException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Not a file {}", url, x);
+            return null;
+        }
+    }
+
+    private static URL jarBaseURL(URL url)
+    {
+        try
+        {
+            return new URL("jar:" + url + "!/");
+        }
+        catch (MalformedURLException x)
+        {
+            throw new IllegalArgumentException(x);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{elements=%d,resources=%d,complete=%b,store=%s}", getClass().getSimpleName(), hashCode(), _elements.size(), _owners.size(), _complete, _store);
+    }
+
+    private static class Element
+    {
+        private final int _position;
+        private final URL _base;
+        private final File _dir;
+        private final String _basePath;
+        private final JarIndex _jar;
+
+        private Element(int position, URL base, File dir, JarIndex jar)
+        {
+            _position = position;
+            _base = base;
+            _dir = dir;
+            _basePath = base.getFile();
+            _jar = jar;
+        }
+
+        private URL findInDirectory(String name)
+        {
+            try
+            {
+                URL url = new URL(_base, URIUtil.encodePath(name));
+                // Reject names that resolve outside of the directory.
+                if (!url.getFile().startsWith(_basePath))
+                    return null;
+                File file = new File(_dir, name.replace('/', File.separatorChar));
+                return file.exists() ? url : null;
+            }
+            catch (MalformedURLException x)
+            {
+                return null;
+            }
+        }
+
+        private URL newJarURL(String name)
+        {
+            try
+            {
+                String realName = _jar._realNames.get(name);
+                return new URL(_base, URIUtil.encodePath(realName == null ? name : realName));
+            }
+            catch (MalformedURLException x)
+            {
+                return null;
+            }
+        }
+    }
+
+    private static class JarIndex
+    {
+        private final String _url;
+        private final long _length;
+        private final long _lastModified;
+        private final boolean _classPath;
+        private final List<String> _names;
+        private final Map<String, String> _realNames;
+
+        private JarIndex(String url, long length, long lastModified, boolean classPath, List<String> names, Map<String, String> realNames)
+        {
+            _url = url;
+            _length = length;
+            _lastModified = lastModified;
+            _classPath = classPath;
+            _names = names;
+            _realNames = realNames;
+        }
+
+        private static JarIndex scan(String url, File file) throws IOException
+        {
+            long length = file.length();
+            long lastModified = file.lastModified();
+            List<String> names = new ArrayList<>();
+            Map<String, String> realNames = new HashMap<>();
+            boolean classPath = false;
+            if (file.exists())
+            {
+                try (JarFile jarFile = new JarFile(file, true, ZipFile.OPEN_READ, JarFile.runtimeVersion()))
+                {
+                    Manifest manifest = jarFile.getManifest();
+                    classPath = manifest != null && manifest.getMainAttributes().getValue("Class-Path") != null;
+                    if (jarFile.isMultiRelease())
+                    {
+                        // The versioned entries replace the base entries, as in the class loader lookups.
+                        jarFile.versionedStream().forEach(entry ->
+                        {
+                            names.add(entry.getName());
+                            if (!entry.getName().equals(entry.getRealName()))
+                                realNames.put(entry.getName(), entry.getRealName());
+                        });
+                    }
+                    else
+                    {
+                        Enumeration<JarEntry> entries = jarFile.entries();
+                        while (entries.hasMoreElements())
+                        {
+                            names.add(entries.nextElement().getName());
+                        }
+                    }
+                }
+            }
+            return new JarIndex(url, length, lastModified, classPath, names, realNames);
+        }
+
+        private static JarIndex readFrom(DataInputStream input) throws IOException
+        {
+            String url = input.readUTF();
+            long length = input.readLong();
+            long lastModified = input.readLong();
+            boolean classPath = input.readBoolean();
+            int count = input.readInt();
+            List<String> names = new ArrayList<>(count);
+            Map<String, String> realNames = new HashMap<>();
+            for (int i = 0; i < count; ++i)
+            {
+                String name = input.readUTF();
+                names.add(name);
+                if (input.readBoolean())
+                    realNames.put(name, input.readUTF());
+            }
+            return new JarIndex(url, length, lastModified, classPath, names, realNames);
+        }
+
+        private void writeTo(DataOutputStream output) throws IOException
+        {
+            output.writeUTF(_url);
+            output.writeLong(_length);
+            output.writeLong(_lastModified);
+            output.writeBoolean(_classPath);
+            output.writeInt(_names.size());
+            for (String name : _names)
+            {
+                output.writeUTF(name);
+                String realName = _realNames.get(name);
+                output.writeBoolean(realName != null);
+                if (realName != null)
+                    output.writeUTF(realName);
+            }
+        }
+    }
+}
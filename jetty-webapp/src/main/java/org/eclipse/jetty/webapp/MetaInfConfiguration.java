@@ -20,6 +20,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -31,12 +33,19 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 
+import org.eclipse.jetty.util.MultiException;
 import org.eclipse.jetty.util.PatternMatcher;
+import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.resource.EmptyResource;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.resource.ResourceCollection;
@@ -69,6 +78,10 @@ public class MetaInfConfiguration extends AbstractConfiguration
     public static final String CACHED_CONTAINER_TLDS = "org.eclipse.jetty.tlds.cache";
     public static final String CACHED_CONTAINER_FRAGMENTS = FragmentConfiguration.FRAGMENT_RESOURCES + ".cache";
     public static final String CACHED_CONTAINER_RESOURCES = "org.eclipse.jetty.resources.cache";
+    public static final String USE_PARALLEL_SCAN = "org.eclipse.jetty.metainf.parallelScan";
+    public static final boolean DEFAULT_USE_PARALLEL_SCAN = true;
+    public static final String METAINF_INDEX = "org.eclipse.jetty.metainf.index";
+    public static final String CACHED_METAINF_INDEX = METAINF_INDEX + ".cache";
     public static final String METAINF_TLDS = "org.eclipse.jetty.tlds";
     public static final String METAINF_FRAGMENTS = FragmentConfiguration.FRAGMENT_RESOURCES;
     public static final String METAINF_RESOURCES = "org.eclipse.jetty.resources";
@@ -374,6 +387,10 @@ public class MetaInfConfiguration extends AbstractConfiguration
      * Look into the jars to discover info in META-INF. If useCaches == true, then we will
      * cache the info discovered indexed by the jar in which it was discovered: this speeds
      * up subsequent context deployments.
+     * <p>
+     * The jars are opened in parallel, unless disabled via {@link #USE_PARALLEL_SCAN}, and
+     * if a {@link #METAINF_INDEX} directory is configured, the info discovered is also stored
+     * in a persistent {@link MetaInfIndex} keyed by the jar file, that is reused across restarts.
      *
      * @param context the context for the scan
      * @param jars the jars resources to scan
@@ -412,6 +429,21 @@ public class MetaInfConfiguration extends AbstractConfiguration
         //Scan jars for META-INF information
         if (jars != null)
         {
+            MetaInfIndex index = getMetaInfIndex(context);
+            boolean parallel = jars.size() > 1 && isUseParallelScan(context);
+            if (index != null || parallel)
+            {
+                //discover the META-INF information of every jar up front, possibly in parallel,
+                //so that the sequential scan below only finds the results in the caches
+                if (metaInfResourceCache == null)
+                    metaInfResourceCache = new ConcurrentHashMap<>();
+                if (metaInfFragmentCache == null)
+                    metaInfFragmentCache = new ConcurrentHashMap<>();
+                if (metaInfTldCache == null)
+                    metaInfTldCache = new ConcurrentHashMap<>();
+                prefetch(jars, scanTypes, index, parallel, metaInfResourceCache, metaInfFragmentCache, metaInfTldCache);
+            }
+
             for (Resource r : jars)
             {
                 if (scanTypes.contains(METAINF_RESOURCES))
@@ -424,6 +456,117 @@ public class MetaInfConfiguration extends AbstractConfiguration
         }
     }
 
+    private void prefetch(Collection<Resource> jars, List<String> scanTypes, MetaInfIndex index, boolean parallel,
+                          ConcurrentHashMap<Resource, Resource> resourceCache,
+                          ConcurrentHashMap<Resource, Resource> fragmentCache,
+                          ConcurrentHashMap<Resource, Collection<URL>> tldCache)
+        throws Exception
+    {
+        long start = System.nanoTime();
+        List<Callable<Void>> tasks = new ArrayList<>(jars.size());
+        for (Resource jar : jars)
+        {
+            tasks.add(() ->
+            {
+                MetaInfIndex.Entry entry = null;
+                if (index != null && index.isIndexable(jar))
+                    entry = index.getEntry(jar);
+                if (scanTypes.contains(METAINF_RESOURCES) && !resourceCache.containsKey(jar))
+                    resourceCache.putIfAbsent(jar, findResourcesDir(jar, entry));
+                if (scanTypes.contains(METAINF_FRAGMENTS) && !fragmentCache.containsKey(jar))
+                    fragmentCache.putIfAbsent(jar, findFragment(jar, entry));
+                if (scanTypes.contains(METAINF_TLDS) && !tldCache.containsKey(jar))
+                    tldCache.putIfAbsent(jar, findTlds(jar, entry));
+                return null;
+            });
+        }
+
+        MultiException failures = new MultiException();
+        if (parallel)
+        {
+            for (Future<Void> result : ForkJoinPool.commonPool().invokeAll(tasks))
+            {
+                try
+                {
+                    result.get();
+                }
+                catch (ExecutionException x)
+                {
+                    failures.add(x.getCause());
+                }
+            }
+        }
+        else
+        {
+            for (Callable<Void> task : tasks)
+            {
+                try
+                {
+                    task.call();
+                }
+                catch (Exception x)
+                {
+                    failures.add(x);
+                }
+            }
+        }
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("META-INF of {} jars discovered in {}ms parallel={} index={}", jars.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), parallel, index);
+        failures.ifExceptionThrow();
+    }
+
+    /**
+     * Check if the jars should be scanned in parallel.
+     *
+     * @param context the context of the parallel scan setting
+     * @return true if parallel scanning is enabled on the context, server, or via a System property.
+     * @see #USE_PARALLEL_SCAN
+     */
+    protected boolean isUseParallelScan(WebAppContext context)
+    {
+        Object o = context.getAttribute(USE_PARALLEL_SCAN);
+        if (o == null && context.getServer() != null)
+            o = context.getServer().getAttribute(USE_PARALLEL_SCAN);
+        if (o == null)
+            o = System.getProperty(USE_PARALLEL_SCAN);
+        if (o == null)
+            return DEFAULT_USE_PARALLEL_SCAN;
+        return o instanceof Boolean ? (Boolean)o : Boolean.parseBoolean(o.toString());
+    }
+
+    /**
+     * Get the persistent index of the META-INF contents of jars. The index is shared
+     * by all the contexts of the server that are configured with the same directory.
+     *
+     * @param context the context of the index setting
+     * @return the index configured as a directory on the context, or server, or via a System property, or null if no index is configured.
+     * @see #METAINF_INDEX
+     */
+    protected MetaInfIndex getMetaInfIndex(WebAppContext context)
+    {
+        Object o = context.getAttribute(METAINF_INDEX);
+        if (o == null && context.getServer() != null)
+            o = context.getServer().getAttribute(METAINF_INDEX);
+        if (o == null)
+            o = System.getProperty(METAINF_INDEX);
+        if (o instanceof MetaInfIndex)
+            return (MetaInfIndex)o;
+        if (o == null || StringUtil.isBlank(o.toString()))
+            return null;
+
+        Path directory = o instanceof Path ? (Path)o : o instanceof File ? ((File)o).toPath() : Paths.get(o.toString());
+        if (context.getServer() == null)
+            return new MetaInfIndex(directory);
+        MetaInfIndex index = (MetaInfIndex)context.getServer().getAttribute(CACHED_METAINF_INDEX);
+        if (index == null || !index.getDirectory().equals(directory))
+        {
+            index = new MetaInfIndex(directory);
+            context.getServer().setAttribute(CACHED_METAINF_INDEX, index);
+        }
+        return index;
+    }
+
     /**
      * Scan for META-INF/resources dir in the given jar.
      *
@@ -451,25 +594,7 @@ public class MetaInfConfiguration extends AbstractConfiguration
         else
         {
             //not using caches or not in the cache so check for the resources dir
-            if (LOG.isDebugEnabled())
-                LOG.debug("{} META-INF/resources checked", target);
-            if (target.isDirectory())
-            {
-                //TODO think  how to handle an unpacked jar file (eg for osgi)
-                resourcesDir = target.addPath("/META-INF/resources");
-            }
-            else
-            {
-                //Resource represents a packed jar
-                URI uri = target.getURI();
-                resourcesDir = Resource.newResource(uriJarPrefix(uri, "!/META-INF/resources"));
-            }
-
-            if (!resourcesDir.exists() || !resourcesDir.isDirectory())
-            {
-                resourcesDir.close();
-                resourcesDir = EmptyResource.INSTANCE;
-            }
+            resourcesDir = findResourcesDir(target, null);
 
             if (cache != null)
             {
@@ -526,22 +651,7 @@ public class MetaInfConfiguration extends AbstractConfiguration
         else
         {
             //not using caches or not in the cache so check for the web-fragment.xml
-            if (LOG.isDebugEnabled())
-                LOG.debug("{} META-INF/web-fragment.xml checked", jar);
-            if (jar.isDirectory())
-            {
-                webFrag = Resource.newResource(new File(jar.getFile(), "/META-INF/web-fragment.xml"));
-            }
-            else
-            {
-                URI uri = jar.getURI();
-                webFrag = Resource.newResource(uriJarPrefix(uri, "!/META-INF/web-fragment.xml"));
-            }
-            if (!webFrag.exists() || webFrag.isDirectory())
-            {
-                webFrag.close();
-                webFrag = EmptyResource.INSTANCE;
-            }
+            webFrag = findFragment(jar, null);
 
             if (cache != null)
             {
@@ -600,16 +710,7 @@ public class MetaInfConfiguration extends AbstractConfiguration
         else
         {
             //not using caches or not in the cache so find all tlds
-            tlds = new HashSet<URL>();
-            if (jar.isDirectory())
-            {
-                tlds.addAll(getTlds(jar.getFile()));
-            }
-            else
-            {
-                URI uri = jar.getURI();
-                tlds.addAll(getTlds(uri));
-            }
+            tlds = findTlds(jar, null);
 
             if (cache != null)
             {
@@ -635,6 +736,85 @@ public class MetaInfConfiguration extends AbstractConfiguration
             LOG.debug("tlds added to context");
     }
 
+    private Resource findResourcesDir(Resource target, MetaInfIndex.Entry entry) throws Exception
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("{} META-INF/resources checked {}", target, entry);
+        if (entry != null && !entry.hasResources())
+            return EmptyResource.INSTANCE;
+
+        Resource resourcesDir;
+        if (target.isDirectory())
+        {
+            //TODO think  how to handle an unpacked jar file (eg for osgi)
+            resourcesDir = target.addPath("/META-INF/resources");
+        }
+        else
+        {
+            //Resource represents a packed jar
+            URI uri = target.getURI();
+            resourcesDir = Resource.newResource(uriJarPrefix(uri, "!/META-INF/resources"));
+        }
+
+        //the index has already checked that the jar contains the resources dir
+        if (entry == null && (!resourcesDir.exists() || !resourcesDir.isDirectory()))
+        {
+            resourcesDir.close();
+            resourcesDir = EmptyResource.INSTANCE;
+        }
+        return resourcesDir;
+    }
+
+    private Resource findFragment(Resource jar, MetaInfIndex.Entry entry) throws Exception
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("{} META-INF/web-fragment.xml checked {}", jar, entry);
+        if (entry != null && !entry.hasFragment())
+            return EmptyResource.INSTANCE;
+
+        Resource webFrag;
+        if (jar.isDirectory())
+        {
+            webFrag = Resource.newResource(new File(jar.getFile(), "/META-INF/web-fragment.xml"));
+        }
+        else
+        {
+            URI uri = jar.getURI();
+            webFrag = Resource.newResource(uriJarPrefix(uri, "!/META-INF/web-fragment.xml"));
+        }
+
+        //the index has already checked that the jar contains the web-fragment.xml
+        if (entry == null && (!webFrag.exists() || webFrag.isDirectory()))
+        {
+            webFrag.close();
+            webFrag = EmptyResource.INSTANCE;
+        }
+        return webFrag;
+    }
+
+    private Collection<URL> findTlds(Resource jar, MetaInfIndex.Entry entry) throws Exception
+    {
+        Collection<URL> tlds = new HashSet<URL>();
+        if (entry != null)
+        {
+            String jarUri = uriJarPrefix(jar.getURI(), "!/");
+            for (String name : entry.getTlds())
+            {
+                tlds.add(new URL(jarUri + name));
+            }
+        }
+        else if (jar.isDirectory())
+        {
+            tlds.addAll(getTlds(jar.getFile()));
+        }
+        else
+        {
+            URI uri = jar.getURI();
+            tlds.addAll(getTlds(uri));
+        }
+        return tlds;
+    }
+
     @Override
     public void postConfigure(WebAppContext context) throws Exception
     {
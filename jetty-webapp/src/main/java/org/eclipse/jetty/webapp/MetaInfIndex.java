@@ -0,0 +1,381 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.webapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A persistent index of the META-INF contents of jars, as scanned by {@link MetaInfConfiguration}.</p>
+ * <p>For each jar, the index records whether it contains {@code META-INF/resources},
+ * a {@code META-INF/web-fragment.xml} and which TLDs it contains, so that the jar
+ * does not need to be opened again when the same content is deployed again.
+ * Entries are keyed, like the {@link ClassPathIndex}, by the canonical path of the jar and
+ * are valid as long as its size and last modified time are unchanged, so they survive restarts
+ * and are shared by all the webapps of a server (and by different servers sharing the index
+ * directory) that deploy the same jar file.
+ * When the jar was last modified too close to the time it was indexed for its last modified
+ * time to tell a later modification apart, the SHA-256 digest of the jar content is also
+ * recorded and the jar is digested to validate the entry, until the jar is old enough.</p>
+ * <p>Entries are kept in memory once loaded, and stored as one file per jar
+ * in the index directory, written atomically.</p>
+ *
+ * @see MetaInfConfiguration#METAINF_INDEX
+ */
+public class MetaInfIndex
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MetaInfIndex.class);
+    private static final int MAGIC = 0x4A4D4949;
+    private static final int FORMAT = 2;
+    private static final long MODIFIED_RESOLUTION = 2000;
+
+    private final Map<String, Stamp> entries = new ConcurrentHashMap<>();
+    private final Path directory;
+
+    /**
+     * @param directory the directory where the index files are stored
+     */
+    public MetaInfIndex(Path directory)
+    {
+        this.directory = directory;
+    }
+
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * @param jar the jar to check
+     * @return whether the given resource is a packed jar file that can be indexed
+     */
+    public boolean isIndexable(Resource jar)
+    {
+        try
+        {
+            return jar != null && !jar.isDirectory() && jar.getFile() != null && jar.getFile().isFile();
+        }
+        catch (IOException x)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * <p>Returns the index entry of the given jar, scanning the jar and
+     * storing the entry if the jar has not been indexed yet or has changed since.</p>
+     *
+     * @param jar the jar resource
+     * @return the index entry of the jar
+     * @throws IOException if the jar cannot be read
+     */
+    public Entry getEntry(Resource jar) throws IOException
+    {
+        File file = jar.getFile().getCanonicalFile();
+        String path = file.getPath();
+        long length = file.length();
+        long lastModified = file.lastModified();
+        long now = System.currentTimeMillis();
+        Path indexFile = directory.resolve(digest(path.getBytes(StandardCharsets.UTF_8)) + ".metainf");
+
+        Stamp stamp = entries.get(path);
+        if (stamp == null)
+        {
+            stamp = load(indexFile, path);
+            if (stamp != null && LOG.isDebugEnabled())
+                LOG.debug("Loaded {} for {}", indexFile, jar);
+        }
+
+        if (stamp != null && stamp.length == length && stamp.lastModified == lastModified)
+        {
+            if (stamp.digest == null)
+                return cache(path, stamp);
+
+            // The key is ambiguous, only the content tells whether the jar changed.
+            String digest = digest(file.toPath());
+            if (stamp.digest.equals(digest))
+            {
+                // The jar is now old enough for its last modified time to detect changes.
+                if (!isAmbiguous(lastModified, now))
+                {
+                    stamp = new Stamp(length, lastModified, null, stamp.entry);
+                    store(path, stamp, indexFile);
+                }
+                return cache(path, stamp);
+            }
+        }
+
+        Entry entry = scan(file);
+        String digest = isAmbiguous(lastModified, now) ? digest(file.toPath()) : null;
+        stamp = new Stamp(length, lastModified, digest, entry);
+        store(path, stamp, indexFile);
+        entries.put(path, stamp);
+        return entry;
+    }
+
+    private Entry cache(String path, Stamp stamp)
+    {
+        entries.put(path, stamp);
+        return stamp.entry;
+    }
+
+    private static boolean isAmbiguous(long lastModified, long now)
+    {
+        // A modification within the resolution of the last modified time may not change it.
+        return lastModified <= 0 || lastModified > now - MODIFIED_RESOLUTION;
+    }
+
+    private static String digest(byte[] bytes) throws IOException
+    {
+        try
+        {
+            return TypeUtil.toHexString(MessageDigest.getInstance("SHA-256").digest(bytes));
+        }
+        catch (NoSuchAlgorithmException x)
+        {
+            throw new IOException(x);
+        }
+    }
+
+    private static String digest(Path jar) throws IOException
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream input = new DigestInputStream(Files.newInputStream(jar), digest))
+            {
+                byte[] buffer = new byte[8192];
+                while (true)
+                {
+                    if (input.read(buffer) < 0)
+                        break;
+                }
+            }
+            return TypeUtil.toHexString(digest.digest());
+        }
+        catch (NoSuchAlgorithmException x)
+        {
+            throw new IOException(x);
+        }
+    }
+
+    private Entry scan(File file) throws IOException
+    {
+        boolean resources = false;
+        boolean fragment = false;
+        Set<String> tlds = new HashSet<>();
+        try (JarFile jarFile = new JarFile(file))
+        {
+            Enumeration<JarEntry> jarEntries = jarFile.entries();
+            while (jarEntries.hasMoreElements())
+            {
+                String name = jarEntries.nextElement().getName();
+                if (name.startsWith("META-INF"))
+                {
+                    if (name.startsWith("META-INF/resources/"))
+                        resources = true;
+                    else if (name.equals("META-INF/web-fragment.xml"))
+                        fragment = true;
+                    if (name.endsWith(".tld"))
+                        tlds.add(name);
+                }
+            }
+        }
+        return new Entry(resources, fragment, tlds);
+    }
+
+    private Stamp load(Path indexFile, String path)
+    {
+        byte[] bytes;
+        try
+        {
+            bytes = Files.readAllBytes(indexFile);
+        }
+        catch (NoSuchFileException x)
+        {
+            return null;
+        }
+        catch (IOException x)
+        {
+            LOG.warn("Unable to read META-INF index file {}", indexFile, x);
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes)))
+        {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT || !input.readUTF().equals(path))
+                return null;
+            long length = input.readLong();
+            long lastModified = input.readLong();
+            String digest = input.readBoolean() ? input.readUTF() : null;
+            boolean resources = input.readBoolean();
+            boolean fragment = input.readBoolean();
+            int count = input.readInt();
+            Set<String> tlds = new HashSet<>();
+            for (int i = 0; i < count; ++i)
+            {
+                tlds.add(input.readUTF());
+            }
+            return new Stamp(length, lastModified, digest, new Entry(resources, fragment, tlds));
+        }
+        catch (IOException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Invalid META-INF index file {}", indexFile, x);
+            return null;
+        }
+    }
+
+    private void store(String path, Stamp stamp, Path indexFile)
+    {
+        Path tmp = null;
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes))
+            {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT);
+                output.writeUTF(path);
+                output.writeLong(stamp.length);
+                output.writeLong(stamp.lastModified);
+                output.writeBoolean(stamp.digest != null);
+                if (stamp.digest != null)
+                    output.writeUTF(stamp.digest);
+                Entry entry = stamp.entry;
+                output.writeBoolean(entry.hasResources());
+                output.writeBoolean(entry.hasFragment());
+                output.writeInt(entry.getTlds().size());
+                for (String tld : entry.getTlds())
+                {
+                    output.writeUTF(tld);
+                }
+            }
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, indexFile.getFileName().toString(), ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Stored {}", indexFile);
+        }
+        catch (IOException x)
+        {
+            LOG.warn("Unable to store META-INF index file {}", indexFile, x);
+            try
+            {
+                if (tmp != null)
+                    Files.deleteIfExists(tmp);
+            }
+            catch (IOException ignored)
+            {
+                // Ignored.
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[%s,entries=%d]", getClass().getSimpleName(), hashCode(), directory, entries.size());
+    }
+
+    private static class Stamp
+    {
+        private final long length;
+        private final long lastModified;
+        private final String digest;
+        private final Entry entry;
+
+        private Stamp(long length, long lastModified, String digest, Entry entry)
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.digest = digest;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * <p>The META-INF contents of a jar.</p>
+     */
+    public static class Entry
+    {
+        private final boolean resources;
+        private final boolean fragment;
+        private final Set<String> tlds;
+
+        public Entry(boolean resources, boolean fragment, Set<String> tlds)
+        {
+            this.resources = resources;
+            this.fragment = fragment;
+            this.tlds = Collections.unmodifiableSet(tlds);
+        }
+
+        /**
+         * @return whether the jar contains a {@code META-INF/resources} directory
+         */
+        public boolean hasResources()
+        {
+            return resources;
+        }
+
+        /**
+         * @return whether the jar contains a {@code META-INF/web-fragment.xml}
+         */
+        public boolean hasFragment()
+        {
+            return fragment;
+        }
+
+        /**
+         * @return the names of the TLD entries in the jar's META-INF
+         */
+        public Set<String> getTlds()
+        {
+            return tlds;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x[resources=%b,fragment=%b,tlds=%s]", getClass().getSimpleName(), hashCode(), resources, fragment, tlds);
+        }
+    }
+}
@@ -69,6 +69,13 @@ public class WebAppClassLoader extends URLClassLoader implements ClassVisibility
         registerAsParallelCapable();
     }
 
+    /**
+     * The context attribute to enable the {@link ClassPathIndex} of the classloader created by
+     * the {@link WebAppContext}: either {@code true}, or the path of the file where the index is
+     * persisted, or a {@link ClassPathIndex} instance.
+     */
+    public static final String CLASS_PATH_INDEX = "org.eclipse.jetty.webapp.classPathIndex";
+
     private static final Logger LOG = LoggerFactory.getLogger(WebAppClassLoader.class);
     private static final ThreadLocal<Boolean> __loadServerClasses = new ThreadLocal<>();
 
@@ -77,6 +84,8 @@ public class WebAppClassLoader extends URLClassLoader implements ClassVisibility
     private final Set<String> _extensions = new HashSet<String>();
     private String _name = String.valueOf(hashCode());
     private final List<ClassFileTransformer> _transformers = new CopyOnWriteArrayList<>();
+    private final Object _classPathLock = new Object();
+    private volatile ClassPathIndex _classPathIndex;
 
     /**
      * The Context in which the classloader operates.
@@ -217,6 +226,51 @@ public class WebAppClassLoader extends URLClassLoader implements ClassVisibility
         return _context;
     }
 
+    /**
+     * @return the index of the class path, or null if lookups are not indexed
+     */
+    public ClassPathIndex getClassPathIndex()
+    {
+        return _classPathIndex;
+    }
+
+    /**
+     * <p>Sets the index used to find classes and resources in the class path,
+     * rather than probing every class path element in turn.</p>
+     * <p>The elements already in the class path are added to the given index,
+     * and the elements later added via {@link #addClassPath(Resource)} or
+     * {@link #addJars(Resource)} will be added to it too.</p>
+     *
+     * @param index the class path index, or null to not index lookups
+     */
+    public void setClassPathIndex(ClassPathIndex index)
+    {
+        synchronized (_classPathLock)
+        {
+            if (index != null)
+            {
+                index.clear();
+                for (URL url : getURLs())
+                {
+                    index.add(url);
+                }
+            }
+            _classPathIndex = index;
+        }
+    }
+
+    @Override
+    protected void addURL(URL url)
+    {
+        synchronized (_classPathLock)
+        {
+            super.addURL(url);
+            ClassPathIndex index = _classPathIndex;
+            if (index != null)
+                index.add(url);
+        }
+    }
+
     /**
      * @param resource Comma or semicolon separated path of filenames or URLs
      * pointing to directories or jar files. Directories should end
@@ -573,11 +627,24 @@ public class WebAppClassLoader extends URLClassLoader implements ClassVisibility
         return webappClass;
     }
 
+    @Override
+    public URL findResource(String name)
+    {
+        ClassPathIndex index = _classPathIndex;
+        if (index != null && index.isComplete())
+            return index.findResource(name);
+        return super.findResource(name);
+    }
+
     @Override
     protected Class<?> findClass(final String name) throws ClassNotFoundException
     {
         if (_transformers.isEmpty())
         {
+            // Avoid probing all the class path elements for classes that are not there.
+            ClassPathIndex index = _classPathIndex;
+            if (index != null && index.isComplete() && index.findResource(TypeUtil.toClassReference(name)) == null)
+                throw new ClassNotFoundException(name);
             return super.findClass(name);
         }
 
@@ -18,6 +18,8 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.PermissionCollection;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -57,6 +59,7 @@ import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHandler;
 import org.eclipse.jetty.util.AttributesMap;
 import org.eclipse.jetty.util.MultiException;
+import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.TopologicalSort;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
@@ -490,6 +493,7 @@ public class WebAppContext extends ServletContextHandler implements WebAppClassL
         if (getClassLoader() == null)
         {
             WebAppClassLoader classLoader = new WebAppClassLoader(this);
+            classLoader.setClassPathIndex(newClassPathIndex());
             setClassLoader(classLoader);
             _ownClassLoader = true;
         }
@@ -511,7 +515,47 @@ public class WebAppContext extends ServletContextHandler implements WebAppClassL
 
     public boolean configure() throws Exception
     {
-        return _configurations.configure(this);
+        boolean configured = _configurations.configure(this);
+
+        // The class path is now complete, persist its index if configured to
+        ClassLoader loader = getClassLoader();
+        if (loader instanceof WebAppClassLoader)
+        {
+            ClassPathIndex index = ((WebAppClassLoader)loader).getClassPathIndex();
+            if (index != null)
+            {
+                try
+                {
+                    index.save();
+                }
+                catch (IOException e)
+                {
+                    LOG.warn("Unable to save {}", index, e);
+                }
+            }
+        }
+        return configured;
+    }
+
+    /**
+     * @return the class path index for the classloader created by this context, as configured by
+     * the {@link WebAppClassLoader#CLASS_PATH_INDEX} attribute, or null if lookups are not indexed
+     */
+    protected ClassPathIndex newClassPathIndex()
+    {
+        Object index = getAttribute(WebAppClassLoader.CLASS_PATH_INDEX);
+        if (index == null || index instanceof ClassPathIndex)
+            return (ClassPathIndex)index;
+        if (index instanceof Path)
+            return new ClassPathIndex((Path)index);
+        if (index instanceof File)
+            return new ClassPathIndex(((File)index).toPath());
+        String value = index.toString();
+        if (Boolean.FALSE.toString().equalsIgnoreCase(value) || StringUtil.isBlank(value))
+            return null;
+        if (Boolean.TRUE.toString().equalsIgnoreCase(value))
+            return new ClassPathIndex();
+        return new ClassPathIndex(Paths.get(value));
     }
 
     public void postConfigure() throws Exception
@@ -39,6 +39,12 @@ public class WebInfConfiguration extends AbstractConfiguration
 
     public static final String TEMPDIR_CONFIGURED = "org.eclipse.jetty.tmpdirConfigured";
     public static final String TEMPORARY_RESOURCE_BASE = "org.eclipse.jetty.webapp.tmpResourceBase";
+    /**
+     * The context attribute set by a configuration that has already added the WEB-INF classes
+     * and lib to the class path during preConfigure, for example from a quickstart snapshot,
+     * so that they are not resolved again.
+     */
+    public static final String CLASSPATH_CONFIGURED = "org.eclipse.jetty.webapp.classPathConfigured";
 
     protected Resource _preUnpackBaseResource;
 
@@ -62,7 +68,12 @@ public class WebInfConfiguration extends AbstractConfiguration
         Resource webInf = context.getWebInf();
 
         // Add WEB-INF classes and lib classpaths
-        if (webInf != null && webInf.isDirectory() && context.getClassLoader() instanceof WebAppClassLoader)
+        if (Boolean.TRUE.equals(context.getAttribute(CLASSPATH_CONFIGURED)))
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("WEB-INF class path already configured for {}", context);
+        }
+        else if (webInf != null && webInf.isDirectory() && context.getClassLoader() instanceof WebAppClassLoader)
         {
             // Look for classes directory
             Resource classes = webInf.addPath("classes/");
@@ -81,6 +92,8 @@ public class WebInfConfiguration extends AbstractConfiguration
     {
         File tempDirectory = context.getTempDirectory();
 
+        context.removeAttribute(CLASSPATH_CONFIGURED);
+
         // if we're not persisting the temp dir contents delete it
         if (!context.isPersistTempDirectory() && !IO.isEmptyDir(tempDirectory))
         {
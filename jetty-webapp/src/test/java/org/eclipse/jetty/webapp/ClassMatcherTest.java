@@ -13,7 +13,9 @@
 
 package org.eclipse.jetty.webapp;
 
+import java.io.File;
 import java.net.URI;
+import java.net.URL;
 import java.util.Arrays;
 import java.util.function.Supplier;
 
@@ -324,6 +326,61 @@ public class ClassMatcherTest
         }
     }
 
+    @Test
+    public void testCompiledMatchesPatterns()
+    {
+        _pattern.add("-org.package.Excluded$");
+        _pattern.add("org.");
+        _pattern.add("-org.example.Nested.");
+        String[] names = {
+            "org.package.Foo", "org.package.Excluded", "org.package.Excluded$", "org.package.Excluded$$Inner",
+            "org.package", "org.packages.Foo", "org.excluded.Foo", "org.example.FooBar", "org.example.FooBar$Inner",
+            "org.example.FooBarBaz", "org.example.Nested$Minus", "org.example.Nested$Minus$Inner",
+            "org.example.Nested.sub.Foo", "org.example.Excluded", "com.acme.Foo", "org", "", "."
+        };
+        for (String name : names)
+        {
+            assertThat(name, _pattern.match(name), Matchers.is(_pattern._patterns.test(name)));
+        }
+    }
+
+    @Test
+    public void testMoreLocationsThanMemoised() throws Exception
+    {
+        ClassMatcher pattern = new ClassMatcher();
+        pattern.include(".");
+        pattern.exclude(new File("lib7.jar").getAbsoluteFile().toURI().toString());
+        // Twice, to check the decisions of the evicted locations too.
+        for (int loop = 0; loop < 2; ++loop)
+        {
+            for (int i = 0; i < 3000; ++i)
+            {
+                URL url = new URL("jar:" + new File("lib" + i + ".jar").getAbsoluteFile().toURI() + "!/org/acme/Foo.class");
+                assertThat(url.toString(), pattern.match("org/acme/Foo.class", url), Matchers.is(i != 7));
+            }
+        }
+    }
+
+    @Test
+    public void testCompiledIsDiscardedOnChange()
+    {
+        assertTrue(_pattern.match("org.package.Foo"));
+        assertFalse(_pattern.match("com.acme.Foo"));
+
+        _pattern.add("com.acme.");
+        _pattern.add("-org.package.Foo");
+        assertFalse(_pattern.match("org.package.Foo"));
+        assertTrue(_pattern.match("com.acme.Foo"));
+
+        _pattern.remove("com.acme.");
+        assertFalse(_pattern.match("com.acme.Foo"));
+
+        _pattern.clear();
+        _pattern.add("-com.acme.");
+        assertTrue(_pattern.match("org.package.Foo"));
+        assertFalse(_pattern.match("com.acme.Foo"));
+    }
+
     @Test
     public void testJvmModule()
     {
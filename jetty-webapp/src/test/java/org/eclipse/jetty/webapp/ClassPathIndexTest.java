@@ -0,0 +1,150 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.webapp;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WorkDirExtension.class)
+public class ClassPathIndexTest
+{
+    public WorkDir workDir;
+
+    @Test
+    public void testSameLookupsAsURLClassLoader() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path jar1 = createJar(dir.resolve("one.jar"), null, "a/A.class", "a/B.txt", "dir/", "with space.txt");
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Files.createDirectories(classes.resolve("a"));
+        Files.write(classes.resolve("a/B.txt"), new byte[0]);
+        Files.createDirectories(classes.resolve("c"));
+        Files.write(classes.resolve("c/D.txt"), new byte[0]);
+        Path jar2 = createJar(dir.resolve("two.jar"), null, "a/A.class", "b/C.class", "c/D.txt");
+        Files.write(dir.resolve("x"), new byte[0]);
+
+        URL[] urls = {jar1.toUri().toURL(), classes.toUri().toURL(), jar2.toUri().toURL()};
+        ClassPathIndex index = new ClassPathIndex();
+        for (URL url : urls)
+        {
+            index.add(url);
+        }
+        assertTrue(index.isComplete());
+        assertEquals(3, index.size());
+
+        try (URLClassLoader loader = new URLClassLoader(urls, null))
+        {
+            for (String name : new String[]{"a/A.class", "a/B.txt", "b/C.class", "c/D.txt", "a/", "dir/", "dir", "with space.txt", "missing.txt", "../x", "/a/A.class"})
+            {
+                assertEquals(String.valueOf(loader.findResource(name)), String.valueOf(index.findResource(name)), name);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiReleaseJar() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MULTI_RELEASE, "true");
+        Path jar = createJar(dir.resolve("mr.jar"), manifest, "m/M.class", "m/N.class", "META-INF/versions/9/m/M.class");
+
+        URL[] urls = {jar.toUri().toURL()};
+        ClassPathIndex index = new ClassPathIndex();
+        index.add(urls[0]);
+        assertTrue(index.isComplete());
+
+        try (URLClassLoader loader = new URLClassLoader(urls, null))
+        {
+            for (String name : new String[]{"m/M.class", "m/N.class"})
+            {
+                assertEquals(String.valueOf(loader.findResource(name)), String.valueOf(index.findResource(name)), name);
+            }
+        }
+    }
+
+    @Test
+    public void testManifestClassPathIsNotComplete() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, "other.jar");
+        Path jar = createJar(dir.resolve("cp.jar"), manifest, "a/A.class");
+
+        ClassPathIndex index = new ClassPathIndex();
+        index.add(jar.toUri().toURL());
+        assertFalse(index.isComplete());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path store = dir.resolve("index").resolve("classpath.idx");
+        URL jar = createJar(dir.resolve("one.jar"), null, "a/A.class").toUri().toURL();
+
+        ClassPathIndex index = new ClassPathIndex(store);
+        index.add(jar);
+        index.save();
+        assertTrue(Files.exists(store));
+
+        ClassPathIndex loaded = new ClassPathIndex(store);
+        loaded.add(jar);
+        assertTrue(loaded.isComplete());
+        assertNotNull(loaded.findResource("a/A.class"));
+        assertEquals(index.findResource("a/A.class").toString(), loaded.findResource("a/A.class").toString());
+
+        // The index of a jar that has since been modified is not reused.
+        Path jarFile = createJar(dir.resolve("one.jar"), null, "a/A.class", "b/B.class");
+        Files.setLastModifiedTime(jarFile, FileTime.fromMillis(Files.getLastModifiedTime(jarFile).toMillis() + 10_000));
+        ClassPathIndex reloaded = new ClassPathIndex(store);
+        reloaded.add(jar);
+        assertNotNull(reloaded.findResource("b/B.class"));
+    }
+
+    private static Path createJar(Path jar, Manifest manifest, String... entries) throws Exception
+    {
+        try (JarOutputStream output = manifest == null ? new JarOutputStream(Files.newOutputStream(jar)) : new JarOutputStream(Files.newOutputStream(jar), manifest))
+        {
+            for (String entry : entries)
+            {
+                output.putNextEntry(new JarEntry(entry));
+                if (!entry.endsWith("/"))
+                    output.write(entry.getBytes(StandardCharsets.UTF_8));
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
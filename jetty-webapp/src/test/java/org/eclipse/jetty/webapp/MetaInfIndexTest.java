@@ -0,0 +1,153 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.webapp;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.resource.Resource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WorkDirExtension.class)
+public class MetaInfIndexTest
+{
+    public WorkDir workDir;
+
+    @Test
+    public void testIndexSurvivesRestart() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path indexDir = dir.resolve("index");
+        Resource jar = Resource.newResource(createJar(dir.resolve("test.jar"),
+            "META-INF/resources/index.html", "META-INF/web-fragment.xml", "META-INF/foo.tld", "META-INF/tags/bar.tld", "org/acme/Foo.class"));
+
+        MetaInfIndex index = new MetaInfIndex(indexDir);
+        assertTrue(index.isIndexable(jar));
+        MetaInfIndex.Entry entry = index.getEntry(jar);
+        assertTrue(entry.hasResources());
+        assertTrue(entry.hasFragment());
+        assertThat(entry.getTlds(), containsInAnyOrder("META-INF/foo.tld", "META-INF/tags/bar.tld"));
+        assertSame(entry, index.getEntry(jar));
+        assertEquals(1, countIndexFiles(indexDir));
+
+        // A new index, as after a restart, loads the entry from the index directory.
+        MetaInfIndex restarted = new MetaInfIndex(indexDir);
+        MetaInfIndex.Entry loaded = restarted.getEntry(jar);
+        assertTrue(loaded.hasResources());
+        assertTrue(loaded.hasFragment());
+        assertEquals(entry.getTlds(), loaded.getTlds());
+    }
+
+    @Test
+    public void testChangedJarIsIndexedAgain() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path indexDir = dir.resolve("index");
+        Path jarFile = dir.resolve("test.jar");
+        MetaInfIndex index = new MetaInfIndex(indexDir);
+
+        MetaInfIndex.Entry entry = index.getEntry(Resource.newResource(createJar(jarFile, "org/acme/Foo.class")));
+        assertFalse(entry.hasResources());
+        assertFalse(entry.hasFragment());
+        assertTrue(entry.getTlds().isEmpty());
+
+        entry = index.getEntry(Resource.newResource(createJar(jarFile, "org/acme/Foo.class", "META-INF/web-fragment.xml")));
+        assertFalse(entry.hasResources());
+        assertTrue(entry.hasFragment());
+        assertEquals(1, countIndexFiles(indexDir));
+    }
+
+    @Test
+    public void testJarChangedWithinModifiedResolutionIsIndexedAgain() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path indexDir = dir.resolve("index");
+        Path jarFile = dir.resolve("test.jar");
+        MetaInfIndex index = new MetaInfIndex(indexDir);
+
+        createJar(jarFile, "META-INF/foo.tld");
+        FileTime lastModified = Files.getLastModifiedTime(jarFile);
+        long length = Files.size(jarFile);
+        assertThat(index.getEntry(Resource.newResource(jarFile)).getTlds(), containsInAnyOrder("META-INF/foo.tld"));
+
+        // Same size and last modified time, only the content tells the jar apart.
+        createJar(jarFile, "META-INF/bar.tld");
+        Files.setLastModifiedTime(jarFile, lastModified);
+        assertEquals(length, Files.size(jarFile));
+        assertThat(index.getEntry(Resource.newResource(jarFile)).getTlds(), containsInAnyOrder("META-INF/bar.tld"));
+        assertThat(new MetaInfIndex(indexDir).getEntry(Resource.newResource(jarFile)).getTlds(), containsInAnyOrder("META-INF/bar.tld"));
+    }
+
+    @Test
+    public void testOldJarIsNotDigested() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path indexDir = dir.resolve("index");
+        Path jarFile = createJar(dir.resolve("test.jar"), "META-INF/foo.tld");
+        FileTime lastModified = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(jarFile, lastModified);
+        MetaInfIndex index = new MetaInfIndex(indexDir);
+        assertThat(index.getEntry(Resource.newResource(jarFile)).getTlds(), containsInAnyOrder("META-INF/foo.tld"));
+
+        // A change that keeps the size and last modified time is not detected,
+        // as the entry is trusted without reading the jar.
+        createJar(jarFile, "META-INF/bar.tld");
+        Files.setLastModifiedTime(jarFile, lastModified);
+        assertThat(new MetaInfIndex(indexDir).getEntry(Resource.newResource(jarFile)).getTlds(), containsInAnyOrder("META-INF/foo.tld"));
+    }
+
+    @Test
+    public void testDirectoryIsNotIndexable() throws Exception
+    {
+        MetaInfIndex index = new MetaInfIndex(workDir.getEmptyPathDir().resolve("index"));
+        assertFalse(index.isIndexable(Resource.newResource(workDir.getEmptyPathDir())));
+    }
+
+    private static long countIndexFiles(Path indexDir) throws Exception
+    {
+        try (Stream<Path> files = Files.list(indexDir))
+        {
+            return files.filter(p -> p.toString().endsWith(".metainf")).count();
+        }
+    }
+
+    private static Path createJar(Path jar, String... entries) throws Exception
+    {
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar)))
+        {
+            for (String entry : entries)
+            {
+                output.putNextEntry(new JarEntry(entry));
+                output.write(entry.getBytes(StandardCharsets.UTF_8));
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.xml;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
@@ -47,9 +48,12 @@ import java.util.Properties;
 import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.eclipse.jetty.util.ArrayUtil;
+import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.LazyList;
 import org.eclipse.jetty.util.Loader;
 import org.eclipse.jetty.util.MultiException;
@@ -77,9 +81,18 @@ import org.xml.sax.SAXException;
  * <p>The configuration can create and lookup beans by ID.  If multiple configurations are used, then it
  * is good practise to copy the entries from the {@link #getIdMap()} of a configuration to the next
  * configuration so that they can share an ID space for beans.</p>
+ * <p>The parsed XML files may be cached on disk by an {@link XmlConfigurationCache},
+ * configured with {@link #setCache(XmlConfigurationCache)} or with the
+ * {@value XmlConfigurationCache#CACHE_DIRECTORY} system property.
+ * The methods and constructors that the configuration invokes are resolved
+ * and sorted once per class.</p>
  */
 public class XmlConfiguration
 {
+    /**
+     * The system property that, when true, makes {@link #main(String...)} exit once the configured objects are started.
+     */
+    public static final String EXIT_AFTER_START = "org.eclipse.jetty.xml.XmlConfiguration.exitAfterStart";
     private static final Logger LOG = LoggerFactory.getLogger(XmlConfiguration.class);
     private static final Class<?>[] PRIMITIVES =
         {
@@ -142,6 +155,56 @@ public class XmlConfiguration
 
         return compare;
     };
+    private static final ClassValue<Map<String, Method[]>> METHODS = new ClassValue<>()
+    {
+        @Override
+        protected Map<String, Method[]> computeValue(Class<?> type)
+        {
+            Method[] methods = type.getMethods();
+            Arrays.sort(methods, EXECUTABLE_COMPARATOR);
+            Map<String, Method[]> byName = new HashMap<>();
+            for (Method method : methods)
+            {
+                byName.compute(method.getName(), (name, named) -> named == null ? new Method[]{method} : ArrayUtil.addToArray(named, method, Method.class));
+            }
+            return byName;
+        }
+    };
+    private static final ClassValue<Constructor<?>[]> CONSTRUCTORS = new ClassValue<>()
+    {
+        @Override
+        protected Constructor<?>[] computeValue(Class<?> type)
+        {
+            Constructor<?>[] constructors = type.getConstructors();
+            Arrays.sort(constructors, EXECUTABLE_COMPARATOR);
+            return constructors;
+        }
+    };
+    private static volatile XmlConfigurationCache __cache = newCache();
+
+    private static XmlConfigurationCache newCache()
+    {
+        String directory = System.getProperty(XmlConfigurationCache.CACHE_DIRECTORY);
+        if (StringUtil.isBlank(directory))
+            return null;
+        return new XmlConfigurationCache(Paths.get(directory));
+    }
+
+    /**
+     * @return the cache of parsed XML files, or null if parsed XML files are not cached
+     */
+    public static XmlConfigurationCache getCache()
+    {
+        return __cache;
+    }
+
+    /**
+     * @param cache the cache of parsed XML files, or null to not cache parsed XML files
+     */
+    public static void setCache(XmlConfigurationCache cache)
+    {
+        __cache = cache;
+    }
 
     /**
      * Set the standard IDs and properties expected in a jetty XML file:
@@ -198,6 +261,9 @@ public class XmlConfiguration
     private final Map<String, String> _propertyMap = new HashMap<>();
     private final Resource _location;
     private final String _dtd;
+    private final boolean _cached;
+    private final long _parseNanos;
+    private long _configureNanos;
     private ConfigurationProcessor _processor;
 
     ConfigurationParser getParser()
@@ -217,12 +283,42 @@ public class XmlConfiguration
      */
     public XmlConfiguration(Resource resource) throws SAXException, IOException
     {
-        try (ConfigurationParser parser = getParser(); InputStream inputStream = resource.getInputStream())
+        long begin = System.nanoTime();
+        _location = resource;
+        XmlConfigurationCache cache = __cache;
+        if (cache == null)
         {
-            _location = resource;
-            setConfig(parser.parse(inputStream));
-            _dtd = parser.getDTD();
+            try (ConfigurationParser parser = getParser(); InputStream inputStream = resource.getInputStream())
+            {
+                setConfig(parser.parse(inputStream));
+                _dtd = parser.getDTD();
+            }
+            _cached = false;
+        }
+        else
+        {
+            byte[] content;
+            try (InputStream inputStream = resource.getInputStream())
+            {
+                content = IO.readBytes(inputStream);
+            }
+            String key = cache.key(content);
+            XmlConfigurationCache.Entry entry = cache.load(key);
+            _cached = entry != null;
+            if (entry == null)
+            {
+                try (ConfigurationParser parser = getParser())
+                {
+                    entry = new XmlConfigurationCache.Entry(parser.parse(new ByteArrayInputStream(content)), parser.getDTD());
+                }
+                cache.store(key, entry);
+            }
+            setConfig(entry.getRoot());
+            _dtd = entry.getDTD();
         }
+        _parseNanos = System.nanoTime() - begin;
+        if (LOG.isDebugEnabled())
+            LOG.debug("Parsed {} in {}ms{}", resource, TimeUnit.NANOSECONDS.toMillis(_parseNanos), _cached ? " (cached)" : "");
     }
 
     @Override
@@ -290,6 +386,32 @@ public class XmlConfiguration
         return _propertyMap;
     }
 
+    /**
+     * @return whether the XML file was loaded from the {@link #getCache() cache} rather than parsed
+     */
+    public boolean isCached()
+    {
+        return _cached;
+    }
+
+    /**
+     * @param unit the unit of the returned time
+     * @return the time taken to parse, or load from the cache, the XML file
+     */
+    public long getParseTime(TimeUnit unit)
+    {
+        return unit.convert(_parseNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the unit of the returned time
+     * @return the time taken by the calls to {@link #configure()} and {@link #configure(Object)}
+     */
+    public long getConfigureTime(TimeUnit unit)
+    {
+        return unit.convert(_configureNanos, TimeUnit.NANOSECONDS);
+    }
+
     /**
      * Applies the XML configuration script to the given object.
      *
@@ -300,7 +422,15 @@ public class XmlConfiguration
      */
     public Object configure(Object obj) throws Exception
     {
-        return _processor.configure(obj);
+        long begin = System.nanoTime();
+        try
+        {
+            return _processor.configure(obj);
+        }
+        finally
+        {
+            configured(begin);
+        }
     }
 
     /**
@@ -316,7 +446,23 @@ public class XmlConfiguration
     {
         if (LOG.isDebugEnabled())
             LOG.debug("Configure {}", _location);
-        return _processor.configure();
+        long begin = System.nanoTime();
+        try
+        {
+            return _processor.configure();
+        }
+        finally
+        {
+            configured(begin);
+        }
+    }
+
+    private void configured(long begin)
+    {
+        long elapsed = System.nanoTime() - begin;
+        _configureNanos += elapsed;
+        if (LOG.isDebugEnabled())
+            LOG.debug("Configured {} in {}ms", _location, TimeUnit.NANOSECONDS.toMillis(elapsed));
     }
 
     /**
@@ -918,12 +1064,11 @@ public class XmlConfiguration
 
             // Lets just try all methods for now
 
-            Method[] methods = oClass.getMethods();
-            Arrays.sort(methods, EXECUTABLE_COMPARATOR);
+            Method[] methods = METHODS.get(oClass).get(methodName);
+            if (methods == null)
+                throw new NoSuchMethodException(methodName);
             for (Method method : methods)
             {
-                if (!method.getName().equals(methodName))
-                    continue;
                 Object[] arguments = args.applyTo(method);
                 if (arguments == null)
                     continue;
@@ -986,8 +1131,7 @@ public class XmlConfiguration
             Objects.requireNonNull(klass, "Class cannot be null");
             Objects.requireNonNull(args, "Named list cannot be null");
 
-            Constructor<?>[] constructors = klass.getConstructors();
-            Arrays.sort(constructors, EXECUTABLE_COMPARATOR);
+            Constructor<?>[] constructors = CONSTRUCTORS.get(klass);
             for (Constructor<?> constructor : constructors)
             {
                 try
@@ -1768,6 +1912,7 @@ public class XmlConfiguration
      * Each configuration file on the command line is used to create a new XmlConfiguration instance and the
      * {@link XmlConfiguration#configure()} method is used to create the configured object.
      * If the resulting object is an instance of {@link LifeCycle}, then it is started.
+     * If the {@value #EXIT_AFTER_START} system property is true, the JVM then exits.
      * <p>
      * Any IDs created in a configuration are passed to the next configuration file on the command line using {@link #getIdMap()}.
      * This allows objects with IDs created in one config file to be referenced in subsequent config files on the command line.
@@ -1854,6 +1999,10 @@ public class XmlConfiguration
                 }
                 return null;
             });
+
+            // Exit once started, for example to record the classes loaded while starting.
+            if (Boolean.getBoolean(EXIT_AFTER_START))
+                System.exit(0);
         }
         catch (Error | Exception e)
         {
@@ -0,0 +1,306 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.eclipse.jetty.util.TypeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * <p>An on-disk cache of parsed {@link XmlConfiguration} files.</p>
+ * <p>The first time an XML file is loaded, the tree of {@link XmlParser.Node}s produced
+ * by the (possibly validating) {@link XmlParser} is stored in a cache file whose name is
+ * derived from the SHA-256 digest of the XML content, the class path and the parser
+ * validation mode. Subsequent loads of the same content rebuild the tree from
+ * the cache file, without running the SAX parser nor resolving and validating the DTD.</p>
+ * <p>A file whose content changes has a different digest, so stale cache files are never
+ * read and can be deleted at any time. Cache files are written to a temporary file and
+ * atomically moved in place, so the cache directory can be shared between servers.</p>
+ *
+ * @see XmlConfiguration#setCache(XmlConfigurationCache)
+ */
+public class XmlConfigurationCache
+{
+    /**
+     * The name of the system property that specifies the default cache directory.
+     */
+    public static final String CACHE_DIRECTORY = "org.eclipse.jetty.xml.XmlConfiguration.cacheDirectory";
+
+    private static final Logger LOG = LoggerFactory.getLogger(XmlConfigurationCache.class);
+    private static final int MAGIC = 0x4A584D4C;
+    private static final int FORMAT = 1;
+    private static final byte END = 0;
+    private static final byte NODE = 1;
+    private static final byte TEXT = 2;
+
+    private final Path directory;
+
+    /**
+     * @param directory the directory where the cache files are stored
+     */
+    public XmlConfigurationCache(Path directory)
+    {
+        this.directory = directory;
+    }
+
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * @param content the XML content
+     * @return the cache key of the given XML content
+     * @throws IOException if the key cannot be computed
+     */
+    String key(byte[] content) throws IOException
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+            digest.update(String.valueOf(System.getProperty("java.class.path")).getBytes(StandardCharsets.UTF_8));
+            digest.update(String.valueOf(System.getProperty("org.eclipse.jetty.xml.XmlParser.Validating")).getBytes(StandardCharsets.UTF_8));
+            return TypeUtil.toHexString(digest.digest()) + "-" + FORMAT;
+        }
+        catch (NoSuchAlgorithmException x)
+        {
+            throw new IOException(x);
+        }
+    }
+
+    /**
+     * @param key the cache key
+     * @return the cached entry, or null if there is no valid cache file for the key
+     */
+    Entry load(String key)
+    {
+        Path cacheFile = directory.resolve(key + ".xml.cache");
+        byte[] bytes;
+        try
+        {
+            bytes = Files.readAllBytes(cacheFile);
+        }
+        catch (NoSuchFileException x)
+        {
+            return null;
+        }
+        catch (IOException x)
+        {
+            LOG.warn("Unable to read XML configuration cache file {}", cacheFile, x);
+            return null;
+        }
+
+        if (bytes.length < 9 || bytes[bytes.length - 1] != END)
+            return null;
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes)))
+        {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT)
+                return null;
+            String dtd = readString(input);
+            // The root node has a parent without tag, as if produced by the parser.
+            XmlParser.Node root = readNode(input, new XmlParser.Node(null, null, null));
+            if (input.readByte() != END || input.available() > 0)
+                return null;
+            if (LOG.isDebugEnabled())
+                LOG.debug("Loaded {}", cacheFile);
+            return new Entry(root, dtd);
+        }
+        catch (IOException | RuntimeException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Invalid XML configuration cache file {}", cacheFile, x);
+            return null;
+        }
+    }
+
+    /**
+     * @param key the cache key
+     * @param entry the entry to store
+     */
+    void store(String key, Entry entry)
+    {
+        Path cacheFile = directory.resolve(key + ".xml.cache");
+        Path tmp = null;
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes))
+            {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT);
+                writeString(output, entry.getDTD());
+                writeNode(output, entry.getRoot());
+                output.writeByte(END);
+            }
+
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Stored {}", cacheFile);
+        }
+        catch (IOException x)
+        {
+            LOG.warn("Unable to store XML configuration cache file {}", cacheFile, x);
+            try
+            {
+                if (tmp != null)
+                    Files.deleteIfExists(tmp);
+            }
+            catch (IOException ignored)
+            {
+                // Ignored.
+            }
+        }
+    }
+
+    private static XmlParser.Node readNode(DataInputStream input, XmlParser.Node parent) throws IOException
+    {
+        String tag = readString(input);
+        int count = input.readInt();
+        AttributesImpl attributes = null;
+        if (count >= 0)
+        {
+            attributes = new AttributesImpl();
+            for (int i = 0; i < count; ++i)
+            {
+                String name = readString(input);
+                attributes.addAttribute("", name, name, "CDATA", readString(input));
+            }
+        }
+        XmlParser.Node node = new XmlParser.Node(parent, tag, attributes);
+        parent.add(node);
+
+        int children = input.readInt();
+        for (int i = 0; i < children; ++i)
+        {
+            byte type = input.readByte();
+            switch (type)
+            {
+                case NODE:
+                    readNode(input, node);
+                    break;
+                case TEXT:
+                    node.add(readString(input));
+                    break;
+                default:
+                    throw new IOException("Invalid cache record " + type);
+            }
+        }
+        return node;
+    }
+
+    private static void writeNode(DataOutputStream output, XmlParser.Node node) throws IOException
+    {
+        writeString(output, node.getTag());
+        XmlParser.Attribute[] attributes = node.getAttributes();
+        output.writeInt(attributes == null ? -1 : attributes.length);
+        if (attributes != null)
+        {
+            for (XmlParser.Attribute attribute : attributes)
+            {
+                writeString(output, attribute.getName());
+                writeString(output, attribute.getValue());
+            }
+        }
+
+        output.writeInt(node.size());
+        for (Object child : node)
+        {
+            if (child instanceof XmlParser.Node)
+            {
+                output.writeByte(NODE);
+                writeNode(output, (XmlParser.Node)child);
+            }
+            else
+            {
+                output.writeByte(TEXT);
+                writeString(output, String.valueOf(child));
+            }
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException
+    {
+        if (string == null)
+        {
+            output.writeInt(-1);
+        }
+        else
+        {
+            // Not writeUTF(), as text content may be longer than 64 KiB.
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[%s]", getClass().getSimpleName(), hashCode(), directory);
+    }
+
+    /**
+     * A parsed XML configuration: the root node and the DTD it declares.
+     */
+    static class Entry
+    {
+        private final XmlParser.Node root;
+        private final String dtd;
+
+        Entry(XmlParser.Node root, String dtd)
+        {
+            this.root = root;
+            this.dtd = dtd;
+        }
+
+        XmlParser.Node getRoot()
+        {
+            return root;
+        }
+
+        String getDTD()
+        {
+            return dtd;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.xml;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.resource.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WorkDirExtension.class)
+public class XmlConfigurationCacheTest
+{
+    public WorkDir workDir;
+
+    @AfterEach
+    public void dispose()
+    {
+        XmlConfiguration.setCache(null);
+    }
+
+    private static List<Path> cacheFiles(Path directory) throws Exception
+    {
+        try (Stream<Path> files = Files.list(directory))
+        {
+            return files.filter(p -> p.toString().endsWith(".xml.cache")).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception
+    {
+        Path directory = workDir.getEmptyPathDir();
+        XmlConfigurationCache cache = new XmlConfigurationCache(directory);
+        URL url = XmlConfigurationCacheTest.class.getClassLoader().getResource("org/eclipse/jetty/xml/configureWithElements.xml");
+        assertNotNull(url);
+
+        XmlParser parser = new XmlParser(false);
+        parser.redirectEntity("configure_10_0.dtd", XmlConfiguration.class.getResource("configure_10_0.dtd"));
+        XmlParser.Node root = parser.parse(url.toString());
+        byte[] content = Files.readAllBytes(Path.of(url.toURI()));
+        String key = cache.key(content);
+        assertNull(cache.load(key));
+
+        cache.store(key, new XmlConfigurationCache.Entry(root, "configure_10_0.dtd"));
+        XmlConfigurationCache.Entry entry = cache.load(key);
+        assertNotNull(entry);
+        assertEquals("configure_10_0.dtd", entry.getDTD());
+        assertEquals(root.toString(), entry.getRoot().toString());
+        assertEquals(root.getPath(), entry.getRoot().getPath());
+    }
+
+    @Test
+    public void testInvalidCacheFileIsMiss() throws Exception
+    {
+        Path directory = workDir.getEmptyPathDir();
+        XmlConfigurationCache cache = new XmlConfigurationCache(directory);
+        XmlParser.Node root = new XmlParser.Node(null, "Configure", null);
+        String key = cache.key(new byte[]{1, 2, 3});
+        cache.store(key, new XmlConfigurationCache.Entry(root, null));
+        assertNotNull(cache.load(key));
+
+        Path cacheFile = cacheFiles(directory).get(0);
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        Files.write(cacheFile, Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(cache.load(key));
+    }
+
+    @Test
+    public void testConfigureFromCache() throws Exception
+    {
+        Path directory = workDir.getEmptyPathDir();
+        XmlConfiguration.setCache(new XmlConfigurationCache(directory));
+        URL url = XmlConfigurationCacheTest.class.getClassLoader().getResource("org/eclipse/jetty/xml/configureWithAttr.xml");
+        assertNotNull(url);
+
+        for (int i = 0; i < 2; ++i)
+        {
+            XmlConfiguration configuration = new XmlConfiguration(Resource.newResource(url));
+            assertEquals(i > 0, configuration.isCached());
+            configuration.getProperties().put("whatever", "xxx");
+            TestConfiguration.VALUE = 77;
+            TestConfiguration tc = new TestConfiguration("tc");
+            configuration.configure(tc);
+            assertEquals("SetValue", tc.testObject);
+            assertEquals(2, tc.testInt);
+            assertEquals("PutValue", tc.get("Test"));
+            assertTrue(configuration.getParseTime(TimeUnit.NANOSECONDS) > 0);
+            assertTrue(configuration.getConfigureTime(TimeUnit.NANOSECONDS) > 0);
+        }
+        assertEquals(1, cacheFiles(directory).size());
+    }
+}
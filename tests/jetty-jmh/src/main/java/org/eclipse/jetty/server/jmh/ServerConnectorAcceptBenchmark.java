@@ -0,0 +1,151 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.jmh;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the rate at which new connections are established and served
+ * by a {@link ServerConnector}, comparing acceptor threads, a single selector
+ * acceptor and one {@code SO_REUSEPORT} listening socket per selector.
+ */
+@State(Scope.Benchmark)
+@Threads(16)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class ServerConnectorAcceptBenchmark
+{
+    private static final byte[] REQUEST = "GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    @Param({"ACCEPTOR_THREADS", "SELECTOR_ACCEPTOR", "REUSE_PORT"})
+    public static String acceptMode;
+
+    @Param({"4"})
+    public static int selectors;
+
+    private Server _server;
+    private int _port;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws Exception
+    {
+        int acceptors;
+        boolean reusePort;
+        switch (acceptMode)
+        {
+            case "ACCEPTOR_THREADS":
+                acceptors = Math.max(1, selectors / 2);
+                reusePort = false;
+                break;
+
+            case "SELECTOR_ACCEPTOR":
+                acceptors = 0;
+                reusePort = false;
+                break;
+
+            case "REUSE_PORT":
+                acceptors = 0;
+                reusePort = true;
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown acceptMode Parameter");
+        }
+
+        QueuedThreadPool threadPool = new QueuedThreadPool(200);
+        _server = new Server(threadPool);
+        ServerConnector connector = new ServerConnector(_server, acceptors, selectors);
+        connector.setReusePort(reusePort);
+        connector.setAcceptQueueSize(1024);
+        _server.addConnector(connector);
+        _server.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                baseRequest.setHandled(true);
+            }
+        });
+        _server.start();
+        _port = connector.getLocalPort();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopTrial() throws Exception
+    {
+        _server.stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public long testConnect() throws Exception
+    {
+        try (Socket socket = new Socket("localhost", _port))
+        {
+            OutputStream output = socket.getOutputStream();
+            output.write(REQUEST);
+            output.flush();
+
+            // Read the response until the server closes the connection.
+            InputStream input = socket.getInputStream();
+            byte[] buffer = new byte[512];
+            long total = 0;
+            while (true)
+            {
+                int read = input.read(buffer);
+                if (read < 0)
+                    return total;
+                total += read;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(ServerConnectorAcceptBenchmark.class.getSimpleName())
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
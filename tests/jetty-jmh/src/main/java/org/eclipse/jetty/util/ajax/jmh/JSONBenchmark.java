@@ -0,0 +1,150 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.ajax.jmh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.ajax.AsyncJSON;
+import org.eclipse.jetty.util.ajax.JSON;
+import org.eclipse.jetty.util.ajax.JSONGenerator;
+import org.eclipse.jetty.util.ajax.JSONPullParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class JSONBenchmark
+{
+    @Param({"1", "100"})
+    int messages;
+
+    JSON json;
+    AsyncJSON.Factory factory;
+    JSONPullParser pullParser;
+    List<Map<String, Object>> objects;
+    byte[] bytes;
+    ByteBuffer buffer;
+    JSONGenerator generator;
+
+    @Setup
+    public void setUp()
+    {
+        json = new JSON();
+        factory = new AsyncJSON.Factory();
+        factory.cache("channel");
+        factory.cache("clientId");
+        factory.cache("data");
+        factory.cache("/chat/room");
+        pullParser = factory.newJSONPullParser();
+
+        objects = new ArrayList<>();
+        for (int i = 0; i < messages; ++i)
+        {
+            Map<String, Object> object = new HashMap<>();
+            object.put("channel", "/chat/room");
+            object.put("clientId", "3a8bf1c2d7e9" + i);
+            object.put("id", i);
+            object.put("data", Map.of("user", "user-" + i, "text", "Hello, World! €", "flags", List.of(true, false)));
+            objects.add(object);
+        }
+        bytes = json.toJSON(objects).getBytes(StandardCharsets.UTF_8);
+
+        buffer = ByteBuffer.allocateDirect(bytes.length + 1024);
+        generator = new JSONGenerator(ByteBuffer.allocateDirect(4096), (chunk, last) -> buffer.put(chunk));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testParseJSON()
+    {
+        return json.fromJSON(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testParseAsyncJSON()
+    {
+        AsyncJSON parser = factory.newAsyncJSON();
+        parser.parse(ByteBuffer.wrap(bytes));
+        return parser.complete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void testParseJSONPullParser(Blackhole blackhole)
+    {
+        pullParser.feed(ByteBuffer.wrap(bytes));
+        pullParser.complete();
+        while (true)
+        {
+            JSONPullParser.Event event = pullParser.next();
+            if (event == JSONPullParser.Event.END)
+                break;
+            if (event == JSONPullParser.Event.FIELD_NAME || event == JSONPullParser.Event.STRING)
+                blackhole.consume(pullParser.getString());
+            else if (event == JSONPullParser.Event.NUMBER)
+                blackhole.consume(pullParser.getLong());
+        }
+        pullParser.reset();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testGenerateJSON()
+    {
+        return ByteBuffer.wrap(json.toJSON(objects).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testGenerateJSONGenerator() throws IOException
+    {
+        buffer.clear();
+        generator.writeObject(objects);
+        generator.complete();
+        return buffer.flip();
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(JSONBenchmark.class.getSimpleName())
+            .forks(1)
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
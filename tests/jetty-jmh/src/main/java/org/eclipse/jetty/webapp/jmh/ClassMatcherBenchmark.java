@@ -0,0 +1,123 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.webapp.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.webapp.ClassMatcher;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the matching of the compiled {@link ClassMatcher}, for a few
+ * classes and for more distinct class names than a webapp usually loads.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class ClassMatcherBenchmark
+{
+    private static final Class<?>[] CLASSES = {
+        String.class,
+        java.util.ArrayList.class,
+        ClassMatcher.class,
+        WebAppContext.class,
+        TypeUtil.class,
+        org.slf4j.Logger.class,
+        ClassMatcherBenchmark.class,
+        java.util.concurrent.ConcurrentHashMap.class
+    };
+
+    @Param({"default", "large"})
+    public String patterns;
+
+    private ClassMatcher matcher;
+    private String[] names;
+    private String[] distinctNames;
+    private int counter;
+
+    @Setup
+    public void setUp()
+    {
+        matcher = new ClassMatcher(WebAppContext.__dftServerClasses);
+        matcher.add(WebAppContext.__dftSystemClasses.getPatterns());
+        if ("large".equals(patterns))
+        {
+            for (int i = 0; i < 200; ++i)
+            {
+                matcher.add("com.acme.module" + i + ".");
+                matcher.add("-com.acme.module" + i + ".internal.");
+                matcher.add("org.example" + i + ".api.Service" + i);
+            }
+            matcher.add("-" + TypeUtil.getLocationOfClass(ClassMatcherBenchmark.class));
+            matcher.add("jrt:/java.sql");
+        }
+
+        names = new String[CLASSES.length];
+        for (int i = 0; i < CLASSES.length; ++i)
+        {
+            names[i] = CLASSES[i].getName();
+        }
+
+        distinctNames = new String[16384];
+        for (int i = 0; i < distinctNames.length; ++i)
+        {
+            distinctNames[i] = "com.acme.module" + (i % 256) + (i % 3 == 0 ? ".internal" : ".api") + ".Class" + i;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public boolean testMatchName()
+    {
+        return matcher.match(names[counter++ & (names.length - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public boolean testMatchDistinctNames()
+    {
+        return matcher.match(distinctNames[counter++ & (distinctNames.length - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public boolean testMatchClass()
+    {
+        return matcher.match(CLASSES[counter++ & (CLASSES.length - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(ClassMatcherBenchmark.class.getSimpleName())
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
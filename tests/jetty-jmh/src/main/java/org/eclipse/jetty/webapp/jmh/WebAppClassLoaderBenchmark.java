@@ -0,0 +1,148 @@
+//
+// ========================================================================
+// Copyright (c) 1995-2021 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.webapp.jmh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.resource.Resource;
+import org.eclipse.jetty.webapp.ClassPathIndex;
+import org.eclipse.jetty.webapp.WebAppClassLoader;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class WebAppClassLoaderBenchmark
+{
+    private static final String[] PARENT_CLASSES = {
+        "java.lang.String",
+        "java.util.ArrayList",
+        "java.util.concurrent.ConcurrentHashMap",
+        "java.io.InputStream",
+        "java.net.URL",
+        "java.nio.ByteBuffer",
+        "java.time.Instant",
+        "java.util.function.Function"
+    };
+
+    @Param({"20", "200"})
+    int jars;
+
+    @Param({"false", "true"})
+    boolean indexed;
+
+    Path dir;
+    WebAppClassLoader loader;
+    String firstResource;
+    String lastResource;
+    int counter;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        dir = Files.createTempDirectory("jmh-webapp-");
+        WebAppContext context = new WebAppContext();
+        loader = new WebAppClassLoader(WebAppClassLoader.class.getClassLoader(), context);
+        if (indexed)
+            loader.setClassPathIndex(new ClassPathIndex());
+        for (int j = 0; j < jars; ++j)
+        {
+            loader.addClassPath(Resource.newResource(createJar(dir.resolve("lib-" + j + ".jar"), j, 100)));
+        }
+        firstResource = "com/acme/lib0/Class0.class";
+        lastResource = "com/acme/lib" + (jars - 1) + "/Class99.class";
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        loader.close();
+        IO.delete(dir.toFile());
+    }
+
+    private static Path createJar(Path jar, int index, int entries) throws IOException
+    {
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar)))
+        {
+            output.putNextEntry(new JarEntry("com/acme/lib" + index + "/"));
+            output.closeEntry();
+            for (int i = 0; i < entries; ++i)
+            {
+                output.putNextEntry(new JarEntry("com/acme/lib" + index + "/Class" + i + ".class"));
+                output.write(new byte[64]);
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Class<?> testLoadParentClass() throws Exception
+    {
+        // With webapp first loading, every parent class is first looked up in the webapp jars.
+        return loader.loadClass(PARENT_CLASSES[counter++ & (PARENT_CLASSES.length - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testGetFirstJarResource()
+    {
+        return loader.getResource(firstResource);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testGetLastJarResource()
+    {
+        return loader.getResource(lastResource);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Object testGetMissingResource()
+    {
+        return loader.getResource("META-INF/services/com.acme.Missing");
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(WebAppClassLoaderBenchmark.class.getSimpleName())
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
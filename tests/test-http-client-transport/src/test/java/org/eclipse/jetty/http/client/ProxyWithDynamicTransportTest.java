@@ -56,6 +56,7 @@ import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
 import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.io.ClientConnectionFactory;
 import org.eclipse.jetty.io.ClientConnector;
+import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.proxy.AsyncProxyServlet;
 import org.eclipse.jetty.proxy.ConnectHandler;
@@ -288,6 +289,49 @@ public class ProxyWithDynamicTransportTest
         assertEquals(1, connectionPool.getConnectionCount());
     }
 
+    @Test
+    public void testProxyServletWithHTTP2Upstream() throws Exception
+    {
+        startServer(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response)
+            {
+                response.setHeader("X-Upstream-Protocol", request.getProtocol());
+            }
+        });
+
+        QueuedThreadPool proxyThreads = new QueuedThreadPool();
+        proxyThreads.setName("proxy");
+        proxy = new Server(proxyThreads);
+        proxyConnector = new ServerConnector(proxy, 1, 1);
+        proxy.addConnector(proxyConnector);
+        ServletContextHandler context = new ServletContextHandler(proxy, "/");
+        // The HTTP/2 transport is loaded by name from the protocols init parameter.
+        ServletHolder holder = new ServletHolder(AsyncProxyServlet.Transparent.class);
+        holder.setInitParameter("proxyTo", "http://localhost:" + serverConnector.getLocalPort());
+        holder.setInitParameter("protocols", "h2c,http/1.1");
+        context.addServlet(holder, "/*");
+        proxy.start();
+        startClient();
+
+        for (int i = 0; i < 2; ++i)
+        {
+            ContentResponse response = client.newRequest("localhost", proxyConnector.getLocalPort())
+                .timeout(5, TimeUnit.SECONDS)
+                .send();
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+            assertEquals(HttpVersion.HTTP_2.asString(), response.getHeaders().get("X-Upstream-Protocol"));
+        }
+
+        // The requests are multiplexed on a single HTTP/2 upstream connection.
+        List<Connection> upstreamConnections = serverConnector.getConnectedEndPoints().stream()
+            .map(EndPoint::getConnection)
+            .collect(Collectors.toList());
+        assertEquals(1, upstreamConnections.size());
+        assertThat(upstreamConnections.get(0), Matchers.instanceOf(HTTP2Connection.class));
+    }
+
     @Test
     public void testHTTP2TunnelClosedByClient() throws Exception
     {